@@ -0,0 +1,113 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.sim.physics.PhysicsCar;
+import com.zidi.CodeRacer.sim.physics.PhysicsWorld;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.vehicle.components.wheel.Wheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PhysicsWorld 一帧（60 Hz）：封闭场地 + 随机障碍，四分之一的车停着（会休眠），其余随机打方向、给油，
+ * 互相碰、撞墙。先跑 5 秒让接触和休眠进入稳态，再计时。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class Box2DBenchmark {
+
+    private static final float DT = 1f / 60f;
+    private static final int TILE_PX = 16;
+
+    @Param({"200", "400"})
+    public int cars;
+
+    @Param({"true", "false"})
+    public boolean carContacts;
+
+    private PhysicsWorld world;
+    private float[] steer, throttle;
+    private Random rnd;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        int side = 20 + (int) Math.ceil(Math.sqrt(cars) * 3.0);
+        TiledWorldUtils map = new TiledWorldUtils(arena(side, cars / 4, 7L), 1f / TILE_PX, side * TILE_PX);
+        PhysicsWorld.Config d = PhysicsWorld.Config.defaults();
+        world = new PhysicsWorld(map, new PhysicsWorld.Config(d.metersPerUnit(), d.velocityIterations(),
+            d.positionIterations(), carContacts, d.continuous(), d.sleeping()));
+
+        rnd = new Random(11L);
+        steer = new float[cars];
+        throttle = new float[cars];
+        int perRow = (int) Math.ceil(Math.sqrt(cars));
+        float spacing = (side - 4f) / perRow;
+        for (int i = 0; i < cars; i++) {
+            float x = 2f + spacing * (i % perRow + 0.5f), y = 2f + spacing * (i / perRow + 0.5f);
+            Pose pose = new Pose(x, y, rnd.nextFloat() * 6.283f, 0f);
+            Wheel[] wheels = new Wheel[PhysicsCar.WHEELS];
+            for (int k = 0; k < wheels.length; k++) wheels[k] = new WoodenWheel("b-wheel", "Wheel", "bench", 5, 5);
+            world.addCar(pose, PhysicsCar.Spec.defaults(), wheels);
+            throttle[i] = i % 4 == 0 ? 0f : 0.3f + 0.7f * rnd.nextFloat();
+        }
+        for (int i = 0; i < 300; i++) step();
+    }
+
+    /** 四周一圈墙 + obstacles 个随机方块（1~3 tile） */
+    private static TiledMap arena(int side, int obstacles, long seed) {
+        TiledMap map = new TiledMap();
+        MapProperties p = map.getProperties();
+        p.put("width", side);
+        p.put("height", side);
+        p.put("tilewidth", TILE_PX);
+        p.put("tileheight", TILE_PX);
+        MapLayer layer = new MapLayer();
+        layer.setName("Collision");
+        float s = side * TILE_PX, t = TILE_PX;
+        layer.getObjects().add(new RectangleMapObject(0, 0, s, t));
+        layer.getObjects().add(new RectangleMapObject(0, s - t, s, t));
+        layer.getObjects().add(new RectangleMapObject(0, 0, t, s));
+        layer.getObjects().add(new RectangleMapObject(s - t, 0, t, s));
+        Random rnd = new Random(seed);
+        for (int i = 0; i < obstacles; i++) {
+            float w = 1f + rnd.nextFloat() * 2f, h = 1f + rnd.nextFloat() * 2f;
+            float x = 2f + rnd.nextFloat() * (side - 4f - w), y = 2f + rnd.nextFloat() * (side - 4f - h);
+            layer.getObjects().add(new RectangleMapObject(x * TILE_PX, y * TILE_PX, w * TILE_PX, h * TILE_PX));
+        }
+        map.getLayers().add(layer);
+        return map;
+    }
+
+    @Benchmark
+    public float step() {
+        // 每 2 秒换一次方向
+        if (tick++ % 120 == 0) {
+            for (int i = 0; i < cars; i++) steer[i] = (rnd.nextFloat() - 0.5f) * 1.2f;
+        }
+        for (int i = 0; i < cars; i++) world.car(i).apply(steer[i], throttle[i], 0f);
+        world.step(DT);
+        return world.car(0).getX();
+    }
+
+    @TearDown
+    public void tearDown() {
+        world.dispose();
+    }
+}
@@ -0,0 +1,98 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.zidi.CodeRacer.vehicle.commands.CommandRunner;
+import com.zidi.CodeRacer.vehicle.commands.CommandScheduler;
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnLeft90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.WaitCommand;
+import com.zidi.CodeRacer.vehicle.components.frame.Impl.WoodenFrame;
+import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
+import com.zidi.CodeRacer.vehicle.runtime.adapters.FrameVehicleContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一帧推进 N 辆车的命令：每车一个 CommandRunner 逐个 update，对比 CommandScheduler.updateRange。
+ * 两边都是空闲时补 前进 / 左转 交替；每车每 EMERGENCY_EVERY 帧（错开）来一次急停：
+ * runner 只能 clear 后排一条 WaitCommand，scheduler 在 LONGITUDINAL 上按高优先级提交，抢占正在跑的命令。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandSchedulerBenchmark {
+
+    private static final float DT = 1f / 60f;
+    private static final int EMERGENCY_EVERY = 120;
+    private static final int EMERGENCY = 10;
+
+    @Param({"1000"})
+    public int cars;
+
+    private VehicleContext[] runnerCtx, schedCtx;
+    private CommandRunner[] runners;
+    private CommandScheduler[] schedulers;
+    private boolean[] runnerTurn, schedTurn;
+    private int tick;
+
+    @Setup
+    public void setup() {
+        runnerCtx = new VehicleContext[cars];
+        schedCtx = new VehicleContext[cars];
+        runners = new CommandRunner[cars];
+        schedulers = new CommandScheduler[cars];
+        runnerTurn = new boolean[cars];
+        schedTurn = new boolean[cars];
+        for (int i = 0; i < cars; i++) {
+            runnerCtx[i] = context(i);
+            schedCtx[i] = context(i);
+            runners[i] = new CommandRunner();
+            schedulers[i] = new CommandScheduler();
+        }
+    }
+
+    private static VehicleContext context(int i) {
+        WoodenFrame frame = new WoodenFrame("b-frame-" + i, "Frame", "bench", 5, 10);
+        frame.pose().set(i % 100, i / 100f, 0f, 5f);
+        return new FrameVehicleContext(frame);
+    }
+
+    @Benchmark
+    public CommandRunner[] runners() {
+        int t = tick++;
+        for (int i = 0; i < cars; i++) {
+            CommandRunner r = runners[i];
+            if ((t + i) % EMERGENCY_EVERY == 0) {
+                r.clear();
+                r.addCommand(new WaitCommand(0.2f));
+            } else if (r.isIdle()) {
+                r.addCommand((runnerTurn[i] = !runnerTurn[i]) ? new TurnLeft90Command(-1) : new MoveForwardCommentImpl());
+            }
+            r.update(DT, runnerCtx[i]);
+        }
+        return runners;
+    }
+
+    @Benchmark
+    public CommandScheduler[] schedulers() {
+        int t = tick++;
+        for (int i = 0; i < cars; i++) {
+            CommandScheduler s = schedulers[i];
+            if ((t + i) % EMERGENCY_EVERY == 0) {
+                s.add(new WaitCommand(0.2f), CommandScheduler.LONGITUDINAL, EMERGENCY);
+            } else if (s.isIdle()) {
+                s.add((schedTurn[i] = !schedTurn[i]) ? new TurnLeft90Command(-1) : new MoveForwardCommentImpl(),
+                    CommandScheduler.DRIVE);
+            }
+        }
+        CommandScheduler.updateRange(schedulers, schedCtx, 0, cars, DT);
+        return schedulers;
+    }
+}
@@ -0,0 +1,78 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.zidi.CodeRacer.vehicle.commands.CommandRunner;
+import com.zidi.CodeRacer.vehicle.commands.CommandScheduler;
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy;
+import com.zidi.CodeRacer.vehicle.components.frame.Impl.WoodenFrame;
+import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
+import com.zidi.CodeRacer.vehicle.runtime.adapters.FrameVehicleContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 决策与命令执行：StickyTurnPolicy.decide、CommandRunner.update（空闲时补一条前进命令，同 Simulation），
+ * 以及同样用法下的 CommandScheduler.update（命令占 DRIVE）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ControlBenchmark {
+
+    private static final int INPUTS = 4096;
+    private static final float DT = 1f / 60f;
+
+    private StickyTurnPolicy policy;
+    private float[] dF, dL, dR;
+    private int cursor;
+
+    private CommandRunner runner;
+    private CommandScheduler scheduler;
+    private VehicleContext ctx;
+
+    @Setup
+    public void setup() {
+        policy = new StickyTurnPolicy();
+        Random rnd = new Random(7L);
+        dF = new float[INPUTS]; dL = new float[INPUTS]; dR = new float[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            dF[i] = rnd.nextFloat() * 25f;
+            dL[i] = 1f + rnd.nextFloat() * 7f;
+            dR[i] = 1f + rnd.nextFloat() * 7f;
+        }
+
+        WoodenFrame frame = new WoodenFrame("b-frame", "Frame", "bench", 5, 10);
+        frame.pose().set(0f, 0f, 0f, 5f);
+        ctx = new FrameVehicleContext(frame);
+        runner = new CommandRunner();
+        scheduler = new CommandScheduler();
+    }
+
+    @Benchmark
+    public StickyTurnPolicy.Decision stickyTurnPolicyDecide() {
+        int i = cursor = (cursor + 1) & (INPUTS - 1);
+        return policy.decide(dF[i], dL[i], dR[i]);
+    }
+
+    @Benchmark
+    public boolean commandRunnerUpdate() {
+        if (runner.isIdle()) runner.addCommand(new MoveForwardCommentImpl());
+        runner.update(DT, ctx);
+        return runner.isIdle();
+    }
+
+    @Benchmark
+    public boolean commandSchedulerUpdate() {
+        if (scheduler.isIdle()) scheduler.add(new MoveForwardCommentImpl(), CommandScheduler.DRIVE);
+        scheduler.update(DT, ctx);
+        return scheduler.isIdle();
+    }
+}
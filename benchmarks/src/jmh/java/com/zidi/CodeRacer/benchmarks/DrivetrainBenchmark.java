@@ -0,0 +1,127 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.zidi.CodeRacer.sim.DrivetrainBatch;
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+import com.zidi.CodeRacer.vehicle.components.engine.Impl.SimpleEngineImpl;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一步推进 N 套动力链（发动机 + 4 轮）：逐个对象 update / preStep + step（打乱顺序放在堆上）
+ * 对比 DrivetrainBatch 的数组内核。两边输入相同；轮胎力 batch 用近似 tanh / atan，偏差 ≤ 2e-4 × μ·Fz。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DrivetrainBenchmark {
+
+    private static final float DT = 1f / 60f;
+
+    @Param({"1000"})
+    public int cars;
+
+    private SimpleEngineImpl[] engines;
+    private WoodenWheel[] wheels;
+    private float[] loadOmega, wheelIn;   // wheelIn：每轮 load, mu, omega, vx, vy
+    private DrivetrainBatch batch;
+
+    @Setup
+    public void setup() {
+        EngineSpec spec = new EngineSpec() {
+            @Override public float idleRpm()                     { return 900f; }
+            @Override public float redlineRpm()                  { return 7000f; }
+            @Override public float peakTorqueNm()                { return 180f; }
+            @Override public float peakTorqueRpm()               { return 4200f; }
+            @Override public float inertia()                     { return 0.15f; }
+            @Override public float fullThrottleFuelUnitsPerSec() { return 2f; }
+        };
+        Random rnd = new Random(13L);
+        batch = new DrivetrainBatch(cars);
+        engines = new SimpleEngineImpl[cars];
+        loadOmega = new float[cars];
+        wheelIn = new float[cars * DrivetrainBatch.WHEELS_PER_ENGINE * 5];
+        List<WoodenWheel> wheelList = new ArrayList<>();
+        WheelSpec[] specs = new WheelSpec[DrivetrainBatch.WHEELS_PER_ENGINE];
+        for (int e = 0; e < cars; e++) {
+            SimpleEngineImpl eng = new SimpleEngineImpl("b-engine", "Engine", "bench", 50, 10, spec);
+            float throttle = rnd.nextFloat();
+            eng.setThrottle(throttle);
+            engines[e] = eng;
+            batch.add(spec, null, fillSpecs(specs));
+            batch.setThrottle(e, throttle);
+            loadOmega[e] = 100f + rnd.nextFloat() * 500f;
+            batch.setLoadOmega(e, loadOmega[e]);
+            for (int k = 0; k < DrivetrainBatch.WHEELS_PER_ENGINE; k++) {
+                int w = e * DrivetrainBatch.WHEELS_PER_ENGINE + k;
+                WoodenWheel wheel = new WoodenWheel("b-wheel", "Wheel", "bench", 5, 5);
+                float steer = (rnd.nextFloat() - 0.5f) * 40f, drive = rnd.nextFloat() * 300f;
+                wheel.setTargetSteerDeg(steer);
+                wheel.setDriveTorque(drive);
+                batch.setTargetSteerDeg(w, steer);
+                batch.setDriveTorque(w, drive);
+                wheelList.add(wheel);
+                int o = w * 5;
+                wheelIn[o] = 2000f + rnd.nextFloat() * 2000f;
+                wheelIn[o + 1] = 0.4f + rnd.nextFloat() * 0.6f;
+                wheelIn[o + 2] = rnd.nextFloat() * 60f;
+                wheelIn[o + 3] = rnd.nextFloat() * 20f;
+                wheelIn[o + 4] = (rnd.nextFloat() - 0.5f) * 3f;
+                batch.setWheelInputs(w, wheelIn[o], wheelIn[o + 1], wheelIn[o + 2], wheelIn[o + 3], wheelIn[o + 4]);
+            }
+        }
+        // 轮子按车辆顺序对应输入，对象本身打乱分配顺序，接近真实的堆布局
+        wheels = wheelList.toArray(new WoodenWheel[0]);
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < wheels.length; i++) order.add(i);
+        Collections.shuffle(order, rnd);
+        WoodenWheel[] shuffled = new WoodenWheel[wheels.length];
+        float[] in = new float[wheelIn.length];
+        for (int i = 0; i < wheels.length; i++) {
+            shuffled[i] = wheels[order.get(i)];
+            System.arraycopy(wheelIn, order.get(i) * 5, in, i * 5, 5);
+        }
+        wheels = shuffled;
+        wheelIn = in;
+    }
+
+    private static WheelSpec[] fillSpecs(WheelSpec[] out) {
+        WheelSpec s = new WoodenWheel("spec", "Wheel", "bench", 5, 5).spec();
+        for (int k = 0; k < out.length; k++) out[k] = s;
+        return out;
+    }
+
+    @Benchmark
+    public float objectsStep() {
+        float sum = 0f;
+        for (int e = 0; e < engines.length; e++) sum += engines[e].update(DT, loadOmega[e]);
+        final float[] in = wheelIn;
+        for (int i = 0; i < wheels.length; i++) {
+            WoodenWheel w = wheels[i];
+            int o = i * 5;
+            w.preStep(DT, in[o], in[o + 1], in[o + 2], in[o + 3], in[o + 4]);
+            w.step(DT);
+            sum += w.getFx();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public DrivetrainBatch batchStep() {
+        batch.stepAll(DT);
+        return batch;
+    }
+}
@@ -0,0 +1,107 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+import com.zidi.CodeRacer.vehicle.components.engine.Impl.DrivetrainIntegrator;
+import com.zidi.CodeRacer.vehicle.components.engine.Impl.SimpleEngineImpl;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * N 辆车各推进 1 秒（60 帧）纵向动力链：自适应 ROS2（60 Hz 外层）对比同一积分器 1 kHz 定步。
+ * 每次迭代用快照把发动机恢复到怠速、车停住，前半秒全油门、后半秒刹车，覆盖起步和刹车两段刚性工况。
+ * 结果除以 cars 就是每车每秒的开销。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DrivetrainIntegratorBenchmark {
+
+    private static final float DT = 1f / 60f;
+    private static final int TICKS = 60;
+
+    @Param({"200"})
+    public int cars;
+
+    private SimpleEngineImpl[] engines;
+    private DrivetrainIntegrator[] adaptive, fixed1k;
+    private float[] mu;
+    private final ByteBuffer idleState = ByteBuffer.allocate(64);
+
+    @Setup
+    public void setup() {
+        EngineSpec spec = new EngineSpec() {
+            @Override public float idleRpm()                     { return 900f; }
+            @Override public float redlineRpm()                  { return 7000f; }
+            @Override public float peakTorqueNm()                { return 180f; }
+            @Override public float peakTorqueRpm()               { return 4200f; }
+            @Override public float inertia()                     { return 0.15f; }
+            @Override public float fullThrottleFuelUnitsPerSec() { return 2f; }
+        };
+        WheelSpec wheel = new WoodenWheel("b-wheel", "Wheel", "bench", 5, 5).spec();
+        DrivetrainIntegrator.Params p = new DrivetrainIntegrator.Params(900f, 0.5f, 8f, 1.2f);
+        Random rnd = new Random(17L);
+        engines = new SimpleEngineImpl[cars * 2];
+        adaptive = new DrivetrainIntegrator[cars];
+        fixed1k = new DrivetrainIntegrator[cars];
+        mu = new float[cars];
+        for (int i = 0; i < cars; i++) {
+            SimpleEngineImpl a = new SimpleEngineImpl("b-engine", "Engine", "bench", 50, 10, spec);
+            SimpleEngineImpl f = new SimpleEngineImpl("b-engine", "Engine", "bench", 50, 10, spec);
+            engines[2 * i] = a;
+            engines[2 * i + 1] = f;
+            adaptive[i] = new DrivetrainIntegrator(a, wheel, p);
+            fixed1k[i] = new DrivetrainIntegrator(f, wheel, p).setAdaptive(false).setMaxStep(1e-3f);
+            mu[i] = 0.6f + rnd.nextFloat() * 0.4f;
+        }
+        engines[0].writeState(idleState);
+        idleState.flip();
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        for (SimpleEngineImpl e : engines) {
+            e.readState(idleState);
+            idleState.rewind();
+        }
+        for (int i = 0; i < cars; i++) {
+            adaptive[i].setSpeed(0f);
+            fixed1k[i].setSpeed(0f);
+        }
+    }
+
+    @Benchmark
+    public float adaptive60Hz() {
+        return run(adaptive, 0);
+    }
+
+    @Benchmark
+    public float fixed1kHz() {
+        return run(fixed1k, 1);
+    }
+
+    private float run(DrivetrainIntegrator[] ds, int engineOffset) {
+        float sum = 0f;
+        for (int t = 0; t < TICKS; t++) {
+            boolean braking = t >= TICKS / 2;
+            for (int i = 0; i < ds.length; i++) {
+                engines[2 * i + engineOffset].setThrottle(braking ? 0f : 1f);
+                ds[i].step(DT, mu[i], braking ? 800f : 0f);
+                sum += ds[i].speed();
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,96 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.world.nav.GridPathPlanner;
+import com.zidi.CodeRacer.world.nav.OccupancyGrid;
+import com.zidi.CodeRacer.world.nav.Path;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 栅格规划：100000 个矩形的合成地图按 1 tile 栅格化约 949×949 格。
+ * 全新规划（每次换 goal）、同 goal 下障碍变化后的增量重规划、缓存命中。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NavBenchmark {
+
+    private static final int QUERIES = 16;
+
+    @Param({"10000", "100000"})
+    public int rects;
+
+    private OccupancyGrid grid;
+    private GridPathPlanner planner;
+    private int[] starts, goals;
+    private int side, cursor;
+    private final Random rnd = new Random(5L);
+
+    @Setup
+    public void setup() {
+        TiledWorldUtils world = SyntheticMaps.world(SyntheticMaps.map(rects, 42L));
+        side = SyntheticMaps.sideTiles(rects);
+        grid = OccupancyGrid.fromWorld(world, side, side, 1f, 0f);
+        planner = new GridPathPlanner(grid);
+
+        // 取相距至少半幅地图、且互相可达的点对
+        starts = new int[QUERIES];
+        goals = new int[QUERIES];
+        GridPathPlanner probe = new GridPathPlanner(grid, 0, 1f);
+        Random r = new Random(9L);
+        for (int i = 0; i < QUERIES; ) {
+            int s = freeCell(r), g = freeCell(r);
+            int dx = s % side - g % side, dy = s / side - g / side;
+            if (dx * dx + dy * dy < side * side / 4) continue;
+            if (probe.planCells(s, g) == null) continue;
+            starts[i] = s;
+            goals[i] = g;
+            i++;
+        }
+    }
+
+    private int freeCell(Random r) {
+        while (true) {
+            int c = r.nextInt(side * side);
+            if (!grid.isBlocked(c)) return c;
+        }
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (QUERIES - 1);
+    }
+
+    /** 每次换 goal：D* Lite 的首轮搜索（等价于反向 A*） */
+    @Benchmark
+    public int[] planFresh() {
+        int i = next();
+        return planner.planCells(starts[i], goals[i]);
+    }
+
+    /** 同一 goal：在起点附近放/拆一个障碍再规划，只修补受影响的部分 */
+    @Benchmark
+    public int[] replanAfterChange() {
+        int s = starts[0], g = goals[0];
+        int cx = s % side + 3 + rnd.nextInt(5), cy = s / side - 2 + rnd.nextInt(5);
+        if (grid.cell(cx, cy) != g) grid.set(cx, cy, !grid.isBlocked(cx, cy));
+        return planner.planCells(s, g);
+    }
+
+    /** (起点格, 终点格) 命中缓存 */
+    @Benchmark
+    public Path planCached() {
+        int s = starts[0], g = goals[0];
+        return planner.plan(grid.centerX(s % side), grid.centerY(s / side),
+                            grid.centerX(g % side), grid.centerY(g / side));
+    }
+}
@@ -0,0 +1,129 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+import com.zidi.CodeRacer.vehicle.components.engine.Impl.SimpleEngineImpl;
+import com.zidi.CodeRacer.vehicle.components.fuelTank.Impl.WoodenFuelTank;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.world.nav.Path;
+import com.zidi.CodeRacer.world.nav.PathSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** 动力学单步：DefaultEngine.update、DefaultWheel.preStep+step、PathSampler.nearestIndex / 全局重定位 / 按弧长前视 */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PhysicsBenchmark {
+
+    private static final int INPUTS = 4096;
+    private static final float DT = 1f / 60f;
+    private static final int PATH_POINTS = 2048;
+
+    private SimpleEngineImpl engine;
+    private WoodenFuelTank tank;
+    private WoodenWheel wheel;
+    private float[] throttle, loadOmega, slip;
+
+    private Path path;
+    private Vector2[] probes;
+    private int hint;
+    private int cursor;
+    private final Path.Projection proj = new Path.Projection();
+    private final Vector2 target = new Vector2();
+
+    @Setup
+    public void setup() {
+        EngineSpec spec = new EngineSpec() {
+            @Override public float idleRpm()                     { return 900f; }
+            @Override public float redlineRpm()                  { return 7000f; }
+            @Override public float peakTorqueNm()                { return 180f; }
+            @Override public float peakTorqueRpm()               { return 4200f; }
+            @Override public float inertia()                     { return 0.15f; }
+            @Override public float fullThrottleFuelUnitsPerSec() { return 2f; }
+        };
+        engine = new SimpleEngineImpl("b-engine", "Engine", "bench", 50, 10, spec);
+        tank = new WoodenFuelTank("b-tank", "Tank", "bench", 5, 5);
+        engine.attachFuelTank(tank);
+        wheel = new WoodenWheel("b-wheel", "Wheel", "bench", 5, 5);
+
+        Random rnd = new Random(3L);
+        throttle = new float[INPUTS]; loadOmega = new float[INPUTS]; slip = new float[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            throttle[i]  = rnd.nextFloat();
+            loadOmega[i] = 100f + rnd.nextFloat() * 500f;
+            slip[i]      = (rnd.nextFloat() * 2f - 1f) * 0.3f;
+        }
+
+        // 闭合圆形路径 + 沿路径前进、带少量横向噪声的探测点（模拟逐帧 hint 连续）
+        List<Vector2> pts = new ArrayList<>(PATH_POINTS);
+        for (int i = 0; i < PATH_POINTS; i++) {
+            double a = 2 * Math.PI * i / PATH_POINTS;
+            pts.add(new Vector2((float) (50 * Math.cos(a)), (float) (50 * Math.sin(a))));
+        }
+        path = new Path(pts);
+        probes = new Vector2[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            double a = 2 * Math.PI * i / INPUTS;
+            float r = 50f + (float) rnd.nextGaussian() * 0.5f;
+            probes[i] = new Vector2((float) (r * Math.cos(a)), (float) (r * Math.sin(a)));
+        }
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (INPUTS - 1);
+    }
+
+    @Benchmark
+    public float defaultEngineUpdate() {
+        int i = next();
+        if (tank.isEmpty()) tank.refuel(); // 不让它熄火走捷径
+        engine.setThrottle(throttle[i]);
+        return engine.update(DT, loadOmega[i]);
+    }
+
+    @Benchmark
+    public float defaultWheelStep() {
+        int i = next();
+        float vx = 10f;
+        float omega = vx * (1f + slip[i]) / 0.30f;
+        wheel.setDriveTorque(throttle[i] * 200f);
+        wheel.preStep(DT, 2500f, 0.6f, omega, vx, slip[i]);
+        wheel.step(DT);
+        return wheel.getFx();
+    }
+
+    @Benchmark
+    public int pathSamplerNearestIndex() {
+        int i = next();
+        hint = PathSampler.nearestIndex(path, probes[i], i == 0 ? 0 : hint, proj);
+        return hint;
+    }
+
+    /** 不给 hint：走线段网格（瞬移后的重定位） */
+    @Benchmark
+    public int pathNearestGlobal() {
+        Vector2 q = probes[next()];
+        path.nearest(q.x, q.y, proj);
+        return proj.segment;
+    }
+
+    /** 逐帧跟踪：投影（带 hint）+ 二分弧长取前视点 */
+    @Benchmark
+    public Vector2 pathProjectLookahead() {
+        int i = next();
+        Vector2 q = probes[i];
+        hint = PathSampler.project(path, q.x, q.y, i == 0 ? 0 : hint, proj);
+        return PathSampler.lookahead(path, proj.s, 3f, target);
+    }
+}
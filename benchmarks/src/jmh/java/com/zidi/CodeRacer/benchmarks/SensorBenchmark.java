@@ -0,0 +1,87 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.sensor.MutableSensorReading;
+import com.zidi.CodeRacer.vehicle.components.sensor.SensorReading;
+import com.zidi.CodeRacer.vehicle.components.sensor.Impl.BaseSensor;
+import com.zidi.CodeRacer.vehicle.components.sensor.Impl.SectorSweepSensor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 传感器一次 detect() / detectInto() 的成本：前向扇形（±30°，31 根，每帧扫完，同 Simulation）与单射线 BaseSensor。
+ * 传感器位姿每次调用换到下一个空地上的随机点。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SensorBenchmark {
+
+    private static final int QUERIES = 4096;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int rects;
+
+    private final Pose sweepPose = new Pose();
+    private final Pose basePose = new Pose();
+    private SectorSweepSensor sweep;
+    private BaseSensor base;
+    private final MutableSensorReading reading = new MutableSensorReading();
+    private float[] fx, fy, fh;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        TiledMap map = SyntheticMaps.map(rects, 42L);
+        TiledWorldUtils world = SyntheticMaps.world(map);
+        float[][] free = SyntheticMaps.queries(world, SyntheticMaps.sideTiles(rects), QUERIES, true, 2L);
+        fx = free[0]; fy = free[1]; fh = free[2];
+
+        sweep = new SectorSweepSensor("b-front", "Front", "bench", 1, 1,
+            world, sweepPose, (float) Math.toRadians(30f), 25f, 31, 1, 0.25f, 0.3f);
+        base = new BaseSensor("b-base", "Base", "bench", 1, 1, world, basePose);
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public SensorReading sectorSweepDetect() {
+        int i = next();
+        sweepPose.set(fx[i], fy[i], fh[i], 0f);
+        return sweep.detect();
+    }
+
+    @Benchmark
+    public SensorReading baseSensorDetect() {
+        int i = next();
+        basePose.set(fx[i], fy[i], fh[i], 0f);
+        return base.detect();
+    }
+
+    /** 零分配路径：gc.alloc.rate.norm 应为 0 */
+    @Benchmark
+    public MutableSensorReading sectorSweepDetectInto() {
+        int i = next();
+        sweepPose.set(fx[i], fy[i], fh[i], 0f);
+        return sweep.detectInto(reading);
+    }
+
+    @Benchmark
+    public MutableSensorReading baseSensorDetectInto() {
+        int i = next();
+        basePose.set(fx[i], fy[i], fh[i], 0f);
+        return base.detectInto(reading);
+    }
+}
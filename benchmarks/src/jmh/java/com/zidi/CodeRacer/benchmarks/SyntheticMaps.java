@@ -0,0 +1,81 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Rectangle;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准用的合成地图：在 Collision 图层随机撒 n 个矩形（0.25~2 tile），
+ * 地图边长随 sqrt(n) 增长，保持障碍密度大致不变，便于比较不同规模下的单次查询成本。
+ */
+final class SyntheticMaps {
+    private SyntheticMaps() {}
+
+    static final int TILE_PX = 16;
+    static final float UNIT_SCALE = 1f / TILE_PX;
+
+    /** 合成地图的边长（tile） */
+    static int sideTiles(int rectCount) {
+        return Math.max(16, (int) Math.ceil(Math.sqrt(rectCount) * 3.0));
+    }
+
+    static TiledMap map(int rectCount, long seed) {
+        int side = sideTiles(rectCount);
+        TiledMap map = new TiledMap();
+        MapProperties p = map.getProperties();
+        p.put("width", side);
+        p.put("height", side);
+        p.put("tilewidth", TILE_PX);
+        p.put("tileheight", TILE_PX);
+
+        MapLayer layer = new MapLayer();
+        layer.setName("Collision");
+        Random rnd = new Random(seed);
+        for (int i = 0; i < rectCount; i++) {
+            float w = 0.25f + rnd.nextFloat() * 1.75f;
+            float h = 0.25f + rnd.nextFloat() * 1.75f;
+            float x = rnd.nextFloat() * (side - w);
+            float y = rnd.nextFloat() * (side - h);
+            layer.getObjects().add(new RectangleMapObject(x * TILE_PX, y * TILE_PX, w * TILE_PX, h * TILE_PX));
+        }
+        map.getLayers().add(layer);
+        return map;
+    }
+
+    static TiledWorldUtils world(TiledMap map) {
+        int side = map.getProperties().get("height", Integer.class);
+        return new TiledWorldUtils(map, UNIT_SCALE, side * TILE_PX);
+    }
+
+    /** 世界单位的矩形列表（线性扫描基线用） */
+    static List<Rectangle> rects(TiledMap map) {
+        List<Rectangle> out = new ArrayList<>();
+        for (RectangleMapObject o : map.getLayers().get("Collision").getObjects().getByType(RectangleMapObject.class)) {
+            Rectangle r = o.getRectangle();
+            out.add(new Rectangle(r.x * UNIT_SCALE, r.y * UNIT_SCALE, r.width * UNIT_SCALE, r.height * UNIT_SCALE));
+        }
+        return out;
+    }
+
+    /** 随机查询点：x[i], y[i], heading[i]；freeOnly 时只取不在墙内的点（射线/传感器用） */
+    static float[][] queries(TiledWorldUtils world, int side, int n, boolean freeOnly, long seed) {
+        Random rnd = new Random(seed);
+        float[] x = new float[n], y = new float[n], h = new float[n];
+        for (int i = 0; i < n; ) {
+            float px = rnd.nextFloat() * side, py = rnd.nextFloat() * side;
+            if (freeOnly && world.isCollisionAt(px, py)) continue;
+            x[i] = px;
+            y[i] = py;
+            h[i] = (rnd.nextFloat() * 2f - 1f) * (float) Math.PI;
+            i++;
+        }
+        return new float[][] { x, y, h };
+    }
+}
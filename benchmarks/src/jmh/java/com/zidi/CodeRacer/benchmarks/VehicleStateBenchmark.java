@@ -0,0 +1,83 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.zidi.CodeRacer.sim.VehicleStateStore;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一步推进 N 辆车：逐个 Pose.step（对象打乱顺序放在堆上，接近真实的分散分配）
+ * 对比 VehicleStateStore.stepAll（连续数组）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VehicleStateBenchmark {
+
+    private static final float DT = 1f / 60f;
+
+    @Param({"10000"})
+    public int cars;
+
+    private Pose[] poses;
+    private VehicleStateStore store;
+    private float[] yaw;
+
+    @Setup
+    public void setup() {
+        Random rnd = new Random(11L);
+        List<Pose> list = new ArrayList<>(cars);
+        store = new VehicleStateStore(cars);
+        yaw = new float[cars];
+        for (int i = 0; i < cars; i++) {
+            Pose p = new Pose(rnd.nextFloat() * 100f, rnd.nextFloat() * 100f,
+                (rnd.nextFloat() * 2f - 1f) * 3.1f, 2f + rnd.nextFloat() * 8f);
+            list.add(p);
+            store.add(p);
+            yaw[i] = (rnd.nextFloat() * 2f - 1f) * 0.02f;
+        }
+        Collections.shuffle(list, rnd);
+        poses = list.toArray(new Pose[0]);
+    }
+
+    @Benchmark
+    public Pose[] poseStep() {
+        for (Pose p : poses) p.step(DT);
+        return poses;
+    }
+
+    @Benchmark
+    public VehicleStateStore storeStepAll() {
+        store.stepAll(DT);
+        return store;
+    }
+
+    @Benchmark
+    public Pose[] poseRotateStep() {
+        final Pose[] ps = poses;
+        for (int i = 0; i < ps.length; i++) {
+            ps[i].rotate(yaw[i]);
+            ps[i].step(DT);
+        }
+        return ps;
+    }
+
+    @Benchmark
+    public VehicleStateStore storeRotateStepAll() {
+        store.rotateAll(yaw);
+        store.stepAll(DT);
+        return store;
+    }
+}
@@ -0,0 +1,114 @@
+package com.zidi.CodeRacer.benchmarks;
+
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Rectangle;
+import com.zidi.CodeRacer.Commons.utils.IntersectionDetector;
+import com.zidi.CodeRacer.Commons.utils.IntersectionHit;
+import com.zidi.CodeRacer.Commons.utils.RaycastHit;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 碰撞世界的单次查询成本（随矩形数量变化）：
+ * 点查询（网格索引 vs 线性扫描基线）、精确射线、旧的固定步长射线、距离场、路口检测。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WorldBenchmark {
+
+    private static final int QUERIES = 4096; // 2 的幂，用掩码循环
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int rects;
+
+    private TiledWorldUtils world;
+    private List<Rectangle> rectList;
+    private IntersectionDetector junctions;  // 把同一批矩形当作路口（城市地图规模）
+    private float[] qx, qy, qh;     // 任意点（点查询）
+    private float[] fx, fy, fh;     // 空地上的点（射线）
+    private final RaycastHit hit = new RaycastHit();
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        TiledMap map = SyntheticMaps.map(rects, 42L);
+        world = SyntheticMaps.world(map);
+        rectList = SyntheticMaps.rects(map);
+        int side = SyntheticMaps.sideTiles(rects);
+        junctions = IntersectionDetector.fromMap(map, "Collision", SyntheticMaps.UNIT_SCALE, side * SyntheticMaps.TILE_PX);
+        float[][] any = SyntheticMaps.queries(world, side, QUERIES, false, 1L);
+        float[][] free = SyntheticMaps.queries(world, side, QUERIES, true, 2L);
+        qx = any[0]; qy = any[1]; qh = any[2];
+        fx = free[0]; fy = free[1]; fh = free[2];
+    }
+
+    private int next() {
+        return cursor = (cursor + 1) & (QUERIES - 1);
+    }
+
+    @Benchmark
+    public boolean isCollisionAt() {
+        int i = next();
+        return world.isCollisionAt(qx[i], qy[i]);
+    }
+
+    /** 基线：改用网格索引之前的逐个 Rectangle.contains */
+    @Benchmark
+    public boolean isCollisionAtLinearScan() {
+        int i = next();
+        float x = qx[i], y = qy[i];
+        for (Rectangle r : rectList) {
+            if (r.contains(x, y)) return true;
+        }
+        return false;
+    }
+
+    @Benchmark
+    public float distanceToCollisionForward() {
+        int i = next();
+        return world.distanceToCollisionForward(fx[i], fy[i], fh[i], 25f);
+    }
+
+    /** 旧的固定步长版本（步长 0.25 tile） */
+    @Benchmark
+    public float distanceToCollisionForwardStepped() {
+        int i = next();
+        return world.distanceToCollisionForward(fx[i], fy[i], fh[i], 25f, 0.25f);
+    }
+
+    @Benchmark
+    public float distanceToCollisionForwardTraced() {
+        int i = next();
+        return world.distanceToCollisionForwardTraced(fx[i], fy[i], fh[i], 25f, 0.05f);
+    }
+
+    @Benchmark
+    public RaycastHit raycast() {
+        int i = next();
+        world.raycast(fx[i], fy[i], fh[i], 25f, hit);
+        return hit;
+    }
+
+    @Benchmark
+    public float clearanceAt() {
+        int i = next();
+        return world.clearanceAt(qx[i], qy[i]);
+    }
+
+    @Benchmark
+    public IntersectionHit intersectionUpdate() {
+        int i = next();
+        return junctions.update(qx[i], qy[i]);
+    }
+}
@@ -0,0 +1,202 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * Collision 图层的有符号距离场（SDF），地图加载时构建一次：
+ *  - 子 tile 分辨率的采样网格（采样点在格子中心），墙外为正、墙内为负
+ *  - 保守光栅化：与任一矩形重叠的格子都算“墙内”，薄墙也不会漏
+ *  - 两遍精确欧氏距离变换（Felzenszwalb &amp; Huttenlocher），O(格子数)
+ *  - 查询：双线性插值 distance / 解析梯度 gradient，O(1)
+ * 误差：网格内与真实距离相差不超过 errorBound()（= 2 个格子边长），用作 sphere tracing 的安全余量；网格外只给下界。
+ * 构建后只读，可多线程共享。
+ */
+public final class DistanceField {
+
+    private static final float INF = 1e20f;
+
+    private final float originX, originY;  // 网格左下角（世界坐标）
+    private final float cellSize;          // 采样间距（世界单位）
+    private final int cols, rows;
+    private final float[] values;          // 行优先：values[j*cols + i]
+    private final float buildMillis;
+
+    private DistanceField(float originX, float originY, float cellSize, int cols, int rows,
+                          float[] values, float buildMillis) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.cols = cols;
+        this.rows = rows;
+        this.values = values;
+        this.buildMillis = buildMillis;
+    }
+
+    /**
+     * 在世界矩形 [x0,x1]x[y0,y1] 上构建距离场。
+     * @param index    碰撞矩形索引
+     * @param cellSize 采样间距（世界单位；0.25 = 每 tile 4 个采样）
+     */
+    public static DistanceField build(RectGridIndex index, float x0, float y0, float x1, float y1, float cellSize) {
+        final long t0 = System.nanoTime();
+        final float h = Math.max(1e-3f, cellSize);
+        final int cols = Math.max(1, (int) Math.ceil((x1 - x0) / h));
+        final int rows = Math.max(1, (int) Math.ceil((y1 - y0) / h));
+        final int n = cols * rows;
+
+        // 1) 保守光栅化：与矩形重叠的格子 = 墙内
+        final boolean[] solid = new boolean[n];
+        for (int r = 0; r < index.size(); r++) {
+            if (!(index.minX(r) <= index.maxX(r) && index.minY(r) <= index.maxY(r))) continue;
+            if (index.maxX(r) < x0 || index.minX(r) > x0 + cols * h) continue;
+            if (index.maxY(r) < y0 || index.minY(r) > y0 + rows * h) continue;
+            int i0 = clamp((int) Math.floor((index.minX(r) - x0) / h), cols);
+            int i1 = clamp((int) Math.floor((index.maxX(r) - x0) / h), cols);
+            int j0 = clamp((int) Math.floor((index.minY(r) - y0) / h), rows);
+            int j1 = clamp((int) Math.floor((index.maxY(r) - y0) / h), rows);
+            for (int j = j0; j <= j1; j++) {
+                for (int i = i0; i <= i1; i++) solid[j * cols + i] = true;
+            }
+        }
+
+        // 2) 到“墙内格子”和到“墙外格子”的平方距离（单位：格子）
+        final float[] toSolid = new float[n];
+        final float[] toFree  = new float[n];
+        for (int k = 0; k < n; k++) {
+            toSolid[k] = solid[k] ? 0f : INF;
+            toFree[k]  = solid[k] ? INF : 0f;
+        }
+        edt2D(toSolid, cols, rows);
+        edt2D(toFree, cols, rows);
+
+        // 3) 合成有符号距离（格子中心到边界约差半格）
+        final float[] values = new float[n];
+        final float half = 0.5f * h;
+        for (int k = 0; k < n; k++) {
+            values[k] = solid[k]
+                ? -(float) Math.sqrt(toFree[k]) * h + half
+                :  (float) Math.sqrt(toSolid[k]) * h - half;
+        }
+
+        float ms = (System.nanoTime() - t0) / 1e6f;
+        return new DistanceField(x0, y0, h, cols, rows, values, ms);
+    }
+
+    // ================= 查询 =================
+
+    /**
+     * 双线性插值的有符号距离。
+     * 网格外（墙都在网格内）：返回保守下界 max(到网格的距离, 边界值 - 到网格的距离)，
+     * 只会低估、不会高估，sphere tracing 从地图外起步也不会跳过墙。
+     */
+    public float distance(float x, float y) {
+        float gx = (x - originX) / cellSize - 0.5f;
+        float gy = (y - originY) / cellSize - 0.5f;
+        float cx = clampF(gx, 0f, cols - 1), cy = clampF(gy, 0f, rows - 1);
+        float outside = (float) Math.hypot((gx - cx) * cellSize, (gy - cy) * cellSize);
+
+        int i = Math.min((int) cx, Math.max(0, cols - 2));
+        int j = Math.min((int) cy, Math.max(0, rows - 2));
+        float fx = cx - i, fy = cy - j;
+        int i1 = Math.min(i + 1, cols - 1), j1 = Math.min(j + 1, rows - 1);
+
+        float v00 = values[j * cols + i],  v10 = values[j * cols + i1];
+        float v01 = values[j1 * cols + i], v11 = values[j1 * cols + i1];
+        float a = v00 + (v10 - v00) * fx;
+        float b = v01 + (v11 - v01) * fx;
+        float v = a + (b - a) * fy;
+        return outside > 0f ? Math.max(outside, v - outside) : v;
+    }
+
+    /** 双线性插值的解析梯度（指向远离墙的方向，未归一化），写入 out */
+    public Vector2 gradient(float x, float y, Vector2 out) {
+        float gx = clampF((x - originX) / cellSize - 0.5f, 0f, cols - 1);
+        float gy = clampF((y - originY) / cellSize - 0.5f, 0f, rows - 1);
+
+        int i = Math.min((int) gx, Math.max(0, cols - 2));
+        int j = Math.min((int) gy, Math.max(0, rows - 2));
+        float fx = gx - i, fy = gy - j;
+        int i1 = Math.min(i + 1, cols - 1), j1 = Math.min(j + 1, rows - 1);
+
+        float v00 = values[j * cols + i],  v10 = values[j * cols + i1];
+        float v01 = values[j1 * cols + i], v11 = values[j1 * cols + i1];
+        float dx = ((v10 - v00) * (1f - fy) + (v11 - v01) * fy) / cellSize;
+        float dy = ((v01 - v00) * (1f - fx) + (v11 - v10) * fx) / cellSize;
+        return out.set(dx, dy);
+    }
+
+    /** distance() 与真实距离之差的上界（世界单位） */
+    public float errorBound() { return 2f * cellSize; }
+
+    // ================= 统计 / 只读 =================
+
+    public float cellSize()    { return cellSize; }
+    public int cols()          { return cols; }
+    public int rows()          { return rows; }
+    public float buildMillis() { return buildMillis; }
+    public long memoryBytes()  { return 4L * values.length; }
+
+    @Override
+    public String toString() {
+        return String.format("DistanceField[%dx%d @%.3f, build=%.1f ms, mem=%.1f KB]",
+            cols, rows, cellSize, buildMillis, memoryBytes() / 1024f);
+    }
+
+    // ================= 距离变换 =================
+
+    /** 二维平方欧氏距离变换（原地）：先按列再按行做一维变换 */
+    private static void edt2D(float[] grid, int cols, int rows) {
+        int m = Math.max(cols, rows);
+        float[] f = new float[m], d = new float[m], z = new float[m + 1];
+        int[] v = new int[m];
+
+        for (int i = 0; i < cols; i++) {
+            for (int j = 0; j < rows; j++) f[j] = grid[j * cols + i];
+            edt1D(f, rows, d, v, z);
+            for (int j = 0; j < rows; j++) grid[j * cols + i] = d[j];
+        }
+        for (int j = 0; j < rows; j++) {
+            System.arraycopy(grid, j * cols, f, 0, cols);
+            edt1D(f, cols, d, v, z);
+            System.arraycopy(d, 0, grid, j * cols, cols);
+        }
+    }
+
+    /** 一维下包络抛物线（Felzenszwalb &amp; Huttenlocher 2012） */
+    private static void edt1D(float[] f, int n, float[] d, int[] v, float[] z) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = -INF;
+        z[1] = INF;
+        for (int q = 1; q < n; q++) {
+            float s = intersect(f, q, v[k]);
+            while (s <= z[k]) {   // z[0] = -INF，k 不会小于 0
+                k--;
+                s = intersect(f, q, v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = INF;
+        }
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q) k++;
+            float dq = q - v[k];
+            d[q] = dq * dq + f[v[k]];
+        }
+    }
+
+    /** 抛物线 q 与 p 的交点横坐标 */
+    private static float intersect(float[] f, int q, int p) {
+        return ((f[q] + (float) q * q) - (f[p] + (float) p * p)) / (2f * q - 2f * p);
+    }
+
+    private static int clamp(int c, int n) {
+        return c < 0 ? 0 : (c >= n ? n - 1 : c);
+    }
+
+    private static float clampF(float v, float lo, float hi) {
+        return v < lo ? lo : (v > hi ? hi : v);
+    }
+}
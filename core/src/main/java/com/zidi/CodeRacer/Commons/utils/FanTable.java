@@ -0,0 +1,36 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+/**
+ * 扇形射线的角度表（不可变，可多线程共享）：
+ *  第 i 根射线相对车头的偏角 off_i = -fovHalf + 2*fovHalf * i/(count-1)，
+ *  预先存好 cos(off_i) / sin(off_i)，施加到任意朝向只需一次旋转（两次乘加），不再逐根调 cos/sin。
+ */
+public final class FanTable {
+    private final float fovHalfRad;
+    private final int count;
+    private final float[] cosOff;
+    private final float[] sinOff;
+
+    public FanTable(float fovHalfRad, int count) {
+        this.fovHalfRad = fovHalfRad;
+        this.count = Math.max(1, count);
+        this.cosOff = new float[this.count];
+        this.sinOff = new float[this.count];
+        for (int i = 0; i < this.count; i++) {
+            float t   = (this.count == 1) ? 0f : (i / (float) (this.count - 1)); // 0..1
+            float off = -fovHalfRad + (2f * fovHalfRad) * t;                     // -half..+half
+            cosOff[i] = (float) Math.cos(off);
+            sinOff[i] = (float) Math.sin(off);
+        }
+    }
+
+    /** 是否就是 (fovHalfRad, count) 这张表 */
+    public boolean matches(float fovHalfRad, int count) {
+        return this.fovHalfRad == fovHalfRad && this.count == Math.max(1, count);
+    }
+
+    public float fovHalfRad()   { return fovHalfRad; }
+    public int count()          { return count; }
+    public float cosOff(int i)  { return cosOff[i]; }
+    public float sinOff(int i)  { return sinOff[i]; }
+}
@@ -0,0 +1,38 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+/**
+ * 物理内核用的近似函数：只有乘加、一次除法和 min/max/signum，没有分支，批量循环里可以被 JIT 向量化。
+ */
+public final class FastMath {
+
+    private FastMath() {}
+
+    /** 超过这个值 Padé 式开始偏离，直接按饱和处理 */
+    private static final float TANH_CLAMP = 4.97f;
+    private static final float QUARTER_PI = (float) (Math.PI / 4);
+
+    /**
+     * tanh 的 [7/6] Padé 有理逼近，输入夹到 ±4.97、输出夹到 ±1；
+     * 全域绝对误差 < 1e-4，奇函数，tanh(0) = 0。
+     */
+    public static float tanh(float x) {
+        x = Math.max(-TANH_CLAMP, Math.min(TANH_CLAMP, x));
+        float x2 = x * x;
+        float p = x * (135135f + x2 * (17325f + x2 * (378f + x2)));
+        float q = 135135f + x2 * (62370f + x2 * (3150f + x2 * 28f));
+        return Math.max(-1f, Math.min(1f, p / q));
+    }
+
+    /**
+     * atan 的多项式逼近：用 atan(z) = π/4 + atan((|z|-1)/(|z|+1)) 把任意 z 折到 [-1,1) 上，
+     * 没有分支（符号用 signum 乘回去），绝对误差 < 3e-6 rad。
+     */
+    public static float atan(float z) {
+        float az = Math.abs(z);
+        float t = (az - 1f) / (az + 1f);
+        float s = t * t;
+        float r = QUARTER_PI + t * (0.99997726f + s * (-0.33262347f + s * (0.19354346f
+                + s * (-0.11643287f + s * (0.05265332f + s * -0.01172120f)))));
+        return r * Math.signum(z);
+    }
+}
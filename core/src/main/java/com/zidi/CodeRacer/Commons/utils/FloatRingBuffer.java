@@ -0,0 +1,41 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+/**
+ * 定长二维点环形缓冲（交错 float[]：x0,y0,x1,y1...），写满后覆盖最旧的点。
+ * 用于调试可视化的采样点：预分配一次，之后 add / clear 都不分配。
+ */
+public final class FloatRingBuffer {
+    private final float[] xy;
+    private final int capacity;   // 最多保存的点数
+    private int head = 0;         // 下一个写入位置（点下标）
+    private int size = 0;
+
+    public FloatRingBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.xy = new float[this.capacity * 2];
+    }
+
+    public void add(float x, float y) {
+        xy[head * 2]     = x;
+        xy[head * 2 + 1] = y;
+        head = (head + 1) % capacity;
+        if (size < capacity) size++;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int size()     { return size; }
+    public int capacity() { return capacity; }
+
+    /** 第 i 个点（0 = 最旧） */
+    public float x(int i) { return xy[slot(i) * 2]; }
+    public float y(int i) { return xy[slot(i) * 2 + 1]; }
+
+    private int slot(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+        return (head - size + i + capacity) % capacity;
+    }
+}
@@ -0,0 +1,145 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+/**
+ * 解析式射线检测（取代固定步长前进）：
+ *  - 网格 DDA（Amanatides &amp; Woo）逐格走过射线经过的格子
+ *  - 每个格子只对登记在该格的矩形做 ray-vs-AABB slab 测试
+ *  - 当已知最近命中 <= 当前格子的出口距离时立即停止
+ * 返回精确命中距离、命中面法线与矩形下标，不会穿过薄墙。
+ * 无状态、不分配对象，可多线程共享同一个 RectGridIndex。
+ */
+public final class GridRaycaster {
+    private GridRaycaster() {}
+
+    /**
+     * 从 (x0,y0) 沿单位方向 (dx,dy) 发射线，最远 maxDist。
+     * @return 是否命中；结果写入 out
+     */
+    public static boolean cast(RectGridIndex index, float x0, float y0, float dx, float dy,
+                               float maxDist, RaycastHit out) {
+        out.reset();
+        out.distance = maxDist;
+        out.x = x0 + dx * maxDist;
+        out.y = y0 + dy * maxDist;
+        traverse(index, x0, y0, dx, dy, maxDist, out);
+        return out.hit;
+    }
+
+    /** 只要距离：不需要 RaycastHit，零分配（批量射线用）；没撞到返回 maxDist */
+    public static float distance(RectGridIndex index, float x0, float y0, float dx, float dy, float maxDist) {
+        return traverse(index, x0, y0, dx, dy, maxDist, null);
+    }
+
+    /** DDA 主循环：返回命中距离（未命中 = maxDist）；out 非空时写入命中详情 */
+    private static float traverse(RectGridIndex index, float x0, float y0, float dx, float dy,
+                                  float maxDist, RaycastHit out) {
+        // 0) 起点已在某个矩形内：距离 0（与步进版第一采样点即命中一致）
+        int inside = index.firstContaining(x0, y0);
+        if (inside >= 0) {
+            return record(out, inside, 0f, x0, y0, -dx, -dy);
+        }
+
+        // 1) 射线先与整个网格 AABB 求交，得到进入/离开距离
+        final float cs = index.cellSize();
+        final float gx0 = index.originX(), gy0 = index.originY();
+        final float gx1 = gx0 + index.cols() * cs, gy1 = gy0 + index.rows() * cs;
+
+        float tEnter = 0f, tExit = maxDist;
+        if (dx != 0f) {
+            float ta = (gx0 - x0) / dx, tb = (gx1 - x0) / dx;
+            tEnter = Math.max(tEnter, Math.min(ta, tb));
+            tExit  = Math.min(tExit,  Math.max(ta, tb));
+        } else if (x0 < gx0 || x0 > gx1) {
+            return maxDist;
+        }
+        if (dy != 0f) {
+            float ta = (gy0 - y0) / dy, tb = (gy1 - y0) / dy;
+            tEnter = Math.max(tEnter, Math.min(ta, tb));
+            tExit  = Math.min(tExit,  Math.max(ta, tb));
+        } else if (y0 < gy0 || y0 > gy1) {
+            return maxDist;
+        }
+        if (tEnter > tExit) return maxDist;
+
+        // 2) 起始格子
+        final int cols = index.cols(), rows = index.rows();
+        float px = x0 + dx * tEnter, py = y0 + dy * tEnter;
+        int cx = clampCell((int) Math.floor((px - gx0) / cs), cols);
+        int cy = clampCell((int) Math.floor((py - gy0) / cs), rows);
+
+        final int stepX = dx > 0f ? 1 : (dx < 0f ? -1 : 0);
+        final int stepY = dy > 0f ? 1 : (dy < 0f ? -1 : 0);
+        final float tDeltaX = stepX != 0 ? cs / Math.abs(dx) : Float.POSITIVE_INFINITY;
+        final float tDeltaY = stepY != 0 ? cs / Math.abs(dy) : Float.POSITIVE_INFINITY;
+        float tMaxX = stepX > 0 ? (gx0 + (cx + 1) * cs - x0) / dx
+                    : stepX < 0 ? (gx0 + cx * cs - x0) / dx : Float.POSITIVE_INFINITY;
+        float tMaxY = stepY > 0 ? (gy0 + (cy + 1) * cs - y0) / dy
+                    : stepY < 0 ? (gy0 + cy * cs - y0) / dy : Float.POSITIVE_INFINITY;
+
+        // 3) DDA 逐格
+        float best = Float.POSITIVE_INFINITY;
+        int bestId = -1;
+        float bestNx = 0f, bestNy = 0f;
+
+        while (true) {
+            int cell = cy * cols + cx;
+            for (int k = index.cellBegin(cell), end = index.cellEnd(cell); k < end; k++) {
+                int i = index.itemAt(k);
+                // —— slab 测试（闭区间，与 Rectangle.contains 一致）——
+                float tNear = Float.NEGATIVE_INFINITY, tFar = Float.POSITIVE_INFINITY;
+                float nx = 0f, ny = 0f;
+                if (dx != 0f) {
+                    float ta = (index.minX(i) - x0) / dx, tb = (index.maxX(i) - x0) / dx;
+                    float lo = Math.min(ta, tb), hi = Math.max(ta, tb);
+                    if (lo > tNear) { tNear = lo; nx = -stepX; ny = 0f; }
+                    tFar = Math.min(tFar, hi);
+                } else if (x0 < index.minX(i) || x0 > index.maxX(i)) {
+                    continue;
+                }
+                if (dy != 0f) {
+                    float ta = (index.minY(i) - y0) / dy, tb = (index.maxY(i) - y0) / dy;
+                    float lo = Math.min(ta, tb), hi = Math.max(ta, tb);
+                    if (lo > tNear) { tNear = lo; nx = 0f; ny = -stepY; }
+                    tFar = Math.min(tFar, hi);
+                } else if (y0 < index.minY(i) || y0 > index.maxY(i)) {
+                    continue;
+                }
+                if (tNear > tFar || tFar < 0f) continue;
+                float t = Math.max(0f, tNear);
+                if (t < best || (t == best && i < bestId)) {
+                    best = t; bestId = i; bestNx = nx; bestNy = ny;
+                }
+            }
+
+            float tCellExit = Math.min(tMaxX, tMaxY);
+            if (best <= tCellExit || tCellExit > tExit) break;
+
+            if (tMaxX < tMaxY) {
+                cx += stepX; tMaxX += tDeltaX;
+                if (cx < 0 || cx >= cols) break;
+            } else {
+                cy += stepY; tMaxY += tDeltaY;
+                if (cy < 0 || cy >= rows) break;
+            }
+        }
+
+        if (bestId < 0 || best > maxDist) return maxDist;
+        return record(out, bestId, best, x0 + dx * best, y0 + dy * best, bestNx, bestNy);
+    }
+
+    private static float record(RaycastHit out, int id, float t, float x, float y, float nx, float ny) {
+        if (out == null) return t;
+        out.hit = true;
+        out.distance = t;
+        out.x = x;
+        out.y = y;
+        out.normalX = nx;
+        out.normalY = ny;
+        out.rectId = id;
+        return t;
+    }
+
+    private static int clampCell(int c, int n) {
+        return c < 0 ? 0 : (c >= n ? n - 1 : c);
+    }
+}
@@ -12,20 +12,35 @@ import java.util.List;
 
 /**
  * 极简路口检测器：
- *  - 启动时从 TiledMap 读取路口矩形（像素→世界坐标 + Y 翻转）
+ *  - 启动时从 TiledMap 读取路口矩形（像素→世界坐标 + Y 翻转），建均匀网格索引
  *  - 每帧调用 update(x,y) 返回 IntersectionHit（并缓存为当前状态）
  *  - 也提供 isAtIntersection() / justEntered() / justExited() 等布尔便捷方法
+ * 每帧查询：先看上一帧所在的路口（大多数帧命中），否则只查点所在的一个格子；
+ * 中心点与 IntersectionHit 按矩形预先建好，update 不分配对象。
  */
 public class IntersectionDetector {
 
-    /** 内部保存的世界坐标矩形 + 可选 id */
+    private static final float GRID_CELL_SIZE = 2f; // 网格边长（世界单位 = tile）
+
+    /** 内部保存的世界坐标矩形 + 可选 id（中心点与命中结果预先建好，只读） */
     public static class RectRef {
         public final Rectangle rect;
         public final String id;
-        public RectRef(Rectangle rect, String id) { this.rect = rect; this.id = id; }
+        public final Vector2 center;
+        final IntersectionHit enteredHit;   // 本帧刚进入
+        final IntersectionHit insideHit;    // 持续在里面
+
+        public RectRef(Rectangle rect, String id) {
+            this.rect = rect;
+            this.id = id;
+            this.center = new Vector2(rect.x + rect.width * 0.5f, rect.y + rect.height * 0.5f);
+            this.enteredHit = new IntersectionHit(true, true, false, id, rect, center);
+            this.insideHit  = new IntersectionHit(false, true, false, id, rect, center);
+        }
     }
 
     private final List<RectRef> rects = new ArrayList<>();
+    private RectGridIndex index;
     private int lastIndex = -1;                 // 上一帧所在矩形索引；-1=不在任何路口
     private IntersectionHit lastHit = IntersectionHit.NONE;
 
@@ -35,10 +50,11 @@ public class IntersectionDetector {
     public static IntersectionDetector fromMap(TiledMap map, String layerName,
                                                float unitScale, int mapHeightPx) {
         IntersectionDetector det = new IntersectionDetector();
-        if (map == null) return det;
-
-        MapLayer layer = map.getLayers().get(layerName);
-        if (layer == null) return det;
+        MapLayer layer = (map == null) ? null : map.getLayers().get(layerName);
+        if (layer == null) {
+            det.buildIndex();
+            return det;
+        }
 
         for (MapObject o : layer.getObjects()) {
             if (o instanceof RectangleMapObject rmo) {
@@ -55,43 +71,37 @@ public class IntersectionDetector {
                 det.rects.add(new RectRef(new Rectangle(wx, wy, ww, wh), id));
             }
         }
+        det.buildIndex();
         return det;
     }
 
-    /**【核心】更新并返回当前命中状态；同时缓存为 lastHit，供便捷方法读取 */
+    private void buildIndex() {
+        List<Rectangle> list = new ArrayList<>(rects.size());
+        for (RectRef rr : rects) list.add(rr.rect);
+        index = RectGridIndex.build(list, GRID_CELL_SIZE);
+    }
+
+    /**
+     *【核心】更新并返回当前命中状态；同时缓存为 lastHit，供便捷方法读取。
+     * 仍在上一帧的路口里时直接沿用它（路口矩形重叠时，离开当前路口前不会跳到另一个）。
+     */
     public IntersectionHit update(float x, float y) {
-        int nowIndex = -1;
-        RectRef hitRef = null;
-
-        for (int i = 0; i < rects.size(); i++) {
-            RectRef rr = rects.get(i);
-            if (rr.rect.contains(x, y)) {
-                nowIndex = i;
-                hitRef = rr;
-                break;
-            }
+        int nowIndex;
+        if (lastIndex != -1 && index.contains(lastIndex, x, y)) {
+            nowIndex = lastIndex;                      // 时间相干：绝大多数帧走这里
+        } else {
+            nowIndex = index.firstContaining(x, y);    // 只查一个格子
         }
 
         boolean wasInside = (lastIndex != -1);
         boolean inside    = (nowIndex != -1);
-        boolean entered   = (!wasInside && inside);
-        boolean exited    = (wasInside && !inside);
-
         lastIndex = nowIndex;
 
-        if (!inside && !entered && !exited) {
-            lastHit = IntersectionHit.NONE;
-            return lastHit;
+        if (inside) {
+            lastHit = wasInside ? rects.get(nowIndex).insideHit : rects.get(nowIndex).enteredHit;
+        } else {
+            lastHit = wasInside ? IntersectionHit.EXITED : IntersectionHit.NONE;
         }
-
-        Vector2 center = (hitRef == null) ? null
-            : new Vector2(hitRef.rect.x + hitRef.rect.width * 0.5f,
-            hitRef.rect.y + hitRef.rect.height * 0.5f);
-
-        lastHit = new IntersectionHit(entered, inside, exited,
-            hitRef == null ? null : hitRef.id,
-            hitRef == null ? null : hitRef.rect,
-            center);
         return lastHit;
     }
 
@@ -10,7 +10,10 @@ import com.badlogic.gdx.math.Vector2;
 import java.util.ArrayList;
 import java.util.List;
 
-/** 返回一次“路口检测”的状态（可直接当成 true/false 使用：hit.inside） */
+/**
+ * 返回一次“路口检测”的状态（可直接当成 true/false 使用：hit.inside）。
+ * 由 IntersectionDetector 预先创建并复用，rect / center 只读，不要修改。
+ */
 public class IntersectionHit {
     public final boolean entered;   // 本帧刚进入
     public final boolean inside;    // 当前在里面
@@ -20,6 +23,8 @@ public class IntersectionHit {
     public final Vector2 center;    // 中心点（世界坐标）
 
     public static final IntersectionHit NONE = new IntersectionHit(false,false,false,null,null,null);
+    /** 本帧刚离开（与之前一样不带矩形信息） */
+    public static final IntersectionHit EXITED = new IntersectionHit(false,false,true,null,null,null);
 
     public IntersectionHit(boolean entered, boolean inside, boolean exited,
                            String id, Rectangle rect, Vector2 center) {
@@ -0,0 +1,32 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+/**
+ * 一次射线检测的结果（可复用、可变，调用方持有，避免每次 new）。
+ *  - hit=false 时 distance = maxDist，端点为射线末端，rectId = -1
+ *  - 起点已在矩形内时 distance = 0，法线取射线反方向
+ */
+public final class RaycastHit {
+    public boolean hit;       // 是否命中
+    public float distance;    // 命中距离（世界单位）
+    public float x, y;        // 命中点 / 射线末端（世界坐标）
+    public float normalX;     // 命中面的外法线
+    public float normalY;
+    public int rectId = -1;   // 命中的 Collision 矩形下标（同 TiledWorldUtils 中的顺序）
+
+    /** 清空为“未命中” */
+    public RaycastHit reset() {
+        hit = false;
+        distance = 0f;
+        x = y = 0f;
+        normalX = normalY = 0f;
+        rectId = -1;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return hit
+            ? String.format("RaycastHit[d=%.3f, at=(%.2f,%.2f), n=(%.0f,%.0f), rect=%d]", distance, x, y, normalX, normalY, rectId)
+            : String.format("RaycastHit[miss, d=%.3f]", distance);
+    }
+}
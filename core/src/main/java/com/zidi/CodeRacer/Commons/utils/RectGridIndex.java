@@ -0,0 +1,160 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+
+import java.util.List;
+
+/**
+ * 均匀网格空间索引（轴对齐矩形）：
+ *  - 构建一次：把每个矩形的下标登记到它覆盖的所有格子（CSR 紧凑存储：cellStart + cellItems）
+ *  - 点查询只看点所在的那一个格子，语义与 Rectangle.contains 完全一致（闭区间，边界算命中）
+ *  - 每个格子里的下标按原列表顺序升序排列，因此 firstContaining 与线性扫描“第一个命中”等价
+ *  - 构建后只读，可被多线程共享
+ */
+public final class RectGridIndex {
+
+    private final float cellSize;
+    private final float originX, originY;   // 网格左下角（世界坐标）
+    private final int cols, rows;
+
+    private final int[] cellStart;          // 长度 cols*rows+1；格子 c 的下标在 [cellStart[c], cellStart[c+1])
+    private final int[] cellItems;          // 矩形下标
+
+    // 矩形边界（与 Rectangle.contains 相同的表达式：x / x+width）
+    private final float[] minX, minY, maxX, maxY;
+
+    private RectGridIndex(float cellSize, float originX, float originY, int cols, int rows,
+                          int[] cellStart, int[] cellItems,
+                          float[] minX, float[] minY, float[] maxX, float[] maxY) {
+        this.cellSize  = cellSize;
+        this.originX   = originX;
+        this.originY   = originY;
+        this.cols      = cols;
+        this.rows      = rows;
+        this.cellStart = cellStart;
+        this.cellItems = cellItems;
+        this.minX = minX; this.minY = minY;
+        this.maxX = maxX; this.maxY = maxY;
+    }
+
+    /** 从矩形列表构建（cellSize 为格子边长，世界单位；TiledWorldUtils 用 1 tile） */
+    public static RectGridIndex build(List<Rectangle> rects, float cellSize) {
+        final int n = rects.size();
+        final float cs = Math.max(1e-3f, cellSize);
+
+        float[] x0 = new float[n], y0 = new float[n], x1 = new float[n], y1 = new float[n];
+        float ox = Float.POSITIVE_INFINITY, oy = Float.POSITIVE_INFINITY;
+        float ex = Float.NEGATIVE_INFINITY, ey = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            Rectangle r = rects.get(i);
+            x0[i] = r.x;  x1[i] = r.x + r.width;
+            y0[i] = r.y;  y1[i] = r.y + r.height;
+            if (!isValid(x0[i], y0[i], x1[i], y1[i])) continue; // 负宽高/NaN：contains 永远为 false，不登记
+            ox = Math.min(ox, x0[i]); oy = Math.min(oy, y0[i]);
+            ex = Math.max(ex, x1[i]); ey = Math.max(ey, y1[i]);
+        }
+
+        if (ox == Float.POSITIVE_INFINITY) {
+            // 没有有效矩形：1x1 空网格
+            return new RectGridIndex(cs, 0f, 0f, 1, 1, new int[2], new int[0], x0, y0, x1, y1);
+        }
+
+        final int cols = (int) Math.floor((ex - ox) / cs) + 1;
+        final int rows = (int) Math.floor((ey - oy) / cs) + 1;
+        final int[] cellStart = new int[cols * rows + 1];
+
+        // 1) 计数
+        for (int i = 0; i < n; i++) {
+            if (!isValid(x0[i], y0[i], x1[i], y1[i])) continue;
+            int cx0 = cellOf(x0[i], ox, cs), cx1 = cellOf(x1[i], ox, cs);
+            int cy0 = cellOf(y0[i], oy, cs), cy1 = cellOf(y1[i], oy, cs);
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) cellStart[cy * cols + cx + 1]++;
+            }
+        }
+        // 2) 前缀和
+        for (int c = 0; c < cols * rows; c++) cellStart[c + 1] += cellStart[c];
+
+        // 3) 填充（按下标升序写入）
+        final int[] cellItems = new int[cellStart[cols * rows]];
+        final int[] cursor = new int[cols * rows];
+        System.arraycopy(cellStart, 0, cursor, 0, cols * rows);
+        for (int i = 0; i < n; i++) {
+            if (!isValid(x0[i], y0[i], x1[i], y1[i])) continue;
+            int cx0 = cellOf(x0[i], ox, cs), cx1 = cellOf(x1[i], ox, cs);
+            int cy0 = cellOf(y0[i], oy, cs), cy1 = cellOf(y1[i], oy, cs);
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) cellItems[cursor[cy * cols + cx]++] = i;
+            }
+        }
+
+        return new RectGridIndex(cs, ox, oy, cols, rows, cellStart, cellItems, x0, y0, x1, y1);
+    }
+
+    // ================= 点查询 =================
+
+    /** 点 (x,y) 是否在任一矩形内（与逐个 Rectangle.contains 等价） */
+    public boolean containsPoint(float x, float y) {
+        return firstContaining(x, y) >= 0;
+    }
+
+    /** 返回包含 (x,y) 的最小矩形下标；没有则 -1 */
+    public int firstContaining(float x, float y) {
+        int cell = cellAt(x, y);
+        if (cell < 0) return -1;
+        for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+            int i = cellItems[k];
+            if (contains(i, x, y)) return i;
+        }
+        return -1;
+    }
+
+    /** 矩形 i 是否包含 (x,y)（闭区间，同 Rectangle.contains） */
+    public boolean contains(int i, float x, float y) {
+        return minX[i] <= x && maxX[i] >= x && minY[i] <= y && maxY[i] >= y;
+    }
+
+    /** 点所在格子的线性下标；在网格外返回 -1 */
+    public int cellAt(float x, float y) {
+        float fx = (x - originX) / cellSize;
+        float fy = (y - originY) / cellSize;
+        if (!(fx >= 0f) || !(fy >= 0f)) return -1; // 负数或 NaN
+        int cx = (int) fx, cy = (int) fy;
+        if (cx >= cols || cy >= rows) return -1;
+        return cy * cols + cx;
+    }
+
+    // ================= 只读访问（给射线/距离场等遍历用） =================
+
+    public int size()          { return minX.length; }
+    public float cellSize()    { return cellSize; }
+    public float originX()     { return originX; }
+    public float originY()     { return originY; }
+    public int cols()          { return cols; }
+    public int rows()          { return rows; }
+
+    /** 格子 cell 的第一个条目位置（配合 cellEnd / itemAt 遍历） */
+    public int cellBegin(int cell) { return cellStart[cell]; }
+    public int cellEnd(int cell)   { return cellStart[cell + 1]; }
+    public int itemAt(int k)       { return cellItems[k]; }
+
+    public float minX(int i) { return minX[i]; }
+    public float minY(int i) { return minY[i]; }
+    public float maxX(int i) { return maxX[i]; }
+    public float maxY(int i) { return maxY[i]; }
+
+    /** 索引占用的大致字节数（不含对象头） */
+    public long memoryBytes() {
+        return 4L * (cellStart.length + cellItems.length) + 16L * minX.length;
+    }
+
+    // ================= 工具 =================
+
+    private static int cellOf(float v, float origin, float cs) {
+        return (int) Math.floor((v - origin) / cs);
+    }
+
+    private static boolean isValid(float x0, float y0, float x1, float y1) {
+        return x0 <= x1 && y0 <= y1; // NaN 也会被过滤
+    }
+}
@@ -13,24 +13,39 @@ import java.util.List;
 public final class TiledWorldUtils {
 
     private static final String LAYER_COLLISION = "Collision";
+    private static final String LAYER_ROAD_SIDE = "RoadSide";   // 街区地图的路外区域，和 Collision 一样不可通行
+    private static final float  GRID_CELL_SIZE  = 1f;   // 空间索引格子边长（世界单位 = 1 tile）
+    private static final float  SDF_CELL_SIZE   = 0.25f; // 距离场采样间距（每 tile 4 个采样）
 
     private final float unitScale;
     private final int mapHeightPx;
 
     private final List<Rectangle> collisionsWorld = new ArrayList<>();
+    private RectGridIndex collisionIndex;            // cacheCollisionRects 时构建一次，之后只读
+    private DistanceField distanceField;             // 同上：Collision 的有符号距离场
+
+    // 扇形角度表缓存（表本身不可变；槽位替换是良性竞争，多线程共享安全）
+    private final FanTable[] fanTables = new FanTable[8];
+    private int fanTableNext = 0;
 
     public TiledWorldUtils(TiledMap map, float unitScale, int mapHeightPx) {
         this.unitScale   = unitScale;
         this.mapHeightPx = mapHeightPx;
         cacheCollisionRects(map);
+        buildDistanceField(map);
     }
 
     private void cacheCollisionRects(TiledMap map) {
         collisionsWorld.clear();
-        MapLayer col = map.getLayers().get(LAYER_COLLISION);
-        if (col == null) return;
+        addRects(map.getLayers().get(LAYER_COLLISION));
+        addRects(map.getLayers().get(LAYER_ROAD_SIDE));
+        // 均匀网格索引：点查询只看一个格子
+        collisionIndex = RectGridIndex.build(collisionsWorld, GRID_CELL_SIZE);
+    }
 
-        for (MapObject o : col.getObjects()) {
+    private void addRects(MapLayer layer) {
+        if (layer == null) return;
+        for (MapObject o : layer.getObjects()) {
             if (o instanceof RectangleMapObject rmo) {
                 Rectangle rp = rmo.getRectangle();               // 像素（左上原点）
                 float wx = rp.x * unitScale;
@@ -38,31 +53,143 @@ public final class TiledWorldUtils {
                 float ww = rp.width  * unitScale;
                 float wh = rp.height * unitScale;
                 collisionsWorld.add(new Rectangle(wx, wy, ww, wh));
-
             }
         }
     }
 
-    /** 点 (x,y) 是否在任一 Collision 矩形内 */
-    public boolean isCollisionAt(float x, float y) {
+    /** 距离场覆盖整张地图（地图属性 width/height）与所有矩形，外扩 1 tile */
+    private void buildDistanceField(TiledMap map) {
+        float x0 = 0f, y0 = 0f, x1 = 0f, y1 = 0f;
+        Integer tilesW = map.getProperties().get("width", Integer.class);
+        Integer tilesH = map.getProperties().get("height", Integer.class);
+        Integer tileW  = map.getProperties().get("tilewidth", Integer.class);
+        Integer tileH  = map.getProperties().get("tileheight", Integer.class);
+        if (tilesW != null && tilesH != null && tileW != null && tileH != null) {
+            x1 = tilesW * tileW * unitScale;
+            y1 = tilesH * tileH * unitScale;
+        }
         for (Rectangle r : collisionsWorld) {
-            if (r.contains(x, y)) return true;
+            x0 = Math.min(x0, r.x);           y0 = Math.min(y0, r.y);
+            x1 = Math.max(x1, r.x + r.width); y1 = Math.max(y1, r.y + r.height);
         }
-        return false;
+        distanceField = DistanceField.build(collisionIndex, x0 - 1f, y0 - 1f, x1 + 1f, y1 + 1f, SDF_CELL_SIZE);
+    }
+
+    /** 点 (x,y) 是否在任一 Collision 矩形内（网格索引，语义同 Rectangle.contains） */
+    public boolean isCollisionAt(float x, float y) {
+        return collisionIndex.containsPoint(x, y);
+    }
+
+    /** 碰撞矩形的空间索引（只读） */
+    public RectGridIndex getCollisionIndex() {
+        return collisionIndex;
+    }
+
+    /** Collision 的有符号距离场（只读） */
+    public DistanceField getDistanceField() {
+        return distanceField;
+    }
+
+    /** 点 (x,y) 到最近墙的近似距离（O(1) 查表；墙内为负，误差见 DistanceField.errorBound） */
+    public float clearanceAt(float x, float y) {
+        return distanceField.distance(x, y);
     }
 
     /**
      * 从 (x0,y0,heading) 沿朝向做“射线”，返回到最近 Collision 的**距离**；若没撞到，返回 maxDist。
-     * step 越小越精细（建议 0.25f）。
+     * step 越小越精细（建议 0.25f）。固定步长版本，结果按 step 量化；新代码请用不带 step 的精确版本。
      */
     public float distanceToCollisionForward(float x0, float y0, float headingRad, float maxDist, float step) {
+        final float c = MathUtils.cos(headingRad);
+        final float s = MathUtils.sin(headingRad);
         float d = 0f;
         while (d <= maxDist) {
-            float sx = x0 + d * MathUtils.cos(headingRad);
-            float sy = y0 + d * MathUtils.sin(headingRad);
-            if (isCollisionAt(sx, sy)) return d;
+            if (isCollisionAt(x0 + d * c, y0 + d * s)) return d;
             d += step;
         }
         return maxDist;
     }
+
+    /** 精确版：网格 DDA + slab 求交，返回到最近 Collision 的距离；没撞到返回 maxDist（零分配） */
+    public float distanceToCollisionForward(float x0, float y0, float headingRad, float maxDist) {
+        return GridRaycaster.distance(collisionIndex, x0, y0,
+            MathUtils.cos(headingRad), MathUtils.sin(headingRad), maxDist);
+    }
+
+    /** 精确射线检测：结果（距离/命中点/法线/矩形下标）写入调用方持有的 out，返回是否命中 */
+    public boolean raycast(float x0, float y0, float headingRad, float maxDist, RaycastHit out) {
+        return GridRaycaster.cast(collisionIndex, x0, y0,
+            MathUtils.cos(headingRad), MathUtils.sin(headingRad), maxDist, out);
+    }
+
+    /** 同上，直接给单位方向向量（批量射线可预先算好 cos/sin） */
+    public boolean raycastDir(float x0, float y0, float dirX, float dirY, float maxDist, RaycastHit out) {
+        return GridRaycaster.cast(collisionIndex, x0, y0, dirX, dirY, maxDist, out);
+    }
+
+    /**
+     * Sphere tracing 版：按距离场给出的“安全余量”跳跃前进，空旷处一步跨很远；
+     * 余量不足 minStep 时，对接下来长 minStep 的一小段做精确求交（不会穿过薄墙）。没撞到返回 maxDist。
+     */
+    public float distanceToCollisionForwardTraced(float x0, float y0, float headingRad, float maxDist, float minStep) {
+        final float c = MathUtils.cos(headingRad);
+        final float s = MathUtils.sin(headingRad);
+        final float margin = distanceField.errorBound();
+        final float minS = Math.max(0.01f, minStep);
+        float d = 0f;
+        while (d < maxDist) {
+            float px = x0 + d * c, py = y0 + d * s;
+            float safe = distanceField.distance(px, py) - margin;
+            if (safe > minS) {
+                d += safe;
+                continue;
+            }
+            float seg = Math.min(minS, maxDist - d);
+            float t = GridRaycaster.distance(collisionIndex, px, py, c, s, seg);
+            if (t < seg) return d + t;
+            d += seg;
+        }
+        return maxDist;
+    }
+
+    // ================= 批量扇形射线 =================
+
+    /**
+     * 一次打完整个扇形：count 根射线均匀分布在 heading ± fovHalf，结果写入调用方持有的数组
+     * （SoA：outDist[i] / outEndX[i] / outEndY[i]）。角度表预计算并缓存，整个过程零分配。
+     */
+    public void castFan(float originX, float originY, float heading, float fovHalf, int count, float maxDist,
+                        float[] outDist, float[] outEndX, float[] outEndY) {
+        castFan(originX, originY, heading, fanTable(fovHalf, count), 0, count, maxDist, outDist, outEndX, outEndY);
+    }
+
+    /** 只打扇形中 [from, to) 这几根（分帧扫描用）；数组下标与射线序号一致 */
+    public void castFan(float originX, float originY, float heading, FanTable table, int from, int to, float maxDist,
+                        float[] outDist, float[] outEndX, float[] outEndY) {
+        final float ch = (float) Math.cos(heading);   // 每扇只算一次，用精确版
+        final float sh = (float) Math.sin(heading);
+        final int end = Math.min(to, table.count());
+        for (int i = Math.max(0, from); i < end; i++) {
+            // 旋转：(cos(h+off), sin(h+off)) = R(h) * (cos off, sin off)
+            float dx = ch * table.cosOff(i) - sh * table.sinOff(i);
+            float dy = sh * table.cosOff(i) + ch * table.sinOff(i);
+            float d = GridRaycaster.distance(collisionIndex, originX, originY, dx, dy, maxDist);
+            outDist[i] = d;
+            outEndX[i] = originX + dx * d;
+            outEndY[i] = originY + dy * d;
+        }
+    }
+
+    /** 取（或建）(fovHalf, count) 对应的角度表；加锁，多线程共享同一个 world 也安全（热路径请先取表再批量 castFan） */
+    public synchronized FanTable fanTable(float fovHalf, int count) {
+        final FanTable[] tables = fanTables;
+        for (FanTable t : tables) {
+            if (t != null && t.matches(fovHalf, count)) return t;
+        }
+        FanTable t = new FanTable(fovHalf, count);
+        int slot = fanTableNext;
+        fanTableNext = (slot + 1) % tables.length;
+        tables[slot] = t;
+        return t;
+    }
 }
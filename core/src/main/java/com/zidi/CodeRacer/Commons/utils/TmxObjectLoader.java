@@ -0,0 +1,165 @@
+package com.zidi.CodeRacer.Commons.utils;
+
+import com.badlogic.gdx.maps.MapGroupLayer;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapLayers;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.EllipseMapObject;
+import com.badlogic.gdx.maps.objects.PolygonMapObject;
+import com.badlogic.gdx.maps.objects.PolylineMapObject;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Polygon;
+import com.badlogic.gdx.math.Polyline;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.XmlReader;
+import com.badlogic.gdx.utils.XmlReader.Element;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 无 GL 的 TMX 加载器：只读地图属性和对象层（objectgroup / group），不加载 tileset 贴图。
+ *  - 坐标语义与 TmxMapLoader 默认参数（flipY=true）完全一致：矩形 y = 地图像素高 - y - height
+ *  - 点对象与 TmxMapLoader 一样生成 0x0 的 RectangleMapObject，属性里带 x/y/width/height/id
+ *  - 瓦片对象（gid）需要贴图，直接跳过
+ * 供无窗口的 headless 仿真使用（TiledWorldUtils、出生点读取等只依赖对象层）。
+ */
+public final class TmxObjectLoader {
+    private TmxObjectLoader() {}
+
+    public static TiledMap load(File tmx) {
+        try (InputStream in = new FileInputStream(tmx)) {
+            return load(in);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't load tmx: " + tmx, e);
+        }
+    }
+
+    public static TiledMap load(InputStream in) {
+        Element root = new XmlReader().parse(in);
+        TiledMap map = new TiledMap();
+
+        int tilesW = root.getIntAttribute("width", 0);
+        int tilesH = root.getIntAttribute("height", 0);
+        int tileW  = root.getIntAttribute("tilewidth", 0);
+        int tileH  = root.getIntAttribute("tileheight", 0);
+
+        MapProperties mp = map.getProperties();
+        mp.put("orientation", root.getAttribute("orientation", "orthogonal"));
+        mp.put("width", tilesW);
+        mp.put("height", tilesH);
+        mp.put("tilewidth", tileW);
+        mp.put("tileheight", tileH);
+        loadProperties(mp, root.getChildByName("properties"));
+
+        float mapHeightPx = tilesH * tileH;
+        for (int i = 0; i < root.getChildCount(); i++) {
+            loadLayer(map.getLayers(), root.getChild(i), mapHeightPx);
+        }
+        return map;
+    }
+
+    private static void loadLayer(MapLayers parent, Element e, float mapHeightPx) {
+        if (e.getName().equals("group")) {
+            MapGroupLayer group = new MapGroupLayer();
+            loadBasicLayerInfo(group, e);
+            for (int i = 0; i < e.getChildCount(); i++) {
+                loadLayer(group.getLayers(), e.getChild(i), mapHeightPx);
+            }
+            for (MapLayer l : group.getLayers()) l.setParent(group);
+            parent.add(group);
+        } else if (e.getName().equals("objectgroup")) {
+            MapLayer layer = new MapLayer();
+            loadBasicLayerInfo(layer, e);
+            for (Element o : e.getChildrenByName("object")) {
+                MapObject obj = loadObject(o, mapHeightPx);
+                if (obj != null) layer.getObjects().add(obj);
+            }
+            parent.add(layer);
+        }
+        // 瓦片层 / 图片层：headless 下用不到，忽略
+    }
+
+    private static void loadBasicLayerInfo(MapLayer layer, Element e) {
+        layer.setName(e.getAttribute("name", null));
+        layer.setOpacity(e.getFloatAttribute("opacity", 1f));
+        layer.setVisible(e.getIntAttribute("visible", 1) == 1);
+        layer.setOffsetX(e.getFloatAttribute("offsetx", 0f));
+        layer.setOffsetY(e.getFloatAttribute("offsety", 0f));
+        loadProperties(layer.getProperties(), e.getChildByName("properties"));
+    }
+
+    /** 与 BaseTmxMapLoader.loadObject 相同的坐标换算（flipY=true，不转 tile 空间） */
+    private static MapObject loadObject(Element e, float heightPx) {
+        if (e.getAttribute("gid", null) != null) return null;
+
+        float x = e.getFloatAttribute("x", 0f);
+        float y = heightPx - e.getFloatAttribute("y", 0f);
+        float width  = e.getFloatAttribute("width", 0f);
+        float height = e.getFloatAttribute("height", 0f);
+
+        MapObject object = null;
+        Element child;
+        if ((child = e.getChildByName("polygon")) != null) {
+            Polygon polygon = new Polygon(parsePoints(child.getAttribute("points")));
+            polygon.setPosition(x, y);
+            object = new PolygonMapObject(polygon);
+        } else if ((child = e.getChildByName("polyline")) != null) {
+            Polyline polyline = new Polyline(parsePoints(child.getAttribute("points")));
+            polyline.setPosition(x, y);
+            object = new PolylineMapObject(polyline);
+        } else if (e.getChildByName("ellipse") != null) {
+            object = new EllipseMapObject(x, y - height, width, height);
+        }
+        if (object == null) {
+            object = new RectangleMapObject(x, y - height, width, height);
+        }
+
+        object.setName(e.getAttribute("name", null));
+        MapProperties p = object.getProperties();
+        String rotation = e.getAttribute("rotation", null);
+        if (rotation != null) p.put("rotation", Float.parseFloat(rotation));
+        String type = e.getAttribute("type", null);
+        if (type != null) p.put("type", type);
+        int id = e.getIntAttribute("id", 0);
+        if (id != 0) p.put("id", id);
+        p.put("x", x);
+        p.put("y", y - height);
+        p.put("width", width);
+        p.put("height", height);
+        object.setVisible(e.getIntAttribute("visible", 1) == 1);
+        loadProperties(p, e.getChildByName("properties"));
+        return object;
+    }
+
+    private static float[] parsePoints(String points) {
+        String[] pts = points.split(" ");
+        float[] v = new float[pts.length * 2];
+        for (int i = 0; i < pts.length; i++) {
+            String[] xy = pts[i].split(",");
+            v[i * 2]     = Float.parseFloat(xy[0]);
+            v[i * 2 + 1] = -Float.parseFloat(xy[1]); // flipY
+        }
+        return v;
+    }
+
+    /** 自定义属性：int / float / bool 转成对应类型，其余（string/color/file…）保留字符串 */
+    private static void loadProperties(MapProperties props, Element properties) {
+        if (properties == null) return;
+        for (Element prop : properties.getChildrenByName("property")) {
+            String name  = prop.getAttribute("name", null);
+            String value = prop.getAttribute("value", null);
+            if (value == null) value = prop.getText();
+            String type  = prop.getAttribute("type", null);
+            if (name == null) continue;
+            if ("int".equals(type))        props.put(name, Integer.parseInt(value));
+            else if ("float".equals(type)) props.put(name, Float.parseFloat(value));
+            else if ("bool".equals(type))  props.put(name, Boolean.parseBoolean(value));
+            else                           props.put(name, value);
+        }
+    }
+}
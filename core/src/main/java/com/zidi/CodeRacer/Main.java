@@ -2,40 +2,54 @@ package com.zidi.CodeRacer;
 
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.maps.MapLayer;
-import com.badlogic.gdx.maps.MapObject;
-import com.badlogic.gdx.maps.MapProperties;
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.maps.tiled.TmxMapLoader;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
-import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
-import com.zidi.CodeRacer.vehicle.commands.CommandRunner;
-import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
-import com.zidi.CodeRacer.vehicle.commands.Impl.TurnLeft90Command;
-import com.zidi.CodeRacer.vehicle.commands.Impl.TurnRight90Command;
+import com.zidi.CodeRacer.sim.EpisodeSpec;
+import com.zidi.CodeRacer.sim.FixedStepClock;
+import com.zidi.CodeRacer.sim.RacingLineCache;
+import com.zidi.CodeRacer.sim.Simulation;
+import com.zidi.CodeRacer.sim.Track;
+import com.zidi.CodeRacer.sim.trace.TraceFrame;
+import com.zidi.CodeRacer.sim.trace.TraceHeader;
+import com.zidi.CodeRacer.sim.trace.TraceScrubber;
 import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy;
-import com.zidi.CodeRacer.vehicle.components.frame.Frame;
+import com.zidi.CodeRacer.vehicle.components.frame.MountSite;
 import com.zidi.CodeRacer.vehicle.components.frame.Pose;
-import com.zidi.CodeRacer.vehicle.components.frame.Impl.WoodenFrame;
-import com.zidi.CodeRacer.vehicle.components.sensor.Impl.DefaultSensor;
-import com.zidi.CodeRacer.vehicle.components.sensor.Impl.SectorSweepSensor;
-import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
-import com.zidi.CodeRacer.vehicle.runtime.adapters.FrameVehicleContext;
-
+import com.zidi.CodeRacer.vehicle.runtime.Impl.VehicleUpdater;
+import com.zidi.CodeRacer.world.coordinate.WorldCoordinateSystem;
+import com.zidi.CodeRacer.world.nav.RacingLine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 窗口端：只负责推进 Simulation 并把它的状态画出来，逻辑都在 sim 包里。
+ * 仿真按固定步长推进（默认与 headless 的 EpisodeSpec.DEFAULT_DT 相同，-Dcoderacer.hz=&lt;Hz&gt; 可改），渲染帧率只影响画面，不影响结果；
+ * 车身在上一步与当前步之间插值绘制，射线画的是最近一步的传感器状态。
+ * 设置 -Dcoderacer.replay=&lt;trace&gt; 时按录像回放（TraceScrubber），底部是进度条：
+ *   空格 播放 / 暂停，← / → 前后跳 1 秒，, / . 暂停并逐帧，Home / End 到头 / 尾，鼠标点或拖进度条跳到任意位置。
+ *   画面直接画录像里的位姿和测距；sim 只在播放越过它当前那一步时按录下的测距往前走（拖回去重看时不动），
+ *   按顺序放到结尾时 sim 正好追上，接着实时跑；跳着看到结尾则停在结尾。
+ * 设置 -Dcoderacer.physics=box2d 时车身用 Box2D 刚体后端推进（见 Simulation；回放时不生效）。
+ * 赛车线（RacingLineCache，首次启动时算好写盘）画成细线，另有一辆幽灵车用 VehicleUpdater 沿它跑，
+ * 对照策略车的走线；-Dcoderacer.racingLine=off 关闭。
+ */
 public class Main extends ApplicationAdapter {
 
-    private static final int   STEER_POLARITY = -1; // 你的转向极性
     private static final float VIEW_W = 24f, VIEW_H = 14f;
     private static final String TMX_PATH = "Maps/circuit_04.tmx";
-    private static final String LAYER_SPAWNS = "Spawns";
-    private static final float CRUISE_SPEED = 5.0f; // tile/s，别太快
 
     private OrthographicCamera camera;
     private Viewport viewport;
@@ -43,23 +57,26 @@ public class Main extends ApplicationAdapter {
 
     private TiledMap map;
     private OrthogonalTiledMapRenderer mapRenderer;
-    private float unitScale = 1f / 16f;
     private float mapTilesW = 1, mapTilesH = 1;
-    private int tileWpx = 16, tileHpx = 16, mapHeightPx = 1;
-
-    private TiledWorldUtils world;
 
-    private Frame frame;
+    private Simulation sim;
     private Pose pose;
-    private VehicleContext ctx;
-
-    private DefaultSensor sFront, sLeft, sRight;
 
-    // 成员
-    private final StickyTurnPolicy policy = new StickyTurnPolicy();
-    private boolean lastWasTurning = false;
-
-    private CommandRunner runner;
+    private FixedStepClock clock;
+    private TraceScrubber replay;
+    private final Matrix4 uiMatrix = new Matrix4();
+    private static final float BAR_H = 6f, BAR_MARGIN = 12f;   // 进度条（像素）
+    private static final float SCRUB_SECONDS = 1f;
+    // 上一步的位姿（插值用）与本帧插值结果
+    private float prevX, prevY, prevH;
+    private float drawX, drawY, drawH;
+
+    // 赛车线 + 沿它跑的幽灵车（没有赛车线时都为 null）
+    private RacingLine racingLine;
+    private final VehicleUpdater ghostDriver = new VehicleUpdater();
+    private Pose ghost;
+    private float ghostPrevX, ghostPrevY, ghostPrevH;
+    private float ghostDrawX, ghostDrawY, ghostDrawH;
 
     @Override
     public void create() {
@@ -68,72 +85,31 @@ public class Main extends ApplicationAdapter {
         viewport.apply(true);
         sr = new ShapeRenderer();
 
+        // 渲染需要贴图，仍用 TmxMapLoader；仿真部分与 headless 共用 Track
         map = new TmxMapLoader().load(TMX_PATH);
-        MapProperties p = map.getProperties();
-        tileWpx = p.get("tilewidth", Integer.class);
-        tileHpx = p.get("tileheight", Integer.class);
-        int tilesW  = p.get("width", Integer.class);
-        int tilesH  = p.get("height", Integer.class);
-        unitScale   = 1f / tileWpx;
-        mapTilesW   = tilesW;
-        mapTilesH   = tilesH;
-        mapHeightPx = tilesH * tileHpx;
-
-        mapRenderer = new OrthogonalTiledMapRenderer(map, unitScale);
-        world = new TiledWorldUtils(map, unitScale, mapHeightPx);
-
-        // 出生
-        Vector2 spawn = readFirstSpawnPointWorldNoFlip();
-        float headingRad = readSpawnHeadingRad();
-
-        // 车体
-        frame = new WoodenFrame("frame-wood", "Wooden Frame", "Basic frame", 5, 10);
-        pose  = frame.pose();
-        pose.set(spawn.x, spawn.y, headingRad, CRUISE_SPEED);
-
-        // 适配器 + 命令执行器
-        ctx = new FrameVehicleContext(frame);
-        runner = new CommandRunner();
-
-        // 三个传感器（按你现有挂点）
-// ==================== 前向扫描 ====================
-// ±30° 扇形，探测 25 tile，31 根射线，5 帧扫完
-        sFront = new SectorSweepSensor(
-            "s-front","Front","front",1,1,
-            world, new Pose(),
-            (float)Math.toRadians(30f),  // fovHalfRad：±30°
-            25f,                         // rMax：最远距离
-            31,                          // nTotal：总射线数
-            5,                           // kFrames：几帧扫完
-            0.25f,                       // stepLen：步长
-            0.3f                         // emaAlpha：指数平滑系数
-        );
-
-// ==================== 左肩扫描（邻道） ====================
-// ±10° 扇形，探测 8 tile，9 根射线，4 帧扫完
-        sLeft = new SectorSweepSensor(
-            "s-left","Left","left",1,1,
-            world, new Pose(),
-            (float)Math.toRadians(10f),
-            8f,
-            9, 4,
-            0.25f, 0.3f
-        );
-
-// ==================== 右肩扫描（邻道） ====================
-        sRight = new SectorSweepSensor(
-            "s-right","Right","right",1,1,
-            world, new Pose(),
-            (float)Math.toRadians(10f),
-            8f,
-            9, 4,
-            0.25f, 0.3f
-        );
-
-
-        frame.frontSite().add(sFront);
-        frame.leftSite().add(sLeft);
-        frame.rightSite().add(sRight);
+        Track track = Track.fromMap(TMX_PATH, map);
+        mapTilesW = track.tilesW();
+        mapTilesH = track.tilesH();
+        mapRenderer = new OrthogonalTiledMapRenderer(map, track.unitScale());
+        Gdx.app.log("World", TMX_PATH + " -> " + track.world().getDistanceField());
+
+        float dt = 1f / FixedStepClock.configuredHz(1f / EpisodeSpec.DEFAULT_DT);
+        String replayPath = System.getProperty("coderacer.replay");
+        if (replayPath != null) {
+            replay = openReplay(replayPath);
+            TraceHeader h = replay.header();
+            sim = new Simulation(track, new StickyTurnPolicy(), h.spawnX(), h.spawnY(), h.spawnHeadingRad());
+            dt = h.dt();
+            Gdx.app.log("Replay", replayPath + ": " + h + ", " + replay.tickCount() + " ticks"
+                + " (space play/pause, left/right ±1 s, comma/period ±1 tick, home/end, drag the bar)");
+        } else {
+            sim = new Simulation(track, "box2d".equals(System.getProperty("coderacer.physics")));
+        }
+        pose = sim.getPose();
+        racingLine = loadRacingLine(track);
+        if (racingLine != null) ghost = new Pose(track.spawnX(), track.spawnY(), track.spawnHeadingRad(), 0f);
+        clock = new FixedStepClock(1f / dt);
+        savePrevPose();
 
         camera.position.set(pose.getX(), pose.getY(), 0f);
         camera.update();
@@ -141,42 +117,16 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void render() {
-
-        float dt = Gdx.graphics.getDeltaTime();
-
-        // --- 1) 更新三传感器位姿并测距（只用现有 front/left/right 三根射线） ---
-        updateSensorPoseFromSite(sFront, frame.frontSite());
-        updateSensorPoseFromSite(sLeft, frame.leftSite());
-        updateSensorPoseFromSite(sRight, frame.rightSite());
-
-        float dF = raycast(sFront, 50f);
-        float dL = raycast(sLeft, 50f);
-        float dR = raycast(sRight, 50f);
-
-        // --- 2) 识别当前是否“处于转弯命令中” ---
-        boolean turningNow = !(runner.getCurrent() == null
-            || runner.getCurrent() instanceof MoveForwardCommentImpl);
-
-        // 若上一帧在转、这一帧不转 => 刚刚“转完”，立刻把左右比例锁为新直线基线
-        if (!turningNow && lastWasTurning) {
-            policy.onTurnCommitted(dL, dR);
-        }
-        lastWasTurning = turningNow;
-
-        // --- 3) 仅在空闲时进行决策并下发下一条命令 ---
-        if (runner.isIdle()) {
-            StickyTurnPolicy.Decision dec = policy.decide(dF, dL, dR);
-            switch (dec) {
-                case TURN_LEFT -> runner.addCommand(new TurnLeft90Command(STEER_POLARITY));
-                case TURN_RIGHT -> runner.addCommand(new TurnRight90Command(STEER_POLARITY));
-                default -> runner.addCommand(new MoveForwardCommentImpl());
-            }
+        handleReplayInput();
+        int steps = clock.advance(Gdx.graphics.getDeltaTime());
+        for (int i = 0; i < steps; i++) {
+            savePrevPose();
+            stepSimulation(clock.stepDt());
+            stepGhost(clock.stepDt());
         }
+        interpolatePose(clock.alpha());
 
-        // --- 4) 执行当前命令（可能是刚刚入队的） ---
-        runner.update(dt, ctx);
-
-        // --- 5) 渲染（你可以选择在转弯时不画射线；这里一直画便于调参） ---
+        // 渲染（一直画三根主射线，便于调参）
         smoothFollowCamera();
 
         Gdx.gl.glClearColor(0.08f, 0.1f, 0.12f, 1f);
@@ -186,64 +136,169 @@ public class Main extends ApplicationAdapter {
 
         sr.setProjectionMatrix(camera.combined);
         sr.begin(ShapeRenderer.ShapeType.Line);
-        drawCarTriangle(sr, pose.getX(), pose.getY(), pose.getHeadingRad(), 0.45f);
-
-        // 若你想转弯时不画射线，可以用 if (!turningNow) 包起来
-        drawSensorRay(sr, sFront, dF);
-        drawSensorRay(sr, sLeft, dL);
-        drawSensorRay(sr, sRight, dR);
+        if (racingLine != null) drawRacingLine();
+        drawCarTriangle(sr, drawX, drawY, drawH, 0.45f);
+        if (scrubbing()) {
+            // 录像里的这一步：位姿和三路测距都取自录像
+            TraceFrame f = replay.frame();
+            drawSensorRay(sr, sim.getFrame().frontSite(), f.x(), f.y(), f.heading(), f.dF());
+            drawSensorRay(sr, sim.getFrame().leftSite(),  f.x(), f.y(), f.heading(), f.dL());
+            drawSensorRay(sr, sim.getFrame().rightSite(), f.x(), f.y(), f.heading(), f.dR());
+        } else {
+            float x = pose.getX(), y = pose.getY(), h = pose.getHeadingRad();
+            drawSensorRay(sr, sim.getFrame().frontSite(), x, y, h, sim.getFrontDistance());
+            drawSensorRay(sr, sim.getFrame().leftSite(),  x, y, h, sim.getLeftDistance());
+            drawSensorRay(sr, sim.getFrame().rightSite(), x, y, h, sim.getRightDistance());
+        }
         sr.end();
+        if (replay != null) drawTimeline();
     }
 
+    @Override
+    public void dispose() {
+        sr.dispose();
+        mapRenderer.dispose();
+        map.dispose();
+        sim.dispose();
+        closeReplay();
+    }
 
-    // ---------- 渲染 ----------
-    private void drawSceneOnlyCar() {
-        smoothFollowCamera();
-        Gdx.gl.glClearColor(0.08f, 0.1f, 0.12f, 1f);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-        mapRenderer.setView(camera);
-        mapRenderer.render();
+    // ---------- 仿真 / 回放 ----------
+    private void stepSimulation(float dt) {
+        if (replay != null) {
+            boolean playing = replay.isPlaying();
+            if (replay.advance()) {
+                TraceFrame f = replay.frame();
+                // 游标正好走到 sim 的下一步时让 sim 跟上；拖回去重看的那段 sim 不动
+                if (f.tick() == sim.getTicks()) sim.step(dt, f.dF(), f.dL(), f.dR());
+                return;
+            }
+            if (!playing || sim.getTicks() < replay.tickCount()) return;   // 暂停中，或跳着看到了结尾
+            Gdx.app.log("Replay", "finished at tick " + sim.getTicks() + ", continuing live");
+            closeReplay();
+        }
+        sim.step(dt);
+    }
 
-        sr.setProjectionMatrix(camera.combined);
-        sr.begin(ShapeRenderer.ShapeType.Line);
-        drawCarTriangle(sr, pose.getX(), pose.getY(), pose.getHeadingRad(), 0.45f);
-        sr.end();
+    private void stepGhost(float dt) {
+        if (ghost != null) ghostDriver.step(ghost, racingLine, dt);
     }
 
-    private void drawSceneWithRays(float dF, float dL, float dR) {
-        smoothFollowCamera();
-        Gdx.gl.glClearColor(0.08f, 0.1f, 0.12f, 1f);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
-        mapRenderer.setView(camera);
-        mapRenderer.render();
+    /** 读缓存或现算；关掉、地图不是闭环或缓存目录不可写时返回 null（不影响主车） */
+    private static RacingLine loadRacingLine(Track track) {
+        if ("off".equals(System.getProperty("coderacer.racingLine"))) return null;
+        try {
+            RacingLine line = RacingLineCache.forTrack(track);
+            Gdx.app.log("RacingLine", String.format(Locale.ROOT, "%d points, %.1f long, lap %.2f s",
+                line.size(), line.length(), line.lapTime()));
+            return line;
+        } catch (IOException | IllegalStateException e) {
+            Gdx.app.log("RacingLine", "unavailable: " + e.getMessage());
+            return null;
+        }
+    }
 
-        sr.setProjectionMatrix(camera.combined);
-        sr.begin(ShapeRenderer.ShapeType.Line);
-        drawCarTriangle(sr, pose.getX(), pose.getY(), pose.getHeadingRad(), 0.45f);
-        drawSensorRay(sr, sFront, dF);
-        drawSensorRay(sr, sLeft,  dL);
-        drawSensorRay(sr, sRight, dR);
+    /** 回放中且游标已经读到帧：画录像里的状态 */
+    private boolean scrubbing() {
+        return replay != null && replay.tick() >= 0;
+    }
+
+    private void handleReplayInput() {
+        if (replay == null) return;
+        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) replay.toggle();
+        if (Gdx.input.isKeyJustPressed(Input.Keys.LEFT))  replay.stepBySeconds(-SCRUB_SECONDS);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.RIGHT)) replay.stepBySeconds(SCRUB_SECONDS);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.COMMA)) {
+            replay.pause();
+            replay.stepBy(-1);
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.PERIOD)) {
+            replay.pause();
+            replay.stepBy(1);
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.HOME)) replay.seek(0);
+        if (Gdx.input.isKeyJustPressed(Input.Keys.END))  replay.seek(replay.tickCount() - 1);
+        // 点 / 拖进度条（屏幕坐标 y 向下）
+        if (Gdx.input.isTouched() && Gdx.graphics.getHeight() - Gdx.input.getY() <= BAR_H + 2 * BAR_MARGIN) {
+            float w = Gdx.graphics.getWidth() - 2 * BAR_MARGIN;
+            replay.seekFraction((Gdx.input.getX() - BAR_MARGIN) / Math.max(1f, w));
+        }
+    }
+
+    /** 底部进度条：灰底，白色 = 当前位置，绿色刻度 = sim 走到的那一步 */
+    private void drawTimeline() {
+        float w = Gdx.graphics.getWidth(), h = Gdx.graphics.getHeight();
+        float barW = w - 2 * BAR_MARGIN;
+        uiMatrix.setToOrtho2D(0f, 0f, w, h);
+        sr.setProjectionMatrix(uiMatrix);
+        sr.begin(ShapeRenderer.ShapeType.Filled);
+        sr.setColor(0.3f, 0.3f, 0.3f, 1f);
+        sr.rect(BAR_MARGIN, BAR_MARGIN, barW, BAR_H);
+        sr.setColor(replay.isPlaying() ? 0.9f : 0.6f, 0.9f, 0.9f, 1f);
+        sr.rect(BAR_MARGIN, BAR_MARGIN, barW * replay.fraction(), BAR_H);
+        float simF = replay.tickCount() <= 1 ? 1f : Math.min(1f, (sim.getTicks() - 1) / (float) (replay.tickCount() - 1));
+        sr.setColor(0.2f, 0.9f, 0.3f, 1f);
+        sr.rect(BAR_MARGIN + barW * Math.max(0f, simF) - 1f, BAR_MARGIN - 3f, 2f, BAR_H + 6f);
         sr.end();
+        sr.setColor(1f, 1f, 1f, 1f);
     }
 
-    // ---------- 传感器/测距 ----------
-    private void updateSensorPoseFromSite(DefaultSensor sensor,
-                                          com.zidi.CodeRacer.vehicle.components.frame.MountSite site) {
-        Pose sp = sensor.pose();
-        float hx = pose.getHeadingRad();
-        float wx = localToWorldX(site.getLocalX(), site.getLocalY(), pose.getX(), pose.getY(), hx);
-        float wy = localToWorldY(site.getLocalX(), site.getLocalY(), pose.getX(), pose.getY(), hx);
-        sp.set(wx, wy, wrapAngle(hx + site.getRelAngleRad()), 0f);
+    private static TraceScrubber openReplay(String path) {
+        try {
+            return new TraceScrubber(Path.of(path));
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Couldn't open replay: " + path, e);
+        }
     }
 
-    private float raycast(DefaultSensor s, float maxDist) {
-        Pose sp = s.pose();
-        return world.distanceToCollisionForward(sp.getX(), sp.getY(), sp.getHeadingRad(), maxDist, 0.25f);
+    private void closeReplay() {
+        if (replay == null) return;
+        try {
+            replay.close();
+        } catch (IOException ignored) {
+        }
+        replay = null;
     }
 
-    private void drawSensorRay(ShapeRenderer sr, DefaultSensor s, float d) {
-        Pose sp = s.pose();
-        float sx = sp.getX(), sy = sp.getY(), sh = sp.getHeadingRad();
+    // ---------- 插值 ----------
+    private void savePrevPose() {
+        prevX = pose.getX();
+        prevY = pose.getY();
+        prevH = pose.getHeadingRad();
+        if (ghost != null) {
+            ghostPrevX = ghost.getX();
+            ghostPrevY = ghost.getY();
+            ghostPrevH = ghost.getHeadingRad();
+        }
+    }
+
+    /** alpha=0 为上一步，1 为当前步；朝向走最短角度，避免跨 ±π 时转一整圈 */
+    private void interpolatePose(float alpha) {
+        if (ghost != null) {
+            ghostDrawX = ghostPrevX + (ghost.getX() - ghostPrevX) * alpha;
+            ghostDrawY = ghostPrevY + (ghost.getY() - ghostPrevY) * alpha;
+            ghostDrawH = ghostPrevH + WorldCoordinateSystem.wrapAngleRad(ghost.getHeadingRad() - ghostPrevH) * alpha;
+        }
+        if (scrubbing()) {
+            // 回放：在录像的上一帧与当前帧之间插；暂停 / 刚跳转时 previous 就是当前帧
+            TraceFrame a = replay.previous(), b = replay.frame();
+            if (!replay.isPlaying()) alpha = 1f;
+            drawX = a.x() + (b.x() - a.x()) * alpha;
+            drawY = a.y() + (b.y() - a.y()) * alpha;
+            drawH = a.heading() + WorldCoordinateSystem.wrapAngleRad(b.heading() - a.heading()) * alpha;
+            return;
+        }
+        drawX = prevX + (pose.getX() - prevX) * alpha;
+        drawY = prevY + (pose.getY() - prevY) * alpha;
+        drawH = prevH + WorldCoordinateSystem.wrapAngleRad(pose.getHeadingRad() - prevH) * alpha;
+    }
+
+    // ---------- 渲染 ----------
+    /** 从车身位姿 (x, y, h) 上的安装点 site 沿其朝向画一根长 d 的射线（与 Simulation 摆放传感器的算法相同） */
+    private static void drawSensorRay(ShapeRenderer sr, MountSite site, float x, float y, float h, float d) {
+        float c = MathUtils.cos(h), s = MathUtils.sin(h);
+        float lx = site.getLocalX(), ly = site.getLocalY();
+        float sx = x + (lx * c - ly * s), sy = y + (lx * s + ly * c), sh = h + site.getRelAngleRad();
         float ex = sx + d * MathUtils.cos(sh);
         float ey = sy + d * MathUtils.sin(sh);
         sr.line(sx, sy, ex, ey);
@@ -252,11 +307,24 @@ public class Main extends ApplicationAdapter {
         sr.line(ex, ey - r, ex, ey + r);
     }
 
+    /** 赛车线（闭合折线）+ 幽灵车；画完恢复白色 */
+    private void drawRacingLine() {
+        com.zidi.CodeRacer.world.nav.Path p = racingLine.path();
+        sr.setColor(0.9f, 0.75f, 0.2f, 0.6f);
+        for (int i = 0, n = p.size(); i < n; i++) {
+            int j = (i + 1) % n;
+            sr.line(p.x(i), p.y(i), p.x(j), p.y(j));
+        }
+        sr.setColor(0.95f, 0.6f, 0.1f, 1f);
+        drawCarTriangle(sr, ghostDrawX, ghostDrawY, ghostDrawH, 0.45f);
+        sr.setColor(1f, 1f, 1f, 1f);
+    }
+
     // ---------- Camera & Utils ----------
     private void smoothFollowCamera() {
         float lerp = 0.12f;
-        camera.position.x += (pose.getX() - camera.position.x) * lerp;
-        camera.position.y += (pose.getY() - camera.position.y) * lerp;
+        camera.position.x += (drawX - camera.position.x) * lerp;
+        camera.position.y += (drawY - camera.position.y) * lerp;
         float halfW = camera.viewportWidth * 0.5f;
         float halfH = camera.viewportHeight * 0.5f;
         camera.position.x = MathUtils.clamp(camera.position.x, halfW, Math.max(halfW, mapTilesW - halfW));
@@ -264,47 +332,10 @@ public class Main extends ApplicationAdapter {
         camera.update();
     }
 
-    private Vector2 readFirstSpawnPointWorldNoFlip() {
-        MapLayer layer = map.getLayers().get(LAYER_SPAWNS);
-        if (layer == null || layer.getObjects().getCount() == 0) return new Vector2(0,0);
-        MapObject o = layer.getObjects().get(0);
-        float xpx = toFloat(o.getProperties().get("x"), 0f);
-        float ypx = toFloat(o.getProperties().get("y"), 0f);
-        return new Vector2(xpx * unitScale, ypx * unitScale);
-    }
-
-    private float readSpawnHeadingRad() {
-        MapLayer layer = map.getLayers().get(LAYER_SPAWNS);
-        if (layer == null || layer.getObjects().getCount() == 0) return 0f;
-        MapObject o = layer.getObjects().get(0);
-        float deg = toFloat(o.getProperties().get("heading_deg"), 0f);
-        return (float) Math.toRadians(deg);
-    }
-
     private static void drawCarTriangle(ShapeRenderer sr, float cx, float cy, float rad, float r) {
         Vector2 tip   = new Vector2(cx + r * MathUtils.cos(rad), cy + r * MathUtils.sin(rad));
         Vector2 left  = new Vector2(cx + 0.6f * MathUtils.cos(rad + 2.6f), cy + 0.6f * MathUtils.sin(rad + 2.6f));
         Vector2 right = new Vector2(cx + 0.6f * MathUtils.cos(rad - 2.6f), cy + 0.6f * MathUtils.sin(rad - 2.6f));
         sr.line(left, tip); sr.line(tip, right); sr.line(right, left);
     }
-
-    private static float localToWorldX(float lx, float ly, float px, float py, float h){
-        float c = MathUtils.cos(h), s = MathUtils.sin(h);
-        return px + (lx * c - ly * s);
-    }
-    private static float localToWorldY(float lx, float ly, float px, float py, float h){
-        float c = MathUtils.cos(h), s = MathUtils.sin(h);
-        return py + (lx * s + ly * c);
-    }
-    private static float wrapAngle(float rad){
-        rad = (rad + MathUtils.PI) % MathUtils.PI2;
-        if (rad < 0) rad += MathUtils.PI2;
-        return rad - MathUtils.PI;
-    }
-    private static float toFloat(Object o, float def) {
-        if (o instanceof Float f) return f;
-        if (o instanceof Number n) return n.floatValue();
-        if (o instanceof String s) { try { return Float.parseFloat(s); } catch (Exception ignored) {} }
-        return def;
-    }
 }
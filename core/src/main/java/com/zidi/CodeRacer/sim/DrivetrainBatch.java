@@ -0,0 +1,314 @@
+package com.zidi.CodeRacer.sim;
+
+import com.zidi.CodeRacer.Commons.utils.FastMath;
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+import com.zidi.CodeRacer.vehicle.components.engine.Impl.EngineMap;
+import com.zidi.CodeRacer.vehicle.components.fuelTank.FuelTank;
+import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
+
+/**
+ * 大批量动力链内核（结构数组 SoA）：N 台发动机、4N 个车轮，每个状态量一条连续 float[]。
+ *  - stepEngines 逐元素复刻 DefaultEngine.update + SimpleEngineImpl（扭矩、耗油率查同一张共用的 EngineMap，红线断油）
+ *  - stepWheels 逐元素复刻 DefaultWheel.preStep + step，但 tanh / atan 换成 FastMath 的近似（对象版仍是精确的 exp / atan2）：
+ *    纵/侧向力与对象版的偏差 ≤ 2e-4 × μ·Fz（见 DrivetrainBatchTest），转角、滑移、发动机部分一致；
+ *    车轮部分拆成无分支的短循环，C2 会自动向量化
+ *  - 规格在 add 时摊平成数组，循环里没有虚调用、没有分配，按区间 [from, to) 推进可以分片给多个线程
+ * 可调参数取 DefaultEngine / DefaultWheel 的默认值；油箱只存油量，扣油规则同 BasicFuelTank。
+ * 第 e 台发动机的车轮是 4e..4e+3。容量在构造时定死。
+ */
+public final class DrivetrainBatch {
+
+    public static final int WHEELS_PER_ENGINE = 4;
+
+    // ---- DefaultEngine 默认参数 ----
+    private static final float SYNC_K = 5f;
+    private static final float SELF_DAMPING_K = 0.02f;
+    private static final float FUEL_UNIT = 1f;
+    private static final float TANK_EMPTY = 0.0001f;
+    private static final float RPM_TO_OMEGA = (float) (2.0 * Math.PI / 60.0);
+    private static final float OMEGA_TO_RPM = (float) (60.0 / (2.0 * Math.PI));
+
+    // ---- DefaultWheel 默认参数 ----
+    private static final float STEER_SPEED_DEG = 720f;
+    private static final float LONG_K = 8f * 1.3f;   // longStiffBx * longShapeCx
+    private static final float LAT_K = 6f * 1.2f;    // latStiffBy * latShapeCy
+    private static final float WEAR_HEAT_K = 1e-7f;
+    private static final float COOL_RATE = 0.05f;
+    private static final float EPS = 1e-4f;
+
+    // ---- 发动机：规格 ----
+    private final EngineMap[] maps;
+    private final float[] redlineRpm, inertia;
+    private final boolean[] hasTank;
+    // ---- 发动机：输入 / 状态 ----
+    private final float[] throttle, loadOmega;
+    private final float[] rpm, omega, torque, pendingFuel, fuel;
+    private final boolean[] stalled;
+
+    // ---- 车轮：规格 ----
+    private final float[] radius, cRolling, maxSteer;
+    private final boolean[] driven, braked;
+    // ---- 车轮：输入 ----
+    private final float[] targetSteer, driveTorque, brakeTorque;
+    private final float[] normalLoad, groundMu, wheelOmega, vx, vy;
+    // ---- 车轮：状态 / 输出 ----
+    private final float[] steer, slip, wear, temp, fx, fy;
+    // ---- 车轮：趟与趟之间的中间量 ----
+    private final float[] alpha, fmax;
+
+    private int size = 0;
+
+    public DrivetrainBatch(int capacity) {
+        int n = Math.max(1, capacity), w = n * WHEELS_PER_ENGINE;
+        maps = new EngineMap[n];
+        redlineRpm = new float[n];
+        inertia = new float[n];
+        hasTank = new boolean[n];
+        throttle = new float[n];
+        loadOmega = new float[n];
+        rpm = new float[n];
+        omega = new float[n];
+        torque = new float[n];
+        pendingFuel = new float[n];
+        fuel = new float[n];
+        stalled = new boolean[n];
+
+        radius = new float[w];
+        cRolling = new float[w];
+        maxSteer = new float[w];
+        driven = new boolean[w];
+        braked = new boolean[w];
+        targetSteer = new float[w];
+        driveTorque = new float[w];
+        brakeTorque = new float[w];
+        normalLoad = new float[w];
+        groundMu = new float[w];
+        wheelOmega = new float[w];
+        vx = new float[w];
+        vy = new float[w];
+        steer = new float[w];
+        slip = new float[w];
+        wear = new float[w];
+        temp = new float[w];
+        fx = new float[w];
+        fy = new float[w];
+        alpha = new float[w];
+        fmax = new float[w];
+    }
+
+    /**
+     * 追加一套动力链（发动机 + 4 个车轮），返回发动机下标。
+     * tank 可为 null（不耗油）；只拷贝当前油量，之后的油量在 batch 里，不回写 tank。
+     */
+    public int add(EngineSpec engine, FuelTank tank, WheelSpec[] wheels) {
+        if (size == rpm.length) throw new IllegalStateException("DrivetrainBatch full: " + size);
+        if (wheels.length != WHEELS_PER_ENGINE) {
+            throw new IllegalArgumentException("need " + WHEELS_PER_ENGINE + " wheels, got " + wheels.length);
+        }
+        int e = size++;
+        maps[e] = EngineMap.of(engine);
+        redlineRpm[e] = engine.redlineRpm();
+        inertia[e] = Math.max(1e-4f, engine.inertia());
+        hasTank[e] = tank != null;
+        fuel[e] = tank != null ? tank.getFuelLevel() : 0f;
+        throttle[e] = 0f;
+        loadOmega[e] = 0f;
+        rpm[e] = clamp(engine.idleRpm(), 0f, engine.redlineRpm());
+        omega[e] = rpm[e] * RPM_TO_OMEGA;
+        torque[e] = 0f;
+        pendingFuel[e] = 0f;
+        stalled[e] = false;
+
+        for (int k = 0; k < WHEELS_PER_ENGINE; k++) {
+            int w = e * WHEELS_PER_ENGINE + k;
+            WheelSpec s = wheels[k];
+            radius[w] = Math.max(s.radius(), EPS);
+            cRolling[w] = s.cRolling();
+            maxSteer[w] = Math.max(0f, s.maxSteerDeg());
+            driven[w] = s.driven();
+            braked[w] = s.braked();
+            targetSteer[w] = driveTorque[w] = brakeTorque[w] = 0f;
+            normalLoad[w] = groundMu[w] = wheelOmega[w] = vx[w] = vy[w] = 0f;
+            steer[w] = slip[w] = wear[w] = fx[w] = fy[w] = 0f;
+            temp[w] = 20f;
+        }
+        return e;
+    }
+
+    public void clear() { size = 0; }
+
+    public int size()       { return size; }
+    public int capacity()   { return rpm.length; }
+    public int wheelCount() { return size * WHEELS_PER_ENGINE; }
+
+    // ================= 输入 =================
+
+    public void setThrottle(int e, float t)      { throttle[e] = clamp(t, 0f, 1f); }
+    /** 负载角速度（rad/s），由传动系/车轮等效回发动机 */
+    public void setLoadOmega(int e, float w)     { loadOmega[e] = w; }
+
+    public void setTargetSteerDeg(int w, float deg) { targetSteer[w] = clamp(deg, -maxSteer[w], maxSteer[w]); }
+    public void setDriveTorque(int w, float Nm)     { driveTorque[w] = driven[w] ? Nm : 0f; }
+    public void setBrakeTorque(int w, float Nm)     { brakeTorque[w] = braked[w] ? Math.max(0f, Nm) : 0f; }
+
+    /** 同 Wheel.preStep 的物理输入（dt 在 stepWheels 里统一给） */
+    public void setWheelInputs(int w, float normalLoadN, float mu,
+                               float angularVel, float forwardSpeed, float lateralSpeed) {
+        normalLoad[w] = Math.max(0f, normalLoadN);
+        groundMu[w] = Math.max(0f, mu);
+        wheelOmega[w] = angularVel;
+        vx[w] = forwardSpeed;
+        vy[w] = lateralSpeed;
+    }
+
+    // ================= 批量内核 =================
+
+    public void stepAll(float dt) {
+        stepEngines(0, size, dt);
+        stepWheels(0, size, dt);
+    }
+
+    /** 发动机 [from, to) 推进一步（同 DefaultEngine.update） */
+    public void stepEngines(int from, int to, float dt) {
+        for (int e = from; e < to; e++) {
+            // 1) 燃油：攒够的整单位一次扣掉，同 DefaultEngine.handleFuel / FuelUseAccumulator
+            if (hasTank[e] && !stalled[e]) {
+                float p = 0f;
+                if (fuel[e] > TANK_EMPTY) {
+                    float rate = Math.max(0f, maps[e].fullThrottleFuelRate(rpm[e]) * throttle[e]);
+                    p = pendingFuel[e] + Math.max(0f, rate * dt);
+                    if (p >= FUEL_UNIT) {
+                        int whole = (int) (p / FUEL_UNIT);
+                        p = Math.max(0f, p - whole * FUEL_UNIT);
+                        fuel[e] = Math.max(0f, fuel[e] - whole);
+                    }
+                }
+                if (fuel[e] <= TANK_EMPTY) {
+                    stalled[e] = true;
+                    p = 0f;
+                }
+                pendingFuel[e] = p;
+            }
+            if (hasTank[e] && fuel[e] <= TANK_EMPTY) stalled[e] = true;
+
+            // 2) 熄火：无扭矩，转速衰减
+            if (stalled[e]) {
+                torque[e] = 0f;
+                rpm[e] = Math.max(0f, rpm[e] - 2000f * dt);
+                omega[e] = rpm[e] * RPM_TO_OMEGA;
+                continue;
+            }
+
+            // 3) 同步负载；4) 扭矩曲线 * 油门；5) 自阻尼；6) 积分 + 红线断油
+            float w = omega[e];
+            w += (loadOmega[e] - w) * SYNC_K * dt;
+            float target = Math.max(0f, maps[e].torque(rpm[e])) * throttle[e];
+            float tq = Math.max(0f, target - SELF_DAMPING_K * w);
+            w += (tq / inertia[e]) * dt;
+            float red = redlineRpm[e];
+            float r = w * OMEGA_TO_RPM;
+            r = r < 0f ? 0f : Math.min(r, red);
+            omega[e] = w;
+            rpm[e] = r;
+            torque[e] = r >= red ? 0f : tq;
+        }
+    }
+
+    /**
+     * 发动机 [from, to) 的车轮推进一步（同 DefaultWheel.preStep + step）。
+     * 拆成几趟短循环，每趟只做一件事、没有条件分支（选择写成 min/max/signum）：
+     * 循环体小到 C2 会展开，超字向量化才能生效；合成一个大循环时整段都是标量。
+     */
+    public void stepWheels(int from, int to, float dt) {
+        dt = Math.max(0f, dt);
+        int a = from * WHEELS_PER_ENGINE, b = to * WHEELS_PER_ENGINE;
+        steerPass(a, b, STEER_SPEED_DEG * dt);
+        slipPass(a, b);
+        gripPass(a, b);
+        forcePass(a, b);
+        torquePass(a, b);
+        wearPass(a, b, dt);
+    }
+
+    /** 一阶限速转向追踪 */
+    private void steerPass(int a, int b, float maxDelta) {
+        final float[] steer = this.steer, target = this.targetSteer;
+        for (int w = a; w < b; w++) {
+            steer[w] += clamp(target[w] - steer[w], -maxDelta, maxDelta);
+        }
+    }
+
+    /** 纵向滑移 κ 与等效侧偏角 atan2(-vy, |vx|) */
+    private void slipPass(int a, int b) {
+        final float[] slip = this.slip, alpha = this.alpha, om = this.wheelOmega, r = this.radius, vx = this.vx, vy = this.vy;
+        for (int w = a; w < b; w++) {
+            float vxAbs = Math.max(Math.abs(vx[w]), EPS);
+            slip[w] = (om[w] * r[w] - vx[w]) / vxAbs;
+            alpha[w] = FastMath.atan(-vy[w] / vxAbs);
+        }
+    }
+
+    /** 摩擦极限 μ·Fz；过热（>120℃）折减用 signum(max(0, t-120)) 代替条件选择，结果相同 */
+    private void gripPass(int a, int b) {
+        final float[] fmax = this.fmax, mu = this.groundMu, wear = this.wear, temp = this.temp, fz = this.normalLoad;
+        for (int w = a; w < b; w++) {
+            float tempLoss = 0.15f * Math.signum(Math.max(0f, temp[w] - 120f));
+            fmax[w] = clamp(mu[w] * (1f - 0.3f * wear[w] - tempLoss), 0f, 5f) * fz[w];
+        }
+    }
+
+    /** 纵/侧向 tanh 曲线；两条分开写，循环体才够小 */
+    private void forcePass(int a, int b) {
+        final float[] fx = this.fx, fy = this.fy, fmax = this.fmax, slip = this.slip, alpha = this.alpha;
+        for (int w = a; w < b; w++) {
+            fx[w] = fmax[w] * FastMath.tanh(LONG_K * slip[w]);
+        }
+        for (int w = a; w < b; w++) {
+            fy[w] = fmax[w] * FastMath.tanh(LAT_K * alpha[w]);
+        }
+    }
+
+    /** 滚阻（vx >= 0 记为 +1）+ 驱动/刹车扭矩 τ/R，夹到摩擦极限 */
+    private void torquePass(int a, int b) {
+        final float[] fx = this.fx, fmax = this.fmax, cr = this.cRolling, fz = this.normalLoad, vx = this.vx,
+            drive = this.driveTorque, brake = this.brakeTorque, r = this.radius;
+        for (int w = a; w < b; w++) {
+            float rollSign = 1f - 2f * Math.signum(Math.max(0f, -vx[w]));
+            float f = fx[w] - cr[w] * fz[w] * rollSign;
+            fx[w] = clamp(f + (drive[w] - brake[w]) / r[w], -fmax[w], fmax[w]);
+        }
+    }
+
+    /** 磨损 / 温度（简化功耗积分） */
+    private void wearPass(int a, int b, float dt) {
+        final float[] wear = this.wear, temp = this.temp, fx = this.fx, fy = this.fy, vx = this.vx, vy = this.vy;
+        for (int w = a; w < b; w++) {
+            float work = (Math.abs(fx[w]) * Math.abs(vx[w]) + Math.abs(fy[w]) * Math.abs(vy[w])) * dt;
+            wear[w] = clamp(wear[w] + WEAR_HEAT_K * work, 0f, 1f);
+            temp[w] = clamp(temp[w] + WEAR_HEAT_K * 8f * work - COOL_RATE * dt, -20f, 200f);
+        }
+    }
+
+    // ================= 读取 =================
+
+    public float rpm(int e)        { return rpm[e]; }
+    public float omega(int e)      { return omega[e]; }
+    public float throttle(int e)   { return throttle[e]; }
+    public float torqueNm(int e)   { return torque[e]; }
+    public boolean stalled(int e)  { return stalled[e]; }
+    public float fuelLevel(int e)  { return fuel[e]; }
+
+    public float steerDeg(int w)   { return steer[w]; }
+    public float slipRatio(int w)  { return slip[w]; }
+    public float wear01(int w)     { return wear[w]; }
+    public float tempC(int w)      { return temp[w]; }
+    public float fx(int w)         { return fx[w]; }
+    public float fy(int w)         { return fy[w]; }
+
+    // ================= 工具 =================
+
+    // min/max 形式（同 DefaultWheel.clamp），向量化友好
+    private static float clamp(float v, float lo, float hi) {
+        return Math.max(lo, Math.min(hi, v));
+    }
+}
@@ -0,0 +1,34 @@
+package com.zidi.CodeRacer.sim;
+
+import java.util.Locale;
+
+/**
+ * 一个回合的统计结果。
+ * @param lapTime        完成的第一圈用时（秒）；没跑完一圈为 NaN
+ * @param collisions     进入碰撞的次数（上升沿）
+ * @param collisionTicks 处于碰撞中的总步数
+ * @param distance       行驶距离（世界单位）
+ */
+public record EpisodeResult(
+    int index,
+    String track,
+    String policy,
+    long seed,
+    int laps,
+    float lapTime,
+    float bestLapTime,
+    int collisions,
+    long collisionTicks,
+    float distance,
+    long ticks,
+    float simTime
+) {
+    public boolean lapCompleted() { return laps > 0; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "#%d %s/%s seed=%d laps=%d lap=%.2fs best=%.2fs collisions=%d (%d ticks) dist=%.1f ticks=%d",
+            index, track, policy, seed, laps, lapTime, bestLapTime, collisions, collisionTicks, distance, ticks);
+    }
+}
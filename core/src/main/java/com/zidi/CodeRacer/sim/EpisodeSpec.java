@@ -0,0 +1,36 @@
+package com.zidi.CodeRacer.sim;
+
+import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy;
+
+import java.util.function.Supplier;
+
+/**
+ * 一个评估回合的参数。Track 只读共享；policy 每回合新建一份（策略有内部状态）。
+ * @param spawnJitter    出生点位置抖动半径（世界单位），由 seed 决定
+ * @param headingJitter  出生朝向抖动（弧度，±）
+ * @param maxTicks       最多推进的步数；跑满 laps 圈提前结束
+ */
+public record EpisodeSpec(
+    Track track,
+    String policyName,
+    Supplier<StickyTurnPolicy> policy,
+    long seed,
+    float spawnJitter,
+    float headingJitter,
+    float dt,
+    int maxTicks,
+    int laps
+) {
+    public static final float DEFAULT_DT = 1f / 60f;
+    public static final int DEFAULT_MAX_TICKS = 60 * 180; // 3 分钟仿真时间
+
+    /** 默认参数：默认策略、±0.25 tile / ±3° 抖动、60Hz、跑 1 圈 */
+    public static EpisodeSpec of(Track track, long seed) {
+        return new EpisodeSpec(track, "sticky", StickyTurnPolicy::new, seed,
+            0.25f, (float) Math.toRadians(3f), DEFAULT_DT, DEFAULT_MAX_TICKS, 1);
+    }
+
+    public EpisodeSpec withPolicy(String name, Supplier<StickyTurnPolicy> factory) {
+        return new EpisodeSpec(track, name, factory, seed, spawnJitter, headingJitter, dt, maxTicks, laps);
+    }
+}
@@ -0,0 +1,84 @@
+package com.zidi.CodeRacer.sim;
+
+/**
+ * 固定步长时钟（累加器）：把渲染帧的可变 dt 换算成整数个固定仿真步。
+ *  - advance(frameDt) 返回本帧要跑几步；剩余不足一步的时间留到下一帧
+ *  - 单帧 dt 先夹到 maxFrameDt，步数再夹到 maxSubsteps：卡顿后不会越补越慢（spiral of death），
+ *    超出的时间直接丢弃（仿真暂时慢于真实时间，但结果不变）
+ *  - alpha() = 剩余时间 / 步长，渲染时在上一步与当前步的位姿之间插值
+ * 命令（TurnByAngleCommand 等）按“每次调用”推进，所以只有固定步长下行为才与帧率无关。
+ * 频率由调用方给；窗口端读 -Dcoderacer.hz（见 configuredHz），默认与 headless 的 EpisodeSpec.DEFAULT_DT 相同。
+ */
+public final class FixedStepClock {
+
+    /** 仿真频率（Hz）的系统属性，如 -Dcoderacer.hz=120 */
+    public static final String RATE_PROPERTY = "coderacer.hz";
+
+    private final float stepDt;
+    private final int maxSubsteps;
+    private final float maxFrameDt;
+
+    private float accumulator = 0f;
+    private long totalSteps = 0;
+    private long droppedSteps = 0;
+
+    public FixedStepClock(float stepHz) {
+        this(stepHz, 8, 0.25f);
+    }
+
+    public FixedStepClock(float stepHz, int maxSubsteps, float maxFrameDt) {
+        this.stepDt = 1f / Math.max(1f, stepHz);
+        this.maxSubsteps = Math.max(1, maxSubsteps);
+        this.maxFrameDt = Math.max(this.stepDt, maxFrameDt);
+    }
+
+    /** 读 -Dcoderacer.hz；没设时返回 defaultHz */
+    public static float configuredHz(float defaultHz) {
+        return parseHz(System.getProperty(RATE_PROPERTY), defaultHz);
+    }
+
+    /** value 为 null 时返回 defaultHz；不是有限正数时抛 IllegalArgumentException */
+    public static float parseHz(String value, float defaultHz) {
+        if (value == null) return defaultHz;
+        float hz;
+        try {
+            hz = Float.parseFloat(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad simulation rate '" + value + "'", e);
+        }
+        if (!(hz > 0f) || Float.isInfinite(hz)) throw new IllegalArgumentException("bad simulation rate '" + value + "'");
+        return hz;
+    }
+
+    /** 累加一帧的真实时间，返回本帧应执行的仿真步数（0..maxSubsteps） */
+    public int advance(float frameDt) {
+        if (!(frameDt > 0f)) return 0;                 // 负数 / NaN / 0
+        accumulator += Math.min(frameDt, maxFrameDt);
+
+        int steps = (int) (accumulator / stepDt);
+        if (steps > maxSubsteps) {
+            droppedSteps += steps - maxSubsteps;
+            steps = maxSubsteps;
+            accumulator = accumulator % stepDt;        // 丢掉追不上的部分，只留小数
+        } else {
+            accumulator -= steps * stepDt;
+        }
+        totalSteps += steps;
+        return steps;
+    }
+
+    /** 插值系数 [0,1)：距离下一步还差多少 */
+    public float alpha() {
+        return Math.min(1f, accumulator / stepDt);
+    }
+
+    public void reset() {
+        accumulator = 0f;
+    }
+
+    public float stepDt()       { return stepDt; }
+    public int maxSubsteps()    { return maxSubsteps; }
+    public long totalSteps()    { return totalSteps; }
+    /** 因为追不上而丢弃的步数（持续增长说明单步仿真比步长还慢） */
+    public long droppedSteps()  { return droppedSteps; }
+}
@@ -0,0 +1,52 @@
+package com.zidi.CodeRacer.sim;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 命令行入口：无窗口跑一段仿真并打印吞吐量。
+ * 用法：HeadlessRunner &lt;map.tmx&gt; [ticks=100000] [dt=0.016666] [--box2d]
+ * （gradle: ./gradlew :core:runHeadless --args="lwjgl3/src/main/resources/Maps/circuit_04.tmx 200000"）
+ * --box2d：车身用 Box2D 刚体后端推进（见 Simulation）。
+ */
+public final class HeadlessRunner {
+    private HeadlessRunner() {}
+
+    public static void main(String[] args) {
+        boolean box2d = false;
+        List<String> pos = new ArrayList<>();
+        for (String a : args) {
+            if (a.equals("--box2d")) box2d = true;
+            else pos.add(a);
+        }
+        if (pos.isEmpty()) {
+            System.err.println("usage: HeadlessRunner <map.tmx> [ticks] [dt] [--box2d]");
+            System.exit(2);
+        }
+        File tmx = new File(pos.get(0));
+        int ticks = pos.size() > 1 ? Integer.parseInt(pos.get(1)) : 100_000;
+        float dt  = pos.size() > 2 ? Float.parseFloat(pos.get(2)) : 1f / 60f;
+
+        long t0 = System.nanoTime();
+        Track track = Track.load(tmx);
+        long t1 = System.nanoTime();
+
+        Simulation sim = new Simulation(track, box2d);
+        long collisionTicks = 0;
+        for (int i = 0; i < ticks; i++) {
+            sim.step(dt);
+            if (sim.isColliding()) collisionTicks++;
+        }
+        long t2 = System.nanoTime();
+        sim.dispose();
+
+        double loadMs = (t1 - t0) / 1e6;
+        double runSec = (t2 - t1) / 1e9;
+        System.out.printf(Locale.ROOT, "map=%s load=%.1f ms %s%n", tmx.getName(), loadMs, track.world().getDistanceField());
+        System.out.printf(Locale.ROOT, "backend=%s ticks=%d dt=%.4f sim=%.1f s wall=%.3f s -> %.0f ticks/s (%.0fx realtime)%n",
+            box2d ? "box2d" : "kinematic", ticks, dt, sim.getSimTime(), runSec, ticks / runSec, sim.getSimTime() / runSec);
+        System.out.printf(Locale.ROOT, "final %s, collisionTicks=%d%n", sim.getPose(), collisionTicks);
+    }
+}
@@ -0,0 +1,61 @@
+package com.zidi.CodeRacer.sim;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * 圈速计时（飞驰圈）：车体中心第一次进入起终点线区域时开始计时，
+ * 之后离开、行驶至少 minLapDistance、再次进入时记一圈。
+ * 距离门槛用来过滤在线附近来回抖动 / 掉头又压线的情况。
+ */
+public final class LapTimer {
+
+    private final Rectangle line;
+    private final float minLapDistance;
+
+    private boolean inside;
+    private boolean started = false;
+    private double lapStartTime, lapStartDistance;
+
+    private int laps = 0;
+    private float lastLapTime = Float.NaN;
+    private float bestLapTime = Float.NaN;
+
+    /** @param line 起终点线区域（null = 地图没有起终点线，永远不计圈） */
+    public LapTimer(Rectangle line, float minLapDistance, float x, float y) {
+        this.line = line;
+        this.minLapDistance = minLapDistance;
+        this.inside = line != null && line.contains(x, y);
+        if (inside) start(0.0, 0.0); // 出生就在线上：从 0 开始计
+    }
+
+    /** 每个 step 之后调用；本步完成一圈返回 true */
+    public boolean update(float x, float y, double simTime, double distance) {
+        if (line == null) return false;
+        boolean now = line.contains(x, y);
+        boolean entered = now && !inside;
+        inside = now;
+        if (!entered) return false;
+
+        if (!started) {
+            start(simTime, distance);
+            return false;
+        }
+        if (distance - lapStartDistance < minLapDistance) return false;
+
+        lastLapTime = (float) (simTime - lapStartTime);
+        if (Float.isNaN(bestLapTime) || lastLapTime < bestLapTime) bestLapTime = lastLapTime;
+        laps++;
+        start(simTime, distance);
+        return true;
+    }
+
+    private void start(double simTime, double distance) {
+        started = true;
+        lapStartTime = simTime;
+        lapStartDistance = distance;
+    }
+
+    public int getLaps()           { return laps; }
+    public float getLastLapTime()  { return lastLapTime; }
+    public float getBestLapTime()  { return bestLapTime; }
+}
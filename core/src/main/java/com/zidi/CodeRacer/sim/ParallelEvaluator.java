@@ -0,0 +1,161 @@
+package com.zidi.CodeRacer.sim;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 多回合并行评估：把互不相关的回合分给 ForkJoinPool 的各个核。
+ *  - 每个回合一个独立的 Simulation（自己的 Pose / CommandRunner / 传感器 / 策略状态）
+ *  - 所有回合共享同一个只读 Track（TiledWorldUtils 的索引、距离场只建一次）
+ *  - 回合之间没有共享可变状态、没有锁，吞吐量随核数近似线性增长
+ */
+public final class ParallelEvaluator implements AutoCloseable {
+
+    private final ForkJoinPool pool;
+
+    public ParallelEvaluator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelEvaluator(int parallelism) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    public int parallelism() { return pool.getParallelism(); }
+
+    /** 并行跑完所有回合；结果顺序与 specs 相同 */
+    public Report evaluate(List<EpisodeSpec> specs) {
+        long t0 = System.nanoTime();
+        List<ForkJoinTask<EpisodeResult>> tasks = new ArrayList<>(specs.size());
+        for (int i = 0; i < specs.size(); i++) {
+            final int index = i;
+            final EpisodeSpec spec = specs.get(i);
+            tasks.add(pool.submit(() -> runEpisode(index, spec)));
+        }
+        List<EpisodeResult> results = new ArrayList<>(specs.size());
+        for (ForkJoinTask<EpisodeResult> t : tasks) results.add(t.join());
+        double wall = (System.nanoTime() - t0) / 1e9;
+        return new Report(results, wall, pool.getParallelism());
+    }
+
+    /** 单个回合（在调用线程上跑，不依赖线程池） */
+    public static EpisodeResult runEpisode(int index, EpisodeSpec spec) {
+        Track track = spec.track();
+
+        // 出生点抖动：只由 seed 决定，回合可复现
+        Random rnd = new Random(spec.seed());
+        float ang = rnd.nextFloat() * 2f * (float) Math.PI;
+        float rad = spec.spawnJitter() * (float) Math.sqrt(rnd.nextFloat());
+        float x = track.spawnX() + rad * (float) Math.cos(ang);
+        float y = track.spawnY() + rad * (float) Math.sin(ang);
+        float h = track.spawnHeadingRad() + (rnd.nextFloat() * 2f - 1f) * spec.headingJitter();
+
+        Simulation sim = new Simulation(track, spec.policy().get(), x, y, h);
+        LapTimer lap = new LapTimer(track.startFinish(), 0.5f * (track.tilesW() + track.tilesH()), x, y);
+
+        long collisionTicks = 0;
+        float firstLap = Float.NaN;
+        for (int i = 0; i < spec.maxTicks() && lap.getLaps() < spec.laps(); i++) {
+            sim.step(spec.dt());
+            if (sim.isColliding()) collisionTicks++;
+            if (lap.update(sim.getPose().getX(), sim.getPose().getY(), sim.getSimTime(), sim.getDistance())
+                && lap.getLaps() == 1) {
+                firstLap = lap.getLastLapTime();
+            }
+        }
+
+        return new EpisodeResult(index, track.name(), spec.policyName(), spec.seed(),
+            lap.getLaps(), firstLap, lap.getBestLapTime(),
+            sim.getCollisionCount(), collisionTicks, (float) sim.getDistance(),
+            sim.getTicks(), (float) sim.getSimTime());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    // ================= 汇总 =================
+
+    public record Report(List<EpisodeResult> results, double wallSeconds, int parallelism) {
+
+        public double episodesPerSecond() { return results.size() / wallSeconds; }
+
+        public double ticksPerSecond() {
+            long ticks = 0;
+            for (EpisodeResult r : results) ticks += r.ticks();
+            return ticks / wallSeconds;
+        }
+
+        /** 按 track/policy 分组的均值：完成率、平均圈速、碰撞次数、行驶距离 */
+        public String summary() {
+            Map<String, List<EpisodeResult>> groups = new LinkedHashMap<>();
+            for (EpisodeResult r : results) {
+                groups.computeIfAbsent(r.track() + "/" + r.policy(), k -> new ArrayList<>()).add(r);
+            }
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ROOT, "%d episodes on %d threads in %.3f s -> %.1f episodes/s, %.0f ticks/s%n",
+                results.size(), parallelism, wallSeconds, episodesPerSecond(), ticksPerSecond()));
+            for (Map.Entry<String, List<EpisodeResult>> e : groups.entrySet()) {
+                int n = e.getValue().size(), done = 0;
+                double lapSum = 0, colSum = 0, distSum = 0;
+                for (EpisodeResult r : e.getValue()) {
+                    if (r.lapCompleted()) { done++; lapSum += r.lapTime(); }
+                    colSum += r.collisions();
+                    distSum += r.distance();
+                }
+                sb.append(String.format(Locale.ROOT,
+                    "  %-28s n=%d laps=%d/%d meanLap=%s meanCollisions=%.2f meanDist=%.1f%n",
+                    e.getKey(), n, done, n,
+                    done > 0 ? String.format(Locale.ROOT, "%.2fs", lapSum / done) : "-",
+                    colSum / n, distSum / n));
+            }
+            return sb.toString();
+        }
+    }
+
+    // ================= 命令行 =================
+
+    /**
+     * 用法：ParallelEvaluator &lt;map.tmx&gt;... [--episodes N] [--threads K] [--ticks T]
+     * 每张地图跑 N 个不同 seed 的回合（默认 64），默认线程数 = CPU 核数。
+     */
+    public static void main(String[] args) {
+        List<File> maps = new ArrayList<>();
+        int episodes = 64, threads = Runtime.getRuntime().availableProcessors();
+        int ticks = EpisodeSpec.DEFAULT_MAX_TICKS;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--episodes" -> episodes = Integer.parseInt(args[++i]);
+                case "--threads"  -> threads  = Integer.parseInt(args[++i]);
+                case "--ticks"    -> ticks    = Integer.parseInt(args[++i]);
+                default           -> maps.add(new File(args[i]));
+            }
+        }
+        if (maps.isEmpty()) {
+            System.err.println("usage: ParallelEvaluator <map.tmx>... [--episodes N] [--threads K] [--ticks T]");
+            System.exit(2);
+        }
+
+        List<EpisodeSpec> specs = new ArrayList<>();
+        for (File f : maps) {
+            Track track = Track.load(f);
+            for (int s = 0; s < episodes; s++) {
+                EpisodeSpec d = EpisodeSpec.of(track, s);
+                specs.add(new EpisodeSpec(track, d.policyName(), d.policy(), s,
+                    d.spawnJitter(), d.headingJitter(), d.dt(), ticks, d.laps()));
+            }
+        }
+
+        try (ParallelEvaluator eval = new ParallelEvaluator(threads)) {
+            System.out.print(eval.evaluate(specs).summary());
+        }
+    }
+}
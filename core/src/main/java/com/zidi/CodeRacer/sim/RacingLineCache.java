@@ -0,0 +1,167 @@
+package com.zidi.CodeRacer.sim;
+
+import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.Commons.utils.RectGridIndex;
+import com.zidi.CodeRacer.world.nav.RacingLine;
+import com.zidi.CodeRacer.world.nav.RacingLineOptimizer;
+import com.zidi.CodeRacer.world.nav.RacingLineOptimizer.Config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 赛车线的磁盘缓存：文件名 = 赛道名 + 地图哈希。
+ * 哈希覆盖 Collision 几何、地图尺寸、出生位姿和优化参数，任何一项变了都会重算；
+ * 文件损坏或格式不符也当作未命中。写入先落临时文件再原子改名，并发启动不会读到半个文件。
+ * 预计算：./gradlew :core:runRacingLine --args="lwjgl3/src/main/resources/Maps/circuit_01.tmx ..."
+ */
+public final class RacingLineCache {
+
+    static final int MAGIC = 0x4352524C;    // "CRRL"
+    static final int VERSION = 2;         // 2：死路出生点沿车头前移找闭环
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+
+    private RacingLineCache() {}
+
+    /** 默认目录：-Dcoderacer.lineCache=...，否则 ~/.coderacer/racing-lines */
+    public static Path defaultDir() {
+        String p = System.getProperty("coderacer.lineCache");
+        return p != null ? Path.of(p) : Path.of(System.getProperty("user.home"), ".coderacer", "racing-lines");
+    }
+
+    public static RacingLine forTrack(Track track) throws IOException {
+        return forTrack(track, Config.defaults(), defaultDir());
+    }
+
+    /** 命中缓存直接读；否则计算并写回 */
+    public static RacingLine forTrack(Track track, Config cfg, Path dir) throws IOException {
+        long hash = mapHash(track, cfg);
+        Path file = fileFor(track, hash, dir);
+        if (Files.isRegularFile(file)) {
+            RacingLine cached = read(file, hash);
+            if (cached != null) return cached;
+        }
+        RacingLine line = RacingLineOptimizer.optimize(track.world(), track.tilesW(), track.tilesH(),
+            track.spawnX(), track.spawnY(), track.spawnHeadingRad(), cfg);
+        write(file, hash, line);
+        return line;
+    }
+
+    public static Path fileFor(Track track, long hash, Path dir) {
+        String base = track.name().replaceAll("\\.tmx$", "").replaceAll("[^A-Za-z0-9_.-]", "_");
+        return dir.resolve(String.format(Locale.ROOT, "%s-%016x.line", base, hash));
+    }
+
+    /** FNV-1a（64 位）按 int 喂入：地图尺寸、出生位姿、每个 Collision 矩形、优化参数 */
+    public static long mapHash(Track track, Config cfg) {
+        long h = 0xcbf29ce484222325L;
+        h = mix(h, VERSION);
+        h = mix(h, Float.floatToIntBits(track.tilesW()));
+        h = mix(h, Float.floatToIntBits(track.tilesH()));
+        h = mix(h, Float.floatToIntBits(track.spawnX()));
+        h = mix(h, Float.floatToIntBits(track.spawnY()));
+        h = mix(h, Float.floatToIntBits(track.spawnHeadingRad()));
+        RectGridIndex idx = track.world().getCollisionIndex();
+        h = mix(h, idx.size());
+        for (int i = 0; i < idx.size(); i++) {
+            h = mix(h, Float.floatToIntBits(idx.minX(i)));
+            h = mix(h, Float.floatToIntBits(idx.minY(i)));
+            h = mix(h, Float.floatToIntBits(idx.maxX(i)));
+            h = mix(h, Float.floatToIntBits(idx.maxY(i)));
+        }
+        // parallelism 不影响结果，不参与
+        float[] f = { cfg.spacing(), cfg.gridCell(), cfg.margin(), cfg.mu(), cfg.gravity(),
+                      cfg.vMax(), cfg.accel(), cfg.brake() };
+        for (float v : f) h = mix(h, Float.floatToIntBits(v));
+        h = mix(h, cfg.iterations());
+        h = mix(h, cfg.blendSteps());
+        h = mix(h, cfg.segments());
+        return h;
+    }
+
+    private static long mix(long h, int v) {
+        for (int k = 0; k < 4; k++) {
+            h ^= (v >>> (8 * k)) & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    // ---------- 文件格式：magic, version, hash, n, lapTime, n × (x, y, v) ----------
+
+    static void write(Path file, long hash, RacingLine line) throws IOException {
+        int n = line.size();
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + n * 12).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putLong(hash).putInt(n).putFloat(line.lapTime());
+        for (int i = 0; i < n; i++) {
+            Vector2 p = line.get(i);
+            buf.putFloat(p.x).putFloat(p.y).putFloat(line.speedAt(i));
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, buf.array());
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** 格式、版本或哈希不符时返回 null */
+    static RacingLine read(Path file, long hash) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() < HEADER_BYTES) return null;
+        if (buf.getInt() != MAGIC || buf.getInt() != VERSION || buf.getLong() != hash) return null;
+        int n = buf.getInt();
+        float lap = buf.getFloat();
+        if (n < 3 || buf.remaining() != n * 12) return null;
+        List<Vector2> pts = new ArrayList<>(n);
+        float[] v = new float[n];
+        for (int i = 0; i < n; i++) {
+            pts.add(new Vector2(buf.getFloat(), buf.getFloat()));
+            v[i] = buf.getFloat();
+        }
+        return new RacingLine(new com.zidi.CodeRacer.world.nav.Path(pts), v, lap);
+    }
+
+    // ---------- 预计算 ----------
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: RacingLineCache <map.tmx>...   (cache dir: -Dcoderacer.lineCache=...)");
+            System.exit(2);
+        }
+        Path dir = defaultDir();
+        Config cfg = Config.defaults();
+        for (String a : args) {
+            Track track = Track.load(new File(a));
+            long hash = mapHash(track, cfg);
+            boolean cached = Files.isRegularFile(fileFor(track, hash, dir));
+            long t0 = System.nanoTime();
+            RacingLine line;
+            try {
+                line = forTrack(track, cfg, dir);
+            } catch (IllegalStateException e) {
+                System.out.printf(Locale.ROOT, "%-22s skipped: %s%n", track.name(), e.getMessage());
+                continue;
+            }
+            double ms = (System.nanoTime() - t0) / 1e6;
+            float vMin = Float.MAX_VALUE, vMaxSeen = 0f;
+            for (int i = 0; i < line.size(); i++) {
+                vMin = Math.min(vMin, line.speedAt(i));
+                vMaxSeen = Math.max(vMaxSeen, line.speedAt(i));
+            }
+            System.out.printf(Locale.ROOT, "%-22s %s %8.1f ms  points=%d  length=%.1f  lap=%.2f s  v=[%.2f, %.2f]  -> %s%n",
+                track.name(), cached ? "hit " : "miss", ms, line.size(), line.length(), line.lapTime(),
+                vMin, vMaxSeen, fileFor(track, hash, dir));
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.zidi.CodeRacer.sim;
+
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.vehicle.commands.CommandRunner;
+import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
+import com.zidi.CodeRacer.vehicle.commands.Impl.LaneChangeCommandImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnLeft90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnRight90Command;
+import com.zidi.CodeRacer.vehicle.components.carBrain.CarBrain;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 蒙特卡洛 rollout 规划器：每到决策点，把当前仿真状态快照下来，
+ * 在若干个克隆 Simulation 上分别试跑 N 条宏命令序列（前进 / 左右 90° / 左右变道），
+ * 序列跑完后交给 StickyTurnPolicy 接着开，直到 horizon；按“行驶路程 + 净空 - 碰撞”打分，执行最优序列的第一条命令。
+ *  - 克隆用 new Simulation(live) 建，策略配置、出生位姿都与 live 相同，恢复快照后的推演和 live 自己往下跑一致
+ *  - 路程是轨迹的弧长（Simulation.getDistance 的增量），不是起终点直线距离：直线距离会奖励往墙里抄近路
+ *  - 候选：固定的一两步组合在前，其余为随机序列；随机数只由 seed 和 tick 决定
+ *  - 候选分给 parallelism 个克隆并行评估；同一组输入下结果与线程数无关
+ *  - budgetNanos > 0 时超时的候选不再评估（此时结果取决于机器速度，复现请设 0）
+ *  - 每次决策的耗时记在 latency 统计里
+ * 用法：planner = new RolloutPlanner(sim, Config.defaults()); sim.setBrain(planner); 用完 close()。
+ */
+public final class RolloutPlanner implements CarBrain, AutoCloseable {
+
+    /** 宏命令 */
+    public enum Macro {
+        FORWARD, TURN_LEFT, TURN_RIGHT, LANE_LEFT, LANE_RIGHT;
+
+        private static final Macro[] VALUES = values();
+
+        VehicleCommand create() {
+            return switch (this) {
+                case FORWARD    -> new MoveForwardCommentImpl(1.0f, 0.10f);
+                case TURN_LEFT  -> new TurnLeft90Command(Simulation.STEER_POLARITY);
+                case TURN_RIGHT -> new TurnRight90Command(Simulation.STEER_POLARITY);
+                case LANE_LEFT  -> new LaneChangeCommandImpl(true, 1f, 4f, 0.8f);
+                case LANE_RIGHT -> new LaneChangeCommandImpl(false, 1f, 4f, 0.8f);
+            };
+        }
+    }
+
+    /**
+     * @param candidates       每次决策评估的序列数（不少于固定组合的个数）
+     * @param horizonSec       每条 rollout 往前看的仿真时间
+     * @param dt               rollout 的固定步长（应与实际仿真一致）
+     * @param parallelism      并行克隆数，1 = 在调用线程上跑
+     * @param budgetNanos      单次决策的时间预算，0 = 不限
+     * @param seed             随机序列的种子
+     * @param clearanceWeight  平均净空（封顶 CLEARANCE_CAP）的权重
+     * @param collisionPenalty 每秒碰撞的扣分（世界单位）
+     */
+    public record Config(int candidates, float horizonSec, float dt, int parallelism,
+                         long budgetNanos, long seed, float clearanceWeight, float collisionPenalty) {
+        public static Config defaults() {
+            return new Config(16, 3.0f, EpisodeSpec.DEFAULT_DT, Runtime.getRuntime().availableProcessors(),
+                0L, 1L, 1.0f, 100f);
+        }
+
+        public Config withParallelism(int p)  { return new Config(candidates, horizonSec, dt, p, budgetNanos, seed, clearanceWeight, collisionPenalty); }
+        public Config withCandidates(int n)   { return new Config(n, horizonSec, dt, parallelism, budgetNanos, seed, clearanceWeight, collisionPenalty); }
+        public Config withBudgetNanos(long b) { return new Config(candidates, horizonSec, dt, parallelism, b, seed, clearanceWeight, collisionPenalty); }
+    }
+
+    static final float CLEARANCE_CAP = 2f;
+    private static final int MAX_SEQUENCE = 3;
+    private static final int LATENCY_WINDOW = 1024;
+
+    /** 固定组合：总是先评估，保证预算很紧时也有像样的选择 */
+    private static final Macro[][] FIXED = {
+        { Macro.FORWARD },
+        { Macro.TURN_LEFT },
+        { Macro.TURN_RIGHT },
+        { Macro.LANE_LEFT },
+        { Macro.LANE_RIGHT },
+        { Macro.FORWARD, Macro.TURN_LEFT },
+        { Macro.FORWARD, Macro.TURN_RIGHT },
+        { Macro.FORWARD, Macro.FORWARD },
+    };
+
+    private final Simulation live;
+    private final Config cfg;
+    private final TiledWorldUtils world;
+    private final int horizonTicks;
+
+    private final SimSnapshot root = new SimSnapshot();
+    private final Simulation[] workers;
+    private final ForkJoinPool pool;
+
+    private final Macro[][] sequences;
+    private final float[] scores;
+
+    // 延迟统计
+    private final long[] latency = new long[LATENCY_WINDOW];
+    private long decisions = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+    private long rollouts = 0;
+    private long budgetMisses = 0;
+
+    public RolloutPlanner(Simulation live, Config cfg) {
+        this.live = live;
+        this.cfg = cfg;
+        this.world = live.getTrack().world();
+        this.horizonTicks = Math.max(1, Math.round(cfg.horizonSec() / cfg.dt()));
+
+        int n = Math.max(FIXED.length, cfg.candidates());
+        sequences = new Macro[n][];
+        System.arraycopy(FIXED, 0, sequences, 0, FIXED.length);
+        scores = new float[n];
+
+        int p = Math.max(1, Math.min(cfg.parallelism(), n));
+        workers = new Simulation[p];
+        for (int i = 0; i < p; i++) workers[i] = new Simulation(live);
+        pool = p > 1 ? new ForkJoinPool(p) : null;
+    }
+
+    // ---------- CarBrain ----------
+
+    @Override
+    public VehicleCommand nextCommand(float dF, float dL, float dR) {
+        long t0 = System.nanoTime();
+        long deadline = cfg.budgetNanos() > 0 ? t0 + cfg.budgetNanos() : Long.MAX_VALUE;
+
+        root.save(live);
+        sampleSequences(live.getTicks());
+        Arrays.fill(scores, Float.NaN);
+
+        if (pool == null) {
+            evaluateChunk(0, deadline);
+        } else {
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers.length];
+            for (int w = 0; w < workers.length; w++) {
+                final int worker = w;
+                tasks[w] = pool.submit(() -> evaluateChunk(worker, deadline));
+            }
+            for (ForkJoinTask<?> t : tasks) t.join();
+        }
+
+        // 最高分；同分取下标小的（固定组合优先），没评估到的（NaN）跳过
+        int best = 0;
+        int evaluated = 0;
+        for (int i = 0; i < sequences.length; i++) {
+            if (Float.isNaN(scores[i])) continue;
+            evaluated++;
+            if (Float.isNaN(scores[best]) || scores[i] > scores[best]) best = i;
+        }
+        if (evaluated < sequences.length) budgetMisses++;
+        rollouts += evaluated;
+
+        recordLatency(System.nanoTime() - t0);
+        return sequences[best][0].create();
+    }
+
+    /** 固定组合之后的位置填随机序列（长度 1..MAX_SEQUENCE） */
+    private void sampleSequences(long tick) {
+        SplittableRandom rnd = new SplittableRandom(cfg.seed() * 0x9E3779B97F4A7C15L + tick);
+        for (int i = FIXED.length; i < sequences.length; i++) {
+            Macro[] seq = new Macro[1 + rnd.nextInt(MAX_SEQUENCE)];
+            for (int k = 0; k < seq.length; k++) seq[k] = Macro.VALUES[rnd.nextInt(Macro.VALUES.length)];
+            sequences[i] = seq;
+        }
+    }
+
+    /** 第 w 个克隆评估下标 w, w+P, w+2P ... 的候选 */
+    private void evaluateChunk(int w, long deadline) {
+        Simulation sim = workers[w];
+        for (int i = w; i < sequences.length; i += workers.length) {
+            if (i != 0 && System.nanoTime() > deadline) return;   // 候选 0 总会评估
+            scores[i] = rollout(sim, sequences[i]);
+        }
+    }
+
+    /** 从根快照出发跑一条序列，返回得分 */
+    private float rollout(Simulation sim, Macro[] seq) {
+        root.restore(sim);
+        CommandRunner runner = sim.getRunner();
+        runner.clear();
+        for (Macro m : seq) runner.addCommand(m.create());
+
+        Pose p = sim.getPose();
+        double d0 = sim.getDistance();
+        float clearance = 0f;
+        int hitTicks = 0;
+        for (int i = 0; i < horizonTicks; i++) {
+            sim.step(cfg.dt());
+            if (sim.isColliding()) hitTicks++;
+            clearance += Math.min(CLEARANCE_CAP, world.clearanceAt(p.getX(), p.getY()));
+        }
+
+        float progress = (float) (sim.getDistance() - d0);
+        return progress
+            + cfg.clearanceWeight() * clearance / horizonTicks
+            - cfg.collisionPenalty() * hitTicks * cfg.dt();
+    }
+
+    // ---------- 延迟统计 ----------
+
+    private void recordLatency(long nanos) {
+        latency[(int) (decisions % LATENCY_WINDOW)] = nanos;
+        decisions++;
+        totalNanos += nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    public long decisions()       { return decisions; }
+    public long rollouts()        { return rollouts; }
+    /** 因预算不够没评估完全部候选的决策次数 */
+    public long budgetMisses()    { return budgetMisses; }
+    public double meanLatencyMs() { return decisions == 0 ? 0 : totalNanos / 1e6 / decisions; }
+    public double maxLatencyMs()  { return maxNanos / 1e6; }
+
+    /** 最近 LATENCY_WINDOW 次决策的延迟分位数（q ∈ [0,1]），毫秒 */
+    public double latencyPercentileMs(double q) {
+        int n = (int) Math.min(decisions, LATENCY_WINDOW);
+        if (n == 0) return 0;
+        long[] sorted = Arrays.copyOf(latency, n);
+        Arrays.sort(sorted);
+        int idx = (int) Math.min(n - 1, Math.max(0, Math.ceil(q * n) - 1));
+        return sorted[idx] / 1e6;
+    }
+
+    public String latencySummary() {
+        return String.format(Locale.ROOT,
+            "decisions=%d rollouts=%d mean=%.3f ms p50=%.3f ms p99=%.3f ms max=%.3f ms budgetMisses=%d",
+            decisions, rollouts, meanLatencyMs(), latencyPercentileMs(0.5), latencyPercentileMs(0.99),
+            maxLatencyMs(), budgetMisses);
+    }
+
+    public Config config() { return cfg; }
+
+    /** 第 i 个克隆（测试用） */
+    Simulation worker(int i) { return workers[i]; }
+
+    @Override
+    public void close() {
+        if (pool != null) pool.shutdown();
+    }
+
+    // ---------- 命令行：与 StickyTurnPolicy 对比 ----------
+
+    /**
+     * 用法：RolloutPlanner &lt;map.tmx&gt; [ticks=3600] [--threads K] [--candidates N] [--budget-ms B]
+     * （gradle: ./gradlew :core:runPlanner --args="lwjgl3/src/main/resources/Maps/circuit_04.tmx 3600"）
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("usage: RolloutPlanner <map.tmx> [ticks] [--threads K] [--candidates N] [--budget-ms B]");
+            System.exit(2);
+        }
+        File tmx = new File(args[0]);
+        int ticks = 3600;
+        Config cfg = Config.defaults();
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads"    -> cfg = cfg.withParallelism(Integer.parseInt(args[++i]));
+                case "--candidates" -> cfg = cfg.withCandidates(Integer.parseInt(args[++i]));
+                case "--budget-ms"  -> cfg = cfg.withBudgetNanos((long) (Double.parseDouble(args[++i]) * 1e6));
+                default             -> ticks = Integer.parseInt(args[i]);
+            }
+        }
+
+        Track track = Track.load(tmx);
+        float dt = cfg.dt();
+
+        Simulation baseline = new Simulation(track);
+        long t0 = System.nanoTime();
+        baseline.run(ticks, dt);
+        double baseSec = (System.nanoTime() - t0) / 1e9;
+
+        Simulation sim = new Simulation(track);
+        try (RolloutPlanner planner = new RolloutPlanner(sim, cfg)) {
+            sim.setBrain(planner);
+            long t1 = System.nanoTime();
+            sim.run(ticks, dt);
+            double planSec = (System.nanoTime() - t1) / 1e9;
+
+            System.out.printf(Locale.ROOT, "map=%s ticks=%d (%.1f s sim) candidates=%d horizon=%.1f s threads=%d%n",
+                tmx.getName(), ticks, ticks * dt, planner.sequences.length, cfg.horizonSec(), planner.workers.length);
+            System.out.printf(Locale.ROOT, "sticky : collisions=%d distance=%.1f wall=%.3f s%n",
+                baseline.getCollisionCount(), baseline.getDistance(), baseSec);
+            System.out.printf(Locale.ROOT, "planner: collisions=%d distance=%.1f wall=%.3f s (%.1fx realtime)%n",
+                sim.getCollisionCount(), sim.getDistance(), planSec, ticks * dt / planSec);
+            System.out.println("latency: " + planner.latencySummary());
+        }
+    }
+}
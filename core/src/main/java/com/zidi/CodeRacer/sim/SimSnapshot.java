@@ -0,0 +1,57 @@
+package com.zidi.CodeRacer.sim;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Simulation 的一份快照：预分配的 ByteBuffer，反复 save / restore 不产生新缓冲
+ * （restore 时 CommandRunner 里的命令会重新构造，见 Snapshottable）。
+ * 典型用法（分支推演）：
+ * <pre>
+ *   SimSnapshot root = new SimSnapshot().save(sim);
+ *   for (...) { root.restore(sim); sim.run(n, dt); ...评估... }
+ * </pre>
+ * 容量不够时翻倍重写一次（只在命令队列变长时发生）。
+ */
+public final class SimSnapshot {
+
+    private ByteBuffer buf;
+    private boolean saved = false;
+
+    public SimSnapshot() {
+        this(512);
+    }
+
+    public SimSnapshot(int capacity) {
+        buf = ByteBuffer.allocate(Math.max(64, capacity));
+    }
+
+    /** 覆盖为 sim 的当前状态 */
+    public SimSnapshot save(Simulation sim) {
+        while (true) {
+            buf.clear();
+            try {
+                sim.writeState(buf);
+                buf.flip();
+                saved = true;
+                return this;
+            } catch (BufferOverflowException e) {
+                buf = ByteBuffer.allocate(buf.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * 把 sim 恢复到保存时的状态；快照本身不变，可以反复恢复。
+     * 通过独立的 duplicate 视图读取，多个线程可以同时从同一份快照恢复各自的 Simulation（save 期间除外）。
+     */
+    public void restore(Simulation sim) {
+        if (!saved) throw new IllegalStateException("empty snapshot");
+        sim.readState(buf.duplicate());
+    }
+
+    /** 快照实际占用的字节数 */
+    public int size() {
+        return saved ? buf.limit() : 0;
+    }
+}
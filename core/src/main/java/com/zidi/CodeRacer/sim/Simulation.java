@@ -0,0 +1,347 @@
+package com.zidi.CodeRacer.sim;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Disposable;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.sim.physics.PhysicsCar;
+import com.zidi.CodeRacer.sim.physics.PhysicsVehicleContext;
+import com.zidi.CodeRacer.sim.physics.PhysicsWorld;
+import com.zidi.CodeRacer.vehicle.commands.CommandRunner;
+import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnLeft90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnRight90Command;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
+import com.zidi.CodeRacer.vehicle.components.carBrain.CarBrain;
+import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy;
+import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy.Decision;
+import com.zidi.CodeRacer.vehicle.components.frame.Frame;
+import com.zidi.CodeRacer.vehicle.components.frame.MountSite;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.frame.Impl.WoodenFrame;
+import com.zidi.CodeRacer.vehicle.components.sensor.MutableSensorReading;
+import com.zidi.CodeRacer.vehicle.components.sensor.Impl.DefaultSensor;
+import com.zidi.CodeRacer.vehicle.components.sensor.Impl.SectorSweepSensor;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.vehicle.components.wheel.Wheel;
+import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
+import com.zidi.CodeRacer.vehicle.runtime.adapters.FrameVehicleContext;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 无渲染的仿真核心：持有车体、传感器、CommandRunner 与策略，每次 step(dt) 推进一个固定步长。
+ *  - 不依赖 Gdx.graphics / GL，可在命令行、CI 上以远超实时的速度运行
+ *  - 感知：三个 SectorSweepSensor 每步把各自扇区整个扫一遍（castFan，kFrames = 1），
+ *    策略的三路输入 dF / dL / dR 取各扇区正中那根射线（正对传感器朝向）
+ *  - Main 只读取这里的状态（pose / 射线距离）来画图
+ *  - Track 只读共享；每个 Simulation 自己的状态互不影响，可各占一个线程
+ *  - writeState / readState（或 SimSnapshot）把全部运行状态平铺进 ByteBuffer，用于回滚和分支推演
+ *  - setBrain 之后由 CarBrain 下发命令，StickyTurnPolicy 只继续跟踪基线（不再决策）
+ *  - box2d = true 时车身交给 PhysicsWorld（墙 = Collision 图层）推进，命令经 PhysicsVehicleContext 换成车速 / 转角去跟踪；
+ *    这时轨迹取决于 Box2D，不能快照、回放也对不上，用完要 dispose
+ */
+public class Simulation implements Snapshottable, Disposable {
+
+    public static final int   STEER_POLARITY = -1;   // 转向极性
+    public static final float CRUISE_SPEED   = 5.0f; // tile/s
+    public static final float RAY_MAX        = 50f;  // 三个扇区的量程（也是三根主射线的最远距离）
+    /** box2d 后端的配置：默认配置，比例是 PhysicsWorld.METERS_PER_TILE，和命令、速度规划同一把尺子 */
+    public static final PhysicsWorld.Config PHYSICS_CONFIG = PhysicsWorld.Config.defaults();
+
+    private final Track track;
+    private final TiledWorldUtils world;
+    private final float spawnX, spawnY, spawnHeadingRad;
+
+    private final Frame frame;
+    private final Pose pose;
+    private final VehicleContext ctx;
+    private final PhysicsWorld physics;            // null = 运动学（FrameVehicleContext）
+    private final PhysicsVehicleContext physicsCtx;
+    private final CommandRunner runner = new CommandRunner();
+    private final StickyTurnPolicy policy;
+    private CarBrain brain;                // 非 null 时代替 policy 决策
+
+    private final SectorSweepSensor sFront, sLeft, sRight;
+    private final MutableSensorReading reading = new MutableSensorReading();
+
+    // 最近一次 step 的观测
+    private float dF, dL, dR;
+    private Decision lastDecision;   // 本步的决策；runner 非空闲（未决策）时为 null
+    private boolean lastWasTurning = false;
+    private boolean colliding = false;
+    private int collisionCount = 0;      // 进入碰撞的次数（上升沿）
+    private double distance = 0.0;       // 累计行驶距离（世界单位）
+
+    private long ticks = 0;
+    private double simTime = 0.0;
+
+    public Simulation(Track track) {
+        this(track, new StickyTurnPolicy());
+    }
+
+    public Simulation(Track track, StickyTurnPolicy policy) {
+        this(track, policy, track.spawnX(), track.spawnY(), track.spawnHeadingRad());
+    }
+
+    /** box2d = true 时用 Box2D 刚体后端，见类注释 */
+    public Simulation(Track track, boolean box2d) {
+        this(track, new StickyTurnPolicy(), track.spawnX(), track.spawnY(), track.spawnHeadingRad(), box2d);
+    }
+
+    /** 指定出生位姿（批量评估时在地图出生点附近抖动） */
+    public Simulation(Track track, StickyTurnPolicy policy, float spawnX, float spawnY, float spawnHeadingRad) {
+        this(track, policy, spawnX, spawnY, spawnHeadingRad, false);
+    }
+
+    /**
+     * 与 template 配置相同的新实例：同一 Track、策略的副本（StickyTurnPolicy.copy）、同样的出生位姿，从第 0 步开始；
+     * 总是运动学后端，brain 不复制。rollout / 分支推演的克隆用它，之后 readState 成要推演的状态
+     */
+    public Simulation(Simulation template) {
+        this(template.track, template.policy.copy(), template.spawnX, template.spawnY, template.spawnHeadingRad, false);
+    }
+
+    public Simulation(Track track, StickyTurnPolicy policy, float spawnX, float spawnY, float spawnHeadingRad,
+                      boolean box2d) {
+        this.track  = track;
+        this.world  = track.world();
+        this.policy = policy;
+        this.spawnX = spawnX;
+        this.spawnY = spawnY;
+        this.spawnHeadingRad = spawnHeadingRad;
+
+        // 车体
+        frame = new WoodenFrame("frame-wood", "Wooden Frame", "Basic frame", 5, 10);
+        pose  = frame.pose();
+        pose.set(spawnX, spawnY, spawnHeadingRad, CRUISE_SPEED);
+        if (box2d) {
+            physics = new PhysicsWorld(world, PHYSICS_CONFIG);
+            Wheel[] wheels = new Wheel[PhysicsCar.WHEELS];
+            for (int k = 0; k < wheels.length; k++) wheels[k] = new WoodenWheel("wheel-wood", "Wooden Wheel", "Basic wheel", 5, 5);
+            physicsCtx = new PhysicsVehicleContext(physics.addCar(pose, PhysicsCar.Spec.defaults(), wheels));
+            ctx = physicsCtx;
+        } else {
+            physics = null;
+            physicsCtx = null;
+            ctx = new FrameVehicleContext(frame);
+        }
+
+        // 前向：±30° 扇形，31 根射线，每帧扫完；射线数取奇数，正中那根正对车头
+        sFront = new SectorSweepSensor("s-front", "Front", "front", 1, 1,
+            world, new Pose(), (float) Math.toRadians(30f), RAY_MAX, 31, 1, 0.25f, 0.3f);
+        // 左右肩（邻道）：±10° 扇形，9 根射线
+        sLeft = new SectorSweepSensor("s-left", "Left", "left", 1, 1,
+            world, new Pose(), (float) Math.toRadians(10f), RAY_MAX, 9, 1, 0.25f, 0.3f);
+        sRight = new SectorSweepSensor("s-right", "Right", "right", 1, 1,
+            world, new Pose(), (float) Math.toRadians(10f), RAY_MAX, 9, 1, 0.25f, 0.3f);
+
+        frame.frontSite().add(sFront);
+        frame.leftSite().add(sLeft);
+        frame.rightSite().add(sRight);
+
+        updateSensors();
+    }
+
+    /** 推进一个固定步长：感知 → 决策（空闲时）→ 执行命令 */
+    public void step(float dt) {
+        // 1) 三传感器位姿 + 扫描
+        updateSensors();
+        advance(dt);
+    }
+
+    /**
+     * 回放用：传感器距离直接取录像里的值，不再投射射线；其余流程与 step(dt) 完全相同。
+     * 同一出生位姿 + 同一 dt 下，逐步喂入录下的距离即可逐位复现原来的轨迹。
+     */
+    public void step(float dt, float dF, float dL, float dR) {
+        placeSensors();
+        this.dF = dF;
+        this.dL = dL;
+        this.dR = dR;
+        advance(dt);
+    }
+
+    private void advance(float dt) {
+        // 2) 刚转完一个弯：把左右比例锁为新直线基线
+        boolean turningNow = isTurning();
+        if (!turningNow && lastWasTurning) {
+            policy.onTurnCommitted(dL, dR);
+        }
+        lastWasTurning = turningNow;
+
+        // 3) 空闲时决策并下发下一条命令
+        lastDecision = null;
+        if (runner.isIdle()) {
+            if (brain != null) {
+                VehicleCommand cmd = brain.nextCommand(dF, dL, dR);
+                lastDecision = decisionOf(cmd);
+                runner.addCommand(cmd);
+            } else {
+                lastDecision = policy.decide(dF, dL, dR);
+                switch (lastDecision) {
+                    case TURN_LEFT  -> runner.addCommand(new TurnLeft90Command(STEER_POLARITY));
+                    case TURN_RIGHT -> runner.addCommand(new TurnRight90Command(STEER_POLARITY));
+                    default         -> runner.addCommand(new MoveForwardCommentImpl());
+                }
+            }
+        }
+
+        // 4) 执行当前命令
+        float px = pose.getX(), py = pose.getY();
+        runner.update(dt, ctx);
+        if (physics != null) {
+            physicsCtx.drive(dt);
+            physics.step(dt);
+        }
+
+        // 5) 统计
+        distance += Math.hypot(pose.getX() - px, pose.getY() - py);
+        boolean hit = world.isCollisionAt(pose.getX(), pose.getY());
+        if (hit && !colliding) collisionCount++;
+        colliding = hit;
+        ticks++;
+        simTime += dt;
+    }
+
+    /** brain 下发的命令折算成 直走/左/右；变道等其它命令记为 null */
+    private static Decision decisionOf(VehicleCommand cmd) {
+        if (cmd instanceof TurnLeft90Command)      return Decision.TURN_LEFT;
+        if (cmd instanceof TurnRight90Command)     return Decision.TURN_RIGHT;
+        if (cmd instanceof MoveForwardCommentImpl) return Decision.STRAIGHT;
+        return null;
+    }
+
+    /** 连续推进 n 步 */
+    public void run(int n, float dt) {
+        for (int i = 0; i < n; i++) step(dt);
+    }
+
+    // ---------- 快照 ----------
+
+    private static final Decision[] DECISIONS = Decision.values();
+
+    /**
+     * 写下推进所需的全部状态：位姿、命令队列（含进度）、策略、传感器滤波、统计量。
+     * 恢复目标必须是同一 Track、同一策略配置构造出来的 Simulation（可以是另一个实例）。
+     */
+    @Override
+    public void writeState(ByteBuffer out) {
+        requireKinematic();
+        pose.writeState(out);
+        runner.writeState(out);
+        policy.writeState(out);
+        sFront.writeState(out);
+        sLeft.writeState(out);
+        sRight.writeState(out);
+        out.putFloat(dF).putFloat(dL).putFloat(dR);
+        out.put((byte) (lastDecision == null ? -1 : lastDecision.ordinal()));
+        out.put((byte) ((lastWasTurning ? 1 : 0) | (colliding ? 2 : 0)));
+        out.putInt(collisionCount);
+        out.putDouble(distance);
+        out.putLong(ticks);
+        out.putDouble(simTime);
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        requireKinematic();
+        pose.readState(in);
+        runner.readState(in);
+        policy.readState(in);
+        sFront.readState(in);
+        sLeft.readState(in);
+        sRight.readState(in);
+        dF = in.getFloat();
+        dL = in.getFloat();
+        dR = in.getFloat();
+        byte d = in.get();
+        lastDecision = d < 0 ? null : DECISIONS[d];
+        byte flags = in.get();
+        lastWasTurning = (flags & 1) != 0;
+        colliding      = (flags & 2) != 0;
+        collisionCount = in.getInt();
+        distance       = in.getDouble();
+        ticks          = in.getLong();
+        simTime        = in.getDouble();
+        placeSensors();
+    }
+
+    private void requireKinematic() {
+        if (physics != null) throw new IllegalStateException("Box2D backend cannot be snapshotted");
+    }
+
+    /** 释放 Box2D 世界；运动学后端没有要释放的 */
+    @Override
+    public void dispose() {
+        if (physics != null) physics.dispose();
+    }
+
+    // ---------- 感知 ----------
+
+    private void updateSensors() {
+        placeSensors();
+        dF = sweep(sFront);
+        dL = sweep(sLeft);
+        dR = sweep(sRight);
+    }
+
+    private void placeSensors() {
+        placeSensor(sFront, frame.frontSite());
+        placeSensor(sLeft,  frame.leftSite());
+        placeSensor(sRight, frame.rightSite());
+    }
+
+    private void placeSensor(DefaultSensor sensor, MountSite site) {
+        float h = pose.getHeadingRad();
+        float c = MathUtils.cos(h), s = MathUtils.sin(h);
+        float lx = site.getLocalX(), ly = site.getLocalY();
+        sensor.pose().set(pose.getX() + (lx * c - ly * s),
+                          pose.getY() + (lx * s + ly * c),
+                          wrapAngle(h + site.getRelAngleRad()), 0f);
+    }
+
+    /** 扫完整个扇区（更新滤波读数和各射线结果），返回正中那根的距离 */
+    private float sweep(SectorSweepSensor s) {
+        s.detectInto(reading);
+        return s.getCenterDistance();
+    }
+
+    private static float wrapAngle(float rad) {
+        rad = (rad + MathUtils.PI) % MathUtils.PI2;
+        if (rad < 0) rad += MathUtils.PI2;
+        return rad - MathUtils.PI;
+    }
+
+    // ---------- 只读状态（渲染 / 统计用） ----------
+
+    /** 当前是否在执行转弯命令 */
+    public boolean isTurning() {
+        return !(runner.getCurrent() == null || runner.getCurrent() instanceof MoveForwardCommentImpl);
+    }
+
+    public Track getTrack()            { return track; }
+    public Frame getFrame()            { return frame; }
+    public Pose getPose()              { return pose; }
+    /** Box2D 后端的世界；运动学后端为 null */
+    public PhysicsWorld getPhysics()   { return physics; }
+    public CommandRunner getRunner()   { return runner; }
+    public StickyTurnPolicy getPolicy(){ return policy; }
+    public CarBrain getBrain()         { return brain; }
+    /** 换成 brain 决策；传 null 恢复 StickyTurnPolicy。brain 不属于快照 */
+    public void setBrain(CarBrain brain) { this.brain = brain; }
+    public SectorSweepSensor getFront(){ return sFront; }
+    public SectorSweepSensor getLeft() { return sLeft; }
+    public SectorSweepSensor getRight(){ return sRight; }
+    public float getFrontDistance()    { return dF; }
+    public float getLeftDistance()     { return dL; }
+    public float getRightDistance()    { return dR; }
+    /** 最近一步的决策；那一步还在执行旧命令（没有决策）时为 null */
+    public Decision getLastDecision()  { return lastDecision; }
+    /** 车体中心是否落在 Collision 矩形内 */
+    public boolean isColliding()       { return colliding; }
+    public int getCollisionCount()     { return collisionCount; }
+    public double getDistance()        { return distance; }
+    public long getTicks()             { return ticks; }
+    public double getSimTime()         { return simTime; }
+}
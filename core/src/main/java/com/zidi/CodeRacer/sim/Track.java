@@ -0,0 +1,100 @@
+package com.zidi.CodeRacer.sim;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapObject;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.math.Rectangle;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.Commons.utils.TmxObjectLoader;
+
+import java.io.File;
+
+/**
+ * 一条赛道：地图 + 碰撞世界 + 出生点 + 起终点线。构建后只读，可被多个 Simulation（多线程）共享。
+ *  - load(File)：无 GL 加载（TmxObjectLoader），给 headless / 批量评估用
+ *  - fromMap(name, TiledMap)：复用已加载的地图（Main 需要 TmxMapLoader 的贴图来渲染）
+ */
+public final class Track {
+
+    public static final String LAYER_SPAWNS = "Spawns";
+    /** 旧地图（Map04_withRoadSide）的出生点图层名 */
+    public static final String LAYER_SPAWNS_LEGACY = "SpawnPoints";
+    public static final String LAYER_START_FINISH = "StartFinish";
+
+    private final String name;
+    private final TiledMap map;
+    private final TiledWorldUtils world;
+    private final float unitScale;          // 像素 → 世界单位（1 tile = 1）
+    private final float tilesW, tilesH;     // 地图尺寸（tile）
+    private final float spawnX, spawnY, spawnHeadingRad;
+    private final Rectangle startFinish;    // 起终点线区域（世界单位）；地图没有则为 null
+
+    private Track(String name, TiledMap map) {
+        this.name = name;
+        this.map = map;
+        MapProperties p = map.getProperties();
+        int tileWpx = p.get("tilewidth", Integer.class);
+        int tileHpx = p.get("tileheight", Integer.class);
+        int w = p.get("width", Integer.class);
+        int h = p.get("height", Integer.class);
+        this.unitScale = 1f / tileWpx;
+        this.tilesW = w;
+        this.tilesH = h;
+        this.world = new TiledWorldUtils(map, unitScale, h * tileHpx);
+
+        // 出生点：Spawns 图层第一个对象（属性 x/y 已是 y 向上像素坐标，heading_deg 可选）
+        MapLayer layer = map.getLayers().get(LAYER_SPAWNS);
+        if (layer == null) layer = map.getLayers().get(LAYER_SPAWNS_LEGACY);
+        if (layer == null || layer.getObjects().getCount() == 0) {
+            spawnX = spawnY = spawnHeadingRad = 0f;
+        } else {
+            MapObject o = layer.getObjects().get(0);
+            spawnX = toFloat(o.getProperties().get("x"), 0f) * unitScale;
+            spawnY = toFloat(o.getProperties().get("y"), 0f) * unitScale;
+            spawnHeadingRad = (float) Math.toRadians(toFloat(o.getProperties().get("heading_deg"), 0f));
+        }
+
+        // 起终点线：StartFinish 图层第一个矩形
+        Rectangle sf = null;
+        MapLayer sfLayer = map.getLayers().get(LAYER_START_FINISH);
+        if (sfLayer != null) {
+            for (MapObject o : sfLayer.getObjects()) {
+                if (o instanceof RectangleMapObject rmo) {
+                    Rectangle r = rmo.getRectangle();
+                    sf = new Rectangle(r.x * unitScale, r.y * unitScale, r.width * unitScale, r.height * unitScale);
+                    break;
+                }
+            }
+        }
+        this.startFinish = sf;
+    }
+
+    public static Track load(File tmx) {
+        return new Track(tmx.getName(), TmxObjectLoader.load(tmx));
+    }
+
+    public static Track fromMap(String name, TiledMap map) {
+        return new Track(name, map);
+    }
+
+    public String name()             { return name; }
+    public TiledMap map()            { return map; }
+    public TiledWorldUtils world()   { return world; }
+    public float unitScale()         { return unitScale; }
+    public float tilesW()            { return tilesW; }
+    public float tilesH()            { return tilesH; }
+    public float spawnX()            { return spawnX; }
+    public float spawnY()            { return spawnY; }
+    public float spawnHeadingRad()   { return spawnHeadingRad; }
+    /** 起终点线区域；不要修改返回值 */
+    public Rectangle startFinish()   { return startFinish; }
+
+    static float toFloat(Object o, float def) {
+        if (o instanceof Float f) return f;
+        if (o instanceof Number n) return n.floatValue();
+        if (o instanceof String s) { try { return Float.parseFloat(s); } catch (Exception ignored) {} }
+        return def;
+    }
+}
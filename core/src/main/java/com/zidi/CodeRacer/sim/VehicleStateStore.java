@@ -0,0 +1,170 @@
+package com.zidi.CodeRacer.sim;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+
+import java.util.Arrays;
+
+import static com.zidi.CodeRacer.world.coordinate.WorldCoordinateSystem.wrapAngleRad;
+
+/**
+ * 大批量车辆的位姿存储（结构数组 SoA）：x / y / heading / speed 各一条连续 float[]。
+ *  - stepAll / rotateAll 是 Pose.step / Pose.rotate 的批量版本，逐元素结果与 Pose 完全一致
+ *  - 按区间 [from, to) 推进，可以把车辆分片给多个线程
+ *  - view(i) 给出一个兼容 Pose 的视图，现有只认 Pose 的代码（命令、传感器挂载）可以直接用
+ * 下标在 add 之后固定不变；只支持追加和整体 clear。
+ */
+public final class VehicleStateStore {
+
+    private float[] x, y, heading, speed;
+    private int size = 0;
+
+    public VehicleStateStore(int initialCapacity) {
+        int n = Math.max(1, initialCapacity);
+        x = new float[n];
+        y = new float[n];
+        heading = new float[n];
+        speed = new float[n];
+    }
+
+    /** 追加一辆车，返回下标 */
+    public int add(float px, float py, float headingRad, float v) {
+        if (size == x.length) grow(size * 2);
+        int i = size++;
+        x[i] = px;
+        y[i] = py;
+        heading[i] = headingRad;
+        speed[i] = v;
+        return i;
+    }
+
+    public int add(Pose p) {
+        return add(p.getX(), p.getY(), p.getHeadingRad(), p.getSpeed());
+    }
+
+    public void clear() { size = 0; }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        heading = Arrays.copyOf(heading, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+    }
+
+    // ================= 批量内核 =================
+
+    /** 所有车按速度 * dt 沿朝向前进（同 Pose.step） */
+    public void stepAll(float dt) {
+        stepRange(0, size, dt);
+    }
+
+    /** 只推进 [from, to)，给分片并行用 */
+    public void stepRange(int from, int to, float dt) {
+        final float[] x = this.x, y = this.y, h = this.heading, v = this.speed;
+        for (int i = from; i < to; i++) {
+            float hi = h[i];
+            x[i] += v[i] * MathUtils.cos(hi) * dt;
+            y[i] += v[i] * MathUtils.sin(hi) * dt;
+        }
+    }
+
+    /** 每辆车转 deltaRad[i]（同 Pose.rotate，结果 wrap 到 [-π, π]） */
+    public void rotateAll(float[] deltaRad) {
+        rotateRange(0, size, deltaRad);
+    }
+
+    public void rotateRange(int from, int to, float[] deltaRad) {
+        final float[] h = this.heading;
+        for (int i = from; i < to; i++) {
+            h[i] = wrapAngleRad(h[i] + deltaRad[i]);
+        }
+    }
+
+    // ================= 单车访问 =================
+
+    public int size()                 { return size; }
+    public int capacity()             { return x.length; }
+    public float x(int i)             { return x[i]; }
+    public float y(int i)             { return y[i]; }
+    public float heading(int i)       { return heading[i]; }
+    public float speed(int i)         { return speed[i]; }
+
+    public void set(int i, float px, float py, float headingRad, float v) {
+        x[i] = px;
+        y[i] = py;
+        heading[i] = headingRad;
+        speed[i] = v;
+    }
+
+    public void setSpeed(int i, float v)            { speed[i] = v; }
+    public void setHeading(int i, float headingRad) { heading[i] = wrapAngleRad(headingRad); }
+    public void rotate(int i, float deltaRad)       { heading[i] = wrapAngleRad(heading[i] + deltaRad); }
+    public void translate(int i, float distance) {
+        x[i] += distance * MathUtils.cos(heading[i]);
+        y[i] += distance * MathUtils.sin(heading[i]);
+    }
+
+    /** 兼容 Pose 的视图（不复制数据，读写直接落到数组上）；每次调用都新建，按需缓存 */
+    public PoseView view(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+        return new PoseView(this, i);
+    }
+
+    /**
+     * 指向 store 中第 index 辆车的 Pose。
+     * 注意：getPos() / forward() 返回的是复用的缓存向量，改它不会写回 store，请用 set / translate。
+     */
+    public static final class PoseView extends Pose {
+        private final VehicleStateStore store;
+        private final int index;
+        private final Vector2 posCache = new Vector2();
+        private final Vector2 forwardCache = new Vector2();
+
+        private PoseView(VehicleStateStore store, int index) {
+            this.store = store;
+            this.index = index;
+        }
+
+        public int index() { return index; }
+
+        @Override public Pose set(float x, float y, float headingRad, float speed) {
+            store.set(index, x, y, headingRad, speed);
+            return this;
+        }
+
+        @Override public Pose set(Pose other) {
+            return set(other.getX(), other.getY(), other.getHeadingRad(), other.getSpeed());
+        }
+
+        @Override public void translate(float distance) { store.translate(index, distance); }
+
+        @Override public void step(float dt) { store.stepRange(index, index + 1, dt); }
+
+        @Override public void rotate(float deltaRad) { store.rotate(index, deltaRad); }
+
+        @Override public void stop() { store.setSpeed(index, 0f); }
+
+        @Override public Vector2 forward() {
+            float h = store.heading(index);
+            return forwardCache.set(MathUtils.cos(h), MathUtils.sin(h));
+        }
+
+        @Override public Pose cpy() { return new Pose(getX(), getY(), getHeadingRad(), getSpeed()); }
+
+        @Override public Vector2 getPos()      { return posCache.set(store.x(index), store.y(index)); }
+        @Override public float getX()          { return store.x(index); }
+        @Override public float getY()          { return store.y(index); }
+        @Override public float getHeadingRad() { return store.heading(index); }
+        @Override public float getSpeed()      { return store.speed(index); }
+
+        @Override public void setHeadingRad(float headingRad) { store.setHeading(index, headingRad); }
+        @Override public void setSpeed(float speed)           { store.setSpeed(index, speed); }
+
+        @Override
+        public String toString() {
+            return String.format("Pose[x=%.2f, y=%.2f, heading=%.1f°, speed=%.2f m/s]",
+                getX(), getY(), getHeadingRad() * MathUtils.radiansToDegrees, getSpeed());
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.zidi.CodeRacer.sim.physics;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.MassData;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Transform;
+import com.badlogic.gdx.physics.box2d.World;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.wheel.Wheel;
+import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
+
+/**
+ * PhysicsWorld 里的一辆车：Box2D 动态刚体（矩形车身）+ 四个 Wheel。
+ * 每步把轮心速度（车身线速度 + ω × r，转到轮子坐标）喂给 Wheel.preStep / step，
+ * 得到的 Fx / Fy 转回世界坐标，合成一个过质心的力和一个绕质心的力矩施加到刚体上。
+ *  - 轮子按纯滚动给角速度（ω = v / R），纵向力来自驱动 / 刹车扭矩，静载 Fz = mg / 4，μ 取 spec.muDry()
+ *  - 不给油时纵向力和侧向力都只当阻力：方向与轮心速度相反，且一步内最多把该方向的速度刹到 0，
+ *    停车时不会被滚阻 / 刹车来回推，速度落到阈值以下 Box2D 就能让它休眠
+ * 作为 VehicleContext：apply 的 steer 是前轮目标转角（弧度），throttle ∈ [-1, 1]（负为倒车），brake ∈ [0, 1]。
+ */
+public final class PhysicsCar implements VehicleContext {
+
+    public static final int WHEELS = 4;
+    private static final float GRAVITY = 9.81f;
+
+    /**
+     * 车体尺寸用世界单位（tile），扭矩是每个驱动 / 制动轮上的最大值。
+     * @param length     车长
+     * @param width      车宽
+     * @param wheelbase  轴距
+     * @param trackWidth 轮距
+     */
+    public record Spec(float length, float width, float wheelbase, float trackWidth,
+                       float massKg, float driveTorqueNm, float brakeTorqueNm) {
+        public static Spec defaults() {
+            return new Spec(0.9f, 0.45f, 0.6f, 0.36f, 900f, 300f, 1500f);
+        }
+    }
+
+    private final Body body;
+    private final Pose pose;
+    private final Spec spec;
+    private final Wheel[] wheels;
+    private final float[] wheelX = new float[WHEELS], wheelY = new float[WHEELS];   // 车体坐标（单位）
+    private final float mpu;            // metersPerUnit
+
+    private float throttle, brake;
+    private int touching;               // 当前接触数
+    private int wallHits, carHits;      // 接触开始次数
+
+    PhysicsCar(World world, Pose pose, Spec spec, Wheel[] wheels, float metersPerUnit, short maskBits) {
+        this.pose = pose;
+        this.spec = spec;
+        this.wheels = wheels.clone();
+        this.mpu = metersPerUnit;
+
+        float hx = 0.5f * spec.wheelbase(), hy = 0.5f * spec.trackWidth();
+        wheelX[0] = hx;  wheelY[0] = hy;      // 左前
+        wheelX[1] = hx;  wheelY[1] = -hy;     // 右前
+        wheelX[2] = -hx; wheelY[2] = hy;      // 左后
+        wheelX[3] = -hx; wheelY[3] = -hy;     // 右后
+
+        BodyDef bd = new BodyDef();
+        bd.type = BodyDef.BodyType.DynamicBody;
+        float h = pose.getHeadingRad(), v = pose.getSpeed();
+        bd.position.set(pose.getX(), pose.getY());
+        bd.angle = h;
+        bd.linearVelocity.set(v * MathUtils.cos(h), v * MathUtils.sin(h));
+        bd.angularDamping = 0.5f;
+        body = world.createBody(bd);
+
+        PolygonShape box = new PolygonShape();
+        box.setAsBox(0.5f * spec.length(), 0.5f * spec.width());
+        FixtureDef fd = new FixtureDef();
+        fd.shape = box;
+        fd.density = 1f;
+        fd.friction = 0.3f;
+        fd.restitution = 0.2f;
+        fd.filter.categoryBits = PhysicsWorld.CATEGORY_CAR;
+        fd.filter.maskBits = maskBits;
+        body.createFixture(fd).setUserData(this);
+        box.dispose();
+
+        // 质量按 spec，不按夹具面积；惯量取矩形板 m(L² + W²) / 12（单位²）
+        MassData md = new MassData();
+        md.mass = spec.massKg();
+        md.I = spec.massKg() * (spec.length() * spec.length() + spec.width() * spec.width()) / 12f;
+        body.setMassData(md);
+    }
+
+    // ================= 每步 =================
+
+    void applyForces(float dt) {
+        boolean driving = throttle != 0f;
+        if (!driving && !body.isAwake()) return;      // 睡着且没给油：不施力，不唤醒
+
+        Transform t = body.getTransform();
+        float c = t.vals[Transform.COS], s = t.vals[Transform.SIN];
+        Vector2 lv = body.getLinearVelocity();
+        float vx = lv.x * mpu, vy = lv.y * mpu;       // m/s
+        float w = body.getAngularVelocity();
+
+        float fz = spec.massKg() * GRAVITY / WHEELS;
+        float share = spec.massKg() / WHEELS;
+        float sumX = 0f, sumY = 0f, torque = 0f;      // 世界坐标，Box2D 单位
+        for (int k = 0; k < WHEELS; k++) {
+            Wheel wheel = wheels[k];
+            float rx = wheelX[k] * c - wheelY[k] * s;  // 轮心相对质心（单位，世界坐标）
+            float ry = wheelX[k] * s + wheelY[k] * c;
+            float pvx = vx - w * ry * mpu, pvy = vy + w * rx * mpu;
+
+            float a = wheel.steerDeg() * MathUtils.degreesToRadians;
+            float ca = MathUtils.cos(a), sa = MathUtils.sin(a);
+            float dirX = c * ca - s * sa, dirY = s * ca + c * sa;   // 轮子前向（世界）
+            float fwd = pvx * dirX + pvy * dirY;
+            float lat = -pvx * dirY + pvy * dirX;
+
+            wheel.setDriveTorque(throttle * spec.driveTorqueNm());
+            wheel.setBrakeTorque(brake * spec.brakeTorqueNm());
+            wheel.preStep(dt, fz, wheel.spec().muDry(), fwd / Math.max(1e-4f, wheel.spec().radius()), fwd, lat);
+            wheel.step(dt);
+
+            float fx = wheel.getFx(), fy = resist(wheel.getFy(), lat, share, dt);
+            if (!driving) fx = resist(fx, fwd, share, dt);
+
+            float gx = (fx * dirX - fy * dirY) / mpu, gy = (fx * dirY + fy * dirX) / mpu;
+            sumX += gx;
+            sumY += gy;
+            torque += rx * gy - ry * gx;
+        }
+        body.applyForceToCenter(sumX, sumY, driving);
+        body.applyTorque(torque, driving);
+    }
+
+    /** 阻力：方向与 v 相反，大小不超过一步内把 share 质量的 v 刹停所需的力 */
+    private static float resist(float f, float v, float share, float dt) {
+        return -Math.signum(v) * Math.min(Math.abs(f), share * Math.abs(v) / dt);
+    }
+
+    void syncPose() {
+        Transform t = body.getTransform();
+        float x = t.vals[Transform.POS_X], y = t.vals[Transform.POS_Y];
+        float c = t.vals[Transform.COS], s = t.vals[Transform.SIN];
+        Vector2 lv = body.getLinearVelocity();
+        pose.set(x, y, (float) Math.atan2(s, c), lv.x * c + lv.y * s);
+    }
+
+    void onBeginContact(boolean withCar) {
+        touching++;
+        if (withCar) carHits++;
+        else wallHits++;
+    }
+
+    void onEndContact() {
+        touching = Math.max(0, touching - 1);
+    }
+
+    // ================= VehicleContext =================
+
+    @Override
+    public void apply(float steer, float throttle, float brake) {
+        float deg = steer * MathUtils.radiansToDegrees;
+        wheels[0].setTargetSteerDeg(deg);
+        wheels[1].setTargetSteerDeg(deg);
+        this.throttle = MathUtils.clamp(throttle, -1f, 1f);
+        this.brake = MathUtils.clamp(brake, 0f, 1f);
+    }
+
+    /** apply 设定的是油门 / 刹车 / 转角的当前值，不累加 */
+    @Override public boolean holdsControls() { return true; }
+
+    @Override public float getSpeed()   { return pose.getSpeed(); }
+    @Override public float getHeading() { return pose.getHeadingRad(); }
+    @Override public float getX()       { return pose.getX(); }
+    @Override public float getY()       { return pose.getY(); }
+
+    @Override
+    public void setPosition(float x, float y) {
+        body.setTransform(x, y, body.getAngle());
+        body.setAwake(true);
+        pose.set(x, y, pose.getHeadingRad(), pose.getSpeed());
+    }
+
+    @Override
+    public void setHeading(float headingRad) {
+        Vector2 p = body.getPosition();
+        body.setTransform(p.x, p.y, headingRad);
+        body.setAwake(true);
+        pose.setHeadingRad(headingRad);
+    }
+
+    // ================= 只读 =================
+
+    public Pose pose()          { return pose; }
+    public Spec spec()          { return spec; }
+    public float metersPerUnit() { return mpu; }
+    public Wheel wheel(int k)   { return wheels[k]; }
+    public Body body()          { return body; }
+    public boolean isAwake()    { return body.isAwake(); }
+    /** 当前是否贴着墙或别的车 */
+    public boolean inContact()  { return touching > 0; }
+    public int getWallHits()    { return wallHits; }
+    public int getCarHits()     { return carHits; }
+}
@@ -0,0 +1,85 @@
+package com.zidi.CodeRacer.sim.physics;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
+
+/**
+ * 让现有命令驱动 PhysicsCar 的适配器：apply 的语义与 FrameVehicleContext 相同
+ * （steer = 本帧转角（弧度），throttle = 本帧前进距离），一帧里多次 apply 累加。
+ * 每帧 PhysicsWorld.step 之前调 drive(dt)，把累计的位移换成控制量：
+ *  - 命令的转角累加进目标朝向，横摆角速度 = Δψ / dt + HEADING_GAIN · (目标朝向 − 实际朝向)，
+ *    再按自行车模型 δ = atan(轴距 · 横摆角速度 / 车速) 给前轮转角
+ *  - 目标车速 Δs / dt，转弯时压到侧向加速度 v · 横摆角速度 ≤ GRIP_SHARE · μg 以内（否则轮胎抓不住、横摆跟不上），
+ *    但不低于 V_CREEP，车速误差按比例给油门 / 刹车
+ *  - setHeading 只改目标朝向，由上面的反馈转过去，不瞬移车身；setPosition 直接搬动刚体
+ * 车身由 Box2D 推进，轨迹和运动学版不同：急弯会先减速，朝向落后于命令，命令结束后继续追；
+ * 车要走起来才能转向，现有命令不会倒车，车头顶住墙以后就停在那里（运动学版会原地转）。
+ */
+public final class PhysicsVehicleContext implements VehicleContext {
+
+    /** 车速误差（tile/s）到油门 / 刹车的比例 */
+    private static final float SPEED_GAIN = 0.5f;
+    /** 朝向误差（rad）到附加横摆角速度（rad/s）的比例 */
+    private static final float HEADING_GAIN = 3f;
+    private static final float V_EPS = 0.05f;
+    private static final float GRAVITY = 9.81f;
+    /** 转弯限速只用到摩擦极限的这一部分，留出纵向减速的余量 */
+    private static final float GRIP_SHARE = 0.8f;
+    /** 转弯限速的下限（tile/s）：停着的车转不了向，命令要走时至少给这么快 */
+    private static final float V_CREEP = 0.5f;
+
+    private final PhysicsCar car;
+    private float targetHeading;
+    private float yaw, dist;            // 本帧累计的命令位移
+
+    public PhysicsVehicleContext(PhysicsCar car) {
+        this.car = car;
+        this.targetHeading = car.getHeading();
+    }
+
+    /** 把本帧累计的命令换成 PhysicsCar 的控制量并清零；在 PhysicsWorld.step 之前调 */
+    public void drive(float dt) {
+        if (dt <= 0f) return;
+        targetHeading = wrap(targetHeading + yaw);
+        float yawRate = yaw / dt + HEADING_GAIN * wrap(targetHeading - car.getHeading());
+        float vDes = dist / dt, v = car.getSpeed();
+        if (yawRate != 0f) {
+            float vGrip = GRIP_SHARE * car.wheel(0).spec().muDry() * GRAVITY / (Math.abs(yawRate) * car.metersPerUnit());
+            vGrip = Math.max(vGrip, Math.min(V_CREEP, Math.abs(vDes)));
+            vDes = MathUtils.clamp(vDes, -vGrip, vGrip);
+        }
+        float vs = Math.abs(v) > V_EPS ? v : vDes;              // 横摆取决于实际车速；倒车时 δ 要反号，所以带符号
+        float vRef = Math.copySign(Math.max(Math.abs(vs), V_EPS), vs);
+        float delta = (float) Math.atan(car.spec().wheelbase() * yawRate / vRef);
+        float err = vDes - v;
+        boolean accelerate = vDes >= 0f ? err >= 0f : err <= 0f;
+        if (accelerate) car.apply(delta, MathUtils.clamp(err * SPEED_GAIN, -1f, 1f), 0f);
+        else            car.apply(delta, 0f, Math.min(1f, Math.abs(err) * SPEED_GAIN));
+        yaw = 0f;
+        dist = 0f;
+    }
+
+    @Override
+    public void apply(float steer, float throttle, float brake) {
+        yaw += steer;
+        dist += throttle;
+    }
+
+    @Override public float getSpeed()   { return car.getSpeed(); }
+    @Override public float getHeading() { return car.getHeading(); }
+    @Override public float getX()       { return car.getX(); }
+    @Override public float getY()       { return car.getY(); }
+
+    @Override public void setPosition(float x, float y) { car.setPosition(x, y); }
+    @Override public void setHeading(float heading)     { targetHeading = wrap(heading); }
+
+    /** 当前追的目标朝向（弧度） */
+    public float targetHeading() { return targetHeading; }
+    public PhysicsCar car()      { return car; }
+
+    private static float wrap(float rad) {
+        rad = (rad + MathUtils.PI) % MathUtils.PI2;
+        if (rad < 0) rad += MathUtils.PI2;
+        return rad - MathUtils.PI;
+    }
+}
@@ -0,0 +1,167 @@
+package com.zidi.CodeRacer.sim.physics;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.Manifold;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Disposable;
+import com.zidi.CodeRacer.Commons.utils.RectGridIndex;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.wheel.Wheel;
+
+import java.util.Arrays;
+
+/**
+ * 可选的 Box2D 刚体后端：墙 = Collision 图层的矩形，车 = 动态刚体（PhysicsCar），由四个 Wheel 的 Fx / Fy 驱动。
+ * 一帧：所有车算轮胎力并施加 → 一次 World.step → 位姿写回各自的 Pose。
+ *  - Box2D 里直接用世界单位（tile）；轮胎模型是 SI，力和速度按 metersPerUnit 换算
+ *  - 允许休眠：停住且不给油的车不施力也不唤醒，Box2D 把它们整个岛移出求解；被撞时自动醒
+ *  - 宽相：所有墙挂在同一个静态刚体上（静态代理不会移动，不进每帧的代理更新），
+ *    车-车接触可以用过滤位整体关掉；车速 × dt 远小于墙厚，默认关掉 TOI 连续碰撞，迭代 6 / 2
+ * 60 Hz 下默认配置（1 m / tile）200 车约 0.5 ms / 步、400 车约 0.8 ms；200 车时 8 / 3 + TOI 约翻倍，关休眠慢约 50%（见 Box2DBenchmark）。
+ * 仿真里用：new Simulation(track, true)（HeadlessRunner --box2d，窗口端 -Dcoderacer.physics=box2d），
+ * 命令经 PhysicsVehicleContext 换成车速 / 转角。
+ * 原生库来自 gdx-box2d-platform:natives-desktop（lwjgl3 已依赖；core 的 runHeadless 和测试用 headlessNatives 配置带上）。
+ * 非线程安全；用完 dispose。
+ */
+public final class PhysicsWorld implements Disposable {
+
+    /**
+     * 1 tile 按 1 m 算：命令是 tile 距离（巡航 5~6 tile/s、转弯半径约 3 tile），SpeedPlanner / RacingLineOptimizer
+     * 也直接拿 g = 9.81 当 tile/s²，整个仿真是同一把尺子。换别的比例只适合单独压测刚体，车会跟不上规划的弯
+     */
+    public static final float METERS_PER_TILE = 1f;
+
+    /**
+     * @param metersPerUnit      1 个世界单位（tile）是多少米，仿真里固定 METERS_PER_TILE
+     * @param velocityIterations Box2D 速度迭代次数
+     * @param positionIterations Box2D 位置迭代次数
+     * @param carContacts        车与车之间是否碰撞
+     * @param continuous         是否开 TOI 连续碰撞（只有车速 × dt 接近墙厚时才需要）
+     * @param sleeping           是否允许刚体休眠
+     */
+    public record Config(float metersPerUnit, int velocityIterations, int positionIterations,
+                         boolean carContacts, boolean continuous, boolean sleeping) {
+        public static Config defaults() {
+            return new Config(METERS_PER_TILE, 6, 2, true, false, true);
+        }
+    }
+
+    static final short CATEGORY_WALL = 0x1;
+    static final short CATEGORY_CAR = 0x2;
+
+    private final Config cfg;
+    private final World world;
+    private PhysicsCar[] cars = new PhysicsCar[16];
+    private int size = 0;
+
+    public PhysicsWorld(TiledWorldUtils map) {
+        this(map, Config.defaults());
+    }
+
+    public PhysicsWorld(TiledWorldUtils map, Config cfg) {
+        Box2D.init();
+        this.cfg = cfg;
+        this.world = new World(new Vector2(0f, 0f), cfg.sleeping());
+        world.setContinuousPhysics(cfg.continuous());
+        world.setContactListener(new ContactCounter());
+        buildWalls(map.getCollisionIndex());
+    }
+
+    /** Collision 矩形 → 一个静态刚体上的若干盒子夹具 */
+    private void buildWalls(RectGridIndex rects) {
+        BodyDef bd = new BodyDef();
+        bd.type = BodyDef.BodyType.StaticBody;
+        Body walls = world.createBody(bd);
+        PolygonShape box = new PolygonShape();
+        FixtureDef fd = new FixtureDef();
+        fd.shape = box;
+        fd.friction = 0.4f;
+        fd.restitution = 0.1f;
+        fd.filter.categoryBits = CATEGORY_WALL;
+        fd.filter.maskBits = CATEGORY_CAR;
+        Vector2 center = new Vector2();
+        for (int i = 0; i < rects.size(); i++) {
+            float hw = 0.5f * (rects.maxX(i) - rects.minX(i));
+            float hh = 0.5f * (rects.maxY(i) - rects.minY(i));
+            if (hw <= 0f || hh <= 0f) continue;
+            center.set(rects.minX(i) + hw, rects.minY(i) + hh);
+            box.setAsBox(hw, hh, center, 0f);
+            walls.createFixture(fd);
+        }
+        box.dispose();
+    }
+
+    /**
+     * 按 pose 的位置、朝向和车速放一辆车；之后每步把结果写回 pose（Pose 或 VehicleStateStore 的视图都行）。
+     * @param wheels 顺序：左前、右前、左后、右后
+     */
+    public PhysicsCar addCar(Pose pose, PhysicsCar.Spec spec, Wheel[] wheels) {
+        if (wheels.length != PhysicsCar.WHEELS) {
+            throw new IllegalArgumentException("need " + PhysicsCar.WHEELS + " wheels, got " + wheels.length);
+        }
+        short mask = cfg.carContacts() ? (short) (CATEGORY_WALL | CATEGORY_CAR) : CATEGORY_WALL;
+        PhysicsCar car = new PhysicsCar(world, pose, spec, wheels, cfg.metersPerUnit(), mask);
+        if (size == cars.length) cars = Arrays.copyOf(cars, size * 2);
+        cars[size++] = car;
+        return car;
+    }
+
+    /** 推进一步：施力 → World.step → 写回 Pose */
+    public void step(float dt) {
+        if (dt <= 0f) return;
+        final PhysicsCar[] cars = this.cars;
+        for (int i = 0; i < size; i++) cars[i].applyForces(dt);
+        world.step(dt, cfg.velocityIterations(), cfg.positionIterations());
+        for (int i = 0; i < size; i++) cars[i].syncPose();
+    }
+
+    public int size()            { return size; }
+    public PhysicsCar car(int i) { return cars[i]; }
+    public Config config()       { return cfg; }
+    /** 底层 Box2D 世界（调试绘制等） */
+    public World box2d()         { return world; }
+
+    /** 当前醒着的车数 */
+    public int awakeCount() {
+        int n = 0;
+        for (int i = 0; i < size; i++) if (cars[i].isAwake()) n++;
+        return n;
+    }
+
+    @Override
+    public void dispose() {
+        world.dispose();
+    }
+
+    /** 接触开始 / 结束时给双方的 PhysicsCar 计数；墙的夹具没有 userData */
+    private static final class ContactCounter implements ContactListener {
+        @Override
+        public void beginContact(Contact contact) {
+            Fixture a = contact.getFixtureA(), b = contact.getFixtureB();
+            PhysicsCar ca = (PhysicsCar) a.getUserData(), cb = (PhysicsCar) b.getUserData();
+            if (ca != null) ca.onBeginContact(cb != null);
+            if (cb != null) cb.onBeginContact(ca != null);
+        }
+
+        @Override
+        public void endContact(Contact contact) {
+            PhysicsCar ca = (PhysicsCar) contact.getFixtureA().getUserData();
+            PhysicsCar cb = (PhysicsCar) contact.getFixtureB().getUserData();
+            if (ca != null) ca.onEndContact();
+            if (cb != null) cb.onEndContact();
+        }
+
+        @Override public void preSolve(Contact contact, Manifold oldManifold) {}
+        @Override public void postSolve(Contact contact, ContactImpulse impulse) {}
+    }
+}
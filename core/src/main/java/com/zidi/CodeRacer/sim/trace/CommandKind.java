@@ -0,0 +1,31 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
+import com.zidi.CodeRacer.vehicle.commands.Impl.LaneChangeCommandImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnByAngleCommand;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnLeft90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnRight90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.WaitCommand;
+
+/** 录像里记录的“当前命令”种类；编码在帧 flags 的 3 个位里，所以最多 8 种。 */
+public enum CommandKind {
+    NONE, MOVE_FORWARD, TURN_LEFT_90, TURN_RIGHT_90, TURN_BY_ANGLE, LANE_CHANGE, WAIT, OTHER;
+
+    private static final CommandKind[] VALUES = values();
+
+    public static CommandKind of(VehicleCommand cmd) {
+        if (cmd == null)                           return NONE;
+        if (cmd instanceof MoveForwardCommentImpl) return MOVE_FORWARD;
+        if (cmd instanceof TurnLeft90Command)      return TURN_LEFT_90;   // 先判子类
+        if (cmd instanceof TurnRight90Command)     return TURN_RIGHT_90;
+        if (cmd instanceof TurnByAngleCommand)     return TURN_BY_ANGLE;
+        if (cmd instanceof LaneChangeCommandImpl)  return LANE_CHANGE;
+        if (cmd instanceof WaitCommand)            return WAIT;
+        return OTHER;
+    }
+
+    static CommandKind byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
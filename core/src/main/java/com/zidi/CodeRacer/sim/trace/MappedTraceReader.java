@@ -0,0 +1,103 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 内存映射方式读录像：文件按段映射进地址空间，不读进堆，几小时的录像也能随意拖动。
+ *  - 关键帧索引（每 keyframeInterval 个 tick 一个偏移）常驻内存，任一 tick 最多从关键帧往后解 interval-1 帧
+ *  - 单个 MappedByteBuffer 最多 2 GB，所以按 segmentBytes 分段；相邻段多映射一个关键帧组的长度，
+ *    保证任何一组帧都完整落在某一段里，解码时不用跨段拼接
+ *  - 读取通过 cursor()：每个游标自己持有 duplicate 出来的视图和一个复用的 TraceFrame，不同线程各用各的
+ * 映射在 close 之后由 GC 回收（JDK 没有公开的 unmap）。
+ */
+public final class MappedTraceReader implements AutoCloseable {
+
+    static final long DEFAULT_SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel ch;
+    private final TraceHeader header;
+    private final long tickCount;
+    private final long[] keyframeOffsets;
+    private final long segmentBytes;
+    private final MappedByteBuffer[] segments;
+
+    public MappedTraceReader(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_BYTES);
+    }
+
+    MappedTraceReader(Path file, long segmentBytes) throws IOException {
+        ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            TraceFormat.Footer footer = TraceFormat.readFooter(ch);
+            tickCount = footer.tickCount();
+            keyframeOffsets = footer.keyframeOffsets();
+
+            header = TraceFormat.readHeader(ch);
+
+            long dataEnd = footer.dataEnd();
+            long groupBytes = (long) header.keyframeInterval() * TraceFrame.MAX_BYTES;
+            this.segmentBytes = segmentBytes;
+            int count = (int) Math.max(1, (dataEnd + segmentBytes - 1) / segmentBytes);
+            segments = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long start = i * segmentBytes;
+                long end = Math.min(dataEnd, start + segmentBytes + groupBytes);
+                segments[i] = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    public TraceHeader header()  { return header; }
+    public long tickCount()      { return tickCount; }
+
+    /** tick 这一步结束时的仿真时间 */
+    public double timeAt(long tick) {
+        return (tick + 1) * (double) header.dt();
+    }
+
+    /** 仿真时间 t 所在的 tick（夹到 [0, tickCount-1]），时间轴拖动用 */
+    public long tickAt(double simTime) {
+        long t = (long) Math.floor(simTime / header.dt()) - 1;
+        return Math.max(0, Math.min(tickCount - 1, t));
+    }
+
+    /** 新游标，初始不指向任何帧（tick() == -1），先 seek 或 next */
+    public TraceCursor cursor() {
+        return new TraceCursor(this);
+    }
+
+    // ---------- 给 TraceCursor 用 ----------
+
+    int keyframeInterval() { return header.keyframeInterval(); }
+
+    int segmentCount() { return segments.length; }
+
+    long keyframeOffset(long tick) {
+        return keyframeOffsets[(int) (tick / header.keyframeInterval())];
+    }
+
+    int segmentOf(long offset) {
+        return (int) (offset / segmentBytes);
+    }
+
+    long segmentStart(int segment) {
+        return segment * segmentBytes;
+    }
+
+    ByteBuffer segmentView(int segment) {
+        return segments[segment].duplicate();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+}
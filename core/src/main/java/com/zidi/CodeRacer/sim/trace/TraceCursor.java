@@ -0,0 +1,73 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 映射录像上的游标：直接从映射内存就地解码到一个复用的 TraceFrame，没有拷贝、没有分配。
+ *  - seek(tick)：回到所在关键帧往后解，代价与录像长度无关（至多 keyframeInterval 帧）
+ *  - next() 顺序前进；prev() 等价于 seek(tick - 1)
+ * frame() 返回的是游标内部对象，下一次移动会被覆盖，需要保留时自己 set 一份。
+ * 游标不是线程安全的；多个线程请各自 reader.cursor()。
+ */
+public final class TraceCursor {
+
+    private final MappedTraceReader reader;
+    private final ByteBuffer[] views;
+    private final TraceFrame frame = new TraceFrame();
+
+    private ByteBuffer view;     // 当前帧所在段
+    private long tick = -1;
+
+    TraceCursor(MappedTraceReader reader) {
+        this.reader = reader;
+        this.views = new ByteBuffer[reader.segmentCount()];
+    }
+
+    /** 定位到 tick；越界返回 false 且游标不动 */
+    public boolean seek(long target) {
+        if (target < 0 || target >= reader.tickCount()) return false;
+        int interval = reader.keyframeInterval();
+        // 同一关键帧组里往后走：接着解，不用回关键帧
+        if (tick < 0 || target < tick || target / interval != tick / interval) {
+            jumpToKeyframe(target - target % interval);
+        }
+        while (tick < target) decodeNext();
+        return true;
+    }
+
+    /** 前进一帧；已在最后一帧时返回 false */
+    public boolean next() {
+        if (tick + 1 >= reader.tickCount()) return false;
+        if ((tick + 1) % reader.keyframeInterval() == 0) jumpToKeyframe(tick + 1);
+        else decodeNext();
+        return true;
+    }
+
+    /** 后退一帧；已在第 0 帧时返回 false */
+    public boolean prev() {
+        return tick > 0 && seek(tick - 1);
+    }
+
+    public long tick()          { return tick; }
+    public TraceFrame frame()   { return frame; }
+    public double time()        { return reader.timeAt(tick); }
+
+    // ---------- 内部 ----------
+
+    /** 把 view 定位到 keyTick 所在关键帧并解出这一帧 */
+    private void jumpToKeyframe(long keyTick) {
+        long offset = reader.keyframeOffset(keyTick);
+        int seg = reader.segmentOf(offset);
+        if (views[seg] == null) views[seg] = reader.segmentView(seg);
+        view = views[seg];
+        view.position((int) (offset - reader.segmentStart(seg)));
+        tick = keyTick - 1;
+        decodeNext();
+    }
+
+    private void decodeNext() {
+        long t = tick + 1;
+        frame.read(view, t, t % reader.keyframeInterval() == 0);
+        tick = t;
+    }
+}
@@ -0,0 +1,139 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 录像文件格式（大端，即 ByteBuffer 默认字节序）：
+ * <pre>
+ *   header : MAGIC:int  VERSION:short  dt:float  keyframeInterval:int
+ *            spawnX:float spawnY:float spawnHeading:float  trackName:(short len + UTF-8)
+ *   frames : 每 tick 一条 TraceFrame（flags:byte + 7 个 float）；下标是 keyframeInterval 整数倍的是关键帧（与 0 异或 = 原值），
+ *            其余每个 float 与上一帧按位异或后写成无符号 varint（相邻帧高位相同，通常 1~3 字节）
+ *   index  : count:int  offset[count]:long     —— 第 k 个关键帧的文件偏移
+ *   trailer: indexOffset:long  tickCount:long  MAGIC_END:int   —— 固定 20 字节，从文件尾读
+ * </pre>
+ * 关键帧之间互不依赖，所以 seek(tick) 只需要从最近的关键帧往后解至多 keyframeInterval-1 帧。
+ */
+public final class TraceFormat {
+    private TraceFormat() {}
+
+    public static final int MAGIC     = 0x43525452;   // "CRTR"
+    public static final int MAGIC_END = 0x43524558;   // "CREX"
+    public static final short VERSION = 2;          // v2：flags 里加了当前命令；v1 仍可读
+
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 256;
+    public static final int TRAILER_BYTES = 8 + 8 + 4;
+    /** header 里 trackName 之前的定长部分（含名字的 short 长度） */
+    static final int HEADER_FIXED_BYTES = 4 + 2 + 4 + 4 + 4 + 4 + 4 + 2;
+    /** trackName 的 UTF-8 字节数上限（长度按无符号 short 写） */
+    public static final int MAX_NAME_BYTES = 0xFFFF;
+
+    // ---------- varint（无符号 LEB128，int 最多 5 字节） ----------
+
+    public static void putVarint(ByteBuffer out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    public static int getVarint(ByteBuffer in) {
+        int v = 0, shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            v |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0 && shift < 35);
+        return v;
+    }
+
+    /** 写入 v 与 prev 按位异或后的 varint；用 raw bits 保证 NaN / -0 也逐位还原 */
+    public static void putFloatXor(ByteBuffer out, float v, float prev) {
+        putVarint(out, Float.floatToRawIntBits(v) ^ Float.floatToRawIntBits(prev));
+    }
+
+    public static float getFloatXor(ByteBuffer in, float prev) {
+        return Float.intBitsToFloat(getVarint(in) ^ Float.floatToRawIntBits(prev));
+    }
+
+    // ---------- header ----------
+
+    /** 编码后的 header 字节数 */
+    static int headerBytes(TraceHeader h) {
+        return HEADER_FIXED_BYTES + nameBytes(h).length;
+    }
+
+    static void writeHeader(ByteBuffer out, TraceHeader h) {
+        byte[] name = nameBytes(h);
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putFloat(h.dt());
+        out.putInt(h.keyframeInterval());
+        out.putFloat(h.spawnX());
+        out.putFloat(h.spawnY());
+        out.putFloat(h.spawnHeadingRad());
+        out.putShort((short) name.length);
+        out.put(name);
+    }
+
+    /** 长度字段是无符号 short，按 UTF-8 字节数（不是字符数）检查，中文名一个字 3 字节 */
+    private static byte[] nameBytes(TraceHeader h) {
+        byte[] name = h.trackName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("trackName too long: " + name.length + " UTF-8 bytes > " + MAX_NAME_BYTES);
+        }
+        return name;
+    }
+
+    static TraceHeader readHeader(ByteBuffer in) {
+        if (in.getInt() != MAGIC) throw new IllegalArgumentException("not a CodeRacer trace");
+        short version = in.getShort();
+        if (version < 1 || version > VERSION) throw new IllegalArgumentException("unsupported trace version " + version);
+        float dt = in.getFloat();
+        int interval = in.getInt();
+        float sx = in.getFloat(), sy = in.getFloat(), sh = in.getFloat();
+        byte[] name = new byte[in.getShort() & 0xFFFF];
+        in.get(name);
+        return new TraceHeader(new String(name, StandardCharsets.UTF_8), dt, interval, sx, sy, sh);
+    }
+
+    /** 直接从文件头读（映射读取器在映射之前就要知道 keyframeInterval） */
+    static TraceHeader readHeader(FileChannel ch) throws IOException {
+        int len = (int) Math.min(ch.size(), HEADER_FIXED_BYTES + MAX_NAME_BYTES);
+        return readHeader(readAt(ch, 0, len));
+    }
+
+    // ---------- index + trailer ----------
+
+    /** 文件尾的关键帧索引；dataEnd 即 index 的起始偏移 */
+    record Footer(long dataEnd, long tickCount, long[] keyframeOffsets) {}
+
+    static Footer readFooter(FileChannel ch) throws IOException {
+        long size = ch.size();
+        if (size < TRAILER_BYTES) throw new IOException("trace too short");
+
+        ByteBuffer trailer = readAt(ch, size - TRAILER_BYTES, TRAILER_BYTES);
+        long indexOffset = trailer.getLong();
+        long tickCount = trailer.getLong();
+        if (trailer.getInt() != MAGIC_END) throw new IOException("trace has no index (writer not closed?)");
+
+        ByteBuffer index = readAt(ch, indexOffset, (int) (size - TRAILER_BYTES - indexOffset));
+        long[] offsets = new long[index.getInt()];
+        for (int i = 0; i < offsets.length; i++) offsets[i] = index.getLong();
+        return new Footer(indexOffset, tickCount, offsets);
+    }
+
+    private static ByteBuffer readAt(FileChannel ch, long offset, int len) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(len);
+        while (b.hasRemaining()) {
+            if (ch.read(b, offset + b.position()) < 0) throw new EOFException("trace truncated");
+        }
+        return b.flip();
+    }
+}
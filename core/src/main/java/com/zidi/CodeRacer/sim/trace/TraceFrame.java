@@ -0,0 +1,125 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import com.zidi.CodeRacer.sim.Simulation;
+import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy.Decision;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+
+/**
+ * 一个 tick 的录像内容：三路测距、本步决策、步后位姿、步后正在执行的命令、碰撞标志。
+ * 可复用的可变对象：读的时候就地与自身上一帧的值异或解码，连续读不产生垃圾。
+ */
+public final class TraceFrame {
+
+    /** 单帧编码的最大字节数：flags 1 + 7 个 float × 5 */
+    public static final int MAX_BYTES = 1 + 7 * 5;
+
+    private static final Decision[] DECISIONS = Decision.values();
+
+    private long tick = -1;
+    private float dF, dL, dR;
+    private float x, y, heading, speed;
+    private Decision decision;     // null = 这一步没有决策（还在执行旧命令）
+    private CommandKind command = CommandKind.NONE;
+    private boolean colliding;
+
+    /** 取 sim 刚完成的这一步 */
+    public TraceFrame capture(Simulation sim) {
+        Pose p = sim.getPose();
+        tick      = sim.getTicks() - 1;
+        dF        = sim.getFrontDistance();
+        dL        = sim.getLeftDistance();
+        dR        = sim.getRightDistance();
+        x         = p.getX();
+        y         = p.getY();
+        heading   = p.getHeadingRad();
+        speed     = p.getSpeed();
+        decision  = sim.getLastDecision();
+        command   = CommandKind.of(sim.getRunner().getCurrent());
+        colliding = sim.isColliding();
+        return this;
+    }
+
+    public TraceFrame set(TraceFrame o) {
+        tick = o.tick;
+        dF = o.dF; dL = o.dL; dR = o.dR;
+        x = o.x; y = o.y; heading = o.heading; speed = o.speed;
+        decision = o.decision;
+        command = o.command;
+        colliding = o.colliding;
+        return this;
+    }
+
+    // ---------- 编解码 ----------
+
+    /** prev 为 null 时写关键帧（各字段与 0 异或） */
+    void write(ByteBuffer out, TraceFrame prev) {
+        out.put(flags());
+        TraceFormat.putFloatXor(out, dF,      prev == null ? 0f : prev.dF);
+        TraceFormat.putFloatXor(out, dL,      prev == null ? 0f : prev.dL);
+        TraceFormat.putFloatXor(out, dR,      prev == null ? 0f : prev.dR);
+        TraceFormat.putFloatXor(out, x,       prev == null ? 0f : prev.x);
+        TraceFormat.putFloatXor(out, y,       prev == null ? 0f : prev.y);
+        TraceFormat.putFloatXor(out, heading, prev == null ? 0f : prev.heading);
+        TraceFormat.putFloatXor(out, speed,   prev == null ? 0f : prev.speed);
+    }
+
+    /** 就地解码：keyframe 时先清零，否则以当前值作为上一帧 */
+    void read(ByteBuffer in, long tick, boolean keyframe) {
+        if (keyframe) {
+            dF = dL = dR = 0f;
+            x = y = heading = speed = 0f;
+        }
+        int flags = in.get();
+        colliding = (flags & 1) != 0;
+        int d = (flags >> 1) & 3;
+        decision  = d == 0 ? null : DECISIONS[d - 1];
+        command   = CommandKind.byOrdinal((flags >> 3) & 7);   // v1 录像这几位是 0 → NONE
+        dF      = TraceFormat.getFloatXor(in, dF);
+        dL      = TraceFormat.getFloatXor(in, dL);
+        dR      = TraceFormat.getFloatXor(in, dR);
+        x       = TraceFormat.getFloatXor(in, x);
+        y       = TraceFormat.getFloatXor(in, y);
+        heading = TraceFormat.getFloatXor(in, heading);
+        speed   = TraceFormat.getFloatXor(in, speed);
+        this.tick = tick;
+    }
+
+    /** bit0 碰撞，bit1-2 决策（0 = 无），bit3-5 当前命令 */
+    private byte flags() {
+        int d = decision == null ? 0 : decision.ordinal() + 1;
+        return (byte) ((colliding ? 1 : 0) | (d << 1) | (command.ordinal() << 3));
+    }
+
+    // ---------- 只读 ----------
+
+    /** 本帧对应的仿真步下标（第一步为 0） */
+    public long tick()            { return tick; }
+    public float dF()             { return dF; }
+    public float dL()             { return dL; }
+    public float dR()             { return dR; }
+    public float x()              { return x; }
+    public float y()              { return y; }
+    public float heading()        { return heading; }
+    public float speed()          { return speed; }
+    public Decision decision()    { return decision; }
+    public CommandKind command()  { return command; }
+    public boolean colliding()    { return colliding; }
+
+    /** 位姿是否与 p 逐位相同 */
+    public boolean poseEquals(Pose p) {
+        return Float.floatToRawIntBits(x) == Float.floatToRawIntBits(p.getX())
+            && Float.floatToRawIntBits(y) == Float.floatToRawIntBits(p.getY())
+            && Float.floatToRawIntBits(heading) == Float.floatToRawIntBits(p.getHeadingRad())
+            && Float.floatToRawIntBits(speed) == Float.floatToRawIntBits(p.getSpeed());
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+            "#%d dF=%.3f dL=%.3f dR=%.3f decision=%s cmd=%s pose=(%.3f, %.3f, %.1f°, %.2f)%s",
+            tick, dF, dL, dR, decision, command, x, y, Math.toDegrees(heading), speed, colliding ? " HIT" : "");
+    }
+}
@@ -0,0 +1,19 @@
+package com.zidi.CodeRacer.sim.trace;
+
+/**
+ * 录像头：复现一局需要的全部初始条件（地图名、固定步长、出生位姿）。
+ * 策略参数不在里面——回放默认用 StickyTurnPolicy 的默认构造。
+ * trackName 的长度上限（UTF-8 字节数）在写入时由 TraceFormat 检查。
+ */
+public record TraceHeader(
+    String trackName,
+    float dt,
+    int keyframeInterval,
+    float spawnX,
+    float spawnY,
+    float spawnHeadingRad
+) {
+    public TraceHeader {
+        if (keyframeInterval <= 0) throw new IllegalArgumentException("keyframeInterval must be > 0");
+    }
+}
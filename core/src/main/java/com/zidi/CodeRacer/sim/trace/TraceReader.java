@@ -0,0 +1,90 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 顺序读取 / 按 tick 跳转录像。
+ *  - open 时只读文件尾和关键帧索引，帧数据经 64 KB 缓冲区流式读取，文件多大都不占堆
+ *  - next(frame) 就地解码下一帧；seek(tick, frame) 从最近的关键帧解到 tick
+ * 差分是相对“上一帧”的，所以同一条读序列里要一直复用同一个 TraceFrame。
+ */
+public final class TraceReader implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel ch;
+    private final ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES);
+    private final TraceHeader header;
+    private final long[] keyframeOffsets;
+    private final long tickCount;
+    private final long dataEnd;
+
+    private long nextTick = 0;
+
+    public TraceReader(Path file) throws IOException {
+        ch = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            TraceFormat.Footer footer = TraceFormat.readFooter(ch);
+            tickCount = footer.tickCount();
+            keyframeOffsets = footer.keyframeOffsets();
+            dataEnd = footer.dataEnd();
+
+            ch.position(0);
+            buf.clear().flip();
+            ensure(BUFFER_BYTES);
+            header = TraceFormat.readHeader(buf);
+        } catch (IOException | RuntimeException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    public TraceHeader header()  { return header; }
+    public long tickCount()      { return tickCount; }
+    /** 下一次 next() 会读到的 tick */
+    public long position()       { return nextTick; }
+
+    /** 解码下一帧到 frame；读完返回 false */
+    public boolean next(TraceFrame frame) throws IOException {
+        if (nextTick >= tickCount) return false;
+        ensure(TraceFrame.MAX_BYTES);
+        frame.read(buf, nextTick, nextTick % header.keyframeInterval() == 0);
+        nextTick++;
+        return true;
+    }
+
+    /** 跳到 tick 并把这一帧解到 frame；之后 next(frame) 接着读 tick+1 */
+    public void seek(long tick, TraceFrame frame) throws IOException {
+        if (tick < 0 || tick >= tickCount) throw new IndexOutOfBoundsException("tick " + tick + " / " + tickCount);
+        int interval = header.keyframeInterval();
+        // frame 停在同一段里更早的位置时顺着往后解，否则回到关键帧重新解
+        boolean resume = nextTick > 0 && frame.tick() == nextTick - 1
+            && tick >= nextTick && tick / interval == (nextTick - 1) / interval;
+        if (!resume) {
+            int k = (int) (tick / interval);
+            ch.position(keyframeOffsets[k]);
+            buf.clear().flip();
+            nextTick = (long) k * interval;
+        }
+        while (nextTick <= tick) next(frame);
+    }
+
+    /** 保证缓冲区里至少有 n 字节（或者已到数据末尾） */
+    private void ensure(int n) throws IOException {
+        if (buf.remaining() >= n) return;
+        buf.compact();
+        while (buf.position() < n && ch.position() < dataEnd) {
+            if (ch.read(buf) < 0) break;
+        }
+        buf.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        ch.close();
+    }
+}
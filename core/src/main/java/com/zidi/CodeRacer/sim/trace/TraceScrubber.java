@@ -0,0 +1,87 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 回放时间轴：在 MappedTraceReader 上播放 / 暂停 / 拖动，窗口端的录像拖动条就是它。
+ *  - play() 期间每个仿真步调一次 advance()，顺序前进一帧；到最后一帧自动暂停
+ *  - seek / seekFraction / stepBy 随时跳到任意 tick，代价至多 keyframeInterval 帧（见 TraceCursor）
+ *  - frame() 是当前帧（游标内部对象，下一次移动会被覆盖），previous() 是移动之前那一帧，插值绘制用
+ * 不碰 Simulation：录像里本来就有每步的位姿和测距，拖动时直接画它们。
+ */
+public final class TraceScrubber implements AutoCloseable {
+
+    private final MappedTraceReader reader;
+    private final TraceCursor cursor;
+    private final TraceFrame previous = new TraceFrame();
+    private boolean playing = true;
+
+    public TraceScrubber(Path file) throws IOException {
+        reader = new MappedTraceReader(file);
+        cursor = reader.cursor();
+    }
+
+    public TraceHeader header()  { return reader.header(); }
+    public long tickCount()      { return reader.tickCount(); }
+    /** 当前帧的 tick；还没读过任何帧时为 -1 */
+    public long tick()           { return cursor.tick(); }
+    public TraceFrame frame()    { return cursor.frame(); }
+    public TraceFrame previous() { return previous; }
+    /** 当前位置占全长的比例 [0,1]，画进度条用 */
+    public float fraction() {
+        long n = reader.tickCount();
+        return n <= 1 ? (cursor.tick() < 0 ? 0f : 1f) : Math.max(0, cursor.tick()) / (float) (n - 1);
+    }
+
+    public boolean isPlaying()  { return playing; }
+    public boolean atEnd()      { return cursor.tick() >= reader.tickCount() - 1; }
+    public void play()          { playing = !atEnd(); }
+    public void pause()         { playing = false; }
+    public void toggle()        { if (playing) pause(); else play(); }
+
+    /** 播放中前进一帧；暂停或已到结尾返回 false（到结尾时顺带暂停） */
+    public boolean advance() {
+        if (!playing) return false;
+        long before = cursor.tick();
+        remember();
+        if (cursor.next()) {
+            if (before < 0) previous.set(cursor.frame());
+            return true;
+        }
+        playing = false;
+        return false;
+    }
+
+    /** 跳到 tick（夹到 [0, tickCount-1]）；录像为空时返回 false */
+    public boolean seek(long tick) {
+        if (reader.tickCount() == 0) return false;
+        boolean ok = cursor.seek(Math.max(0, Math.min(reader.tickCount() - 1, tick)));
+        previous.set(cursor.frame());   // 跳转不插值
+        return ok;
+    }
+
+    /** 按进度条上的位置跳，f ∈ [0,1] */
+    public boolean seekFraction(float f) {
+        return seek(Math.round((double) Math.max(0f, Math.min(1f, f)) * (reader.tickCount() - 1)));
+    }
+
+    /** 相对当前位置前后跳 delta 帧 */
+    public boolean stepBy(long delta) {
+        return seek(Math.max(0, cursor.tick()) + delta);
+    }
+
+    /** 相对当前位置前后跳 seconds 秒（按录像的 dt 折算） */
+    public boolean stepBySeconds(float seconds) {
+        return stepBy(Math.round(seconds / reader.header().dt()));
+    }
+
+    private void remember() {
+        if (cursor.tick() >= 0) previous.set(cursor.frame());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,108 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import com.zidi.CodeRacer.sim.EpisodeSpec;
+import com.zidi.CodeRacer.sim.Simulation;
+import com.zidi.CodeRacer.sim.Track;
+import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * 录像命令行工具：
+ * <pre>
+ *   record &lt;map.tmx&gt; &lt;out.trace&gt; [ticks]   跑一局默认策略并录下来
+ *   replay &lt;map.tmx&gt; &lt;in.trace&gt;            用录下的测距重跑（不投射射线），逐位比对决策和位姿
+ *   dump   &lt;in.trace&gt; &lt;tick&gt; [count]        跳到 tick 打印若干帧
+ * </pre>
+ * （gradle: ./gradlew :core:runTrace --args="replay lwjgl3/src/main/resources/Maps/circuit_04.tmx run.trace"）
+ */
+public final class TraceTool {
+    private TraceTool() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) usage();
+        switch (args[0]) {
+            case "record" -> record(new File(args[1]), Path.of(args[2]),
+                args.length > 3 ? Integer.parseInt(args[3]) : EpisodeSpec.DEFAULT_MAX_TICKS);
+            case "replay" -> System.exit(replay(new File(args[1]), Path.of(args[2])) < 0 ? 0 : 1);
+            case "dump"   -> dump(Path.of(args[1]), Long.parseLong(args[2]),
+                args.length > 3 ? Integer.parseInt(args[3]) : 10);
+            default -> usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("usage: TraceTool record <map.tmx> <out.trace> [ticks]");
+        System.err.println("       TraceTool replay <map.tmx> <in.trace>");
+        System.err.println("       TraceTool dump <in.trace> <tick> [count]");
+        System.exit(2);
+    }
+
+    static void record(File tmx, Path out, int ticks) throws IOException {
+        Track track = Track.load(tmx);
+        Simulation sim = new Simulation(track);
+        float dt = EpisodeSpec.DEFAULT_DT;
+
+        long t0 = System.nanoTime();
+        try (TraceWriter w = new TraceWriter(out, sim, dt)) {
+            for (int i = 0; i < ticks; i++) {
+                sim.step(dt);
+                w.record(sim);
+            }
+            double sec = (System.nanoTime() - t0) / 1e9;
+            System.out.printf(Locale.ROOT, "recorded %d ticks -> %s (%d bytes, %.1f B/tick) in %.3f s%n",
+                ticks, out, w.position(), (double) w.position() / Math.max(1, ticks), sec);
+        }
+    }
+
+    /**
+     * 从录像的出生位姿重建 Simulation，逐步喂入录下的 dF/dL/dR。
+     * 返回第一个与录像不一致的 tick（决策、当前命令或位姿任一位不同），完全一致返回 -1。
+     */
+    public static long replay(File tmx, Path in) throws IOException {
+        Track track = Track.load(tmx);
+        try (TraceReader r = new TraceReader(in)) {
+            TraceHeader h = r.header();
+            if (!h.trackName().equals(track.name())) {
+                System.err.println("warning: trace was recorded on " + h.trackName() + ", replaying on " + track.name());
+            }
+            Simulation sim = new Simulation(track, new StickyTurnPolicy(), h.spawnX(), h.spawnY(), h.spawnHeadingRad());
+            TraceFrame f = new TraceFrame();
+
+            long t0 = System.nanoTime();
+            long mismatch = -1;
+            while (r.next(f)) {
+                sim.step(h.dt(), f.dF(), f.dL(), f.dR());
+                if (sim.getLastDecision() != f.decision() || !f.poseEquals(sim.getPose())
+                    || CommandKind.of(sim.getRunner().getCurrent()) != f.command()) {
+                    mismatch = f.tick();
+                    System.out.println("MISMATCH at " + f);
+                    System.out.println("  replay  " + sim.getLastDecision() + " " + sim.getPose());
+                    break;
+                }
+            }
+            double sec = (System.nanoTime() - t0) / 1e9;
+            long n = mismatch < 0 ? r.tickCount() : mismatch + 1;
+            System.out.printf(Locale.ROOT, "replayed %d/%d ticks in %.3f s -> %.0f ticks/s (%.0fx realtime), %s%n",
+                n, r.tickCount(), sec, n / sec, n * h.dt() / sec, mismatch < 0 ? "bit-exact" : "DIVERGED");
+            return mismatch;
+        }
+    }
+
+    /** 映射读取 + 游标：跳到任意 tick 的代价与录像长度无关 */
+    static void dump(Path in, long tick, int count) throws IOException {
+        try (MappedTraceReader r = new MappedTraceReader(in)) {
+            System.out.println(r.header() + " ticks=" + r.tickCount());
+            TraceCursor c = r.cursor();
+            if (!c.seek(tick)) {
+                System.err.println("tick " + tick + " out of range");
+                return;
+            }
+            System.out.println(c.frame());
+            for (int i = 1; i < count && c.next(); i++) System.out.println(c.frame());
+        }
+    }
+}
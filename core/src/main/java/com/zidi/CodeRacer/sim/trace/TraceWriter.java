@@ -0,0 +1,111 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import com.zidi.CodeRacer.sim.Simulation;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 把一局仿真逐 tick 写成录像（格式见 TraceFormat）。
+ * 用法：new TraceWriter(path, sim, dt) 之后，每次 sim.step(dt) 完调一次 record(sim)，最后 close()。
+ * 写入先进 64 KB 直接缓冲区，满了才落到 FileChannel；每 tick 平均十几个字节，不分配对象。
+ */
+public final class TraceWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel ch;
+    private final ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final TraceHeader header;
+
+    private final TraceFrame cur = new TraceFrame();
+    private final TraceFrame last = new TraceFrame();
+
+    private long[] keyframeOffsets = new long[64];
+    private int keyframeCount = 0;
+    private long tickCount = 0;
+    private long flushed = 0;         // 已经落盘的字节数
+    private boolean closed = false;
+
+    public TraceWriter(Path file, Simulation sim, float dt) throws IOException {
+        this(file, sim, dt, TraceFormat.DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    /** sim 必须还没走过任何一步：当前位姿就是录像的出生位姿；dt 是之后每步用的固定步长 */
+    public TraceWriter(Path file, Simulation sim, float dt, int keyframeInterval) throws IOException {
+        if (sim.getTicks() != 0) throw new IllegalStateException("start recording before the first step");
+        Pose p = sim.getPose();
+        this.header = new TraceHeader(sim.getTrack().name(), dt, keyframeInterval,
+            p.getX(), p.getY(), p.getHeadingRad());
+        // header 最长约 64 KB，可能比缓冲区还大，单独编码直接落盘；名字超长在建文件之前就抛
+        ByteBuffer head = ByteBuffer.allocate(TraceFormat.headerBytes(header));
+        TraceFormat.writeHeader(head, header);
+        this.ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        head.flip();
+        while (head.hasRemaining()) flushed += ch.write(head);
+    }
+
+    /** 记录 sim 刚完成的一步；必须每步都调，不能跳 */
+    public void record(Simulation sim) throws IOException {
+        if (closed) throw new IllegalStateException("writer closed");
+        if (sim.getTicks() != tickCount + 1) {
+            throw new IllegalStateException("expected tick " + tickCount + " but simulation is at " + (sim.getTicks() - 1));
+        }
+        cur.capture(sim);
+
+        if (buf.remaining() < TraceFrame.MAX_BYTES) flush();
+        boolean keyframe = tickCount % header.keyframeInterval() == 0;
+        if (keyframe) addKeyframe(position());
+        cur.write(buf, keyframe ? null : last);
+
+        last.set(cur);
+        tickCount++;
+    }
+
+    public TraceHeader header()  { return header; }
+    public long tickCount()      { return tickCount; }
+    /** 当前文件大小（含未落盘部分） */
+    public long position()       { return flushed + buf.position(); }
+
+    private void addKeyframe(long offset) {
+        if (keyframeCount == keyframeOffsets.length) {
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+        }
+        keyframeOffsets[keyframeCount++] = offset;
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) flushed += ch.write(buf);
+        buf.clear();
+    }
+
+    /** 写索引和文件尾；不 close 的录像没有索引，读不了 */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            long indexOffset = position();
+            if (buf.remaining() < 4) flush();
+            buf.putInt(keyframeCount);
+            for (int i = 0; i < keyframeCount; i++) {
+                if (buf.remaining() < 8) flush();
+                buf.putLong(keyframeOffsets[i]);
+            }
+            if (buf.remaining() < TraceFormat.TRAILER_BYTES) flush();
+            buf.putLong(indexOffset);
+            buf.putLong(tickCount);
+            buf.putInt(TraceFormat.MAGIC_END);
+            flush();
+        } finally {
+            ch.close();
+        }
+    }
+}
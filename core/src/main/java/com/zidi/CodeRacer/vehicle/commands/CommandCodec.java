@@ -0,0 +1,64 @@
+package com.zidi.CodeRacer.vehicle.commands;
+
+import com.zidi.CodeRacer.vehicle.commands.Impl.LaneChangeCommandImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnByAngleCommand;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnLeft90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnRight90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.WaitCommand;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 命令快照编码（CommandRunner / CommandScheduler 共用）：类型标记 + 命令自身 writeState，恢复时按标记重新构造。
+ * 不认识的命令类型无法快照。
+ */
+final class CommandCodec {
+
+    // 快照里的命令类型标记
+    private static final byte CMD_NONE = 0, CMD_MOVE_FORWARD = 1, CMD_TURN_BY_ANGLE = 2,
+        CMD_TURN_LEFT_90 = 3, CMD_TURN_RIGHT_90 = 4, CMD_WAIT = 5, CMD_LANE_CHANGE = 6;
+
+    private CommandCodec() {}
+
+    static void write(ByteBuffer out, VehicleCommand cmd) {
+        // 子类在前：TurnLeft90 / TurnRight90 都是 TurnByAngleCommand
+        if (cmd == null) {
+            out.put(CMD_NONE);
+        } else if (cmd instanceof MoveForwardCommentImpl c) {
+            out.put(CMD_MOVE_FORWARD);
+            c.writeState(out);
+        } else if (cmd instanceof TurnLeft90Command c) {
+            out.put(CMD_TURN_LEFT_90);
+            c.writeState(out);
+        } else if (cmd instanceof TurnRight90Command c) {
+            out.put(CMD_TURN_RIGHT_90);
+            c.writeState(out);
+        } else if (cmd.getClass() == TurnByAngleCommand.class) {
+            out.put(CMD_TURN_BY_ANGLE);
+            ((TurnByAngleCommand) cmd).writeState(out);
+        } else if (cmd instanceof WaitCommand c) {
+            out.put(CMD_WAIT);
+            c.writeState(out);
+        } else if (cmd instanceof LaneChangeCommandImpl c) {
+            out.put(CMD_LANE_CHANGE);
+            c.writeState(out);
+        } else {
+            throw new IllegalStateException("command cannot be snapshotted: " + cmd.getClass().getName());
+        }
+    }
+
+    static VehicleCommand read(ByteBuffer in) {
+        byte tag = in.get();
+        return switch (tag) {
+            case CMD_NONE          -> null;
+            case CMD_MOVE_FORWARD  -> MoveForwardCommentImpl.restore(in);
+            case CMD_TURN_LEFT_90  -> TurnLeft90Command.restore(in);
+            case CMD_TURN_RIGHT_90 -> TurnRight90Command.restore(in);
+            case CMD_TURN_BY_ANGLE -> TurnByAngleCommand.restore(in);
+            case CMD_WAIT          -> WaitCommand.restore(in);
+            case CMD_LANE_CHANGE   -> LaneChangeCommandImpl.restore(in);
+            default -> throw new IllegalStateException("unknown command tag " + tag);
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.zidi.CodeRacer.vehicle.commands;
+
+import java.util.Arrays;
+
+/**
+ * 命令的环形队列（并行数组，容量为 2 的幂，满了翻倍）。每项带通道掩码、优先级和提交序号，
+ * 按优先级从高到低排、同级按加入顺序：全是同一优先级时就是普通 FIFO，入队出队都是 O(1)、不分配对象。
+ */
+public final class CommandQueue {
+
+    private VehicleCommand[] cmds;
+    private int[] masks, prios, seqs;
+    private int head = 0, size = 0;
+
+    public CommandQueue() {
+        this(8);
+    }
+
+    public CommandQueue(int initialCapacity) {
+        int n = 2;
+        while (n < initialCapacity) n <<= 1;
+        cmds = new VehicleCommand[n];
+        masks = new int[n];
+        prios = new int[n];
+        seqs = new int[n];
+    }
+
+    /** 普通 FIFO 入队 */
+    public void add(VehicleCommand cmd) {
+        add(cmd, 0, 0, 0);
+    }
+
+    /** 插到所有优先级 ≥ priority 的项之后（通常就是队尾） */
+    public void add(VehicleCommand cmd, int mask, int priority, int seq) {
+        if (size == cmds.length) grow();
+        int m = cmds.length - 1;
+        int i = size;
+        while (i > 0 && prios[(head + i - 1) & m] < priority) {
+            int from = (head + i - 1) & m, to = (head + i) & m;
+            cmds[to] = cmds[from];
+            masks[to] = masks[from];
+            prios[to] = prios[from];
+            seqs[to] = seqs[from];
+            i--;
+        }
+        int at = (head + i) & m;
+        cmds[at] = cmd;
+        masks[at] = mask;
+        prios[at] = priority;
+        seqs[at] = seq;
+        size++;
+    }
+
+    /** 取出队首；空时返回 null */
+    public VehicleCommand poll() {
+        if (size == 0) return null;
+        VehicleCommand cmd = cmds[head];
+        cmds[head] = null;
+        head = (head + 1) & (cmds.length - 1);
+        size--;
+        return cmd;
+    }
+
+    public VehicleCommand peek()  { return size == 0 ? null : cmds[head]; }
+    public int peekMask()         { return masks[head]; }
+    public int peekPriority()     { return prios[head]; }
+    public int peekSeq()          { return seqs[head]; }
+
+    // 按队列顺序的第 i 项（0 = 队首）
+    public VehicleCommand get(int i) { return cmds[slot(i)]; }
+    public int mask(int i)           { return masks[slot(i)]; }
+    public int priority(int i)       { return prios[slot(i)]; }
+    public int seq(int i)            { return seqs[slot(i)]; }
+
+    public int size()        { return size; }
+    public boolean isEmpty() { return size == 0; }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) cmds[slot(i)] = null;
+        head = 0;
+        size = 0;
+    }
+
+    private int slot(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+        return (head + i) & (cmds.length - 1);
+    }
+
+    private void grow() {
+        int n = cmds.length, m = n - 1;
+        VehicleCommand[] c = new VehicleCommand[n * 2];
+        int[] mk = new int[n * 2], p = new int[n * 2], s = new int[n * 2];
+        for (int i = 0; i < size; i++) {
+            int j = (head + i) & m;
+            c[i] = cmds[j];
+            mk[i] = masks[j];
+            p[i] = prios[j];
+            s[i] = seqs[j];
+        }
+        Arrays.fill(cmds, null);
+        cmds = c;
+        masks = mk;
+        prios = p;
+        seqs = s;
+        head = 0;
+    }
+}
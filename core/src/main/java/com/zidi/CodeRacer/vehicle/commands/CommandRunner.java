@@ -1,13 +1,17 @@
 package com.zidi.CodeRacer.vehicle.commands;
 
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
 import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.nio.ByteBuffer;
 
-public class CommandRunner {
+/**
+ * 单通道命令执行：一次只跑一条命令，按加入顺序排队。
+ * 需要转向 / 纵向并行或按优先级抢占时用 CommandScheduler。
+ */
+public class CommandRunner implements Snapshottable {
 
-    private final Queue<VehicleCommand> queue = new LinkedList<>();
+    private final CommandQueue queue = new CommandQueue();
 
     private VehicleCommand current = null;
 
@@ -51,4 +55,24 @@ public class CommandRunner {
         return current;
     }
 
+    // ================= 快照 =================
+
+    /**
+     * 写当前命令（含执行进度）和排队中的命令。
+     * 命令按 CommandCodec 写入，恢复时重新构造；不认识的命令类型无法快照。
+     */
+    @Override
+    public void writeState(ByteBuffer out) {
+        CommandCodec.write(out, current);
+        out.putInt(queue.size());
+        for (int i = 0; i < queue.size(); i++) CommandCodec.write(out, queue.get(i));
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        queue.clear();
+        current = CommandCodec.read(in);
+        int n = in.getInt();
+        for (int i = 0; i < n; i++) queue.add(CommandCodec.read(in));
+    }
 }
@@ -0,0 +1,316 @@
+package com.zidi.CodeRacer.vehicle.commands;
+
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnByAngleCommand;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
+import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 多通道命令调度：转向、纵向（油门 / 刹车）、辅助三条通道各跑各的命令，同一帧里并行执行。
+ *  - 提交时给出占用的通道掩码（可以多条，如 DRIVE = 转向 + 纵向）和优先级；每条通道一个 CommandQueue，
+ *    按优先级从高到低、同级先来先到，多通道命令排在它编号最小的那条通道里
+ *  - 队首优先级严格高于占着通道的命令时抢占：被抢的命令调 onEnd 后丢弃（占几条通道都整条让出），新命令 onStart；
+ *    比如 DRIVE 上的转弯可以被 LONGITUDINAL 上更高优先级的急刹打断
+ *  - 多通道命令要等它的每条通道都空出来或都能抢占才开始；等待期间，排在它后面（优先级更低或同级后到）的命令不会占这些通道
+ *  - 命令拿到的是按通道过滤的上下文：只留自己通道的分量（转向 → steer，纵向 → throttle / brake），
+ *    只占 AUX 的命令 apply 不起作用。读状态和 setPosition / setHeading 不过滤，直接转给车
+ *  - 累加型的车（holdsControls() == false，如 FrameVehicleContext：每次 apply 都转向 / 前进）：
+ *    每次 apply 立刻照原顺序转发，其余分量填 0，不合并、不缓存；所有命令都用 ALL 提交时，车收到的 apply 序列和 CommandRunner 完全一样
+ *  - 设定型的车（holdsControls() == true，如 PhysicsCar：apply 覆盖当前控制量）：各通道这一帧最后一次 apply 的分量
+ *    合并起来，在 update / interrupt 末尾一次 apply 给车，免得 STEERING 和 LONGITUDINAL 上并行的命令互相把对方清零；
+ *    这一帧没人写的分量是 0，整帧没有 apply 就不碰车
+ * 内置命令需要的通道（add 时检查，缺了直接抛 IllegalArgumentException，免得命令悄悄变成空操作）：
+ *  - MoveForwardCommentImpl：LONGITUDINAL（距离走 throttle）
+ *  - TurnByAngleCommand / TurnLeft90Command / TurnRight90Command：DRIVE（转角走 steer，每帧前进走 throttle）
+ *  - WaitCommand：任意，只占住通道
+ *  - LaneChangeCommandImpl：任意；它只用 setPosition / setHeading，不受通道过滤，一般和转弯一样占 DRIVE
+ * AUX 上只放不经 apply 起作用的自定义命令。
+ * update 不分配对象（队列满了翻倍除外）；多车用 updateRange 一遍跑完，空闲的调度器直接跳过。
+ * 非线程安全：一辆车一个，可以按车分片给多个线程。
+ */
+public final class CommandScheduler implements Snapshottable {
+
+    // 通道（掩码位）
+    public static final int STEERING = 1, LONGITUDINAL = 2, AUX = 4;
+    public static final int DRIVE = STEERING | LONGITUDINAL;
+    public static final int ALL = STEERING | LONGITUDINAL | AUX;
+    public static final int CHANNELS = 3;
+
+    /** add(cmd, channels) 用的默认优先级 */
+    public static final int NORMAL = 0;
+
+    private final CommandQueue[] queues = new CommandQueue[CHANNELS];
+    private final VehicleCommand[] running = new VehicleCommand[CHANNELS];
+    private final int[] runMask = new int[CHANNELS], runPrio = new int[CHANNELS];
+    private int busy = 0;           // 有命令在跑的通道
+    private int queued = 0;         // 所有队列的总长
+    private int seq = 0;            // 提交序号，同级排队用
+    private final ChannelContext view = new ChannelContext();
+
+    public CommandScheduler() {
+        for (int c = 0; c < CHANNELS; c++) queues[c] = new CommandQueue();
+    }
+
+    // ================= 提交 =================
+
+    public void add(VehicleCommand cmd, int channels) {
+        add(cmd, channels, NORMAL);
+    }
+
+    public void add(VehicleCommand cmd, int channels, int priority) {
+        if (cmd == null) throw new IllegalArgumentException("command is null");
+        if (channels == 0 || (channels & ~ALL) != 0) throw new IllegalArgumentException("bad channel mask " + channels);
+        int need = requiredChannels(cmd);
+        if ((channels & need) != need) {
+            throw new IllegalArgumentException(cmd.getClass().getSimpleName() + " needs channels " + need + ", got " + channels);
+        }
+        queues[home(channels)].add(cmd, channels, priority, seq++);
+        queued++;
+    }
+
+    /** 内置命令必须占的通道（见类注释）；其它命令不限制 */
+    private static int requiredChannels(VehicleCommand cmd) {
+        if (cmd instanceof TurnByAngleCommand) return DRIVE;
+        if (cmd instanceof MoveForwardCommentImpl) return LONGITUDINAL;
+        return 0;
+    }
+
+    // ================= 每帧 =================
+
+    public void update(float dt, VehicleContext ctx) {
+        view.begin(ctx);
+        admit();
+        for (int c = 0; c < CHANNELS; c++) {
+            VehicleCommand cmd = running[c];
+            if (cmd == null || home(runMask[c]) != c) continue;   // 多通道命令只在首通道上跑一次
+            view.own = runMask[c];
+            if (cmd.execute(dt, view)) {
+                cmd.onEnd(view);
+                release(c);
+            }
+        }
+        view.finish();
+    }
+
+    /** 多车一遍：schedulers[i] 驱动 contexts[i]，i ∈ [from, to) */
+    public static void updateRange(CommandScheduler[] schedulers, VehicleContext[] contexts,
+                                   int from, int to, float dt) {
+        for (int i = from; i < to; i++) {
+            CommandScheduler s = schedulers[i];
+            if (!s.isIdle()) s.update(dt, contexts[i]);
+        }
+    }
+
+    /** 按（优先级降序，提交序升序）依次看各队首：能占就开始，占不了就把它的通道留到下一帧 */
+    private void admit() {
+        if (queued == 0) return;
+        int seen = 0, reserved = 0;
+        for (int round = 0; round < CHANNELS; round++) {
+            int best = -1;
+            for (int c = 0; c < CHANNELS; c++) {
+                if ((seen & (1 << c)) != 0 || queues[c].isEmpty()) continue;
+                if (best < 0 || ahead(queues[c], queues[best])) best = c;
+            }
+            if (best < 0) return;
+            seen |= 1 << best;
+            CommandQueue q = queues[best];
+            int mask = q.peekMask(), prio = q.peekPriority();
+            if ((mask & reserved) == 0 && canTake(mask, prio)) {
+                VehicleCommand cmd = q.poll();
+                queued--;
+                for (int c = 0; c < CHANNELS; c++) {
+                    if ((mask & (1 << c)) != 0 && running[c] != null) end(c);   // 抢占
+                }
+                occupy(cmd, mask, prio);
+                view.own = mask;
+                cmd.onStart(view);
+            } else {
+                reserved |= mask;
+            }
+        }
+    }
+
+    private static boolean ahead(CommandQueue a, CommandQueue b) {
+        int pa = a.peekPriority(), pb = b.peekPriority();
+        return pa != pb ? pa > pb : a.peekSeq() < b.peekSeq();
+    }
+
+    private boolean canTake(int mask, int prio) {
+        for (int c = 0; c < CHANNELS; c++) {
+            if ((mask & (1 << c)) != 0 && running[c] != null && runPrio[c] >= prio) return false;
+        }
+        return true;
+    }
+
+    private void occupy(VehicleCommand cmd, int mask, int prio) {
+        for (int c = 0; c < CHANNELS; c++) {
+            if ((mask & (1 << c)) == 0) continue;
+            running[c] = cmd;
+            runMask[c] = mask;
+            runPrio[c] = prio;
+        }
+        busy |= mask;
+    }
+
+    /** 结束占着通道 c 的命令（onEnd）并让出它的所有通道 */
+    private void end(int c) {
+        view.own = runMask[c];
+        running[c].onEnd(view);
+        release(c);
+    }
+
+    private void release(int c) {
+        int mask = runMask[c];
+        for (int k = 0; k < CHANNELS; k++) {
+            if ((mask & (1 << k)) == 0) continue;
+            running[k] = null;
+            runMask[k] = 0;
+            runPrio[k] = 0;
+        }
+        busy &= ~mask;
+    }
+
+    private static int home(int mask) {
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    // ================= 控制 / 查询 =================
+
+    /** 立刻结束占着这些通道的命令（调 onEnd，它的 apply 照常按通道转发 / 合并）；队列不动 */
+    public void interrupt(int channels, VehicleContext ctx) {
+        view.begin(ctx);
+        for (int c = 0; c < CHANNELS; c++) {
+            if ((channels & (1 << c)) != 0 && running[c] != null) end(c);
+        }
+        view.finish();
+    }
+
+    /** 清空队列和正在跑的命令（不调 onEnd，同 CommandRunner.clear） */
+    public void clear() {
+        for (int c = 0; c < CHANNELS; c++) {
+            queues[c].clear();
+            running[c] = null;
+            runMask[c] = 0;
+            runPrio[c] = 0;
+        }
+        busy = 0;
+        queued = 0;
+    }
+
+    public boolean isIdle() {
+        return busy == 0 && queued == 0;
+    }
+
+    /** 这些通道上既没有在跑的命令，以它们为首通道的队列也是空的 */
+    public boolean isIdle(int channels) {
+        if ((busy & channels) != 0) return false;
+        for (int c = 0; c < CHANNELS; c++) {
+            if ((channels & (1 << c)) != 0 && !queues[c].isEmpty()) return false;
+        }
+        return true;
+    }
+
+    /** 占着某条通道（传单个通道位）的命令，没有为 null */
+    public VehicleCommand getCurrent(int channel) {
+        return running[home(channel)];
+    }
+
+    public int getCurrentPriority(int channel) {
+        return runPrio[home(channel)];
+    }
+
+    public int queuedCount() {
+        return queued;
+    }
+
+    // ================= 快照 =================
+
+    /**
+     * 写提交序号、每条通道上在跑的命令（多通道命令只在首通道写一次）和排队中的命令，命令按 CommandCodec 编码。
+     */
+    @Override
+    public void writeState(ByteBuffer out) {
+        out.putInt(seq);
+        for (int c = 0; c < CHANNELS; c++) {
+            if (running[c] != null && home(runMask[c]) == c) {
+                out.put((byte) runMask[c]).putInt(runPrio[c]);
+                CommandCodec.write(out, running[c]);
+            } else {
+                out.put((byte) 0);
+            }
+            CommandQueue q = queues[c];
+            out.putInt(q.size());
+            for (int i = 0; i < q.size(); i++) {
+                out.put((byte) q.mask(i)).putInt(q.priority(i)).putInt(q.seq(i));
+                CommandCodec.write(out, q.get(i));
+            }
+        }
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        clear();
+        seq = in.getInt();
+        for (int c = 0; c < CHANNELS; c++) {
+            int mask = in.get();
+            if (mask != 0) {
+                int prio = in.getInt();
+                occupy(CommandCodec.read(in), mask, prio);
+            }
+            int n = in.getInt();
+            for (int i = 0; i < n; i++) {
+                int m = in.get(), p = in.getInt(), s = in.getInt();
+                queues[c].add(CommandCodec.read(in), m, p, s);   // 按原顺序追加，排序不变
+            }
+            queued += n;
+        }
+    }
+
+    // ================= 按通道过滤的上下文 =================
+
+    private static final class ChannelContext implements VehicleContext {
+        VehicleContext car;
+        int own;                            // 当前命令占的通道
+        private boolean merge;              // 设定型的车：合并成一帧一次 apply
+        private boolean pending;
+        private float steer, throttle, brake;
+
+        void begin(VehicleContext ctx) {
+            car = ctx;
+            merge = ctx.holdsControls();
+            pending = false;
+            steer = throttle = brake = 0f;
+        }
+
+        void finish() {
+            if (pending) car.apply(steer, throttle, brake);
+            car = null;
+        }
+
+        @Override
+        public void apply(float steer, float throttle, float brake) {
+            if ((own & DRIVE) == 0) return;
+            boolean s = (own & STEERING) != 0, l = (own & LONGITUDINAL) != 0;
+            if (!merge) {
+                car.apply(s ? steer : 0f, l ? throttle : 0f, l ? brake : 0f);
+                return;
+            }
+            if (s) this.steer = steer;
+            if (l) {
+                this.throttle = throttle;
+                this.brake = brake;
+            }
+            pending = true;
+        }
+
+        @Override public float getSpeed()   { return car.getSpeed(); }
+        @Override public float getHeading() { return car.getHeading(); }
+        @Override public float getX()       { return car.getX(); }
+        @Override public float getY()       { return car.getY(); }
+
+        @Override public void setPosition(float x, float y) { car.setPosition(x, y); }
+        @Override public void setHeading(float heading)     { car.setHeading(heading); }
+    }
+}
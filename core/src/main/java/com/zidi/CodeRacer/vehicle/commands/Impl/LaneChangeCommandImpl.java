@@ -5,6 +5,8 @@ import com.badlogic.gdx.math.Vector2;
 import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
 import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
 
+import java.nio.ByteBuffer;
+
 public class LaneChangeCommandImpl implements VehicleCommand {
     private final boolean left;
     private final float laneWidth;       // 一条车道的宽度：你这里传 1f
@@ -59,4 +61,25 @@ public class LaneChangeCommandImpl implements VehicleCommand {
 
         return t >= 1f;
     }
+
+    // 快照：配置 + 进度；onStart 之前 start 为空，只写一个标志
+    public void writeState(ByteBuffer out) {
+        out.put((byte) (left ? 1 : 0)).putFloat(laneWidth).putFloat(length).putFloat(durationSeconds);
+        out.put((byte) (start != null ? 1 : 0));
+        if (start != null) {
+            out.putFloat(start.x).putFloat(start.y).putFloat(dir.x).putFloat(dir.y)
+               .putFloat(n.x).putFloat(n.y).putFloat(t);
+        }
+    }
+
+    public static LaneChangeCommandImpl restore(ByteBuffer in) {
+        LaneChangeCommandImpl c = new LaneChangeCommandImpl(in.get() != 0, in.getFloat(), in.getFloat(), in.getFloat());
+        if (in.get() != 0) {
+            c.start = new Vector2(in.getFloat(), in.getFloat());
+            c.dir   = new Vector2(in.getFloat(), in.getFloat());
+            c.n     = new Vector2(in.getFloat(), in.getFloat());
+            c.t     = in.getFloat();
+        }
+        return c;
+    }
 }
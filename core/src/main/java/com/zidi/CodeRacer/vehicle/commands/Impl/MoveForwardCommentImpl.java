@@ -3,6 +3,8 @@ package com.zidi.CodeRacer.vehicle.commands.Impl;
 import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
 import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
 
+import java.nio.ByteBuffer;
+
 public class MoveForwardCommentImpl implements VehicleCommand {
     private float remain;           // 还要走的距离
     private final float maxStep;    // 每帧最大步长（防止冲过头）
@@ -28,4 +30,14 @@ public class MoveForwardCommentImpl implements VehicleCommand {
     }
 
     @Override public void onEnd(VehicleContext ctx) { ctx.apply(0f,0f,0f); }
+
+    // 快照：剩余距离本身就是进度
+    public void writeState(ByteBuffer out) {
+        out.putFloat(remain).putFloat(maxStep);
+    }
+
+    public static MoveForwardCommentImpl restore(ByteBuffer in) {
+        float remain = in.getFloat(), maxStep = in.getFloat();
+        return new MoveForwardCommentImpl(remain, maxStep);
+    }
 }
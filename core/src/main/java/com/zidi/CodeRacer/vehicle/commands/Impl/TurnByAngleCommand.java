@@ -5,6 +5,8 @@ import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
 import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
 import com.badlogic.gdx.math.MathUtils;
 
+import java.nio.ByteBuffer;
+
 /**
  * 平滑转弯命令，可配置：
  * - 延迟前行时间 delayBeforeTurn（单位秒）
@@ -79,6 +81,35 @@ public class TurnByAngleCommand implements VehicleCommand {
 
     @Override public void onEnd(VehicleContext ctx) {}
 
+    // -------- 快照：配置 + 进度，restore 时按配置重建再填进度 -------- //
+
+    public void writeState(ByteBuffer out) {
+        writeConfig(out);
+        out.putFloat(turned).putFloat(startHeading).putFloat(delayElapsed).put((byte) (started ? 1 : 0));
+    }
+
+    /** 子类配置固定时只需写构造参数 */
+    protected void writeConfig(ByteBuffer out) {
+        out.putFloat(targetDelta).putFloat(yawStep).putFloat(stepDist).putFloat(snapTol)
+           .putInt(steerPolarity).putFloat(delayBeforeTurn);
+    }
+
+    protected final void readProgress(ByteBuffer in) {
+        turned       = in.getFloat();
+        startHeading = in.getFloat();
+        delayElapsed = in.getFloat();
+        started      = in.get() != 0;
+    }
+
+    public static TurnByAngleCommand restore(ByteBuffer in) {
+        TurnByAngleCommand c = new TurnByAngleCommand(in.getFloat(), in.getFloat(), in.getFloat(),
+            in.getFloat(), in.getInt(), in.getFloat());
+        c.readProgress(in);
+        return c;
+    }
+
+    protected int steerPolarity() { return steerPolarity; }
+
     private static float norm(float a) {
         float r = (a + MathUtils.PI) % MathUtils.PI2;
         if (r < 0) r += MathUtils.PI2;
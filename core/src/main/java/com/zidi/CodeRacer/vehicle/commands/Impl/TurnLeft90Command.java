@@ -1,7 +1,8 @@
 package com.zidi.CodeRacer.vehicle.commands.Impl;
 
 import com.badlogic.gdx.math.MathUtils;
-import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
+
+import java.nio.ByteBuffer;
 
 public class TurnLeft90Command extends TurnByAngleCommand {
     public TurnLeft90Command(int steerPolarity) {
@@ -14,4 +15,15 @@ public class TurnLeft90Command extends TurnByAngleCommand {
             1.0f                                // 延迟1秒再转
         );
     }
+
+    @Override
+    protected void writeConfig(ByteBuffer out) {
+        out.putInt(steerPolarity());
+    }
+
+    public static TurnLeft90Command restore(ByteBuffer in) {
+        TurnLeft90Command c = new TurnLeft90Command(in.getInt());
+        c.readProgress(in);
+        return c;
+    }
 }
@@ -1,9 +1,7 @@
 package com.zidi.CodeRacer.vehicle.commands.Impl;
 import com.badlogic.gdx.math.MathUtils;
-import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
 
-
-import com.badlogic.gdx.math.MathUtils;
+import java.nio.ByteBuffer;
 
 public class TurnRight90Command extends TurnByAngleCommand {
     public TurnRight90Command(int steerPolarity) {
@@ -16,4 +14,15 @@ public class TurnRight90Command extends TurnByAngleCommand {
             1.0f
         );
     }
+
+    @Override
+    protected void writeConfig(ByteBuffer out) {
+        out.putInt(steerPolarity());
+    }
+
+    public static TurnRight90Command restore(ByteBuffer in) {
+        TurnRight90Command c = new TurnRight90Command(in.getInt());
+        c.readProgress(in);
+        return c;
+    }
 }
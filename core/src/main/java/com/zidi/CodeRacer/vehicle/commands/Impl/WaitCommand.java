@@ -3,6 +3,8 @@ package com.zidi.CodeRacer.vehicle.commands.Impl;
 import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
 import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
 
+import java.nio.ByteBuffer;
+
 public class WaitCommand implements VehicleCommand {
     private final float waitTime;
     private float elapsed = 0f;
@@ -28,4 +30,14 @@ public class WaitCommand implements VehicleCommand {
     public void onEnd(VehicleContext ctx) {
         ctx.apply(0f, 0f, 0f);
     }
+
+    public void writeState(ByteBuffer out) {
+        out.putFloat(waitTime).putFloat(elapsed);
+    }
+
+    public static WaitCommand restore(ByteBuffer in) {
+        WaitCommand c = new WaitCommand(in.getFloat());
+        c.elapsed = in.getFloat();
+        return c;
+    }
 }
@@ -14,7 +14,7 @@ public interface VehicleCommand {
      *
      * @param deltaTime   当前帧时间步长（秒）
      * @param context     车辆控制上下文（用于施加控制和读取状态）
-     * @return true       表示该命令已完成（CommandRunner 会移除它）
+     * @return true       表示该命令已完成（CommandRunner / CommandScheduler 会移除它）
      *         false      表示命令仍在执行中
      */
     boolean execute(float deltaTime, VehicleContext context);
@@ -28,6 +28,7 @@ public interface VehicleCommand {
     /**
      * （可选）命令结束时的回调。
      * 可以用于做收尾工作（例如把油门归零、打滑修正等）。
+     * 在 CommandScheduler 里被更高优先级的命令抢占时也会调用。
      */
     default void onEnd(VehicleContext context) {}
 }
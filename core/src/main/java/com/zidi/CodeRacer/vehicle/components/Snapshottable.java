@@ -0,0 +1,19 @@
+package com.zidi.CodeRacer.vehicle.components;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 可做快照的运行时状态：把会随仿真变化的字段平铺写进 ByteBuffer，再原样读回同一个（或同构的）对象。
+ * 只写运行状态，不写规格/配置（那些构造后就不变，恢复目标本来就有）。
+ * 读写顺序必须一致；快照/恢复会在搜索里被调用成千上万次，readState 原地写回字段、不分配对象。
+ * 例外：命令队列（CommandRunner / CommandScheduler）。命令的配置是构造参数、队列里是哪些命令也随时在变，
+ * 所以恢复时按快照里的类型标记重新构造每条命令（见 CommandCodec），分配量与命令数成正比。
+ */
+public interface Snapshottable {
+
+    /** 把当前状态写到 out 的当前位置 */
+    void writeState(ByteBuffer out);
+
+    /** 从 in 的当前位置读回 writeState 写下的状态 */
+    void readState(ByteBuffer in);
+}
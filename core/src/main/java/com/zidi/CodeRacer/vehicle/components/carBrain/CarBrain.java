@@ -1,4 +1,18 @@
 package com.zidi.CodeRacer.vehicle.components.carBrain;
 
+import com.zidi.CodeRacer.vehicle.commands.VehicleCommand;
+
+/**
+ * 车辆“大脑”：命令队列空闲时给出下一条宏命令。
+ * 与 StickyTurnPolicy 这类只回答 直走/左/右 的策略不同，它可以下发任意 VehicleCommand（变道、等待……）。
+ */
 public interface CarBrain {
+
+    /**
+     * @param dF 前向测距（世界单位）
+     * @param dL 左前测距
+     * @param dR 右前测距
+     * @return 下一条要执行的命令，不能为 null
+     */
+    VehicleCommand nextCommand(float dF, float dL, float dR);
 }
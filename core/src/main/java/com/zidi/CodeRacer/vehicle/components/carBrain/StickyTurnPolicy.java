@@ -1,9 +1,12 @@
 package com.zidi.CodeRacer.vehicle.components.carBrain;
 
 import com.badlogic.gdx.Gdx;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
+
+import java.nio.ByteBuffer;
 
 /** 粘性比例基线策略：转弯后保存 dL/(dL+dR) 为基线；仅在稳定偏离时才触发新弯。 */
-public class StickyTurnPolicy {
+public class StickyTurnPolicy implements Snapshottable {
 
     public enum Decision { STRAIGHT, TURN_LEFT, TURN_RIGHT }
 
@@ -39,6 +42,16 @@ public class StickyTurnPolicy {
         this.K_STABLE   = K_STABLE;
     }
 
+    /** 同样阈值的新策略，运行状态一并复制；子类有自己的配置时要覆盖它 */
+    public StickyTurnPolicy copy() {
+        StickyTurnPolicy p = new StickyTurnPolicy(FRONT_HARD, FRONT_SAFE, BAND_LOW, BAND_HIGH, K_STABLE);
+        p.baseline   = baseline;
+        p.lastRatio  = lastRatio;
+        p.driftCount = driftCount;
+        p.driftSign  = driftSign;
+        return p;
+    }
+
     /** 在“确认完成一次转弯”后立刻调用，刷新新的直线基线。 */
     public void onTurnCommitted(float dL, float dR) {
         float ratio = ratio(dL, dR);
@@ -47,7 +60,8 @@ public class StickyTurnPolicy {
             lastRatio  = ratio;
             driftCount = 0;
             driftSign  = 0;
-            Gdx.app.debug("Sticky", String.format("Baseline set = %.3f", baseline));
+            // headless 仿真下没有 Gdx.app
+            if (Gdx.app != null) Gdx.app.debug("Sticky", String.format("Baseline set = %.3f", baseline));
         }
     }
 
@@ -112,6 +126,20 @@ public class StickyTurnPolicy {
         return Decision.STRAIGHT;
     }
 
+    /** 快照：基线与防抖计数（阈值是构造参数，不存） */
+    @Override
+    public void writeState(ByteBuffer out) {
+        out.putFloat(baseline).putFloat(lastRatio).putInt(driftCount).putInt(driftSign);
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        baseline   = in.getFloat();
+        lastRatio  = in.getFloat();
+        driftCount = in.getInt();
+        driftSign  = in.getInt();
+    }
+
     private static float ratio(float dL, float dR) {
         float sum = dL + dR;
         if (sum <= 1e-6f) return Float.NaN;
@@ -1,11 +1,14 @@
 package com.zidi.CodeRacer.vehicle.components.engine.Impl;
 
 import com.zidi.CodeRacer.vehicle.components.Part;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
 import com.zidi.CodeRacer.vehicle.components.engine.Engine;
 import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
 import com.zidi.CodeRacer.vehicle.components.engine.EngineState;
 import com.zidi.CodeRacer.vehicle.components.fuelTank.FuelTank;
 
+import java.nio.ByteBuffer;
+
 /**
  * DefaultEngine
  * 抽象发动机基类：实现 Engine 的通用逻辑（油门、油耗、转速/扭矩更新、熄火判定、状态导出）。
@@ -14,7 +17,7 @@ import com.zidi.CodeRacer.vehicle.components.fuelTank.FuelTank;
  * 建议你先继承它做一个 SimpleEngine（填一条扭矩-转速曲线与油耗曲线），
  * 再把该发动机接到 VehicleContext 的动力链即可。
  */
-public abstract class DefaultEngine extends Part implements Engine {
+public abstract class DefaultEngine extends Part implements Engine, Snapshottable {
 
     // ===== 固定规格 =====
     protected final EngineSpec spec;
@@ -34,7 +37,7 @@ public abstract class DefaultEngine extends Part implements Engine {
     protected float selfDampingK = 0.02f; // 自身阻尼（防止无限升速）
 
     // ===== 燃油累加（把 float 单位转成 FuelTank 的 int 单位）=====
-    private float pendingFuelUnits = 0f;     // 累积的“燃油单位”
+    private final FuelUseAccumulator fuelUse = new FuelUseAccumulator();
     protected float fuelUnit = 1.0f;         // 1 个单位 = FuelTank.consume(1) 的粒度（可改为 0.5 / 0.1）
 
     protected DefaultEngine(String partID, String partName, String description,
@@ -131,6 +134,24 @@ public abstract class DefaultEngine extends Part implements Engine {
         // 可用于 UI 检查/调试
     }
 
+    // ============== 快照（油箱是独立部件，自己存） ==============
+
+    @Override
+    public void writeState(ByteBuffer out) {
+        out.putFloat(rpm).putFloat(omega).putFloat(throttle01).putFloat(torqueNm)
+           .putFloat(fuelUse.pending()).put((byte) (stalled ? 1 : 0));
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        rpm = in.getFloat();
+        omega = in.getFloat();
+        throttle01 = in.getFloat();
+        torqueNm = in.getFloat();
+        fuelUse.setPending(in.getFloat());
+        stalled = in.get() != 0;
+    }
+
     // ============== 模板钩子（交给子类实现/覆写） ==============
 
     /**
@@ -159,18 +180,8 @@ public abstract class DefaultEngine extends Part implements Engine {
     protected void handleFuel(float dt) {
         if (tank == null || stalled) return;
         float rate = Math.max(0f, fuelUnitsPerSecond(throttle01)); // 单位/秒
-        pendingFuelUnits += rate * dt;
-
-        // 将浮点燃油单位“攒够 1”后，交给 FuelTank.consume(1)
-        while (pendingFuelUnits >= fuelUnit) {
-            if (tank.isEmpty()) {
-                stalled = true;
-                pendingFuelUnits = 0f;
-                return;
-            }
-            tank.consume(1);
-            pendingFuelUnits -= fuelUnit;
-        }
+        // 攒够的整单位一次扣掉；油箱空了熄火
+        if (!fuelUse.debit(tank, rate * dt, fuelUnit)) stalled = true;
     }
 
     // ============== 工具 ==============
@@ -0,0 +1,192 @@
+package com.zidi.CodeRacer.vehicle.components.engine.Impl;
+
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 发动机特性表：把 EngineSpec（可选再加用户给的扭矩 / BSFC 表）编译成 0..红线 等距的 float 表，查表 + 线性插值。
+ *  - 默认扭矩曲线是 EngineSpec 描述的三段式：怠速 → 峰值 → 红线（原 SimpleEngineImpl 的分段函数），超红线为 0
+ *  - 满油门耗油率：没有 BSFC 表时恒为 spec.fullThrottleFuelUnitsPerSec()；
+ *    有表时 ∝ BSFC(rpm)·Te(rpm)·rpm，归一到表内最大值 = spec 的满油门耗油率
+ *  - 同一个 spec（按 equals）的所有发动机共用一张表：of(spec) 第一次编译，之后直接返回
+ * CSV 格式（一般放在 assets/engines/ 下，示例见 sample_torque.csv / sample_bsfc.csv）：
+ * 每行 "rpm,值"（也可用 ; 或制表符分隔），# 开头为注释，首行可以是表头；
+ * 扭矩单位 Nm（满油门），BSFC 单位随意（只用相对大小）。表外的转速取端点值。
+ * 与解析曲线的差只在拐点（峰值转速、红线）所在的那一格，至多 |两侧斜率之差|·格宽/4：
+ * 常见规格 < 0.1% 峰值扭矩；峰值转速离怠速只有几十 rpm 的极端规格，上升段极陡，可到百分之几。
+ * 怠速处的台阶被抹平在一格（红线 / 512）内。
+ */
+public final class EngineMap {
+
+    /** 0..红线 分成的格数 */
+    public static final int CELLS = 512;
+
+    private static final Map<EngineSpec, EngineMap> SHARED = new ConcurrentHashMap<>();
+
+    private final float redline, invStep;
+    private final float[] torque;       // 满油门扭矩 Nm
+    private final float[] fuelRate;     // 满油门耗油率 单位/秒
+
+    private EngineMap(float redline, float[] torque, float[] fuelRate) {
+        this.redline = redline;
+        this.invStep = CELLS / Math.max(1f, redline);
+        this.torque = torque;
+        this.fuelRate = fuelRate;
+    }
+
+    /** 该 spec 共用的表；没装过 CSV 表时用解析曲线编译 */
+    public static EngineMap of(EngineSpec spec) {
+        return SHARED.computeIfAbsent(spec, s -> compile(s, null, null));
+    }
+
+    /**
+     * 从 CSV 编译并装成该 spec 的共用表（替换已有的）；任一路径可为 null，表示用默认。
+     * 只影响之后创建的发动机，所以在建车之前调用。
+     */
+    public static EngineMap load(EngineSpec spec, Path torqueCsv, Path bsfcCsv) throws IOException {
+        float[][] t = torqueCsv != null ? readCsv(torqueCsv) : null;
+        float[][] b = bsfcCsv != null ? readCsv(bsfcCsv) : null;
+        EngineMap map = compile(spec, t, b);
+        SHARED.put(spec, map);
+        return map;
+    }
+
+    /**
+     * 编译一张不共享的表。
+     * @param torqueTable {rpm[], Nm[]}，null 用解析曲线
+     * @param bsfcTable   {rpm[], bsfc[]}，null 表示耗油率与转速无关
+     */
+    public static EngineMap compile(EngineSpec spec, float[][] torqueTable, float[][] bsfcTable) {
+        float red = Math.max(1f, spec.redlineRpm());
+        float step = red / CELLS;
+        float[] tq = new float[CELLS + 1];
+        for (int i = 0; i <= CELLS; i++) {
+            float rpm = Math.min(red, i * step);
+            tq[i] = torqueTable != null ? sample(torqueTable, rpm) : baseTorque(spec, rpm);
+        }
+
+        float full = spec.fullThrottleFuelUnitsPerSec();
+        float[] fuel = new float[CELLS + 1];
+        if (bsfcTable == null) {
+            Arrays.fill(fuel, full);
+        } else {
+            float peak = 0f;
+            for (int i = 0; i <= CELLS; i++) {
+                float rpm = Math.min(red, i * step);
+                fuel[i] = Math.max(0f, sample(bsfcTable, rpm) * Math.max(0f, tq[i]) * rpm);
+                peak = Math.max(peak, fuel[i]);
+            }
+            float k = peak > 0f ? full / peak : 0f;
+            for (int i = 0; i <= CELLS; i++) fuel[i] *= k;
+        }
+        return new EngineMap(spec.redlineRpm(), tq, fuel);
+    }
+
+    /** 满油门扭矩（Nm）；超红线为 0 */
+    public float torque(float rpm) {
+        return rpm > redline ? 0f : lookup(torque, rpm);
+    }
+
+    /** 满油门耗油率（单位/秒），乘油门开度就是当前耗油率 */
+    public float fullThrottleFuelRate(float rpm) {
+        return lookup(fuelRate, Math.min(rpm, redline));
+    }
+
+    private float lookup(float[] t, float rpm) {
+        float x = Math.max(0f, rpm) * invStep;
+        int i = Math.min((int) x, CELLS - 1);
+        float f = x - i;
+        return t[i] + (t[i + 1] - t[i]) * f;
+    }
+
+    /** EngineSpec 描述的三段式扭矩曲线（满油门） */
+    static float baseTorque(EngineSpec spec, float rpm) {
+        float idle = spec.idleRpm();
+        float peakR = spec.peakTorqueRpm();
+        float red = spec.redlineRpm();
+        float peakT = spec.peakTorqueNm();
+        if (rpm <= idle) return 0.5f * peakT * (rpm / Math.max(1f, idle));          // 怠速以下：扭矩极小
+        if (rpm <= peakR) return lerp(0.6f * peakT, peakT, (rpm - idle) / Math.max(1f, peakR - idle));
+        if (rpm <= red) return lerp(peakT, 0.4f * peakT, (rpm - peakR) / Math.max(1f, red - peakR));
+        return 0f;
+    }
+
+    private static float lerp(float a, float b, float t) {
+        return a + (b - a) * Math.max(0f, Math.min(1f, t));
+    }
+
+    /** 按 rpm 已排好序的表分段线性取值，表外取端点 */
+    private static float sample(float[][] table, float rpm) {
+        float[] xs = table[0], ys = table[1];
+        if (rpm <= xs[0]) return ys[0];
+        int n = xs.length;
+        if (rpm >= xs[n - 1]) return ys[n - 1];
+        int hi = Arrays.binarySearch(xs, rpm);
+        if (hi >= 0) return ys[hi];
+        hi = -hi - 1;
+        int lo = hi - 1;
+        return ys[lo] + (ys[hi] - ys[lo]) * (rpm - xs[lo]) / (xs[hi] - xs[lo]);
+    }
+
+    // ---------- CSV ----------
+
+    static float[][] readCsv(Path file) throws IOException {
+        try (Reader r = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parseCsv(r, file.toString());
+        }
+    }
+
+    /** 解析 "rpm,值" 两列，按 rpm 排序；列数不够、表头之后出现非数字或非有限值、rpm 重复、少于 2 行时报错 */
+    static float[][] parseCsv(Reader reader, String name) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        float[] xs = new float[16], ys = new float[16];
+        int n = 0, lineNo = 0;
+        for (String line; (line = in.readLine()) != null; ) {
+            lineNo++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] cols = line.split("[,;\\t]");
+            if (cols.length < 2) throw new IllegalArgumentException(name + ":" + lineNo + ": need 2 columns: " + line);
+            float x, y;
+            try {
+                x = Float.parseFloat(cols[0].trim());
+                y = Float.parseFloat(cols[1].trim());
+            } catch (NumberFormatException e) {
+                if (n == 0) continue;   // 表头
+                throw new IllegalArgumentException(name + ":" + lineNo + ": not a number: " + line, e);
+            }
+            if (!Float.isFinite(x) || !Float.isFinite(y)) {
+                throw new IllegalArgumentException(name + ":" + lineNo + ": not finite: " + line);
+            }
+            if (n == xs.length) {
+                xs = Arrays.copyOf(xs, n * 2);
+                ys = Arrays.copyOf(ys, n * 2);
+            }
+            xs[n] = x;
+            ys[n] = y;
+            n++;
+        }
+        if (n < 2) throw new IllegalArgumentException(name + ": need at least 2 rows, got " + n);
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        final float[] fx = xs;
+        Arrays.sort(order, (a, b) -> Float.compare(fx[a], fx[b]));
+        float[] sx = new float[n], sy = new float[n];
+        for (int i = 0; i < n; i++) {
+            sx[i] = xs[order[i]];
+            sy[i] = ys[order[i]];
+            if (i > 0 && sx[i] == sx[i - 1]) throw new IllegalArgumentException(name + ": duplicate rpm " + sx[i]);
+        }
+        return new float[][] { sx, sy };
+    }
+}
@@ -1,4 +1,36 @@
 package com.zidi.CodeRacer.vehicle.components.engine.Impl;
 
-public class FuelUseAccumulator {
+import com.zidi.CodeRacer.vehicle.components.fuelTank.FuelTank;
+
+/**
+ * 燃油累加器：把每帧的 float 耗油量攒起来，攒够的整单位一次性从油箱扣掉（每帧最多一次 consume），
+ * 余数留到下一帧。扣掉的油量与“攒够 1 个扣 1 次”的逐个循环相同，只是不再循环。
+ */
+public final class FuelUseAccumulator {
+
+    private float pending;      // 还没扣的燃油单位（< unit）
+
+    /**
+     * 累加 amount 个燃油单位，扣掉其中的整 unit 部分（每个 unit 扣油箱 1）。
+     * @return false 表示油箱已空（余数同时清零），调用方应熄火
+     */
+    public boolean debit(FuelTank tank, float amount, float unit) {
+        if (tank.isEmpty()) {
+            pending = 0f;
+            return false;
+        }
+        pending += Math.max(0f, amount);
+        if (pending < unit) return true;
+        int whole = (int) (pending / unit);
+        pending = Math.max(0f, pending - whole * unit);
+        tank.consume(whole);
+        if (tank.isEmpty()) {
+            pending = 0f;
+            return false;
+        }
+        return true;
+    }
+
+    public float pending()            { return pending; }
+    public void setPending(float units) { pending = units; }
 }
@@ -5,45 +5,28 @@ import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
 /**
  * SimpleEngineImpl
  * 一个基础的汽油机模型：
- * - 线性上升至峰值扭矩，再逐步下降至红线
+ * - 线性上升至峰值扭矩，再逐步下降至红线（或 EngineMap.load 装进来的扭矩表）
+ * - 耗油率查同一张 EngineMap（有 BSFC 表时随转速变）
  * - 达到红线自动断油
+ * 曲线编译成 EngineMap，同 spec 的发动机共用一张表，每步只查表不走分段函数。
  */
 public class SimpleEngineImpl extends DefaultEngine {
 
+    private final EngineMap map;
+
     public SimpleEngineImpl(String id, String name, String desc, int mass, int cost, EngineSpec spec) {
         super(id, name, desc, mass, cost, spec);
+        this.map = EngineMap.of(spec);
     }
 
     @Override
     protected float torqueAtRpm(float rpm) {
-        // 取出基础规格参数
-        float idle = spec.idleRpm();
-        float peakR = spec.peakTorqueRpm();
-        float red  = spec.redlineRpm();
-        float peakT = spec.peakTorqueNm();
-
-        // -----------------------------
-        // 简化的三段式扭矩曲线：
-        // 怠速 → 峰值 → 红线
-        // -----------------------------
-        if (rpm <= idle) {
-            // 怠速以下：扭矩极小（防熄火）
-            return 0.5f * peakT * (rpm / Math.max(1f, idle));
-        }
-        else if (rpm <= peakR) {
-            // 怠速~峰值：扭矩上升
-            float t = (rpm - idle) / Math.max(1f, peakR - idle);
-            return lerp(0.6f * peakT, peakT, t);
-        }
-        else if (rpm <= red) {
-            // 峰值~红线：扭矩下降
-            float t = (rpm - peakR) / Math.max(1f, red - peakR);
-            return lerp(peakT, 0.4f * peakT, t);
-        }
-        else {
-            // 超红线：强制衰减
-            return 0f;
-        }
+        return map.torque(rpm);
+    }
+
+    @Override
+    protected float fuelUnitsPerSecond(float throttle01) {
+        return map.fullThrottleFuelRate(rpm) * clamp(throttle01, 0f, 1f);
     }
 
     @Override
@@ -52,9 +35,5 @@ public class SimpleEngineImpl extends DefaultEngine {
         return true;
     }
 
-    // ===== 工具函数 =====
-    private static float lerp(float a, float b, float t) {
-        return a + (b - a) * clamp(t, 0f, 1f);
-    }
-
+    public EngineMap map() { return map; }
 }
@@ -2,6 +2,10 @@ package com.zidi.CodeRacer.vehicle.components.frame;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
+
+import java.nio.ByteBuffer;
+
 import static com.zidi.CodeRacer.world.coordinate.WorldCoordinateSystem.wrapAngleRad;
 
 /**
@@ -10,7 +14,7 @@ import static com.zidi.CodeRacer.world.coordinate.WorldCoordinateSystem.wrapAngl
  * 适用于车辆、行人、传感器等具有空间位置与朝向的对象。
  * 在 CodeRacer 中，Pose 是 LocalCoordinateSystem 的核心状态数据来源。
  */
-public class Pose {
+public class Pose implements Snapshottable {
 
     /** 世界坐标下的位置 */
     private final Vector2 pos = new Vector2();
@@ -46,10 +50,8 @@ public class Pose {
 
     /** 从另一 Pose 复制 */
     public Pose set(Pose other) {
-        this.pos.set(other.pos);
-        this.headingRad = other.headingRad;
-        this.speed = other.speed;
-        return this;
+        // 走 getter：other 可能是 VehicleStateStore.PoseView，字段不是真实数据
+        return set(other.getX(), other.getY(), other.getHeadingRad(), other.getSpeed());
     }
 
     // =========================================
@@ -88,6 +90,17 @@ public class Pose {
         return forwardCache;
     }
 
+    // 快照：同样走 getter / set，PoseView 也适用
+    @Override
+    public void writeState(ByteBuffer out) {
+        out.putFloat(getX()).putFloat(getY()).putFloat(getHeadingRad()).putFloat(getSpeed());
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        set(in.getFloat(), in.getFloat(), in.getFloat(), in.getFloat());
+    }
+
     /** 复制一份 Pose（独立副本） */
     public Pose cpy() {
         return new Pose(pos.x, pos.y, headingRad, speed);
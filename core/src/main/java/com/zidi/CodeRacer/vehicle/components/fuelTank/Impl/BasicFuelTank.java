@@ -2,11 +2,14 @@ package com.zidi.CodeRacer.vehicle.components.fuelTank.Impl;
 
 import com.zidi.CodeRacer.vehicle.components.fuelTank.FuelTank;
 import com.zidi.CodeRacer.vehicle.components.Part;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
+
+import java.nio.ByteBuffer;
 
 /**
  * 抽象燃料箱基类，提供通用油量逻辑。
  */
-public abstract class BasicFuelTank extends Part implements FuelTank {
+public abstract class BasicFuelTank extends Part implements FuelTank, Snapshottable {
 
     private final float capacity;
     private float fuelLevel;
@@ -50,6 +53,16 @@ public abstract class BasicFuelTank extends Part implements FuelTank {
         return fuelLevel <= 0.0001f;
     }
 
+    @Override
+    public void writeState(ByteBuffer out) {
+        out.putFloat(fuelLevel);
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        fuelLevel = in.getFloat();
+    }
+
     @Override
     public String toString() {
         return String.format("%s [%.1f / %.1f]", getPartName(), fuelLevel, capacity);
@@ -2,9 +2,11 @@ package com.zidi.CodeRacer.vehicle.components.sensor.Impl;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
+import com.zidi.CodeRacer.Commons.utils.FloatRingBuffer;
+import com.zidi.CodeRacer.Commons.utils.RaycastHit;
 import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
 import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.sensor.MutableSensorReading;
 import com.zidi.CodeRacer.vehicle.components.sensor.SensorReading;
 
 /**
@@ -16,12 +18,14 @@ public class BaseSensor extends DefaultSensor {
     // —— 调参项（必要时在构造器里改，或提供 setter）——
     private float warnDist = 5f;     // 预警距离（tile）
     private float maxDist  = 50f;    // 光线最远探测距离（tile）
-    private float step     = 0.25f;  // 采样步长（tile）
+    private float step     = 0.25f;  // 调试采样点间隔（tile）；距离本身由精确射线给出
 
     // —— 调试可视化：只读 ——
     private final Vector2 rayStart = new Vector2();
     private final Vector2 rayEnd   = new Vector2();
-    private final Array<Vector2> samples = new Array<>(false, 64); // 可选：采样点（画小圆点用）
+    private FloatRingBuffer samples = null;   // 可选：采样点（画小圆点用），setSampleCapture 开启
+    private final RaycastHit hit = new RaycastHit();
+    private final MutableSensorReading last = new MutableSensorReading();
 
     public BaseSensor(String id, String name, String desc, int mass, int cost,
                       TiledWorldUtils world, Pose pose) {
@@ -39,48 +43,54 @@ public class BaseSensor extends DefaultSensor {
     public void onClick() { /* 可做测试/自检 */ }
 
     /**
-     * 目前：单射线前向探测 Collision。
-     * 返回：是否触发 + 最近障碍物距离。
-     * 同时：记录 rayStart/rayEnd/samples 供渲染层画线。
+     * 目前：单射线前向探测 Collision（网格 DDA 精确求交，不再按 step 逐点试探）。
+     * 返回：是否触发 + 最近障碍物距离（不可变快照；热路径请用 detectInto）。
      */
     @Override
     public SensorReading detect() {
-        // 清理上次采样点（可选）
-        samples.clear();
+        return detectInto(last).toReading();
+    }
 
+    /**
+     * 零分配版本：结果写进 out。
+     * 同时：记录 rayStart/rayEnd（以及开启时的 samples）供渲染层画线。
+     */
+    @Override
+    public MutableSensorReading detectInto(MutableSensorReading out) {
         final float x = pose.getX();
         final float y = pose.getY();
         final float h = pose.getHeadingRad();
 
-        float d = 0f;
-        // 射线采样前向推进
-        while (d <= maxDist) {
-            float sx = x + d * MathUtils.cos(h);
-            float sy = y + d * MathUtils.sin(h);
+        world.raycast(x, y, h, maxDist, hit);
+        final float d = hit.distance;
 
-            // 记录采样点（若你不想画点，可以注释掉）
-            samples.add(new Vector2(sx, sy));
-
-            if (world.isCollisionAt(sx, sy)) {
-                break; // 命中
+        // 调试采样点：沿射线每 step 一个，直到命中点（只在开启采集时记录）
+        if (samples != null) {
+            samples.clear();
+            final float c = MathUtils.cos(h), s = MathUtils.sin(h);
+            for (float t = 0f; t < d; t += step) {
+                samples.add(x + t * c, y + t * s);
             }
-            d += step;
         }
 
         // 更新调试射线端点
         rayStart.set(x, y);
-        float hitX = x + d * MathUtils.cos(h);
-        float hitY = y + d * MathUtils.sin(h);
-        rayEnd.set(hitX, hitY);
+        rayEnd.set(hit.x, hit.y);
 
         boolean alert = (d <= warnDist);
-        return new SensorReading(alert, d, 0f, alert ? "CollisionAhead" : "Clear");
+        return out.set(alert, d, 0f, alert ? "CollisionAhead" : "Clear");
     }
 
     // ====== 渲染层可用的只读 Getter（不影响逻辑层） ======
     public Vector2 getRayStart() { return rayStart; }
     public Vector2 getRayEnd()   { return rayEnd;   }
-    public Array<Vector2> getSamples() { return samples; }
+    /** 最近一次的采样点；未开启采集时为 null */
+    public FloatRingBuffer getSamples() { return samples; }
+
+    /** 开启调试采样点采集（最多保存 maxPoints 个点，预分配）；0 关闭 */
+    public void setSampleCapture(int maxPoints) {
+        this.samples = maxPoints > 0 ? new FloatRingBuffer(maxPoints) : null;
+    }
 
     // ====== （可选）参数调节 ======
     public void setWarnDist(float warnDist) { this.warnDist = Math.max(0f, warnDist); }
@@ -1,19 +1,22 @@
 package com.zidi.CodeRacer.vehicle.components.sensor.Impl;
 
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
+import com.zidi.CodeRacer.Commons.utils.FanTable;
 import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
 import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.sensor.MutableSensorReading;
 import com.zidi.CodeRacer.vehicle.components.sensor.SensorReading;
 
-public class SectorSweepSensor extends DefaultSensor {
+import java.nio.ByteBuffer;
+
+public class SectorSweepSensor extends DefaultSensor implements Snapshottable {
     // 扇形参数
     private final float fovHalfRad;   // 扇形半宽（弧度）
     private final float rMax;         // 最大量程（世界单位）
     private final int   nTotal;       // 总射线数（扫完整个扇区）
     private final int   kFrames;      // 扫完整个扇区的帧数
-    private final float stepLen;      // world.distanceToCollisionForward 的步长
+    private final float stepLen;      // 步进版射线的步长（仅 exactRaycast=false 时使用）
     private final float emaAlpha;     // EMA 融合系数（0..1）
 
     // 告警/输出
@@ -21,9 +24,14 @@ public class SectorSweepSensor extends DefaultSensor {
     private int   phase = 0;          // 0..kFrames-1
     private float dFiltered = Float.POSITIVE_INFINITY;
     private float lastBatchMin = Float.POSITIVE_INFINITY;
+    private boolean exactRaycast = true;   // true：DDA 精确射线（castFan 批量）；false：旧的固定步长
 
-    // 可视化
-    private final Array<Vector2> lastRayEnds = new Array<>(false, 64);
+    // 每根射线的结果（SoA，下标 = 射线序号；也供可视化）
+    private final FanTable fan;
+    private final float[] rayDist;
+    private final float[] rayEndX;
+    private final float[] rayEndY;
+    private final MutableSensorReading last = new MutableSensorReading();
 
     public SectorSweepSensor(
         String id, String name, String desc, int mass, int cost,
@@ -41,22 +49,31 @@ public class SectorSweepSensor extends DefaultSensor {
         this.kFrames    = Math.max(1, kFrames);
         this.stepLen    = Math.max(0.02f, stepLen);
         this.emaAlpha   = MathUtils.clamp(emaAlpha, 0.05f, 0.9f);
+
+        this.fan     = world.fanTable(this.fovHalfRad, this.nTotal);
+        this.rayDist = new float[this.nTotal];
+        this.rayEndX = new float[this.nTotal];
+        this.rayEndY = new float[this.nTotal];
     }
 
-    /* --- 关键：每次 detect() 做一批扫描，并返回融合后的读数 --- */
+    /* --- 关键：每次 detect() 做一批扫描，并返回融合后的读数（不可变快照） --- */
     @Override
     public SensorReading detect() {
+        return detectInto(last).toReading();
+    }
+
+    /* --- 零分配版本：扫描一批并把融合读数写进 out --- */
+    @Override
+    public MutableSensorReading detectInto(MutableSensorReading out) {
         updateSweepOnce(); // 打本帧的那一小束
 
         final boolean alert = (dFiltered <= warnDist);
         // angle 用不到先给 0；type 做个简单标签
-        return new SensorReading(alert, dFiltered, 0f, alert ? "Obstacle" : "Clear");
+        return out.set(alert, dFiltered, 0f, alert ? "Obstacle" : "Clear");
     }
 
-    /* 分帧扫描（原来的 updateSweep 改名为内部私有） */
+    /* 分帧扫描（原来的 updateSweep 改名为内部私有）；kFrames = 1 时每帧扫完整个扇区 */
     private void updateSweepOnce() {
-        lastRayEnds.clear();
-
         final float cx = pose.getX();
         final float cy = pose.getY();
         final float ch = pose.getHeadingRad();
@@ -65,21 +82,24 @@ public class SectorSweepSensor extends DefaultSensor {
         final int startIx = phase * nStep;
         final int endIx   = Math.min(nTotal, startIx + nStep);
 
-        float batchMin = Float.POSITIVE_INFINITY;
-
         // i ∈ [0, nTotal-1] 映射到 [-fovHalf, +fovHalf]
-        for (int i = startIx; i < endIx; i++) {
-            final float t   = (nTotal == 1) ? 0f : (i / (float)(nTotal - 1)); // 0..1
-            final float off = -fovHalfRad + (2f * fovHalfRad) * t;            // -half..+half
-            final float a   = ch + off;
-
-            final float d = world.distanceToCollisionForward(cx, cy, a, rMax, stepLen);
-            if (d < batchMin) batchMin = d;
+        if (exactRaycast) {
+            world.castFan(cx, cy, ch, fan, startIx, endIx, rMax, rayDist, rayEndX, rayEndY);
+        } else {
+            for (int i = startIx; i < endIx; i++) {
+                final float t   = (nTotal == 1) ? 0f : (i / (float)(nTotal - 1)); // 0..1
+                final float off = -fovHalfRad + (2f * fovHalfRad) * t;            // -half..+half
+                final float a   = ch + off;
+                final float d   = world.distanceToCollisionForward(cx, cy, a, rMax, stepLen);
+                rayDist[i] = d;
+                rayEndX[i] = cx + d * MathUtils.cos(a);
+                rayEndY[i] = cy + d * MathUtils.sin(a);
+            }
+        }
 
-            // 可视化端点
-            final float ex = cx + d * MathUtils.cos(a);
-            final float ey = cy + d * MathUtils.sin(a);
-            lastRayEnds.add(new Vector2(ex, ey));
+        float batchMin = Float.POSITIVE_INFINITY;
+        for (int i = startIx; i < endIx; i++) {
+            if (rayDist[i] < batchMin) batchMin = rayDist[i];
         }
 
         if (!Float.isFinite(batchMin)) batchMin = rMax;
@@ -94,11 +114,29 @@ public class SectorSweepSensor extends DefaultSensor {
         phase = (phase + 1) % kFrames;
     }
 
+    /* —— 快照：只存影响后续读数的滤波状态；各射线结果每批重算，不存 —— */
+    @Override
+    public void writeState(ByteBuffer out) {
+        out.putInt(phase).putFloat(dFiltered).putFloat(lastBatchMin);
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        phase        = in.getInt();
+        dFiltered    = in.getFloat();
+        lastBatchMin = in.getFloat();
+    }
+
     /* —— 可视化 / 参数 —— */
-    public Array<Vector2> getLastRayEnds() { return lastRayEnds; }
+    public int     getRayCount()           { return nTotal; }
+    public float[] getRayDistances()       { return rayDist; }   // 只读：各射线最近一次的距离
+    public float[] getRayEndX()            { return rayEndX; }   // 只读：各射线端点 x
+    public float[] getRayEndY()            { return rayEndY; }   // 只读：各射线端点 y
+    public float getCenterDistance()       { return rayDist[nTotal / 2]; }   // 正中那根（nTotal 为奇数时正对朝向）
     public float getDistanceFiltered()     { return dFiltered; }
     public float getLastBatchMin()         { return lastBatchMin; }
     public void  setWarnDist(float w)      { this.warnDist = Math.max(0f, w); }
+    public void  setExactRaycast(boolean b){ this.exactRaycast = b; }
 
     /* 覆盖这些 getter，让外部用统一接口也拿到真实值 */
     @Override public int  getRange()      { return (int)Math.ceil(rMax); }
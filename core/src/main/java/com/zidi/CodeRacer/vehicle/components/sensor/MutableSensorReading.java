@@ -0,0 +1,39 @@
+package com.zidi.CodeRacer.vehicle.components.sensor;
+
+/**
+ * 可复用的传感器读数：调用方持有一份，每帧交给 Sensor.detectInto 覆写，不产生垃圾。
+ * 字段含义与 SensorReading 相同；需要不可变快照时调用 toReading()。
+ */
+public final class MutableSensorReading {
+    private boolean alert;
+    private float distance;
+    private float angle;
+    private String label = "";   // 只放常量字符串，避免每帧拼接
+
+    public MutableSensorReading set(boolean alert, float distance, float angle, String label) {
+        this.alert = alert;
+        this.distance = distance;
+        this.angle = angle;
+        this.label = label;
+        return this;
+    }
+
+    public MutableSensorReading set(SensorReading r) {
+        return set(r.isAlert(), r.getDistance(), r.getAngle(), r.getLabel());
+    }
+
+    /** 不可变快照（会分配） */
+    public SensorReading toReading() {
+        return new SensorReading(alert, distance, angle, label);
+    }
+
+    public boolean isAlert()   { return alert; }
+    public float getDistance() { return distance; }
+    public float getAngle()    { return angle; }
+    public String getLabel()   { return label; }
+
+    @Override
+    public String toString() {
+        return String.format("SensorReading[%s, d=%.2f, angle=%.2f, %s]", alert ? "ALERT" : "ok", distance, angle, label);
+    }
+}
@@ -16,4 +16,12 @@ public interface Sensor {
      */
     SensorReading detect();
 
+    /**
+     * 零分配版本：把结果写进调用方复用的 out，返回 out。
+     * 默认实现退回 detect()（会分配）；热路径上的传感器应覆写。
+     */
+    default MutableSensorReading detectInto(MutableSensorReading out) {
+        return out.set(detect());
+    }
+
 }
@@ -1,16 +1,19 @@
 package com.zidi.CodeRacer.vehicle.components.wheel.Impl;
 
 import com.zidi.CodeRacer.vehicle.components.Part;
+import com.zidi.CodeRacer.vehicle.components.Snapshottable;
 import com.zidi.CodeRacer.vehicle.components.wheel.Wheel;
 import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
 import com.zidi.CodeRacer.vehicle.components.wheel.WheelState;
 
+import java.nio.ByteBuffer;
+
 /**
  * DefaultWheel
  * 抽象轮子基类：封装通用的控制输入、状态维护与简化受力模型。
  * 具体型号（如 WoodenWheel/RacingWheel）只需提供 WheelSpec 即可。
  */
-public abstract class DefaultWheel extends Part implements Wheel {
+public abstract class DefaultWheel extends Part implements Wheel, Snapshottable {
 
     // ---- 固定规格 ----
     protected final WheelSpec spec;
@@ -68,6 +71,8 @@ public abstract class DefaultWheel extends Part implements Wheel {
         };
     }
 
+    @Override public float steerDeg() { return steerDeg; }
+
     @Override
     public void setTargetSteerDeg(float targetDeg) {
         // 限幅到规格允许的最大转角
@@ -123,7 +128,7 @@ public abstract class DefaultWheel extends Part implements Wheel {
 
         // 简化侧向：依据侧向速度产生抗滑力（用 “等效侧偏” 近似）
         float alphaRad = (float) Math.atan2(-wheelVy, vxAbs); // 负号：Vy>0 产生向负方向的侧向力
-        float FyLat    = -Fmax * tanh(latStiffBy * latShapeCy * alphaRad);
+        float FyLat    = Fmax * tanh(latStiffBy * latShapeCy * alphaRad);
 
         // 滚阻（与行驶方向反向）
         float rollSign = (wheelVx >= 0f ? 1f : -1f);
@@ -149,6 +154,38 @@ public abstract class DefaultWheel extends Part implements Wheel {
     @Override public float getFy() { return Fy; }
     @Override public float getMz() { return Mz; }
 
+    // ================= 快照 =================
+
+    /** 控制输入、preStep 缓存、输出力和磨损/温度都要存：step 依赖上一次 preStep 的缓存 */
+    @Override
+    public void writeState(ByteBuffer out) {
+        out.putFloat(targetSteerDeg).putFloat(driveTorqueNm).putFloat(brakeTorqueNm)
+           .putFloat(dt).putFloat(normalLoadN).putFloat(groundMu)
+           .putFloat(wheelOmega).putFloat(wheelVx).putFloat(wheelVy)
+           .putFloat(Fx).putFloat(Fy).putFloat(Mz)
+           .putFloat(steerDeg).putFloat(slipRatio).putFloat(wear01).putFloat(tempC);
+    }
+
+    @Override
+    public void readState(ByteBuffer in) {
+        targetSteerDeg = in.getFloat();
+        driveTorqueNm  = in.getFloat();
+        brakeTorqueNm  = in.getFloat();
+        dt             = in.getFloat();
+        normalLoadN    = in.getFloat();
+        groundMu       = in.getFloat();
+        wheelOmega     = in.getFloat();
+        wheelVx        = in.getFloat();
+        wheelVy        = in.getFloat();
+        Fx             = in.getFloat();
+        Fy             = in.getFloat();
+        Mz             = in.getFloat();
+        steerDeg       = in.getFloat();
+        slipRatio      = in.getFloat();
+        wear01         = in.getFloat();
+        tempC          = in.getFloat();
+    }
+
     // ================= 工具方法 =================
     protected float effectiveMu() {
         // 基本用地面 μ；可按温度/磨损稍作折减
@@ -5,7 +5,10 @@ import com.zidi.CodeRacer.vehicle.components.Part;
 /** 轮子本体：外部只通过这层驱动/刹车/设转角，并读取受力 */
 public interface Wheel {
     WheelSpec spec();
-    WheelState state();
+    WheelState state();   // 当前状态的快照，每次调用新建
+
+    /** 当前实际转角（度）；物理步里每步都要读时用它，不分配 */
+    default float steerDeg() { return state().steerDeg(); }
 
     // 控制输入（由引擎/制动/转向系统写入）
     void setTargetSteerDeg(float targetDeg);
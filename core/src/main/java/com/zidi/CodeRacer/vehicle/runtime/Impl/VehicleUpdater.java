@@ -1,26 +1,76 @@
 package com.zidi.CodeRacer.vehicle.runtime.Impl;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
 import com.zidi.CodeRacer.vehicle.components.frame.Pose;
 import com.zidi.CodeRacer.world.nav.Path;
 import com.zidi.CodeRacer.world.nav.PathSampler;
+import com.zidi.CodeRacer.world.nav.RacingLine;
+import com.zidi.CodeRacer.world.nav.SpeedPlanner;
 
 public class VehicleUpdater {
     public float wheelbase = 2.6f; // 轴距
     public float kpSpeed   = 2.0f; // 速度P增益
     public float maxAccel  = 5.0f; // 加速度限幅
-    public int   lookaheadSteps = 6;
+    public float lookaheadDistance = 3f; // 前视距离（世界单位，按弧长）
 
-    private int nearestHint = 0;
+    // 上一帧的定位结果，下一帧当 hint：Path 是线段下标，RacingLine 是点下标，分开存；
+    // -1 = 先做一次全局定位（刚创建、或换了一条路径 / 赛车线）
+    private Path hintPath;
+    private int pathHint = -1;
+    private RacingLine hintLine;
+    private int lineHint = -1;
+    private final Path.Projection proj = new Path.Projection();
+    private final Vector2 target = new Vector2();
 
     /** 基于 Path 的最小 pure-pursuit 横向 + 简单纵向控制 */
     public void step(Pose pose, Path path, float targetSpeed, float dt) {
         if (path == null || path.size() == 0) return;
 
-        // 1) 找最近点 + 前视点
-        nearestHint = PathSampler.nearestIndex(path, pose.getPos(), nearestHint);
-        int la = PathSampler.lookaheadIndex(path, nearestHint, lookaheadSteps);
-        var target = path.get(la);
+        // 1) 投影到路径 + 沿弧长取前视点
+        localize(pose, path);
+        PathSampler.lookahead(path, proj.s, lookaheadDistance, target);
+        drive(pose, target, targetSpeed, dt);
+    }
+
+    /** 同上，目标速度由 SpeedPlanner 给：每帧从车所在处重算到前视点，再取前视点处的速度 */
+    public void step(Pose pose, SpeedPlanner planner, float dt) {
+        Path path = planner.path();
+        if (path.size() == 0) return;
+        localize(pose, path);
+        planner.update(proj.segment, pose.getSpeed(), lookaheadDistance + proj.s - path.arcLength(proj.segment));
+        PathSampler.lookahead(path, proj.s, lookaheadDistance, target);
+        drive(pose, target, planner.speedAtArc(proj.s + lookaheadDistance), dt);
+    }
+
+    /** 跟踪闭合赛车线：目标速度取最近点上预先算好的速度，前视点跨起终点回绕 */
+    public void step(Pose pose, RacingLine line, float dt) {
+        if (line == null) return;
+        if (line != hintLine) {
+            hintLine = line;
+            lineHint = -1;
+        }
+        lineHint = line.nearestIndex(pose.getPos(), lineHint, proj);
+        int ahead = Math.max(1, Math.round(lookaheadDistance * line.size() / line.length()));
+        int la = line.wrap(lineHint + ahead);
+        target.set(line.path().x(la), line.path().y(la));
+        drive(pose, target, line.speedAt(lineHint), dt);
+    }
+
+    /** 投影到 path 上（结果在 proj）；换了路径时先全局定位 */
+    private void localize(Pose pose, Path path) {
+        if (path != hintPath) {
+            hintPath = path;
+            pathHint = -1;
+        }
+        pathHint = PathSampler.project(path, pose.getX(), pose.getY(), pathHint, proj);
+    }
+
+    /** 上一次在赛车线上定位到的点下标；还没定位过为 -1 */
+    public int lineIndex() {
+        return lineHint;
+    }
 
+    private void drive(Pose pose, Vector2 target, float targetSpeed, float dt) {
         // 世界→车体局部
         float dx = target.x - pose.getX();
         float dy = target.y - pose.getY();
@@ -9,6 +9,13 @@ public interface VehicleContext {
     /** 应用一帧的底层控制信号（你底层物理层实现） */
     void apply(float steer, float throttle, float brake);
 
+    /**
+     * apply 是否是“设定当前控制量”：后一次覆盖前一次（如 PhysicsCar）。
+     * 默认 false：每次调用都是一次动作，一帧里多次调用累加（FrameVehicleContext、PhysicsVehicleContext）。
+     * CommandScheduler 据此决定按通道转发每次 apply，还是把各通道的分量合并成一帧一次 apply。
+     */
+    default boolean holdsControls() { return false; }
+
     /** 获取当前车速，用于距离型命令计算 */
     float getSpeed();
 
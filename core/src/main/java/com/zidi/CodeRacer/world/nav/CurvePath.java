@@ -0,0 +1,280 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * 解析曲线链：直线、圆弧、三次贝塞尔首尾相接，按弧长惰性求值。
+ * 每段只存控制参数和累计弧长（三次曲线另带一张弧长表），一圈几十段只占几 KB；
+ * 需要点时才按间距采样到调用方的数组，或生成一个 Path 交给跟踪。
+ * clear() 后可复用：追加曲线只写进已有数组（满了才扩容），换道规划每次不分配。
+ * 非线程安全。
+ */
+public final class CurvePath {
+
+    public static final byte LINE = 0, ARC = 1, CUBIC = 2;
+
+    /** 三次曲线弧长表的分段数：t 按 1/LUT 等分，记录每个分点的累计长度 */
+    private static final int LUT = 16;
+
+    // 五点 Gauss-Legendre（区间 [-1,1]）
+    private static final float[] GL_X = { 0f, -0.5384693f, 0.5384693f, -0.9061798f, 0.9061798f };
+    private static final float[] GL_W = { 0.5688889f, 0.4786287f, 0.4786287f, 0.2369269f, 0.2369269f };
+
+    private final ByteArray kinds = new ByteArray();
+    // 每段的参数：LINE = x0 y0 x1 y1；ARC = cx cy r a0 sweep；CUBIC = 4 个控制点 + LUT 个累计长度
+    private final FloatArray params = new FloatArray();
+    private final IntArray offsets = new IntArray();       // 每段在 params 里的起点
+    private final FloatArray ends = new FloatArray();      // 起点到本段末尾的累计弧长
+    private float penX, penY;
+    private boolean started;
+    private final Vector2 tmp = new Vector2();
+
+    public CurvePath clear() {
+        kinds.clear();
+        params.clear();
+        offsets.clear();
+        ends.clear();
+        started = false;
+        return this;
+    }
+
+    /** 设定起点；只能在第一段之前调用 */
+    public CurvePath moveTo(float x, float y) {
+        if (kinds.size > 0) throw new IllegalStateException("moveTo after the first segment");
+        penX = x;
+        penY = y;
+        started = true;
+        return this;
+    }
+
+    public CurvePath lineTo(float x, float y) {
+        requireStart();
+        begin(LINE);
+        params.add(penX, penY, x, y);
+        finish((float) Math.hypot(x - penX, y - penY), x, y);
+        return this;
+    }
+
+    /** 圆弧：圆心 (cx,cy)，从 startRad 转过 sweepRad（正 = 逆时针）；笔不在弧起点时先补一段直线 */
+    public CurvePath arc(float cx, float cy, float radius, float startRad, float sweepRad) {
+        float sx = cx + radius * cos(startRad), sy = cy + radius * sin(startRad);
+        joinTo(sx, sy);
+        begin(ARC);
+        params.add(cx, cy, radius, startRad);
+        params.add(sweepRad);
+        float a1 = startRad + sweepRad;
+        finish(Math.abs(radius * sweepRad), cx + radius * cos(a1), cy + radius * sin(a1));
+        return this;
+    }
+
+    /** 从当前笔位置出发的三次贝塞尔 */
+    public CurvePath cubicTo(float c1x, float c1y, float c2x, float c2y, float x, float y) {
+        requireStart();
+        begin(CUBIC);
+        float x0 = penX, y0 = penY;
+        params.add(x0, y0, c1x, c1y);
+        params.add(c2x, c2y, x, y);
+        float acc = 0f;
+        for (int k = 0; k < LUT; k++) {
+            acc += cubicLength(x0, y0, c1x, c1y, c2x, c2y, x, y, k / (float) LUT, (k + 1) / (float) LUT);
+            params.add(acc);
+        }
+        finish(acc, x, y);
+        return this;
+    }
+
+    /** 把 other 的各段接在后面（笔位置不同时补一段直线），用来把一圈拼成多圈；other 可以是自己 */
+    public CurvePath append(CurvePath other) {
+        int n = other.kinds.size;
+        if (n == 0) return this;
+        // 先取下 other 的段数和数组：other == this 时 joinTo / 追加会改写、扩容这些数组
+        int pEnd = other.params.size;
+        byte[] ok = other.kinds.items;
+        int[] oo = other.offsets.items;
+        float[] o = other.params.items, oe = other.ends.items;
+        if (other == this) {
+            ok = Arrays.copyOf(ok, n);
+            oo = Arrays.copyOf(oo, n);
+            o = Arrays.copyOf(o, pEnd);
+            oe = Arrays.copyOf(oe, n);
+        }
+        float endX = other.penX, endY = other.penY;
+
+        int first = oo[0];
+        float fx, fy;
+        if (ok[0] == ARC) {
+            fx = o[first] + o[first + 2] * cos(o[first + 3]);
+            fy = o[first + 1] + o[first + 2] * sin(o[first + 3]);
+        } else {
+            fx = o[first];
+            fy = o[first + 1];
+        }
+        joinTo(fx, fy);
+        float base = length();
+        for (int i = 0; i < n; i++) {
+            int from = oo[i];
+            int to = i + 1 < n ? oo[i + 1] : pEnd;
+            kinds.add(ok[i]);
+            offsets.add(params.size);
+            params.addAll(o, from, to - from);
+            ends.add(base + oe[i]);
+        }
+        penX = endX;
+        penY = endY;
+        return this;
+    }
+
+    private void requireStart() {
+        if (!started) throw new IllegalStateException("moveTo first");
+    }
+
+    /** 笔不在 (x,y) 时补一段直线；还没有起点时当作 moveTo */
+    public CurvePath joinTo(float x, float y) {
+        if (!started) {
+            moveTo(x, y);
+        } else if (Math.abs(x - penX) > 1e-6f || Math.abs(y - penY) > 1e-6f) {
+            lineTo(x, y);
+        }
+        return this;
+    }
+
+    private void begin(byte kind) {
+        kinds.add(kind);
+        offsets.add(params.size);
+    }
+
+    private void finish(float len, float x, float y) {
+        ends.add(length() + len);
+        penX = x;
+        penY = y;
+    }
+
+    // ---------- 查询 ----------
+
+    public int segmentCount()  { return kinds.size; }
+    public byte kind(int seg)  { return kinds.items[seg]; }
+    public float length()      { return ends.size == 0 ? 0f : ends.items[ends.size - 1]; }
+    /** 参数数组占的字节数（不含数组本身的余量） */
+    public int memoryBytes()   { return kinds.size + 4 * (params.size + offsets.size + ends.size); }
+
+    /** 弧长 s 所在的段（二分；越界夹到首/末段） */
+    public int segmentAt(float s) {
+        int lo = 0, hi = kinds.size - 1;
+        float[] e = ends.items;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (e[mid] < s) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** 弧长 s 处的点（夹到首尾）；空链返回笔位置 */
+    public Vector2 pointAt(float s, Vector2 out) {
+        return eval(s, out, false);
+    }
+
+    /** 弧长 s 处的单位切线 */
+    public Vector2 tangentAt(float s, Vector2 out) {
+        return eval(s, out, true);
+    }
+
+    private Vector2 eval(float s, Vector2 out, boolean tangent) {
+        if (kinds.size == 0) return tangent ? out.set(1f, 0f) : out.set(penX, penY);
+        s = MathUtils.clamp(s, 0f, length());
+        int seg = segmentAt(s);
+        float local = s - (seg == 0 ? 0f : ends.items[seg - 1]);
+        float[] p = params.items;
+        int o = offsets.items[seg];
+        switch (kinds.items[seg]) {
+            case LINE: {
+                float dx = p[o + 2] - p[o], dy = p[o + 3] - p[o + 1];
+                float len = (float) Math.sqrt(dx * dx + dy * dy);
+                if (tangent) return len > 0f ? out.set(dx / len, dy / len) : out.set(1f, 0f);
+                float t = len > 0f ? local / len : 0f;
+                return out.set(p[o] + dx * t, p[o + 1] + dy * t);
+            }
+            case ARC: {
+                float r = p[o + 2], sweep = p[o + 4];
+                float a = p[o + 3] + (r > 0f ? Math.signum(sweep) * local / r : 0f);
+                float c = cos(a), sn = sin(a);
+                if (tangent) return sweep >= 0f ? out.set(-sn, c) : out.set(sn, -c);
+                return out.set(p[o] + r * c, p[o + 1] + r * sn);
+            }
+            default: {
+                float t = cubicT(p, o, local);
+                float u = 1f - t;
+                if (tangent) {
+                    float dx = 3 * u * u * (p[o + 2] - p[o]) + 6 * u * t * (p[o + 4] - p[o + 2]) + 3 * t * t * (p[o + 6] - p[o + 4]);
+                    float dy = 3 * u * u * (p[o + 3] - p[o + 1]) + 6 * u * t * (p[o + 5] - p[o + 3]) + 3 * t * t * (p[o + 7] - p[o + 5]);
+                    float len = (float) Math.sqrt(dx * dx + dy * dy);
+                    return len > 0f ? out.set(dx / len, dy / len) : out.set(1f, 0f);
+                }
+                return out.set(u * u * u * p[o] + 3 * u * u * t * p[o + 2] + 3 * u * t * t * p[o + 4] + t * t * t * p[o + 6],
+                               u * u * u * p[o + 1] + 3 * u * u * t * p[o + 3] + 3 * u * t * t * p[o + 5] + t * t * t * p[o + 7]);
+            }
+        }
+    }
+
+    /** 段内弧长 → 参数 t：查弧长表，表内线性插值 */
+    private static float cubicT(float[] p, int o, float local) {
+        int lut = o + 8;
+        int k = 0;
+        while (k < LUT - 1 && p[lut + k] < local) k++;
+        float s0 = k == 0 ? 0f : p[lut + k - 1], s1 = p[lut + k];
+        float f = s1 > s0 ? MathUtils.clamp((local - s0) / (s1 - s0), 0f, 1f) : 0f;
+        return (k + f) / LUT;
+    }
+
+    private static float cubicLength(float x0, float y0, float x1, float y1, float x2, float y2, float x3, float y3,
+                                     float ta, float tb) {
+        float half = 0.5f * (tb - ta), mid = 0.5f * (ta + tb), sum = 0f;
+        for (int i = 0; i < GL_X.length; i++) {
+            float t = mid + half * GL_X[i], u = 1f - t;
+            float dx = 3 * u * u * (x1 - x0) + 6 * u * t * (x2 - x1) + 3 * t * t * (x3 - x2);
+            float dy = 3 * u * u * (y1 - y0) + 6 * u * t * (y2 - y1) + 3 * t * t * (y3 - y2);
+            sum += GL_W[i] * (float) Math.sqrt(dx * dx + dy * dy);
+        }
+        return sum * half;
+    }
+
+    // 圆弧要精确闭合，不用 MathUtils 的查表三角函数
+    private static float cos(float a) { return (float) Math.cos(a); }
+    private static float sin(float a) { return (float) Math.sin(a); }
+
+    // ---------- 采样 ----------
+
+    /**
+     * 从弧长 from 起每隔 spacing 取一个点写进 out（x,y 交替），最多 maxPoints 个，到终点为止；
+     * 返回写入的点数。跟踪只需要前方一小段时用这个，不必整条展开。
+     */
+    public int sample(float from, float spacing, float[] out, int maxPoints) {
+        float len = length();
+        int n = 0;
+        for (float s = from; n < maxPoints && s <= len + 1e-4f; s += spacing) {
+            pointAt(s, tmp);
+            out[2 * n] = tmp.x;
+            out[2 * n + 1] = tmp.y;
+            n++;
+        }
+        return n;
+    }
+
+    /** 按间距展开成 Path（末端点一定包含在内） */
+    public Path toPath(float spacing) {
+        float len = length();
+        int n = Math.max(1, (int) Math.ceil(len / spacing)) + 1;
+        float[] xy = new float[2 * n];
+        for (int i = 0; i < n; i++) {
+            pointAt(Math.min(len, i * len / (n - 1)), tmp);
+            xy[2 * i] = tmp.x;
+            xy[2 * i + 1] = tmp.y;
+        }
+        return new Path(xy);
+    }
+}
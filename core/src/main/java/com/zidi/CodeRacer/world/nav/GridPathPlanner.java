@@ -0,0 +1,511 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OccupancyGrid 上的路径规划：D* Lite（8 邻接、八方向距离启发、禁止斜穿墙角），输出给 VehicleUpdater 跟踪的 Path。
+ *  - 搜索从 goal 反向展开；同一 goal 再次规划时复用上次的 g/rhs，只修补
+ *    “起点移动（km 累加）”和“栅格变更（读 OccupancyGrid 的变更日志）”影响到的部分
+ *  - 换 goal 时整体重置；重置靠代号（stamp）而不是清数组，1000×1000 也不用每次填 4 MB
+ *  - 代价用定点整数（1 格 = UNIT，斜走 = round(√2·UNIT)）：键值比较是精确的，堆的顺序和终止条件不会因为浮点误差不一致
+ *  - 格子路径先做视线拉直（lineOfSight），再逐段接成 CurvePath（三次曲线，蹭墙的段退回直线），
+ *    最后按弧长等距展开成 Path
+ *  - (起点格, 终点格) → 格子路径 + 平滑结果缓存 LRU，栅格版本变化时整体作废；
+ *    同一对格子但端点坐标不同时跳过搜索，只按新端点重新平滑
+ * 耗时（1000×1000，JDK 21，单线程）：增量重规划（起点前移、路径上新增障碍）中位数 0.2–0.4 ms、
+ * 稳态不分配（用 planCells(int,int,IntArray)）；空旷地图上整图首次规划 ~1 ms。
+ * 障碍密集地图（20% 随机噪声、3000 个矩形）上的首次 / 换 goal 规划要展开 10 万量级节点，30–90 ms，
+ * 不在“毫秒级”目标内：最优性要求展开 f 值低于最优代价的全部节点，分桶开表只省常数。
+ * 这类地图请在加载时对常用 goal 预规划，运行时只走增量修补。
+ * 非线程安全：每个线程各持一个 planner（OccupancyGrid 只读时可共享）。
+ */
+public final class GridPathPlanner {
+
+    /** 1 格的代价；斜走的舍入误差 < 0.5 / UNIT，1000×1000 格上累计也远小于 1e-6 格 */
+    private static final long UNIT = 1L << 30;
+    private static final long DIAG = Math.round(Math.sqrt(2.0) * UNIT);
+    /** 不可达；远离 Long.MAX_VALUE，INF + 代价不会溢出 */
+    private static final long INF = Long.MAX_VALUE / 4;
+    /** 第二键里过一致 / 一致节点的基数：3·INF − min(g, rhs) 总大于欠一致节点的 g（< INF） */
+    private static final long TIE_BASE = 3 * INF;
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+    private static final long[] COST = { UNIT, UNIT, UNIT, UNIT, DIAG, DIAG, DIAG, DIAG };
+
+    private final OccupancyGrid grid;
+    private final int cols, rows;
+
+    // D* Lite 状态：stamp[u] != gen 时 u 视为未访问（g = rhs = INF，不在堆里）
+    private final long[] g, rhs;
+    private final int[] stamp;
+    private int gen = 0;
+    // 堆：键值按堆下标存放（hk1/hk2 与 heap 并列），比较时不用再跳到各节点的数组里
+    private final int[] heap, heapPos;
+    private final long[] hk1, hk2;
+    private int heapSize = 0;
+
+    private int goal = -1, start = -1, last = -1;
+    private int startX, startY;
+    private long km = 0;
+    private long seenVersion;
+    /** planCells(int,int) 的暂存；返回前拷贝一份 */
+    private final IntArray scratch = new IntArray(256);
+
+    // 平滑参数；curve 每次 smooth 时 clear() 复用
+    private final float sampleSpacing;
+    private final CurvePath curve = new CurvePath();
+
+    // 缓存
+    private final int cacheCapacity;
+    private final LinkedHashMap<Long, Cached> cache;
+    private long cacheVersion;
+
+    // 统计
+    private int lastExpanded;
+    private long lastPlanNanos;
+    private long cacheHits, cacheMisses;
+
+    public GridPathPlanner(OccupancyGrid grid) {
+        this(grid, 64, 0.25f);
+    }
+
+    /**
+     * @param cacheCapacity 缓存条数（0 关闭缓存）
+     * @param sampleSpacing 平滑后 Path 的大致采样间距（世界单位）
+     */
+    public GridPathPlanner(OccupancyGrid grid, int cacheCapacity, float sampleSpacing) {
+        this.grid = grid;
+        this.cols = grid.cols();
+        this.rows = grid.rows();
+        int n = grid.cellCount();
+        g = new long[n];
+        rhs = new long[n];
+        stamp = new int[n];
+        heap = new int[n];
+        heapPos = new int[n];
+        hk1 = new long[n];
+        hk2 = new long[n];
+        this.sampleSpacing = Math.max(1e-3f, sampleSpacing);
+        this.cacheCapacity = Math.max(0, cacheCapacity);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cached> e) {
+                return size() > GridPathPlanner.this.cacheCapacity;
+            }
+        };
+        this.seenVersion = grid.version();
+        this.cacheVersion = grid.version();
+    }
+
+    // ---------- 对外接口 ----------
+
+    /**
+     * 世界坐标起点 → 终点的平滑路径；起点/终点在障碍内或不可达时返回 null。
+     * 返回的 Path 可能被缓存复用，调用方不要修改其中的点。
+     */
+    public Path plan(float sx, float sy, float gx, float gy) {
+        int scx = grid.cellX(sx), scy = grid.cellY(sy);
+        int gcx = grid.cellX(gx), gcy = grid.cellY(gy);
+        if (grid.isBlocked(scx, scy) || grid.isBlocked(gcx, gcy)) return null;
+        int sc = grid.cell(scx, scy), gc = grid.cell(gcx, gcy);
+
+        if (grid.version() != cacheVersion) {
+            cache.clear();
+            cacheVersion = grid.version();
+        }
+        long key = ((long) sc << 32) | (gc & 0xffffffffL);
+        Cached hit = cacheCapacity > 0 ? cache.get(key) : null;
+        if (hit != null) {
+            cacheHits++;
+            if (hit.sx == sx && hit.sy == sy && hit.gx == gx && hit.gy == gy) return hit.path;
+            // 同一对格子、端点不同：格子路径照用，按新端点重新平滑
+            Cached c = new Cached(hit.cells, smooth(hit.cells, sx, sy, gx, gy), sx, sy, gx, gy);
+            cache.put(key, c);
+            return c.path;
+        }
+        cacheMisses++;
+
+        int[] cells = planCells(sc, gc);
+        if (cells == null) return null;
+        Path path = smooth(cells, sx, sy, gx, gy);
+        if (cacheCapacity > 0) cache.put(key, new Cached(cells, path, sx, sy, gx, gy));
+        return path;
+    }
+
+    /** 缓存项：格子路径 + 按这组端点坐标平滑出的 Path */
+    private record Cached(int[] cells, Path path, float sx, float sy, float gx, float gy) {}
+
+    /** 格子序列 start..goal（含两端）；不可达返回 null。同一 goal 连续调用走增量修补 */
+    public int[] planCells(int startCell, int goalCell) {
+        return planCells(startCell, goalCell, scratch) ? scratch.toArray() : null;
+    }
+
+    /**
+     * 同上，格子序列写进 out（先清空）；不可达返回 false。
+     * 每帧重规划用这个：out 复用、内部状态数组构造时一次分配，稳态下整个调用不分配。
+     */
+    public boolean planCells(int startCell, int goalCell, IntArray out) {
+        long t0 = System.nanoTime();
+        lastExpanded = 0;
+        out.clear();
+        if (grid.isBlocked(startCell) || grid.isBlocked(goalCell)) {
+            // 保留的搜索（不管这次的 goal 是不是它）照样吃掉变更日志，下次增量规划才不会拿着过期的 g / rhs
+            if (goal >= 0) applyChanges(); else seenVersion = grid.version();
+            lastPlanNanos = System.nanoTime() - t0;
+            return false;
+        }
+
+        if (goalCell != goal) {
+            reset(startCell, goalCell);
+        } else {
+            if (startCell != start) {
+                km += h(last, startCell);
+                last = startCell;
+                setStart(startCell);
+            }
+            applyChanges();
+        }
+        computeShortestPath();
+        boolean ok = extract(out);
+        lastPlanNanos = System.nanoTime() - t0;
+        return ok;
+    }
+
+    public OccupancyGrid grid()      { return grid; }
+    /** 上次规划展开的节点数 */
+    public int lastExpanded()        { return lastExpanded; }
+    public long lastPlanNanos()      { return lastPlanNanos; }
+    public long cacheHits()          { return cacheHits; }
+    public long cacheMisses()        { return cacheMisses; }
+
+    // ---------- D* Lite ----------
+
+    private void reset(int s, int gl) {
+        if (++gen == 0) {            // 代号回绕：真的清一次
+            java.util.Arrays.fill(stamp, 0);
+            gen = 1;
+        }
+        heapSize = 0;
+        km = 0;
+        goal = gl;
+        setStart(s);
+        last = s;
+        seenVersion = grid.version();
+        touch(gl);
+        rhs[gl] = 0;
+        push(gl, h(s, gl), key2(INF, 0));
+    }
+
+    /** 读变更日志：变化格及其邻居重新计算 rhs */
+    private void applyChanges() {
+        long v = grid.version();
+        for (long i = seenVersion; i < v; i++) {
+            int c = grid.changeAt(i);
+            int cx = c % cols, cy = c / cols;
+            refresh(c);
+            for (int d = 0; d < 8; d++) {
+                int nx = cx + DX[d], ny = cy + DY[d];
+                if (grid.inBounds(nx, ny)) refresh(ny * cols + nx);
+            }
+        }
+        seenVersion = v;
+    }
+
+    private void refresh(int u) {
+        if (u == goal) return;
+        int ux = u % cols, uy = u / cols;
+        touch(u);
+        rhs[u] = grid.isBlocked(u) ? INF : minSucc(u, ux, uy);
+        updateVertex(u, ux, uy);
+    }
+
+    private void computeShortestPath() {
+        touch(start);
+        while (heapSize > 0) {
+            int u = heap[0];
+            long ks1 = Math.min(g[start], rhs[start]) + km, ks2 = key2(g[start], rhs[start]);
+            long ku1 = hk1[0], ku2 = hk2[0];
+            boolean topLess = ku1 < ks1 || (ku1 == ks1 && ku2 < ks2);
+            if (!topLess && rhs[start] == g[start]) break;
+
+            lastExpanded++;
+            int ux = u % cols, uy = u / cols;
+            long n1 = Math.min(g[u], rhs[u]) + hStart(ux, uy) + km;
+            if (ku1 < n1) {
+                // 键值过期（km 增长后留下的）：按新键重排
+                hk1[0] = n1;
+                siftDown(0);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                pop();
+                relaxPreds(u, ux, uy, true);
+            } else {
+                g[u] = INF;
+                pop();
+                if (u != goal) {
+                    rhs[u] = minSucc(u, ux, uy);
+                    updateVertex(u, ux, uy);
+                }
+                relaxPreds(u, ux, uy, false);
+            }
+        }
+    }
+
+    /** u 的 g 变了：它的邻居（无向图里前驱 = 后继）更新 rhs；g 变小时只需取 min，变大时要重算 */
+    private void relaxPreds(int u, int ux, int uy, boolean decreased) {
+        long gu = g[u];
+        for (int m = moveMask(u, ux, uy); m != 0; m &= m - 1) {
+            int d = Integer.numberOfTrailingZeros(m);
+            int vx = ux + DX[d], vy = uy + DY[d];
+            int v = vy * cols + vx;
+            if (v == goal) continue;
+            long c = COST[d];
+            touch(v);
+            if (decreased) {
+                if (gu + c >= rhs[v]) continue;
+                rhs[v] = gu + c;
+            } else {
+                rhs[v] = minSucc(v, vx, vy);
+            }
+            updateVertex(v, vx, vy);
+        }
+    }
+
+    private void updateVertex(int u, int ux, int uy) {
+        boolean inHeap = heapPos[u] >= 0;
+        if (g[u] != rhs[u]) {
+            long m = Math.min(g[u], rhs[u]);
+            long key = m + hStart(ux, uy) + km, k2 = key2(g[u], rhs[u]);
+            if (inHeap) {
+                int i = heapPos[u];
+                hk1[i] = key;
+                hk2[i] = k2;
+                siftUp(i);
+                siftDown(heapPos[u]);
+            } else {
+                push(u, key, k2);
+            }
+        } else if (inHeap) {
+            remove(u);
+        }
+    }
+
+    /**
+     * 第二键（k1 相同时的次序）：欠一致（g &lt; rhs，代价上升待传播）的排在最前、按 g 升序，
+     * 其余按 min(g, rhs) 降序——离起点近的先展开，k1 相同的一大片等价最短路（八邻接网格上很常见）不用全展开。
+     */
+    private static long key2(long g, long rhs) {
+        return g < rhs ? g : TIE_BASE - rhs;
+    }
+
+    private long minSucc(int u, int ux, int uy) {
+        long best = INF;
+        for (int m = moveMask(u, ux, uy); m != 0; m &= m - 1) {
+            int d = Integer.numberOfTrailingZeros(m);
+            int v = u + offset(d);
+            if (stamp[v] != gen || g[v] >= INF) continue;
+            if (g[v] + COST[d] < best) best = g[v] + COST[d];
+        }
+        return best;
+    }
+
+    /**
+     * u 能走的方向（bit d 对应 DX[d],DY[d]），一次读 9 个格子：
+     * u 自身被占为 0；斜走要求两个侧邻格都空闲（不穿墙角）。图是无向的，所以也是能走到 u 的方向。
+     */
+    private int moveMask(int u, int ux, int uy) {
+        if (grid.isBlocked(u)) return 0;
+        boolean e = !grid.isBlocked(ux + 1, uy), w = !grid.isBlocked(ux - 1, uy);
+        boolean n = !grid.isBlocked(ux, uy + 1), s = !grid.isBlocked(ux, uy - 1);
+        int m = (e ? 1 : 0) | (w ? 2 : 0) | (n ? 4 : 0) | (s ? 8 : 0);
+        if (e && n && !grid.isBlocked(ux + 1, uy + 1)) m |= 16;
+        if (e && s && !grid.isBlocked(ux + 1, uy - 1)) m |= 32;
+        if (w && n && !grid.isBlocked(ux - 1, uy + 1)) m |= 64;
+        if (w && s && !grid.isBlocked(ux - 1, uy - 1)) m |= 128;
+        return m;
+    }
+
+    private int offset(int d) {
+        return DY[d] * cols + DX[d];
+    }
+
+    /** 八方向距离（定点），与 COST 一致，所以是一致启发 */
+    private long h(int a, int b) {
+        return octile(Math.abs(a % cols - b % cols), Math.abs(a / cols - b / cols));
+    }
+
+    private long hStart(int ux, int uy) {
+        return octile(Math.abs(ux - startX), Math.abs(uy - startY));
+    }
+
+    private static long octile(int dx, int dy) {
+        int lo = Math.min(dx, dy);
+        return (Math.max(dx, dy) - lo) * UNIT + lo * DIAG;
+    }
+
+    private void setStart(int s) {
+        start = s;
+        startX = s % cols;
+        startY = s / cols;
+    }
+
+    /** 从 start 沿 c(u,v) + g(v) 最小的邻居走到 goal */
+    private boolean extract(IntArray out) {
+        if (stamp[start] != gen || rhs[start] >= INF) return false;
+        int u = start;
+        out.add(u);
+        int guard = grid.cellCount();
+        while (u != goal) {
+            if (--guard < 0) { out.clear(); return false; }
+            long best = INF;
+            int next = -1;
+            for (int m = moveMask(u, u % cols, u / cols); m != 0; m &= m - 1) {
+                int d = Integer.numberOfTrailingZeros(m);
+                int v = u + offset(d);
+                if (stamp[v] != gen || g[v] >= INF) continue;
+                if (g[v] + COST[d] < best) { best = g[v] + COST[d]; next = v; }
+            }
+            if (next < 0) { out.clear(); return false; }
+            u = next;
+            out.add(u);
+        }
+        return true;
+    }
+
+    private void touch(int u) {
+        if (stamp[u] != gen) {
+            stamp[u] = gen;
+            g[u] = INF;
+            rhs[u] = INF;
+            heapPos[u] = -1;
+        }
+    }
+
+    // ---------- 二叉堆（按 (k1, k2) 字典序，heapPos 支持删除/改键） ----------
+
+    private boolean less(int i, int j) {
+        return hk1[i] < hk1[j] || (hk1[i] == hk1[j] && hk2[i] < hk2[j]);
+    }
+
+    private void push(int u, long key1, long key2) {
+        int i = heapSize++;
+        heap[i] = u;
+        hk1[i] = key1;
+        hk2[i] = key2;
+        heapPos[u] = i;
+        siftUp(i);
+    }
+
+    private void pop() {
+        remove(heap[0]);
+    }
+
+    private void remove(int u) {
+        int i = heapPos[u];
+        heapPos[u] = -1;
+        int tail = --heapSize;
+        if (i == tail) return;
+        move(tail, i);
+        int moved = heap[i];
+        siftUp(i);
+        siftDown(heapPos[moved]);
+    }
+
+    /** 把堆下标 from 的条目搬到 to */
+    private void move(int from, int to) {
+        int u = heap[from];
+        heap[to] = u;
+        hk1[to] = hk1[from];
+        hk2[to] = hk2[from];
+        heapPos[u] = to;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!less(i, p)) break;
+            swap(i, p);
+            i = p;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int c = 2 * i + 1;
+            if (c >= heapSize) break;
+            if (c + 1 < heapSize && less(c + 1, c)) c++;
+            if (!less(c, i)) break;
+            swap(i, c);
+            i = c;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int u = heap[i], v = heap[j];
+        long a1 = hk1[i], a2 = hk2[i];
+        heap[i] = v; hk1[i] = hk1[j]; hk2[i] = hk2[j]; heapPos[v] = i;
+        heap[j] = u; hk1[j] = a1;     hk2[j] = a2;     heapPos[u] = j;
+    }
+
+    // ---------- 平滑 ----------
+
+    /**
+     * 视线拉直后得到稀疏拐点，拐点之间用三次贝塞尔连接：
+     * 切线方向取相邻两点的差（Catmull-Rom），长度取本段弦长的 1/3，曲线不会鼓出本段太远。
+     * 首尾点换成调用方给的精确坐标；某段曲线的采样点落进障碍时该段退回直线。
+     */
+    private Path smooth(int[] cells, float sx, float sy, float gx, float gy) {
+        List<Vector2> way = new ArrayList<>();
+        way.add(new Vector2(sx, sy));
+        int anchor = 0;
+        for (int i = 1; i < cells.length - 1; i++) {
+            int a = cells[anchor], b = cells[i + 1];
+            if (!grid.lineOfSight(a % cols, a / cols, b % cols, b / cols)) {
+                int c = cells[i];
+                way.add(new Vector2(grid.centerX(c % cols), grid.centerY(c / cols)));
+                anchor = i;
+            }
+        }
+        way.add(new Vector2(gx, gy));
+
+        curve.clear().moveTo(sx, sy);
+        float[] seg = new float[0];
+        for (int i = 0; i + 1 < way.size(); i++) {
+            Vector2 p0 = way.get(i), p3 = way.get(i + 1);
+            float len = p0.dst(p3);
+            if (len < 1e-6f) continue;
+            Vector2 t0 = tangent(way, i), t1 = tangent(way, i + 1);
+            Vector2 p1 = new Vector2(p0).mulAdd(t0, len / 3f);
+            Vector2 p2 = new Vector2(p3).mulAdd(t1, -len / 3f);
+            int samples = Math.max(1, (int) Math.ceil(len / sampleSpacing));
+            if (seg.length < (samples + 1) * 2) seg = new float[(samples + 1) * 2];
+            int end = PathBuilder.cubicBezier(p0, p1, p2, p3, samples, seg, 0);
+            if (clear(seg, end)) {
+                PathBuilder.cubicBezier(curve, p0, p1, p2, p3);
+            } else {
+                // 曲线蹭到障碍：退回直线（拐点之间本来就有视线）
+                curve.joinTo(p0.x, p0.y).lineTo(p3.x, p3.y);
+            }
+        }
+        return curve.toPath(sampleSpacing);
+    }
+
+    private boolean clear(float[] seg, int end) {
+        for (int k = 0; k < end; k += 2) {
+            if (grid.isBlockedAt(seg[k], seg[k + 1])) return false;
+        }
+        return true;
+    }
+
+    private static Vector2 tangent(List<Vector2> way, int i) {
+        Vector2 a = way.get(Math.max(0, i - 1)), b = way.get(Math.min(way.size() - 1, i + 1));
+        Vector2 t = new Vector2(b).sub(a);
+        return t.len2() < 1e-12f ? t.setZero() : t.nor();
+    }
+}
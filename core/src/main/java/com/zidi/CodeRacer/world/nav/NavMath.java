@@ -0,0 +1,30 @@
+package com.zidi.CodeRacer.world.nav;
+
+/**
+ * 速度规划共用的几何 / 附着计算：三点曲率、弯道速度上限、摩擦圆余量。
+ * RacingLineOptimizer（离线赛车线）和 SpeedPlanner（运行时沿 Path）都用这一份，两边的速度曲线才一致。
+ */
+public final class NavMath {
+
+    private NavMath() {}
+
+    /** 三点外接圆曲率（带符号，左转为正）；三点重合或共线时为 0 */
+    public static float curvature(float ax, float ay, float bx, float by, float cx, float cy) {
+        float abx = bx - ax, aby = by - ay, bcx = cx - bx, bcy = cy - by;
+        float cross = abx * bcy - aby * bcx;
+        float d = (float) (Math.hypot(abx, aby) * Math.hypot(bcx, bcy) * Math.hypot(cx - ax, cy - ay));
+        return d < 1e-9f ? 0f : 2f * cross / d;
+    }
+
+    /** 弯道上限 sqrt(grip/|kappa|)，grip = mu*g；直线（kappa ≈ 0）和上限都不超过 vMax */
+    public static float cornerSpeed(float grip, float kappa, float vMax) {
+        float k = Math.abs(kappa);
+        return k > 1e-6f ? Math.min(vMax, (float) Math.sqrt(grip / k)) : vMax;
+    }
+
+    /** 摩擦圆里扣掉横向需求 v²|kappa| 后剩下的纵向加速度 */
+    public static float frictionLeft(float grip, float v, float kappa) {
+        float lat = v * v * Math.abs(kappa);
+        return (float) Math.sqrt(Math.max(0f, grip * grip - lat * lat));
+    }
+}
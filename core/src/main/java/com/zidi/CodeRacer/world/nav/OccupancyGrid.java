@@ -0,0 +1,161 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.zidi.CodeRacer.Commons.utils.RectGridIndex;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+
+import java.util.Arrays;
+
+/**
+ * 占用栅格：每格 1 bit（long[] 位图），1000×1000 格只占 125 KB。
+ *  - fromWorld 把 Collision 矩形按 inflate 外扩后栅格化（格子与外扩矩形有重叠即占用，偏保守）
+ *  - 地图外一律视为占用
+ *  - set / fillRect 修改格子时记入变更日志，GridPathPlanner 据此做增量重规划
+ * 格子坐标 (cx, cy) 从 origin 起算，cell = cy * cols + cx。
+ */
+public final class OccupancyGrid {
+
+    private final int cols, rows;
+    private final float cellSize, originX, originY;
+    private final long[] bits;
+
+    // 变更日志：version = 日志长度，只增不减
+    private int[] journal = new int[64];
+    private int journalSize = 0;
+
+    public OccupancyGrid(int cols, int rows, float cellSize, float originX, float originY) {
+        if (cols <= 0 || rows <= 0) throw new IllegalArgumentException("empty grid " + cols + "x" + rows);
+        this.cols = cols;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.originX = originX;
+        this.originY = originY;
+        this.bits = new long[(int) (((long) cols * rows + 63) >>> 6)];
+    }
+
+    /**
+     * 把 world 的 Collision 矩形栅格化到 [0,widthWorld]×[0,heightWorld]。
+     * @param inflate 障碍外扩半径（世界单位），一般取车身半宽
+     */
+    public static OccupancyGrid fromWorld(TiledWorldUtils world, float widthWorld, float heightWorld,
+                                          float cellSize, float inflate) {
+        int cols = Math.max(1, (int) Math.ceil(widthWorld / cellSize));
+        int rows = Math.max(1, (int) Math.ceil(heightWorld / cellSize));
+        OccupancyGrid grid = new OccupancyGrid(cols, rows, cellSize, 0f, 0f);
+        RectGridIndex idx = world.getCollisionIndex();
+        for (int i = 0; i < idx.size(); i++) {
+            grid.mark(idx.minX(i) - inflate, idx.minY(i) - inflate, idx.maxX(i) + inflate, idx.maxY(i) + inflate);
+        }
+        return grid;
+    }
+
+    /** 初始栅格化用：直接置位，不记日志 */
+    private void mark(float x0, float y0, float x1, float y1) {
+        int cx0 = Math.max(0, cellX(x0)), cx1 = Math.min(cols - 1, cellX(x1));
+        int cy0 = Math.max(0, cellY(y0)), cy1 = Math.min(rows - 1, cellY(y1));
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                int c = cy * cols + cx;
+                bits[c >>> 6] |= 1L << c;
+            }
+        }
+    }
+
+    // ---------- 查询 ----------
+
+    public boolean isBlocked(int cx, int cy) {
+        if (cx < 0 || cy < 0 || cx >= cols || cy >= rows) return true;
+        int c = cy * cols + cx;
+        return (bits[c >>> 6] & (1L << c)) != 0;
+    }
+
+    /** cell 必须在范围内 */
+    public boolean isBlocked(int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public boolean isBlockedAt(float x, float y) {
+        return isBlocked(cellX(x), cellY(y));
+    }
+
+    public int cellX(float x)        { return (int) Math.floor((x - originX) / cellSize); }
+    public int cellY(float y)        { return (int) Math.floor((y - originY) / cellSize); }
+    public float centerX(int cx)     { return originX + (cx + 0.5f) * cellSize; }
+    public float centerY(int cy)     { return originY + (cy + 0.5f) * cellSize; }
+    public int cell(int cx, int cy)  { return cy * cols + cx; }
+    public boolean inBounds(int cx, int cy) { return cx >= 0 && cy >= 0 && cx < cols && cy < rows; }
+
+    public int cols()        { return cols; }
+    public int rows()        { return rows; }
+    public int cellCount()   { return cols * rows; }
+    public float cellSize()  { return cellSize; }
+    public float originX()   { return originX; }
+    public float originY()   { return originY; }
+    public long memoryBytes(){ return bits.length * 8L; }
+
+    public int blockedCount() {
+        int n = 0;
+        for (long w : bits) n += Long.bitCount(w);
+        return n;
+    }
+
+    /**
+     * 两格中心之间的连线是否只经过空闲格（Amanatides-Woo 遍历）。
+     * 恰好穿过格点时两侧的格子都检查，宁可保守。
+     */
+    public boolean lineOfSight(int x0, int y0, int x1, int y1) {
+        int dx = Math.abs(x1 - x0), dy = Math.abs(y1 - y0);
+        int sx = Integer.signum(x1 - x0), sy = Integer.signum(y1 - y0);
+        int x = x0, y = y0, ix = 0, iy = 0;
+        if (isBlocked(x, y)) return false;
+        while (ix < dx || iy < dy) {
+            // 下一条竖线 t=(2ix+1)/2dx 与下一条横线 t=(2iy+1)/2dy 谁先到
+            long cmp = (long) (2 * ix + 1) * dy - (long) (2 * iy + 1) * dx;
+            if (cmp == 0) {
+                // 穿过格点：两个侧邻格都要空闲，然后斜着走一步
+                if (isBlocked(x + sx, y) || isBlocked(x, y + sy)) return false;
+                x += sx; ix++;
+                y += sy; iy++;
+            } else if (cmp < 0) {
+                x += sx; ix++;
+            } else {
+                y += sy; iy++;
+            }
+            if (isBlocked(x, y)) return false;
+        }
+        return true;
+    }
+
+    // ---------- 修改（记日志） ----------
+
+    /** 改一个格子；状态真的变了才记日志并返回 true */
+    public boolean set(int cx, int cy, boolean blocked) {
+        if (!inBounds(cx, cy)) return false;
+        int c = cy * cols + cx;
+        long mask = 1L << c;
+        boolean now = (bits[c >>> 6] & mask) != 0;
+        if (now == blocked) return false;
+        if (blocked) bits[c >>> 6] |= mask; else bits[c >>> 6] &= ~mask;
+        if (journalSize == journal.length) journal = Arrays.copyOf(journal, journalSize * 2);
+        journal[journalSize++] = c;
+        return true;
+    }
+
+    /** 把世界坐标矩形覆盖到的格子全部设为 blocked（动态障碍 / 清除障碍），返回变化的格数 */
+    public int fillRect(float x0, float y0, float x1, float y1, boolean blocked) {
+        int changed = 0;
+        int cx0 = Math.max(0, cellX(x0)), cx1 = Math.min(cols - 1, cellX(x1));
+        int cy0 = Math.max(0, cellY(y0)), cy1 = Math.min(rows - 1, cellY(y1));
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                if (set(cx, cy, blocked)) changed++;
+            }
+        }
+        return changed;
+    }
+
+    /** 变更计数：每次 set 成功 +1 */
+    public long version() { return journalSize; }
+
+    /** 第 v 次变更的格子（0 ≤ v < version） */
+    int changeAt(long v) { return journal[(int) v]; }
+}
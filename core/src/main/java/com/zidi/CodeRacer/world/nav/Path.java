@@ -1,15 +1,234 @@
 package com.zidi.CodeRacer.world.nav;
 
 import java.util.List;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 
+/**
+ * 折线路径：点按 x0,y0,x1,y1,... 紧凑存放，构造时算好累计弧长。
+ * 第 i 段连接第 i 与 i+1 点。支持投影到线段、按弧长取点（二分）、
+ * 以及全局最近线段查询（线段网格，第一次全局查询时才建）。
+ */
+public final class Path {
 
-public record Path(List<Vector2> pts) {
-    public int size() {
-        return pts.size();
+    private final float[] xy;
+    private final float[] arc;              // arc[i]：起点到第 i 点的弧长
+    private volatile SegmentGrid segGrid;
+
+    /** 投影结果；调用方复用同一个对象，查询不分配 */
+    public static final class Projection {
+        public int segment;     // 所在线段
+        public float t;         // 段内参数 [0,1]
+        public float s;         // 投影点弧长
+        public float x, y;      // 投影点
+        public float dist2;     // 到查询点距离的平方
+
+        /** 离投影点较近的端点下标 */
+        public int nearestPoint() { return t < 0.5f ? segment : segment + 1; }
+    }
+
+    /** xy 直接持有，不复制 */
+    public Path(float[] xy) {
+        if ((xy.length & 1) != 0) throw new IllegalArgumentException("odd coordinate count: " + xy.length);
+        this.xy = xy;
+        int n = xy.length >> 1;
+        arc = new float[n];
+        double s = 0;
+        for (int i = 1; i < n; i++) {
+            s += Math.hypot(xy[2 * i] - xy[2 * i - 2], xy[2 * i + 1] - xy[2 * i - 1]);
+            arc[i] = (float) s;
+        }
+    }
+
+    public Path(List<Vector2> pts) {
+        this(pack(pts));
+    }
+
+    private static float[] pack(List<Vector2> pts) {
+        float[] xy = new float[pts.size() * 2];
+        for (int i = 0; i < pts.size(); i++) {
+            Vector2 p = pts.get(i);
+            xy[2 * i] = p.x;
+            xy[2 * i + 1] = p.y;
+        }
+        return xy;
     }
 
+    public int size()        { return xy.length >> 1; }
+    public float x(int i)    { return xy[2 * i]; }
+    public float y(int i)    { return xy[2 * i + 1]; }
+    /** 线段数；单点路径当作一条退化线段 */
+    public int segments()    { return Math.max(size() - 1, Math.min(size(), 1)); }
+    /** 起点到第 i 点的弧长 */
+    public float arcLength(int i) { return arc[i]; }
+    public float length()    { return arc.length == 0 ? 0f : arc[arc.length - 1]; }
+
+    /** 新建 Vector2；每帧调用的地方用 get(i, out) 或 x(i)/y(i) */
     public Vector2 get(int i) {
-        return pts.get(i);
+        return new Vector2(xy[2 * i], xy[2 * i + 1]);
+    }
+
+    public Vector2 get(int i, Vector2 out) {
+        return out.set(xy[2 * i], xy[2 * i + 1]);
+    }
+
+    /** 共享底层数组，调用方不要改 */
+    public float[] packed() {
+        return xy;
+    }
+
+    // ---------- 弧长 ----------
+
+    /** 弧长 s 所在的线段（二分；越界夹到首/末段） */
+    public int segmentAt(float s) {
+        int n = size();
+        if (n < 2 || s <= 0f) return 0;
+        if (s >= arc[n - 1]) return n - 2;
+        int lo = 0, hi = n - 1;            // arc[lo] <= s < arc[hi]
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (arc[mid] <= s) lo = mid; else hi = mid;
+        }
+        return lo;
+    }
+
+    /** 弧长 s 处的点（夹到首尾） */
+    public Vector2 pointAt(float s, Vector2 out) {
+        int n = size();
+        if (n == 0) return out.setZero();
+        if (n == 1) return get(0, out);
+        int i = segmentAt(s);
+        float len = arc[i + 1] - arc[i];
+        float t = len > 0f ? MathUtils.clamp((s - arc[i]) / len, 0f, 1f) : 0f;
+        return out.set(xy[2 * i] + (xy[2 * i + 2] - xy[2 * i]) * t,
+                       xy[2 * i + 1] + (xy[2 * i + 3] - xy[2 * i + 1]) * t);
+    }
+
+    // ---------- 投影 ----------
+
+    /** 把 (px,py) 投影到第 seg 段，写入 out，返回距离平方 */
+    public float project(int seg, float px, float py, Projection out) {
+        int a = seg, b = Math.min(seg + 1, size() - 1);
+        float ax = xy[2 * a], ay = xy[2 * a + 1];
+        float dx = xy[2 * b] - ax, dy = xy[2 * b + 1] - ay;
+        float len2 = dx * dx + dy * dy;
+        float t = len2 > 0f ? MathUtils.clamp(((px - ax) * dx + (py - ay) * dy) / len2, 0f, 1f) : 0f;
+        float qx = ax + dx * t, qy = ay + dy * t;
+        float ex = px - qx, ey = py - qy;
+        out.segment = seg;
+        out.t = t;
+        out.s = arc[a] + (arc[b] - arc[a]) * t;
+        out.x = qx;
+        out.y = qy;
+        out.dist2 = ex * ex + ey * ey;
+        return out.dist2;
+    }
+
+    /** 只在 [hint-window, hint+window] 段内找最近；返回结果是否落在窗口边缘（可能还没找到真正的最近段） */
+    public boolean nearestLocal(float px, float py, int hint, int window, Projection out) {
+        int last = segments() - 1;
+        hint = MathUtils.clamp(hint, 0, last);
+        int lo = Math.max(0, hint - window), hi = Math.min(last, hint + window);
+        int best = lo;
+        float bd = Float.MAX_VALUE;
+        for (int i = lo; i <= hi; i++) {
+            float d = project(i, px, py, out);
+            if (d < bd) { bd = d; best = i; }
+        }
+        project(best, px, py, out);
+        return (best == lo && lo > 0) || (best == hi && hi < last);
+    }
+
+    /** 全局最近线段（用于丢失跟踪或瞬移后的重定位）；空路径返回 false */
+    public boolean nearest(float px, float py, Projection out) {
+        if (size() == 0) return false;
+        SegmentGrid g = segGrid;
+        if (g == null) segGrid = g = new SegmentGrid(this);
+        g.nearest(this, px, py, out);
+        return true;
+    }
+
+    // ---------- 线段网格 ----------
+
+    /**
+     * 均匀网格，每格记录包围盒与之相交的线段（CSR 存储）。
+     * 查询从所在格一圈圈往外扩，圈的下界距离超过当前最优就停。
+     */
+    private static final class SegmentGrid {
+        private final float minX, minY, cell;
+        private final int cols, rows;
+        private final int[] start;   // cols*rows+1
+        private final int[] segs;
+
+        SegmentGrid(Path p) {
+            int m = p.segments();
+            float x0 = Float.MAX_VALUE, y0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE, y1 = -Float.MAX_VALUE;
+            for (int i = 0; i < p.size(); i++) {
+                x0 = Math.min(x0, p.x(i)); x1 = Math.max(x1, p.x(i));
+                y0 = Math.min(y0, p.y(i)); y1 = Math.max(y1, p.y(i));
+            }
+            // 格子边长取平均段长的两倍，格数不超过段数的 4 倍
+            float c = Math.max(2f * p.length() / m, 1e-3f);
+            float w = x1 - x0, h = y1 - y0;
+            while ((long) (w / c + 1) * (long) (h / c + 1) > 4L * m + 16) c *= 2f;
+            minX = x0; minY = y0; cell = c;
+            cols = (int) (w / c) + 1;
+            rows = (int) (h / c) + 1;
+
+            // 每段覆盖的格子范围，先计数再填（CSR）
+            int[] box = new int[m * 4];
+            start = new int[cols * rows + 1];
+            for (int i = 0; i < m; i++) {
+                int b = Math.min(i + 1, p.size() - 1);
+                box[4 * i]     = cx(Math.min(p.x(i), p.x(b)));
+                box[4 * i + 1] = cx(Math.max(p.x(i), p.x(b)));
+                box[4 * i + 2] = cy(Math.min(p.y(i), p.y(b)));
+                box[4 * i + 3] = cy(Math.max(p.y(i), p.y(b)));
+                for (int y = box[4 * i + 2]; y <= box[4 * i + 3]; y++)
+                    for (int x = box[4 * i]; x <= box[4 * i + 1]; x++) start[y * cols + x + 1]++;
+            }
+            for (int k = 0; k < cols * rows; k++) start[k + 1] += start[k];
+            segs = new int[start[cols * rows]];
+            int[] fill = new int[cols * rows];
+            for (int i = 0; i < m; i++) {
+                for (int y = box[4 * i + 2]; y <= box[4 * i + 3]; y++)
+                    for (int x = box[4 * i]; x <= box[4 * i + 1]; x++) {
+                        int k = y * cols + x;
+                        segs[start[k] + fill[k]++] = i;
+                    }
+            }
+        }
+
+        private int cx(float x) { return Math.min(cols - 1, Math.max(0, (int) ((x - minX) / cell))); }
+        private int cy(float y) { return Math.min(rows - 1, Math.max(0, (int) ((y - minY) / cell))); }
+
+        void nearest(Path p, float px, float py, Projection out) {
+            int qx = cx(px), qy = cy(py);
+            int maxR = Math.max(Math.max(qx, cols - 1 - qx), Math.max(qy, rows - 1 - qy));
+            int best = -1;
+            float bd = Float.MAX_VALUE;
+            for (int r = 0; r <= maxR; r++) {
+                if (r > 0) {
+                    float lb = (r - 1) * cell;
+                    if (lb * lb > bd) break;
+                }
+                for (int y = qy - r; y <= qy + r; y++) {
+                    if (y < 0 || y >= rows) continue;
+                    boolean edgeRow = y == qy - r || y == qy + r;
+                    for (int x = qx - r; x <= qx + r; x += edgeRow ? 1 : 2 * r) {
+                        if (x >= 0 && x < cols) {
+                            int k = y * cols + x;
+                            for (int j = start[k]; j < start[k + 1]; j++) {
+                                int s = segs[j];
+                                float d = p.project(s, px, py, out);
+                                if (d < bd || (d == bd && s < best)) { bd = d; best = s; }
+                            }
+                        }
+                        if (r == 0) break;
+                    }
+                }
+            }
+            p.project(best, px, py, out);
+        }
     }
 }
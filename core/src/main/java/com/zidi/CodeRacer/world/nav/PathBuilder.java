@@ -3,8 +3,6 @@ package com.zidi.CodeRacer.world.nav;
 
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import java.util.ArrayList;
-import java.util.List;
 
 public final class PathBuilder {
     private PathBuilder(){}
@@ -16,42 +14,50 @@ public final class PathBuilder {
 
     /** 圆弧（按角度步长采样）*/
     public static Path arc(Vector2 center, float radius, float startRad, float endRad, float stepRad){
-        List<Vector2> pts = new ArrayList<>();
-        float dir = Math.signum(endRad - startRad);
-        stepRad = Math.abs(stepRad) * dir;
-        for(float a=startRad; (dir>0? a<=endRad:a>=endRad); a+=stepRad){
-            pts.add(new Vector2(center.x + radius*MathUtils.cos(a),
-                center.y + radius*MathUtils.sin(a)));
-        }
-        pts.add(new Vector2(center.x + radius*MathUtils.cos(endRad),
-            center.y + radius*MathUtils.sin(endRad)));
-        return new Path(pts);
+        return arc(new CurvePath(), center, radius, startRad, endRad).toPath(Math.max(1e-4f, radius*Math.abs(stepRad)));
+    }
+
+    /** 圆弧追加到 out（不采样）*/
+    public static CurvePath arc(CurvePath out, Vector2 center, float radius, float startRad, float endRad){
+        return out.arc(center.x, center.y, radius, startRad, endRad - startRad);
     }
 
     /** 三次贝塞尔采样 */
     public static Path cubicBezier(Vector2 p0, Vector2 p1, Vector2 p2, Vector2 p3, int samples){
-        List<Vector2> pts = new ArrayList<>(samples+1);
+        float[] xy = new float[(samples+1)*2];
+        cubicBezier(p0, p1, p2, p3, samples, xy, 0);
+        return new Path(xy);
+    }
+
+    /** 三次贝塞尔追加到 out（不采样）；out 的笔不在 p0 时先补直线 */
+    public static CurvePath cubicBezier(CurvePath out, Vector2 p0, Vector2 p1, Vector2 p2, Vector2 p3){
+        return out.joinTo(p0.x, p0.y).cubicTo(p1.x, p1.y, p2.x, p2.y, p3.x, p3.y);
+    }
+
+    /** 三次贝塞尔的 samples+1 个采样点写进 out[off..]，返回写完后的下标 */
+    public static int cubicBezier(Vector2 p0, Vector2 p1, Vector2 p2, Vector2 p3, int samples, float[] out, int off){
         for(int i=0;i<=samples;i++){
             float t=i/(float)samples, u=1f-t;
-            float x = u*u*u*p0.x + 3*u*u*t*p1.x + 3*u*t*t*p2.x + t*t*t*p3.x;
-            float y = u*u*u*p0.y + 3*u*u*t*p1.y + 3*u*t*t*p2.y + t*t*t*p3.y;
-            pts.add(new Vector2(x,y));
+            out[off++] = u*u*u*p0.x + 3*u*u*t*p1.x + 3*u*t*t*p2.x + t*t*t*p3.x;
+            out[off++] = u*u*u*p0.y + 3*u*u*t*p1.y + 3*u*t*t*p2.y + t*t*t*p3.y;
         }
-        return new Path(pts);
+        return off;
     }
 
     /** 车道换道 S 曲线：从 (x,y,heading) 到平行车道，宽度 laneW，长度 len */
     public static Path laneChangeS(float x, float y, float headingRad, float laneW, float len){
-        Vector2 p0 = new Vector2(x, y);
-        Vector2 dir = new Vector2(MathUtils.cos(headingRad), MathUtils.sin(headingRad));
-        Vector2 left= new Vector2(-dir.y, dir.x); // 左法向
+        CurvePath c = laneChangeS(new CurvePath(), x, y, headingRad, laneW, len);
+        return c.toPath(c.length() / Math.max(10, (int)(len*3)));
+    }
 
-        Vector2 p3 = new Vector2(x + len*dir.x + laneW*left.x,
-            y + len*dir.y + laneW*left.y);
-        // 控制点：沿着切线方向适当分配 1/3、2/3
-        Vector2 p1 = new Vector2(x + (len*0.33f)*dir.x, y + (len*0.33f)*dir.y);
-        Vector2 p2 = new Vector2(p3.x - (len*0.33f)*dir.x, p3.y - (len*0.33f)*dir.y);
+    /** 同上，但只往 out 上追加一段三次曲线：不采样、不分配，out 可以 clear() 后反复用 */
+    public static CurvePath laneChangeS(CurvePath out, float x, float y, float headingRad, float laneW, float len){
+        float dx = MathUtils.cos(headingRad), dy = MathUtils.sin(headingRad);
+        float lx = -dy, ly = dx; // 左法向
 
-        return cubicBezier(p0, p1, p2, p3, Math.max(10, (int)(len*3)));
+        float x3 = x + len*dx + laneW*lx, y3 = y + len*dy + laneW*ly;
+        // 控制点：沿着切线方向适当分配 1/3、2/3
+        float k = len*0.33f;
+        return out.joinTo(x, y).cubicTo(x + k*dx, y + k*dy, x3 - k*dx, y3 - k*dy, x3, y3);
     }
 }
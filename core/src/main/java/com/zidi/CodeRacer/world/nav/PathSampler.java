@@ -1,17 +1,46 @@
-
 package com.zidi.CodeRacer.world.nav;
 
 import com.badlogic.gdx.math.Vector2;
 
 public class PathSampler {
+    /** hint 附近先找这么多段 */
+    public static final int LOCAL_WINDOW = 8;
+    /** 局部结果离得比这还远（世界单位）就当作跟丢了，做一次全局查询 */
+    public static final float RELOCALIZE_DIST = 2f;
+
+    /**
+     * 投影到路径上：先在 hint 段附近找；hint < 0、结果卡在窗口边缘或离得太远时走全局网格。
+     * 返回所在线段，下一帧把它当 hint 传回来。
+     */
+    public static int project(Path p, float x, float y, int hint, Path.Projection out){
+        if(p.size()==0) return -1;
+        if(hint>=0){
+            boolean atEdge = p.nearestLocal(x, y, hint, LOCAL_WINDOW, out);
+            if(!atEdge && out.dist2 <= RELOCALIZE_DIST*RELOCALIZE_DIST) return out.segment;
+        }
+        p.nearest(x, y, out);
+        return out.segment;
+    }
+
+    /** 最近的路径点下标（兼容旧接口；每次新建一个 Projection，每帧调用请用下面带 out 的版本） */
     public static int nearestIndex(Path p, Vector2 pos, int hint){
-        int n=p.size(); int s=Math.max(0, Math.min(hint, n-1));
-        int lo=Math.max(0, s-6), hi=Math.min(n-1, s+6);
-        int best=s; float bd=pos.dst2(p.get(s));
-        for(int i=lo;i<=hi;i++){ float d=pos.dst2(p.get(i)); if(d<bd){bd=d; best=i;} }
-        return best;
+        return nearestIndex(p, pos, hint, new Path.Projection());
     }
+
+    /** 同上，投影结果写进调用方复用的 out，不分配 */
+    public static int nearestIndex(Path p, Vector2 pos, int hint, Path.Projection out){
+        if(p.size()==0) return 0;
+        project(p, pos.x, pos.y, Math.min(hint, p.size()-1), out);
+        return out.nearestPoint();
+    }
+
+    /** 按点数前移（点距不均时前视距离会变，跟踪用 lookahead） */
     public static int lookaheadIndex(Path p, int i, int steps){
         return Math.min(p.size()-1, i+steps);
     }
+
+    /** 从弧长 s 往前 dist 处的点（到终点为止） */
+    public static Vector2 lookahead(Path p, float s, float dist, Vector2 out){
+        return p.pointAt(s+dist, out);
+    }
 }
@@ -0,0 +1,81 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * 闭合赛车线：等间距的点（Path，首尾不重复）+ 每个点的目标速度。
+ * 由 RacingLineOptimizer 离线算出，运行时交给 VehicleUpdater 跟踪。下标按圈回绕。
+ */
+public final class RacingLine {
+
+    private static final int SEARCH_WINDOW = 16;
+
+    private final Path path;
+    private final float[] speeds;
+    private final float lapTime;
+    private final float length;
+
+    public RacingLine(Path path, float[] speeds, float lapTime) {
+        if (path.size() != speeds.length) {
+            throw new IllegalArgumentException("points " + path.size() + " != speeds " + speeds.length);
+        }
+        if (path.size() < 3) throw new IllegalArgumentException("racing line needs at least 3 points");
+        this.path = path;
+        this.speeds = speeds;
+        this.lapTime = lapTime;
+        int last = path.size() - 1;
+        this.length = path.length() + Vector2.dst(path.x(last), path.y(last), path.x(0), path.y(0));
+    }
+
+    public Path path()          { return path; }
+    public int size()           { return speeds.length; }
+    public Vector2 get(int i)   { return path.get(wrap(i)); }
+    public float speedAt(int i) { return speeds[wrap(i)]; }
+    /** 按目标速度跑一圈的时间（s） */
+    public float lapTime()      { return lapTime; }
+    /** 一圈长度（世界单位） */
+    public float length()       { return length; }
+
+    public int wrap(int i) {
+        int n = speeds.length;
+        i %= n;
+        return i < 0 ? i + n : i;
+    }
+
+    /** 离 pos 最近的点；见 nearestIndex(Vector2, int, Path.Projection)。全局查询时临时分配一个 Projection */
+    public int nearestIndex(Vector2 pos, int hint) {
+        return nearestIndex(pos, hint, null);
+    }
+
+    /**
+     * 离 pos 最近的点：在 hint 前后 SEARCH_WINDOW 个点内找（跨起终点回绕）；
+     * hint < 0、结果卡在窗口边缘（还在往外变近）或离得比 PathSampler.RELOCALIZE_DIST 还远时，走 Path 的全局查询。
+     * scratch 是全局查询用的暂存（null 时临时分配），每帧调用的跟踪器传自己的进来。
+     */
+    public int nearestIndex(Vector2 pos, int hint, Path.Projection scratch) {
+        int n = speeds.length;
+        if (hint >= 0) {
+            int from = hint - SEARCH_WINDOW, count = Math.min(n, 2 * SEARCH_WINDOW + 1);
+            int best = wrap(from), bk = 0;
+            float bd = Float.MAX_VALUE;
+            for (int k = 0; k < count; k++) {
+                int i = wrap(from + k);
+                float d = dst2(i, pos);
+                if (d < bd) { bd = d; best = i; bk = k; }
+            }
+            boolean atEdge = count < n && (bk == 0 || bk == count - 1);
+            float r = PathSampler.RELOCALIZE_DIST;
+            if (!atEdge && bd <= r * r) return best;
+        }
+        Path.Projection pr = scratch != null ? scratch : new Path.Projection();
+        path.nearest(pos.x, pos.y, pr);
+        // 收尾那一段（最后一点→第 0 点）不在 Path 里，和它比一下第 0 点
+        int i = pr.nearestPoint();
+        return dst2(0, pos) < dst2(i, pos) ? 0 : i;
+    }
+
+    private float dst2(int i, Vector2 pos) {
+        float dx = path.x(i) - pos.x, dy = path.y(i) - pos.y;
+        return dx * dx + dy * dy;
+    }
+}
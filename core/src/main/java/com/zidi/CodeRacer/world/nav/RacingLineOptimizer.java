@@ -0,0 +1,440 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 离线计算一圈的赛车线（耗时几十到几百毫秒，结果应缓存）：
+ *  1) 闭环：在出生点身后朝内岛方向切断赛道，用 GridPathPlanner 从出生点开到切口另一侧，得到绕场一圈的格子路径
+ *  2) 中线：等距重采样，沿法向把点挪到净空最大处（走廊脊线），记下两侧离墙仍有 margin 的可用宽度
+ *  3) 橡皮筋：每个点只能沿中线法向移动（留 margin），用 Gauss-Seidel 最小化曲率（四阶差分），
+ *     可混入一部分“最短路”（二阶差分）；赛道切成 segments 段并行迭代，段边界取本轮开始时的快照，
+ *     奇偶轮次错开半段避免接缝。结果只取决于 segments，与线程数无关
+ *  4) 速度：弯道上限 sqrt(mu*g/|kappa|)，再按摩擦圆做一遍加速（正向）和一遍刹车（反向）
+ *  5) 对几个“曲率 / 最短”混合比例分别求解，取单圈时间最短的一条（最小时间的近似）
+ * 长度单位均为世界单位（1 tile，约 1 m）。
+ */
+public final class RacingLineOptimizer {
+
+    /**
+     * @param spacing      赛车线点间距
+     * @param gridCell     闭环搜索用的栅格边长
+     * @param margin       离墙的最小距离（车身半宽 + 余量）
+     * @param mu           轮胎附着系数（WheelSpec.muDry）
+     * @param gravity      重力加速度（世界单位/s²）
+     * @param vMax         直道极速
+     * @param accel        最大纵向加速度
+     * @param brake        最大刹车减速度
+     * @param iterations   橡皮筋的 Gauss-Seidel 遍数
+     * @param blendSteps   混合比例的候选个数（0, 1/n, ... (n-1)/n 的“最短路”权重）
+     * @param segments     并行迭代时切成的段数（影响结果，应固定）
+     * @param parallelism  线程数，1 = 在调用线程上跑（不影响结果）
+     */
+    public record Config(float spacing, float gridCell, float margin, float mu, float gravity,
+                         float vMax, float accel, float brake,
+                         int iterations, int blendSteps, int segments, int parallelism) {
+
+        public static Config defaults() {
+            return forWheel(new WoodenWheel("rl-wheel", "Wooden Wheel", "racing line", 1, 0).spec());
+        }
+
+        public static Config forWheel(WheelSpec wheel) {
+            return new Config(0.5f, 0.25f, 0.35f, wheel.muDry(), 9.81f, 8f, 3f, 5f,
+                2000, 4, 16, Runtime.getRuntime().availableProcessors());
+        }
+
+        public Config withParallelism(int p) {
+            return new Config(spacing, gridCell, margin, mu, gravity, vMax, accel, brake, iterations, blendSteps, segments, p);
+        }
+    }
+
+    private static final float CUT_BACK = 1f;        // 切口在出生点身后多远
+    private static final float LEAD_STEP = 2f;       // 出生点在死路上时，沿车头方向每次前进多远再试
+    private static final float MAX_LEAD = 64f;
+    private static final float MAX_RAY = 20f;        // 沿法向最远探多远
+    private static final float PROBE_STEP = 0.0625f; // 沿法向探测的步长
+    private static final float MAX_SHIFT = 0.5f;     // 每轮最多挪多远；宽房间里一次跳到脊线会折叠
+    private static final int RECENTER_ROUNDS = 12;
+    private static final float MAX_CUT_SKEW = 0.7f;  // 封锁方向与车头夹角余弦的上限
+    private static final int INNER_SWEEPS = 8;       // 每轮（两次快照之间）每段内部的遍数
+
+    private RacingLineOptimizer() {}
+
+    /** 整个流程；赛道不是闭环、出生点在墙里时抛 IllegalStateException */
+    public static RacingLine optimize(TiledWorldUtils world, float widthW, float heightW,
+                                      float spawnX, float spawnY, float spawnHeadingRad, Config cfg) {
+        float[][] loop = extractLoop(world, widthW, heightW, spawnX, spawnY, spawnHeadingRad, cfg);
+        Corridor c = centerline(world, widthW, heightW, loop[0], loop[1], cfg.spacing(), cfg.margin());
+
+        int p = Math.max(1, cfg.parallelism());
+        ForkJoinPool pool = p > 1 ? new ForkJoinPool(p) : null;
+        try {
+            float bestLap = Float.POSITIVE_INFINITY;
+            float[] bestX = null, bestY = null, bestV = null;
+            int blends = Math.max(1, cfg.blendSteps());
+            for (int b = 0; b < blends; b++) {
+                float beta = b / (float) blends;
+                float[] a = band(c, beta, cfg, pool);
+                float[] x = new float[c.n], y = new float[c.n], v = new float[c.n];
+                for (int i = 0; i < c.n; i++) {
+                    x[i] = c.x[i] + a[i] * c.nx[i];
+                    y[i] = c.y[i] + a[i] * c.ny[i];
+                }
+                float lap = speedProfile(x, y, cfg, v);
+                if (lap < bestLap) {
+                    bestLap = lap;
+                    bestX = x; bestY = y; bestV = v;
+                }
+            }
+            List<Vector2> pts = new ArrayList<>(c.n);
+            for (int i = 0; i < c.n; i++) pts.add(new Vector2(bestX[i], bestY[i]));
+            return new RacingLine(new Path(pts), bestV, bestLap);
+        } finally {
+            if (pool != null) pool.shutdown();
+        }
+    }
+
+    // ---------- 1) 闭环 ----------
+
+    /**
+     * 绕场一圈的折线，第 0 点是出生点。街区地图的出生点常在一段死路上（如 Map04_withRoadSide 贴着地图边），
+     * 过出生点切不出闭环：这时沿车头方向每次前进 LEAD_STEP 再试，直到路口之后能切出闭环为止，
+     * 第 0 点换成那个位置（车从出生点开过去，VehicleUpdater 的全局定位会接上）。
+     */
+    static float[][] extractLoop(TiledWorldUtils world, float widthW, float heightW,
+                                 float sx, float sy, float heading, Config cfg) {
+        OccupancyGrid grid = OccupancyGrid.fromWorld(world, widthW, heightW, cfg.gridCell(), cfg.margin());
+        if (grid.isBlockedAt(sx, sy)) throw new IllegalStateException("spawn is inside a wall");
+        float hx = MathUtils.cos(heading), hy = MathUtils.sin(heading);
+        IllegalStateException first = null;
+        for (float t = 0f; t <= MAX_LEAD; t += LEAD_STEP) {
+            float ox = sx + hx * t, oy = sy + hy * t;
+            if (grid.isBlockedAt(ox, oy)) break;
+            try {
+                return loopThrough(t == 0f ? grid : OccupancyGrid.fromWorld(world, widthW, heightW, cfg.gridCell(), cfg.margin()),
+                    widthW, heightW, ox, oy, heading, cfg);
+            } catch (IllegalStateException e) {
+                if (first == null) first = e;
+            }
+        }
+        throw first;
+    }
+
+    /** 过 (sx, sy) 的闭环；会在 grid 上封切口 */
+    private static float[][] loopThrough(OccupancyGrid grid, float widthW, float heightW,
+                                         float sx, float sy, float heading, Config cfg) {
+
+        float hx = MathUtils.cos(heading), hy = MathUtils.sin(heading);
+        float cutX = sx - hx * CUT_BACK, cutY = sy - hy * CUT_BACK;
+        float gx = sx - hx * 2f * CUT_BACK, gy = sy - hy * 2f * CUT_BACK;
+        if (grid.isBlockedAt(gx, gy)) throw new IllegalStateException("no room behind the spawn");
+
+        // 封锁线默认沿法向；出生点在弯角时法向会顺着来路的直道一路封下去，
+        // 所以优先朝内岛（不连地图边界的墙）最近点的方向切，和车头方向太接近时才退回法向
+        float nx = -hy, ny = hx;
+        float[] toIsland = towardIsland(grid, cutX, cutY);
+        if (toIsland != null && Math.abs(toIsland[0] * hx + toIsland[1] * hy) < MAX_CUT_SKEW) {
+            nx = toIsland[0];
+            ny = toIsland[1];
+        }
+
+        // 沿封锁方向两侧一直封到墙（斜向相邻的封锁格也挡得住：规划不允许斜穿墙角）。
+        // 先收集再封，免得第二侧一开始就撞上第一侧刚封的格子
+        float stepLen = cfg.gridCell() * 0.5f, maxLen = widthW + heightW;
+        List<int[]> cut = new ArrayList<>();
+        for (int side = -1; side <= 1; side += 2) {
+            for (float t = 0f; t < maxLen; t += stepLen) {
+                float px = cutX + side * nx * t, py = cutY + side * ny * t;
+                if (grid.isBlockedAt(px, py)) break;
+                cut.add(new int[] { grid.cellX(px), grid.cellY(py) });
+            }
+        }
+        for (int[] cell : cut) grid.set(cell[0], cell[1], true);
+
+        GridPathPlanner planner = new GridPathPlanner(grid, 0, cfg.spacing());
+        int[] cells = planner.planCells(grid.cell(grid.cellX(sx), grid.cellY(sy)),
+                                        grid.cell(grid.cellX(gx), grid.cellY(gy)));
+        if (cells == null) throw new IllegalStateException("track is not a closed loop through the spawn");
+
+        float[] x = new float[cells.length], y = new float[cells.length];
+        int cols = grid.cols();
+        for (int i = 0; i < cells.length; i++) {
+            x[i] = grid.centerX(cells[i] % cols);
+            y[i] = grid.centerY(cells[i] / cols);
+        }
+        x[0] = sx;
+        y[0] = sy;
+        return new float[][] { x, y };
+    }
+
+    /** 离 (x, y) 最近的内岛格的单位方向；没有内岛时返回 null。墙按 8 邻接连通（规划不允许斜穿墙角） */
+    static float[] towardIsland(OccupancyGrid grid, float x, float y) {
+        int cols = grid.cols(), rows = grid.rows(), n = grid.cellCount();
+        boolean[] outer = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (int c = 0; c < n; c++) {
+            int cx = c % cols, cy = c / cols;
+            boolean border = cx == 0 || cy == 0 || cx == cols - 1 || cy == rows - 1;
+            if (border && grid.isBlocked(c)) {
+                outer[c] = true;
+                queue[tail++] = c;
+            }
+        }
+        while (head < tail) {
+            int c = queue[head++];
+            int cx = c % cols, cy = c / cols;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int ox = cx + dx, oy = cy + dy;
+                    if (!grid.inBounds(ox, oy)) continue;
+                    int o = grid.cell(ox, oy);
+                    if (outer[o] || !grid.isBlocked(o)) continue;
+                    outer[o] = true;
+                    queue[tail++] = o;
+                }
+            }
+        }
+        int best = -1;
+        float bd = Float.MAX_VALUE;
+        for (int c = 0; c < n; c++) {
+            if (outer[c] || !grid.isBlocked(c)) continue;
+            float dx = grid.centerX(c % cols) - x, dy = grid.centerY(c / cols) - y;
+            float d = dx * dx + dy * dy;
+            if (d < bd) { bd = d; best = c; }
+        }
+        if (best < 0) return null;
+        float dx = grid.centerX(best % cols) - x, dy = grid.centerY(best / cols) - y;
+        float len = (float) Math.sqrt(bd);
+        return new float[] { dx / len, dy / len };
+    }
+
+    // ---------- 2) 中线与宽度 ----------
+
+    /** 中线点 + 左法向 + 沿法向两侧可用的距离（离墙不少于 margin；左 = 法向正方向） */
+    static final class Corridor {
+        final int n;
+        final float[] x, y, nx, ny, left, right;
+
+        Corridor(float[] x, float[] y) {
+            this.n = x.length;
+            this.x = x;
+            this.y = y;
+            nx = new float[n]; ny = new float[n];
+            left = new float[n]; right = new float[n];
+        }
+    }
+
+    /**
+     * 每轮把点沿法向挪到净空（距离场）最大处，也就是走廊的脊线；
+     * 直角弯处脊线是一条斜线，比两侧打射线取中点稳定。最后一轮只测宽度。
+     */
+    static Corridor centerline(TiledWorldUtils world, float widthW, float heightW,
+                               float[] lx, float[] ly, float spacing, float margin) {
+        float[][] r = resampleClosed(lx, ly, spacing);
+        Corridor c = null;
+        for (int round = 0; round <= RECENTER_ROUNDS; round++) {
+            c = new Corridor(r[0], r[1]);
+            normals(c);
+            if (round == RECENTER_ROUNDS) {
+                for (int i = 0; i < c.n; i++) {
+                    c.left[i]  = reach(world, widthW, heightW, c.x[i], c.y[i], c.nx[i], c.ny[i], margin);
+                    c.right[i] = reach(world, widthW, heightW, c.x[i], c.y[i], -c.nx[i], -c.ny[i], margin);
+                }
+                break;
+            }
+            for (int i = 0; i < c.n; i++) {
+                float best = clearance(world, widthW, heightW, c.x[i], c.y[i]), shift = 0f;
+                for (int side = -1; side <= 1; side += 2) {
+                    for (float t = PROBE_STEP; t < MAX_RAY; t += PROBE_STEP) {
+                        float d = clearance(world, widthW, heightW,
+                            c.x[i] + side * t * c.nx[i], c.y[i] + side * t * c.ny[i]);
+                        if (d <= 0f) break;                 // 出了这段走廊
+                        if (d > best) { best = d; shift = side * t; }
+                    }
+                }
+                shift = MathUtils.clamp(shift, -MAX_SHIFT, MAX_SHIFT);
+                c.x[i] += shift * c.nx[i];
+                c.y[i] += shift * c.ny[i];
+            }
+            smoothClosed(c.x, c.y);
+            r = resampleClosed(c.x, c.y, spacing);
+        }
+        return c;
+    }
+
+    private static void normals(Corridor c) {
+        for (int i = 0; i < c.n; i++) {
+            int a = (i - 1 + c.n) % c.n, b = (i + 1) % c.n;
+            float tx = c.x[b] - c.x[a], ty = c.y[b] - c.y[a];
+            float len = (float) Math.sqrt(tx * tx + ty * ty);
+            if (len < 1e-6f) { tx = 1f; ty = 0f; len = 1f; }
+            c.nx[i] = -ty / len;
+            c.ny[i] = tx / len;
+        }
+    }
+
+    /** 到最近墙的距离；地图边界也算墙（很多地图的外圈没有画 Collision） */
+    private static float clearance(TiledWorldUtils world, float w, float h, float x, float y) {
+        float edge = Math.min(Math.min(x, w - x), Math.min(y, h - y));
+        return Math.min(world.clearanceAt(x, y), edge);
+    }
+
+    /** 从 (x,y) 沿 (dx,dy) 最多能走多远而净空仍不小于 margin（起点就不够时为 0） */
+    private static float reach(TiledWorldUtils world, float w, float h,
+                               float x, float y, float dx, float dy, float margin) {
+        float t = 0f;
+        while (t + PROBE_STEP <= MAX_RAY
+            && clearance(world, w, h, x + (t + PROBE_STEP) * dx, y + (t + PROBE_STEP) * dy) >= margin) {
+            t += PROBE_STEP;
+        }
+        return t;
+    }
+
+    private static void smoothClosed(float[] x, float[] y) {
+        int n = x.length;
+        float[] sx = new float[n], sy = new float[n];
+        for (int i = 0; i < n; i++) {
+            int a = (i - 1 + n) % n, b = (i + 1) % n;
+            sx[i] = 0.25f * x[a] + 0.5f * x[i] + 0.25f * x[b];
+            sy[i] = 0.25f * y[a] + 0.5f * y[i] + 0.25f * y[b];
+        }
+        System.arraycopy(sx, 0, x, 0, n);
+        System.arraycopy(sy, 0, y, 0, n);
+    }
+
+    /** 闭合折线按弧长等距重采样，第 0 点保持不动 */
+    static float[][] resampleClosed(float[] x, float[] y, float spacing) {
+        int m = x.length;
+        double total = 0;
+        for (int i = 0; i < m; i++) total += Math.hypot(x[(i + 1) % m] - x[i], y[(i + 1) % m] - y[i]);
+        int n = Math.max(8, (int) Math.round(total / spacing));
+        double step = total / n;
+
+        float[] ox = new float[n], oy = new float[n];
+        int seg = 0;
+        double segStart = 0, segLen = Math.hypot(x[1 % m] - x[0], y[1 % m] - y[0]);
+        for (int k = 0; k < n; k++) {
+            double s = k * step;
+            while (segStart + segLen < s && seg < m - 1) {
+                segStart += segLen;
+                seg++;
+                segLen = Math.hypot(x[(seg + 1) % m] - x[seg], y[(seg + 1) % m] - y[seg]);
+            }
+            double t = segLen > 1e-9 ? (s - segStart) / segLen : 0.0;
+            int b = (seg + 1) % m;
+            ox[k] = (float) (x[seg] + (x[b] - x[seg]) * t);
+            oy[k] = (float) (y[seg] + (y[b] - y[seg]) * t);
+        }
+        return new float[][] { ox, oy };
+    }
+
+    // ---------- 3) 橡皮筋 ----------
+
+    /** 返回每个中线点沿法向的偏移 */
+    static float[] band(Corridor c, float beta, Config cfg, ForkJoinPool pool) {
+        int n = c.n;
+        float[] lo = new float[n], hi = new float[n];
+        for (int i = 0; i < n; i++) {
+            lo[i] = -c.right[i];
+            hi[i] = c.left[i];
+        }
+
+        float[] a = new float[n], snap = new float[n];
+        int segs = Math.max(1, Math.min(cfg.segments(), n / 8));
+        int rounds = Math.max(1, (cfg.iterations() + INNER_SWEEPS - 1) / INNER_SWEEPS);
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[segs];
+        for (int r = 0; r < rounds; r++) {
+            System.arraycopy(a, 0, snap, 0, n);
+            int offset = (r & 1) == 0 ? 0 : n / (2 * segs);
+            for (int k = 0; k < segs; k++) {
+                int from = offset + (int) ((long) k * n / segs);
+                int len = (int) ((long) (k + 1) * n / segs) - (int) ((long) k * n / segs);
+                if (pool == null) {
+                    relaxSegment(c, a, snap, lo, hi, beta, from, len);
+                } else {
+                    tasks[k] = pool.submit(() -> relaxSegment(c, a, snap, lo, hi, beta, from, len));
+                }
+            }
+            if (pool != null) {
+                for (ForkJoinTask<?> t : tasks) t.join();
+            }
+        }
+        return a;
+    }
+
+    /**
+     * 段 [from, from+len)（回绕）内做 INNER_SWEEPS 遍 Gauss-Seidel。
+     * 段内读写 a，段外只读 snap，所以各段可以并行且结果确定。
+     */
+    private static void relaxSegment(Corridor c, float[] a, float[] snap, float[] lo, float[] hi,
+                                     float beta, int from, int len) {
+        int n = c.n;
+        float wc = (1f - beta) / 6f, ws = beta * 0.5f;
+        for (int sweep = 0; sweep < INNER_SWEEPS; sweep++) {
+            for (int k = 0; k < len; k++) {
+                int i = (from + k) % n;
+                int im2 = (i - 2 + n) % n, im1 = (i - 1 + n) % n, ip1 = (i + 1) % n, ip2 = (i + 2) % n;
+                // 段内邻居取 a（本轮最新），段外取 snap
+                float am2 = k >= 2 ? a[im2] : snap[im2];
+                float am1 = k >= 1 ? a[im1] : snap[im1];
+                float ap1 = k + 1 < len ? a[ip1] : snap[ip1];
+                float ap2 = k + 2 < len ? a[ip2] : snap[ip2];
+
+                float xm2 = c.x[im2] + am2 * c.nx[im2], ym2 = c.y[im2] + am2 * c.ny[im2];
+                float xm1 = c.x[im1] + am1 * c.nx[im1], ym1 = c.y[im1] + am1 * c.ny[im1];
+                float xp1 = c.x[ip1] + ap1 * c.nx[ip1], yp1 = c.y[ip1] + ap1 * c.ny[ip1];
+                float xp2 = c.x[ip2] + ap2 * c.nx[ip2], yp2 = c.y[ip2] + ap2 * c.ny[ip2];
+
+                // 曲率项：四阶差分为零的位置；最短项：两邻居的中点
+                float qx = wc * (-xm2 + 4f * xm1 + 4f * xp1 - xp2) + ws * (xm1 + xp1);
+                float qy = wc * (-ym2 + 4f * ym1 + 4f * yp1 - yp2) + ws * (ym1 + yp1);
+                float px = c.x[i] + a[i] * c.nx[i], py = c.y[i] + a[i] * c.ny[i];
+                float da = (qx - px) * c.nx[i] + (qy - py) * c.ny[i];
+                a[i] = MathUtils.clamp(a[i] + da, lo[i], hi[i]);
+            }
+        }
+    }
+
+    // ---------- 4) 速度 ----------
+
+    /** 填 v（每点目标速度），返回单圈时间 */
+    static float speedProfile(float[] x, float[] y, Config cfg, float[] v) {
+        int n = x.length;
+        float grip = cfg.mu() * cfg.gravity();
+        float[] kappa = new float[n], ds = new float[n];
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            int a = (i - 1 + n) % n, b = (i + 1) % n;
+            kappa[i] = Math.abs(NavMath.curvature(x[a], y[a], x[i], y[i], x[b], y[b]));
+            ds[i] = (float) Math.hypot(x[b] - x[i], y[b] - y[i]);
+            v[i] = NavMath.cornerSpeed(grip, kappa[i], cfg.vMax());
+            if (v[i] < v[start]) start = i;
+        }
+        // 从最慢的弯开始：它本身已经在上限上，正反各一遍就闭合了
+        for (int k = 0; k < n; k++) {
+            int i = (start + k) % n, j = (i + 1) % n;
+            float acc = Math.min(cfg.accel(), NavMath.frictionLeft(grip, v[i], kappa[i]));
+            v[j] = Math.min(v[j], (float) Math.sqrt(v[i] * v[i] + 2f * acc * ds[i]));
+        }
+        for (int k = 0; k < n; k++) {
+            int i = (start - k + n) % n, j = (i - 1 + n) % n;
+            float dec = Math.min(cfg.brake(), NavMath.frictionLeft(grip, v[i], kappa[i]));
+            v[j] = Math.min(v[j], (float) Math.sqrt(v[i] * v[i] + 2f * dec * ds[j]));
+        }
+        double lap = 0;
+        for (int i = 0; i < n; i++) {
+            float vm = 0.5f * (v[i] + v[(i + 1) % n]);
+            lap += ds[i] / Math.max(vm, 1e-3f);
+        }
+        return (float) lap;
+    }
+}
@@ -0,0 +1,136 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
+
+/**
+ * 沿 Path 的目标速度：弯道上限 sqrt(mu*g/|kappa|)，mu 在 muDry 与 muWet 之间按路面湿度插值；
+ * 刹车约束只取决于路径和湿度，换湿度时对整条路径反向算一遍（O(n)，很少发生）；
+ * 加速约束取决于当前车速，每帧只从车所在点往前正向重算一小段窗口（跟踪只读前视点）。
+ * 两遍都按摩擦圆扣掉横向需求。曲率只取决于路径，多车跑同一条路径时共享 curvature(...) 的结果。
+ * 非线程安全：每辆车一个 planner。
+ */
+public final class SpeedPlanner {
+
+    /**
+     * @param muDry   干地附着系数（WheelSpec.muDry）
+     * @param muWet   湿地附着系数（WheelSpec.muWet）
+     * @param gravity 重力加速度（世界单位/s²）
+     * @param vMax    极速
+     * @param accel   最大纵向加速度
+     * @param brake   最大刹车减速度
+     */
+    public record Limits(float muDry, float muWet, float gravity, float vMax, float accel, float brake) {
+        public static Limits forWheel(WheelSpec wheel, float vMax, float accel, float brake) {
+            return new Limits(wheel.muDry(), wheel.muWet(), 9.81f, vMax, accel, brake);
+        }
+    }
+
+    /** 求曲率时两侧各取多远的点；逐点相邻求会把密采样的舍入误差放大成假弯 */
+    public static final float CURVATURE_BASE = 0.5f;
+
+    private final Path path;
+    private final float[] kappa;
+    private final Limits lim;
+    private final float[] limit;    // 弯道上限 + 反向刹车约束（随湿度变）
+    private final float[] speed;    // 再叠加正向加速约束；只有最近一次窗口内是新的
+    private float wetness, grip;
+    private float endSpeed = 0f;
+
+    public SpeedPlanner(Path path, Limits lim) {
+        this(path, curvature(path, CURVATURE_BASE), lim);
+    }
+
+    /** kappa 由 curvature(path, ...) 算好，可在多个 planner 间共享（只读） */
+    public SpeedPlanner(Path path, float[] kappa, Limits lim) {
+        if (kappa.length != path.size()) {
+            throw new IllegalArgumentException("curvature " + kappa.length + " != points " + path.size());
+        }
+        this.path = path;
+        this.kappa = kappa;
+        this.lim = lim;
+        this.limit = new float[path.size()];
+        this.speed = new float[path.size()];
+        setWetness(0f);
+    }
+
+    /** 每点的无符号曲率：取前后各 base 弧长处的点算外接圆（首尾夹到端点） */
+    public static float[] curvature(Path p, float base) {
+        int n = p.size();
+        float[] k = new float[n];
+        Vector2 a = new Vector2(), c = new Vector2();
+        for (int i = 0; i < n; i++) {
+            float s = p.arcLength(i);
+            p.pointAt(s - base, a);
+            p.pointAt(s + base, c);
+            k[i] = Math.abs(NavMath.curvature(a.x, a.y, p.x(i), p.y(i), c.x, c.y));
+        }
+        return k;
+    }
+
+    public Path path()        { return path; }
+    public float wetness()    { return wetness; }
+
+    /** 路面湿度 0（干）~ 1（湿）；重算整条路径的弯道上限和刹车约束 */
+    public void setWetness(float w) {
+        wetness = MathUtils.clamp(w, 0f, 1f);
+        grip = MathUtils.lerp(lim.muDry(), lim.muWet(), wetness) * lim.gravity();
+        rebuildLimit();
+    }
+
+    /** 路径终点的速度（默认 0：开到终点停下） */
+    public void setEndSpeed(float v) {
+        endSpeed = Math.max(0f, v);
+        rebuildLimit();
+    }
+
+    private void rebuildLimit() {
+        int n = limit.length;
+        for (int i = 0; i < n; i++) {
+            limit[i] = NavMath.cornerSpeed(grip, kappa[i], lim.vMax());
+        }
+        if (n == 0) return;
+        limit[n - 1] = Math.min(limit[n - 1], endSpeed);
+        for (int j = n - 2; j >= 0; j--) {
+            float dec = Math.min(lim.brake(), NavMath.frictionLeft(grip, limit[j + 1], kappa[j + 1]));
+            float ds = path.arcLength(j + 1) - path.arcLength(j);
+            limit[j] = Math.min(limit[j], (float) Math.sqrt(limit[j + 1] * limit[j + 1] + 2f * dec * ds));
+        }
+        System.arraycopy(limit, 0, speed, 0, n);
+    }
+
+    /**
+     * 从第 from 点（车所在段的起点）以当前车速 v0 往前做加速约束，覆盖 ahead 弧长；返回窗口末端下标。
+     * 成本只和窗口内的点数有关。
+     */
+    public int update(int from, float v0, float ahead) {
+        int n = path.size();
+        if (n == 0) return -1;
+        from = MathUtils.clamp(from, 0, n - 1);
+        float sEnd = path.arcLength(from) + ahead;
+        int to = sEnd >= path.length() ? n - 1 : path.segmentAt(sEnd) + 1;
+
+        speed[from] = Math.min(limit[from], Math.max(0f, v0));
+        for (int i = from; i < to; i++) {
+            float acc = Math.min(lim.accel(), NavMath.frictionLeft(grip, speed[i], kappa[i]));
+            float ds = path.arcLength(i + 1) - path.arcLength(i);
+            speed[i + 1] = Math.min(limit[i + 1], (float) Math.sqrt(speed[i] * speed[i] + 2f * acc * ds));
+        }
+        return to;
+    }
+
+    public float speedAt(int i) {
+        return speed[i];
+    }
+
+    /** 弧长 s 处的目标速度（相邻两点线性插值） */
+    public float speedAtArc(float s) {
+        int n = path.size();
+        if (n < 2) return n == 0 ? 0f : speed[0];
+        int i = path.segmentAt(s);
+        float len = path.arcLength(i + 1) - path.arcLength(i);
+        float t = len > 0f ? MathUtils.clamp((s - path.arcLength(i)) / len, 0f, 1f) : 0f;
+        return speed[i] + (speed[i + 1] - speed[i]) * t;
+    }
+}
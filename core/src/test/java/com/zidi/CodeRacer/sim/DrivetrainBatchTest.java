@@ -0,0 +1,127 @@
+package com.zidi.CodeRacer.sim;
+
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+import com.zidi.CodeRacer.vehicle.components.engine.Impl.SimpleEngineImpl;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * DrivetrainBatch 对照对象版（SimpleEngineImpl + DefaultWheel）：同样的随机输入逐步推进，逐项比较。
+ * 车轮里 batch 用 FastMath 的 tanh / atan，对象版是精确的 Math.exp / atan2，所以力按摩擦极限给相对容差。
+ */
+class DrivetrainBatchTest {
+
+    private static final int CARS = 64, STEPS = 2000;
+    private static final float DT = 1f / 60f;
+    private static final int W = DrivetrainBatch.WHEELS_PER_ENGINE;
+
+    /** FastMath.tanh 误差 < 1e-4，atan 误差 < 3e-6 rad（乘侧偏刚度 7.2 后约 2e-5），再留一点 float 舍入；实测约 0.96e-4 */
+    private static final float FORCE_TOL = 2e-4f;
+
+    private static final EngineSpec ENGINE = new EngineSpec() {
+        @Override public float idleRpm()                     { return 900f; }
+        @Override public float redlineRpm()                  { return 7000f; }
+        @Override public float peakTorqueNm()                { return 180f; }
+        @Override public float peakTorqueRpm()               { return 4200f; }
+        @Override public float inertia()                     { return 0.15f; }
+        @Override public float fullThrottleFuelUnitsPerSec() { return 2f; }
+    };
+
+    @Test
+    void matchesObjectPathWithinTolerance() {
+        Random rnd = new Random(21L);
+        DrivetrainBatch batch = new DrivetrainBatch(CARS);
+        SimpleEngineImpl[] engines = new SimpleEngineImpl[CARS];
+        WoodenWheel[] wheels = new WoodenWheel[CARS * W];
+        float[] grip = new float[CARS * W];   // 本步 μ·Fz，摩擦极限的上界
+        WheelSpec[] specs = new WheelSpec[W];
+        for (int e = 0; e < CARS; e++) {
+            engines[e] = new SimpleEngineImpl("t-engine", "Engine", "test", 50, 10, ENGINE);
+            for (int k = 0; k < W; k++) {
+                wheels[e * W + k] = new WoodenWheel("t-wheel", "Wheel", "test", 5, 5);
+                specs[k] = wheels[e * W + k].spec();
+            }
+            batch.add(ENGINE, null, specs);
+        }
+
+        float worst = 0f;   // 力的最大偏差 / μ·Fz
+        for (int step = 0; step < STEPS; step++) {
+            for (int e = 0; e < CARS; e++) {
+                float throttle = rnd.nextFloat(), load = rnd.nextFloat() * 800f;
+                engines[e].setThrottle(throttle);
+                batch.setThrottle(e, throttle);
+                engines[e].update(DT, load);
+                batch.setLoadOmega(e, load);
+            }
+            batch.stepEngines(0, CARS, DT);
+            for (int w = 0; w < CARS * W; w++) {
+                float steer = (rnd.nextFloat() - 0.5f) * 80f;
+                float drive = (rnd.nextFloat() - 0.3f) * 400f, brake = rnd.nextFloat() < 0.2f ? rnd.nextFloat() * 600f : 0f;
+                float fz = 2000f + rnd.nextFloat() * 2000f, mu = 0.4f + rnd.nextFloat() * 0.6f;
+                float om = (rnd.nextFloat() - 0.2f) * 80f, vx = (rnd.nextFloat() - 0.2f) * 25f, vy = (rnd.nextFloat() - 0.5f) * 6f;
+                grip[w] = mu * fz;
+                WoodenWheel wheel = wheels[w];
+                wheel.setTargetSteerDeg(steer);
+                wheel.setDriveTorque(drive);
+                wheel.setBrakeTorque(brake);
+                wheel.preStep(DT, fz, mu, om, vx, vy);
+                wheel.step(DT);
+                batch.setTargetSteerDeg(w, steer);
+                batch.setDriveTorque(w, drive);
+                batch.setBrakeTorque(w, brake);
+                batch.setWheelInputs(w, fz, mu, om, vx, vy);
+            }
+            batch.stepWheels(0, CARS, DT);
+
+            for (int e = 0; e < CARS; e++) {
+                assertEquals(engines[e].state().rpm(), batch.rpm(e), 1e-3f, "rpm");
+                assertEquals(engines[e].state().torqueNm(), batch.torqueNm(e), 1e-3f, "torque");
+            }
+            for (int w = 0; w < CARS * W; w++) {
+                WoodenWheel wheel = wheels[w];
+                assertEquals(wheel.steerDeg(), batch.steerDeg(w), 1e-4f, "steer");
+                assertEquals(wheel.state().slipRatio(), batch.slipRatio(w), 1e-4f * Math.max(1f, Math.abs(batch.slipRatio(w))), "slip");
+                float dx = Math.abs(wheel.getFx() - batch.fx(w)), dy = Math.abs(wheel.getFy() - batch.fy(w));
+                assertTrue(dx <= FORCE_TOL * grip[w], "fx differs by " + dx);
+                assertTrue(dy <= FORCE_TOL * grip[w], "fy differs by " + dy);
+                worst = Math.max(worst, Math.max(dx, dy) / grip[w]);
+                assertEquals(wheel.state().wear01(), batch.wear01(w), 1e-5f, "wear");
+                assertEquals(wheel.state().tempC(), batch.tempC(w), 1e-2f, "temp");
+            }
+        }
+        assertTrue(worst > 0f, "exact and approximate tyre math should not coincide bit for bit");
+    }
+
+    /** 侧向力必须抵抗侧滑：Fy 与轮心侧向速度 vy 反号（前进、倒车都一样），vy = 0 时为 0 */
+    @Test
+    void lateralForceOpposesLateralVelocity() {
+        DrivetrainBatch batch = new DrivetrainBatch(1);
+        WoodenWheel wheel = new WoodenWheel("t-wheel", "Wheel", "test", 5, 5);
+        WheelSpec[] specs = new WheelSpec[W];
+        java.util.Arrays.fill(specs, wheel.spec());
+        batch.add(ENGINE, null, specs);
+        for (float vx : new float[] { 12f, 0.5f, -4f }) {
+            for (float vy : new float[] { -3f, -0.2f, 0f, 0.2f, 3f }) {
+                float omega = vx / wheel.spec().radius();          // 纯滚动，不掺纵向滑移
+                wheel.preStep(DT, 3000f, 0.9f, omega, vx, vy);
+                wheel.step(DT);
+                batch.setWheelInputs(0, 3000f, 0.9f, omega, vx, vy);
+                batch.stepWheels(0, 1, DT);
+                String at = "vx=" + vx + " vy=" + vy;
+                if (vy == 0f) {
+                    assertEquals(0f, wheel.getFy(), 1e-3f, at);
+                    assertEquals(0f, batch.fy(0), 1e-3f, at);
+                } else {
+                    assertTrue(wheel.getFy() * vy < 0f, "object wheel Fy=" + wheel.getFy() + " at " + at);
+                    assertTrue(batch.fy(0) * vy < 0f, "batch wheel Fy=" + batch.fy(0) + " at " + at);
+                }
+            }
+        }
+    }
+}
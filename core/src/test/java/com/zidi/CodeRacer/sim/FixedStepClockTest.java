@@ -0,0 +1,69 @@
+package com.zidi.CodeRacer.sim;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FixedStepClockTest {
+
+    @Test
+    void vsyncFramesAtHalfTheRateRunTwoStepsEach() {
+        FixedStepClock clock = new FixedStepClock(120f);
+        int steps = 0;
+        for (int i = 0; i < 600; i++) steps += clock.advance(1f / 60f);
+        assertTrue(Math.abs(steps - 1200) <= 1, "steps " + steps);
+        assertEquals(0, clock.droppedSteps());
+        assertEquals(1f / 120f, clock.stepDt(), 0f);
+    }
+
+    @Test
+    void shortStallIsCaughtUpInOneFrame() {
+        FixedStepClock clock = new FixedStepClock(60f, 8, 0.25f);
+        assertEquals(6, clock.advance(0.1f + 1e-4f));
+        assertEquals(0, clock.droppedSteps());
+        assertTrue(clock.alpha() < 0.05f);
+    }
+
+    @Test
+    void longStallIsClampedInsteadOfSpiralling() {
+        FixedStepClock clock = new FixedStepClock(60f, 8, 0.25f);
+        // 1 s 先夹到 maxFrameDt = 0.25 s（约 15 步），再夹到 8 步，其余丢弃
+        long due = (long) (0.25f / clock.stepDt());
+        assertEquals(8, clock.advance(1f));
+        assertEquals(due - 8, clock.droppedSteps());
+        assertTrue(clock.alpha() >= 0f && clock.alpha() < 1f);
+        // 下一帧不背旧账
+        assertTrue(clock.advance(1f / 60f) <= 2);
+        assertEquals(due - 8, clock.droppedSteps());
+    }
+
+    @Test
+    void fractionalTimeCarriesOverAndDrivesAlpha() {
+        FixedStepClock clock = new FixedStepClock(60f);
+        assertEquals(0, clock.advance(0.5f / 60f));
+        assertEquals(0.5f, clock.alpha(), 1e-4f);
+        assertEquals(1, clock.advance(0.75f / 60f));
+        assertEquals(0.25f, clock.alpha(), 1e-4f);
+    }
+
+    @Test
+    void invalidFrameTimesAreIgnored() {
+        FixedStepClock clock = new FixedStepClock(60f);
+        assertEquals(0, clock.advance(0f));
+        assertEquals(0, clock.advance(-1f));
+        assertEquals(0, clock.advance(Float.NaN));
+        assertEquals(0f, clock.alpha(), 0f);
+    }
+
+    @Test
+    void rateProperty() {
+        assertEquals(60f, FixedStepClock.parseHz(null, 60f), 0f);
+        assertEquals(120f, FixedStepClock.parseHz(" 120 ", 60f), 0f);
+        assertThrows(IllegalArgumentException.class, () -> FixedStepClock.parseHz("0", 60f));
+        assertThrows(IllegalArgumentException.class, () -> FixedStepClock.parseHz("-30", 60f));
+        assertThrows(IllegalArgumentException.class, () -> FixedStepClock.parseHz("NaN", 60f));
+        assertThrows(IllegalArgumentException.class, () -> FixedStepClock.parseHz("fast", 60f));
+    }
+}
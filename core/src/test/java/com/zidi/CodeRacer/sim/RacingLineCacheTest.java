@@ -0,0 +1,127 @@
+package com.zidi.CodeRacer.sim;
+
+import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.world.nav.RacingLine;
+import com.zidi.CodeRacer.world.nav.RacingLineOptimizer.Config;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RacingLineCacheTest {
+
+    static final File MAPS = new File("lwjgl3/src/main/resources/Maps");
+
+    /** 比默认少迭代，测试里跑得快；几何和默认一致 */
+    static Config fast() {
+        Config d = Config.defaults();
+        return new Config(d.spacing(), d.gridCell(), d.margin(), d.mu(), d.gravity(), d.vMax(), d.accel(), d.brake(),
+            200, 2, d.segments(), 1);
+    }
+
+    private static File[] maps() {
+        File[] f = MAPS.listFiles((dir, name) -> name.endsWith(".tmx"));
+        assertNotNull(f);
+        Arrays.sort(f);
+        return f;
+    }
+
+    @Test
+    void extractsAClosedLoopOnEveryBundledMap() throws Exception {
+        File[] maps = maps();
+        assertTrue(maps.length >= 5);
+        for (File tmx : maps) {
+            Track track = Track.load(tmx);
+            RacingLine line = RacingLineCache.forTrack(track, fast(), Files.createTempDirectory("rl"));
+            String name = tmx.getName();
+            assertTrue(line.size() > 50, name + ": " + line.size() + " points");
+            // 闭合：收尾那一段和其他段差不多长
+            Vector2 first = line.get(0), last = line.get(line.size() - 1);
+            assertTrue(first.dst(last) < 2f * fast().spacing(), name);
+            for (int i = 0; i < line.size(); i++) {
+                Vector2 p = line.get(i);
+                assertTrue(track.world().clearanceAt(p.x, p.y) > 0f, name + " point " + i + " is inside a wall");
+                assertTrue(line.speedAt(i) > 0f && line.speedAt(i) <= fast().vMax(), name);
+            }
+        }
+    }
+
+    @Test
+    void secondCallReadsTheFileInsteadOfRecomputing(@TempDir Path dir) throws Exception {
+        Track track = Track.load(SimulationTest.MAP);
+        Config cfg = fast();
+        long hash = RacingLineCache.mapHash(track, cfg);
+        Path file = RacingLineCache.fileFor(track, hash, dir);
+
+        RacingLine computed = RacingLineCache.forTrack(track, cfg, dir);
+        assertTrue(Files.isRegularFile(file));
+        assertSameLine(computed, RacingLineCache.read(file, hash));
+
+        // 换成一条假的：命中时原样读回来，说明没有重算
+        RacingLine fake = square(4f, 7f);
+        RacingLineCache.write(file, hash, fake);
+        assertSameLine(fake, RacingLineCache.forTrack(track, cfg, dir));
+
+        // 文件损坏当作未命中：重算并覆盖
+        Files.write(file, new byte[] { 1, 2, 3 });
+        assertSameLine(computed, RacingLineCache.forTrack(track, cfg, dir));
+        assertSameLine(computed, RacingLineCache.read(file, hash));
+    }
+
+    @Test
+    void mismatchedHashOrVersionIsAMiss(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("x.line");
+        RacingLineCache.write(file, 42L, square(3f, 5f));
+        assertNotNull(RacingLineCache.read(file, 42L));
+        assertEquals(null, RacingLineCache.read(file, 43L));
+        byte[] b = Files.readAllBytes(file);
+        b[4]++;                                      // version 字段
+        Files.write(file, b);
+        assertEquals(null, RacingLineCache.read(file, 42L));
+    }
+
+    @Test
+    void mapHashIsStableAndCoversTheInputs() {
+        Track a = Track.load(SimulationTest.MAP), b = Track.load(SimulationTest.MAP);
+        Config cfg = fast();
+        long h = RacingLineCache.mapHash(a, cfg);
+        assertEquals(h, RacingLineCache.mapHash(b, cfg));
+        assertEquals(h, RacingLineCache.mapHash(a, cfg.withParallelism(8)));   // 线程数不影响结果
+        assertEquals(RacingLineCache.fileFor(a, h, Path.of("d")), RacingLineCache.fileFor(b, h, Path.of("d")));
+
+        Config grippier = new Config(cfg.spacing(), cfg.gridCell(), cfg.margin(), cfg.mu() * 1.1f, cfg.gravity(),
+            cfg.vMax(), cfg.accel(), cfg.brake(), cfg.iterations(), cfg.blendSteps(), cfg.segments(), cfg.parallelism());
+        assertNotEquals(h, RacingLineCache.mapHash(a, grippier));
+
+        List<Long> hashes = new ArrayList<>();
+        for (File tmx : maps()) hashes.add(RacingLineCache.mapHash(Track.load(tmx), cfg));
+        assertEquals(hashes.size(), hashes.stream().distinct().count(), "maps share a cache key");
+    }
+
+    private static RacingLine square(float side, float v) {
+        List<Vector2> pts = List.of(new Vector2(0, 0), new Vector2(side, 0), new Vector2(side, side), new Vector2(0, side));
+        float[] speeds = new float[4];
+        Arrays.fill(speeds, v);
+        return new RacingLine(new com.zidi.CodeRacer.world.nav.Path(new ArrayList<>(pts)), speeds, 4 * side / v);
+    }
+
+    private static void assertSameLine(RacingLine want, RacingLine got) {
+        assertNotNull(got);
+        assertEquals(want.size(), got.size());
+        assertEquals(want.lapTime(), got.lapTime());
+        for (int i = 0; i < want.size(); i++) {
+            assertEquals(want.get(i), got.get(i));
+            assertEquals(want.speedAt(i), got.speedAt(i));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.zidi.CodeRacer.sim;
+
+import com.zidi.CodeRacer.vehicle.components.carBrain.StickyTurnPolicy;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RolloutPlannerTest {
+
+    private static final float DT = 1f / 60f;
+    private static final Track TRACK = Track.load(SimulationTest.MAP);
+
+    private static RolloutPlanner.Config config(int threads, long seed) {
+        return new RolloutPlanner.Config(12, 1.0f, DT, threads, 0L, seed, 1.0f, 100f);
+    }
+
+    private static Simulation customLive() {
+        return new Simulation(TRACK, new StickyTurnPolicy(2.0f, 0.05f, 0.06f, 0.06f, 2),
+            TRACK.spawnX(), TRACK.spawnY(), TRACK.spawnHeadingRad() + 0.05f);
+    }
+
+    @Test
+    void workersRolloutExactlyLikeTheLiveSimulation() {
+        Simulation live = customLive();
+        live.run(300, DT);
+        try (RolloutPlanner planner = new RolloutPlanner(live, config(1, 1L))) {
+            SimSnapshot snap = new SimSnapshot().save(live);
+            Simulation worker = planner.worker(0);
+            snap.restore(worker);
+            Simulation stock = new Simulation(TRACK);   // 旧做法：默认策略的克隆
+            snap.restore(stock);
+
+            boolean stockDiverged = false;
+            for (int i = 0; i < 1500; i++) {
+                live.step(DT);
+                worker.step(DT);
+                stock.step(DT);
+                assertArrayEquals(pose(live), pose(worker), "tick " + i);
+                stockDiverged |= !Arrays.equals(pose(live), pose(stock));
+            }
+            assertTrue(stockDiverged, "a clone with the default policy should drift away");
+        }
+    }
+
+    @Test
+    void decisionsDependOnlyOnTheSeed() {
+        float[][] single = drive(config(1, 7L), 600);
+        float[][] threaded = drive(config(3, 7L), 600);
+        for (int i = 0; i < single.length; i++) assertArrayEquals(single[i], threaded[i], "tick " + i);
+        float[][] again = drive(config(2, 7L), 600);
+        for (int i = 0; i < single.length; i++) assertArrayEquals(single[i], again[i], "tick " + i);
+    }
+
+    @Test
+    void plannerKeepsTheCarMoving() {
+        Simulation sim = customLive();
+        try (RolloutPlanner planner = new RolloutPlanner(sim, config(2, 3L))) {
+            sim.setBrain(planner);
+            sim.run(900, DT);
+            assertTrue(planner.decisions() > 0);
+            assertEquals(0, planner.budgetMisses());
+            assertTrue(sim.getDistance() > 20.0, "moved " + sim.getDistance());
+            assertFalse(Float.isNaN(sim.getPose().getX()));
+        }
+    }
+
+    private static float[][] drive(RolloutPlanner.Config cfg, int ticks) {
+        Simulation sim = customLive();
+        float[][] out = new float[ticks][];
+        try (RolloutPlanner planner = new RolloutPlanner(sim, cfg)) {
+            sim.setBrain(planner);
+            for (int i = 0; i < ticks; i++) {
+                sim.step(DT);
+                out[i] = pose(sim);
+            }
+        }
+        return out;
+    }
+
+    private static float[] pose(Simulation sim) {
+        Pose p = sim.getPose();
+        return new float[]{p.getX(), p.getY(), p.getHeadingRad(), p.getSpeed()};
+    }
+}
@@ -0,0 +1,41 @@
+package com.zidi.CodeRacer.sim;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationBox2DTest {
+
+    private static final float DT = 1f / 60f;
+    private static final File MAP = new File("lwjgl3/src/main/resources/Maps/circuit_04.tmx");
+
+    @Test
+    void box2dBackendDrivesTheDefaultPolicy() {
+        Track track = Track.load(MAP);
+        Simulation sim = new Simulation(track, true);
+        try {
+            assertNotNull(sim.getPhysics());
+            sim.run(1200, DT);
+            assertTrue(sim.getDistance() > 20.0, "moved only " + sim.getDistance());
+            assertFalse(Float.isNaN(sim.getPose().getX()) || Float.isNaN(sim.getPose().getHeadingRad()));
+            assertThrows(IllegalStateException.class, () -> sim.writeState(ByteBuffer.allocate(1 << 16)));
+        } finally {
+            sim.dispose();
+        }
+    }
+
+    @Test
+    void kinematicIsStillTheDefault() {
+        Simulation sim = new Simulation(Track.load(MAP));
+        assertNull(sim.getPhysics());
+        sim.run(60, DT);
+        sim.writeState(ByteBuffer.allocate(1 << 16));
+    }
+}
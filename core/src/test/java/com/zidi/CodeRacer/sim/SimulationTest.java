@@ -0,0 +1,93 @@
+package com.zidi.CodeRacer.sim;
+
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.sensor.Impl.SectorSweepSensor;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SimulationTest {
+
+    private static final float DT = 1f / 60f;
+    static final File MAP = new File("lwjgl3/src/main/resources/Maps/circuit_04.tmx");
+
+    @Test
+    void policyInputComesFromTheSweptSectors() {
+        Simulation sim = new Simulation(Track.load(MAP));
+        for (int i = 0; i < 300; i++) {
+            sim.step(DT);
+            checkSensor(sim, sim.getFront(), sim.getFrontDistance());
+            checkSensor(sim, sim.getLeft(),  sim.getLeftDistance());
+            checkSensor(sim, sim.getRight(), sim.getRightDistance());
+        }
+    }
+
+    private static void checkSensor(Simulation sim, SectorSweepSensor s, float policyInput) {
+        float[] d = s.getRayDistances();
+        float min = Float.POSITIVE_INFINITY;
+        for (float v : d) min = Math.min(min, v);
+        assertEquals(s.getCenterDistance(), policyInput, 0f);
+        assertEquals(min, s.getLastBatchMin(), 0f, "whole sector swept this tick");
+        // 正中那根就是原来的单根前向射线（只差 cos/sin 的取法）
+        Pose p = s.pose();
+        float ray = sim.getTrack().world().distanceToCollisionForward(p.getX(), p.getY(), p.getHeadingRad(), Simulation.RAY_MAX);
+        assertTrue(Math.abs(ray - policyInput) < 0.05f + 0.01f * ray, ray + " vs " + policyInput);
+    }
+
+    @Test
+    void restoredSnapshotReplaysBitIdentically() {
+        Simulation sim = new Simulation(Track.load(MAP));
+        sim.run(700, DT);
+        SimSnapshot snap = new SimSnapshot().save(sim);
+
+        float[][] first = trajectory(sim, 900);
+        snap.restore(sim);
+        float[][] again = trajectory(sim, 900);
+        for (int i = 0; i < first.length; i++) assertArrayEquals(first[i], again[i], "tick " + i);
+        assertEquals(700 + 900, sim.getTicks());
+    }
+
+    @Test
+    void stateMovesAcrossInstancesWithEveryComponent() {
+        Track track = Track.load(MAP);
+        Simulation a = new Simulation(track);
+        a.run(1234, DT);
+        ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+        a.writeState(buf);
+        byte[] written = Arrays.copyOf(buf.array(), buf.position());
+
+        Simulation b = new Simulation(track);
+        b.readState(buf.flip());
+        assertEquals(0, buf.remaining(), "readState consumes exactly what writeState wrote");
+
+        // 恢复后再写一遍，逐字节相同：位姿、命令队列、策略、三个扫描传感器的滤波、统计量都还原了
+        ByteBuffer again = ByteBuffer.allocate(1 << 16);
+        b.writeState(again);
+        assertArrayEquals(written, Arrays.copyOf(again.array(), again.position()));
+        assertEquals(a.getFront().getDistanceFiltered(), b.getFront().getDistanceFiltered(), 0f);
+
+        float[][] ta = trajectory(a, 600), tb = trajectory(b, 600);
+        for (int i = 0; i < ta.length; i++) assertArrayEquals(ta[i], tb[i], "tick " + i);
+        assertEquals(a.getCollisionCount(), b.getCollisionCount());
+        assertEquals(a.getDistance(), b.getDistance(), 0.0);
+    }
+
+    /** 跑 n 步，每步记下位姿、测距和滤波读数 */
+    private static float[][] trajectory(Simulation sim, int n) {
+        float[][] out = new float[n][];
+        for (int i = 0; i < n; i++) {
+            sim.step(DT);
+            Pose p = sim.getPose();
+            out[i] = new float[]{p.getX(), p.getY(), p.getHeadingRad(), p.getSpeed(),
+                sim.getFrontDistance(), sim.getLeftDistance(), sim.getRightDistance(),
+                sim.getFront().getDistanceFiltered()};
+        }
+        return out;
+    }
+}
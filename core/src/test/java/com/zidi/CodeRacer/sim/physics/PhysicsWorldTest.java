@@ -0,0 +1,146 @@
+package com.zidi.CodeRacer.sim.physics;
+
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.MapProperties;
+import com.badlogic.gdx.maps.objects.RectangleMapObject;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.zidi.CodeRacer.Commons.utils.TiledWorldUtils;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.vehicle.components.wheel.Wheel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多车接触：240 辆车挤在一个封闭场地里满油门，大部分朝场地中心对冲，每 4 辆有一辆背对中心去撞墙。
+ * 检查车-车、车-墙接触都被计数，没有车穿墙或互相穿透，关掉车-车碰撞后只剩撞墙。
+ */
+class PhysicsWorldTest {
+
+    private static final float DT = 1f / 60f;
+    private static final int TILE_PX = 16;
+    private static final int CARS = 240, PER_ROW = 16;
+    private static final float SPACING = 1.5f;      // 初始间距（tile），车长 0.9
+    private static final int SIDE = 32;             // 场地边长（tile），四周一圈 1 tile 厚的墙
+
+    @Test
+    void crowdCollidesWithoutTunnelingOrOverlap() {
+        PhysicsWorld world = crowd(true);
+        try {
+            run(world, 360);
+            int carHits = 0, wallHits = 0;
+            for (int i = 0; i < world.size(); i++) {
+                PhysicsCar car = world.car(i);
+                carHits += car.getCarHits();
+                wallHits += car.getWallHits();
+                assertInsideArena(car, i);
+            }
+            assertTrue(carHits > CARS, "car-car contacts " + carHits);
+            assertTrue(wallHits > 0, "wall contacts " + wallHits);
+
+            // 车宽 0.45：两车中心贴到这个距离以内就是穿透了（Box2D 的 slop 只有 0.005）
+            float minDist = Float.MAX_VALUE;
+            for (int i = 0; i < world.size(); i++) {
+                Pose a = world.car(i).pose();
+                for (int j = i + 1; j < world.size(); j++) {
+                    Pose b = world.car(j).pose();
+                    minDist = Math.min(minDist, (float) Math.hypot(a.getX() - b.getX(), a.getY() - b.getY()));
+                }
+            }
+            assertTrue(minDist > 0.3f, "cars overlap, min center distance " + minDist);
+        } finally {
+            world.dispose();
+        }
+    }
+
+    @Test
+    void carContactsCanBeFilteredOut() {
+        PhysicsWorld world = crowd(false);
+        try {
+            run(world, 360);
+            int wallHits = 0;
+            for (int i = 0; i < world.size(); i++) {
+                PhysicsCar car = world.car(i);
+                assertEquals(0, car.getCarHits(), "car " + i);
+                wallHits += car.getWallHits();
+                assertInsideArena(car, i);
+            }
+            assertTrue(wallHits > 0, "wall contacts " + wallHits);
+        } finally {
+            world.dispose();
+        }
+    }
+
+    @Test
+    void parkedCarsFallAsleepAndWakeWhenHit() {
+        PhysicsWorld world = crowd(true);
+        try {
+            for (int i = 0; i < world.size(); i++) world.car(i).apply(0f, 0f, 1f);
+            for (int i = 0; i < 180; i++) world.step(DT);
+            assertEquals(0, world.awakeCount(), "parked crowd should sleep");
+
+            // 只让一辆朝里的车冲进车群：被撞到的车会醒
+            PhysicsCar rammer = world.car(1);
+            rammer.apply(0f, 1f, 0f);
+            for (int i = 0; i < 120; i++) world.step(DT);
+            assertTrue(rammer.getCarHits() > 0, "rammer never hit anyone");
+            int woken = 0;
+            for (int i = 0; i < world.size(); i++) if (i != 1 && world.car(i).getCarHits() > 0) woken++;
+            assertTrue(woken > 0, "nobody was hit");
+        } finally {
+            world.dispose();
+        }
+    }
+
+    private static void run(PhysicsWorld world, int steps) {
+        for (int i = 0; i < world.size(); i++) world.car(i).apply(0f, 1f, 0f);
+        for (int s = 0; s < steps; s++) world.step(DT);
+    }
+
+    private static void assertInsideArena(PhysicsCar car, int i) {
+        float x = car.getX(), y = car.getY();
+        assertFalse(Float.isNaN(x) || Float.isNaN(y) || Float.isNaN(car.getHeading()), "car " + i + " NaN");
+        assertTrue(x > 1f && x < SIDE - 1f && y > 1f && y < SIDE - 1f, "car " + i + " left the arena at " + x + "," + y);
+    }
+
+    /** CARS 辆车排成方阵，车头朝场地中心，每 4 辆有一辆朝外 */
+    private static PhysicsWorld crowd(boolean carContacts) {
+        TiledWorldUtils map = new TiledWorldUtils(arena(), 1f / TILE_PX, SIDE * TILE_PX);
+        PhysicsWorld.Config d = PhysicsWorld.Config.defaults();
+        PhysicsWorld world = new PhysicsWorld(map, new PhysicsWorld.Config(d.metersPerUnit(), d.velocityIterations(),
+            d.positionIterations(), carContacts, d.continuous(), d.sleeping()));
+        int rows = (CARS + PER_ROW - 1) / PER_ROW;
+        float x0 = 0.5f * (SIDE - (PER_ROW - 1) * SPACING), y0 = 0.5f * (SIDE - (rows - 1) * SPACING);
+        float c = 0.5f * SIDE;
+        for (int i = 0; i < CARS; i++) {
+            float x = x0 + SPACING * (i % PER_ROW), y = y0 + SPACING * (i / PER_ROW);
+            float heading = (float) Math.atan2(c - y, c - x) + (i % 4 == 0 ? (float) Math.PI : 0f);
+            Wheel[] wheels = new Wheel[PhysicsCar.WHEELS];
+            for (int k = 0; k < wheels.length; k++) wheels[k] = new WoodenWheel("t-wheel", "Wheel", "test", 5, 5);
+            world.addCar(new Pose(x, y, heading, 0f), PhysicsCar.Spec.defaults(), wheels);
+        }
+        return world;
+    }
+
+    /** 只有四周一圈墙的空场地 */
+    private static TiledMap arena() {
+        TiledMap map = new TiledMap();
+        MapProperties p = map.getProperties();
+        p.put("width", SIDE);
+        p.put("height", SIDE);
+        p.put("tilewidth", TILE_PX);
+        p.put("tileheight", TILE_PX);
+        MapLayer layer = new MapLayer();
+        layer.setName("Collision");
+        float s = SIDE * TILE_PX, t = TILE_PX;
+        layer.getObjects().add(new RectangleMapObject(0, 0, s, t));
+        layer.getObjects().add(new RectangleMapObject(0, s - t, s, t));
+        layer.getObjects().add(new RectangleMapObject(0, 0, t, s));
+        layer.getObjects().add(new RectangleMapObject(s - t, 0, t, s));
+        map.getLayers().add(layer);
+        return map;
+    }
+}
@@ -0,0 +1,59 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import com.zidi.CodeRacer.sim.EpisodeSpec;
+import com.zidi.CodeRacer.sim.Simulation;
+import com.zidi.CodeRacer.sim.Track;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TraceFormatTest {
+
+    private static final File MAP = new File("lwjgl3/src/main/resources/Maps/circuit_04.tmx");
+
+    @Test
+    void headerRoundTripsAtTheByteLimit() {
+        TraceHeader h = header("a".repeat(TraceFormat.MAX_NAME_BYTES));
+        ByteBuffer b = ByteBuffer.allocate(TraceFormat.headerBytes(h));
+        TraceFormat.writeHeader(b, h);
+        assertEquals(0, b.remaining());
+        assertEquals(h, TraceFormat.readHeader(b.flip()));
+    }
+
+    @Test
+    void multiByteNamesAreLimitedByUtf8Length() {
+        // 3 万个汉字不到 Short.MAX_VALUE 个字符，但 UTF-8 约 90 KB，长度字段会回绕
+        TraceHeader h = header("赛".repeat(30_000));
+        assertThrows(IllegalArgumentException.class, () -> TraceFormat.headerBytes(h));
+        assertThrows(IllegalArgumentException.class, () -> TraceFormat.writeHeader(ByteBuffer.allocate(1 << 17), h));
+
+        TraceHeader ok = header("赛道".repeat(TraceFormat.MAX_NAME_BYTES / 6));
+        ByteBuffer b = ByteBuffer.allocate(TraceFormat.headerBytes(ok));
+        TraceFormat.writeHeader(b, ok);
+        assertEquals(ok, TraceFormat.readHeader(b.flip()));
+    }
+
+    @Test
+    void recordedSessionReplaysBitExactly(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("s.trace");
+        Simulation sim = new Simulation(Track.load(MAP));
+        float dt = EpisodeSpec.DEFAULT_DT;
+        try (TraceWriter w = new TraceWriter(file, sim, dt)) {
+            for (int i = 0; i < 2000; i++) {
+                sim.step(dt);
+                w.record(sim);
+            }
+        }
+        assertEquals(-1, TraceTool.replay(MAP, file));
+    }
+
+    private static TraceHeader header(String name) {
+        return new TraceHeader(name, 1f / 60f, 256, 1f, 2f, 0.5f);
+    }
+}
@@ -0,0 +1,117 @@
+package com.zidi.CodeRacer.sim.trace;
+
+import com.zidi.CodeRacer.sim.EpisodeSpec;
+import com.zidi.CodeRacer.sim.Simulation;
+import com.zidi.CodeRacer.sim.Track;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceScrubberTest {
+
+    private static final File MAP = new File("lwjgl3/src/main/resources/Maps/circuit_04.tmx");
+    private static final int TICKS = 1500;
+
+    @TempDir
+    static Path dir;
+    private static Path file;
+    private static final List<TraceFrame> frames = new ArrayList<>();
+
+    @BeforeAll
+    static void record() throws Exception {
+        file = dir.resolve("s.trace");
+        Simulation sim = new Simulation(Track.load(MAP));
+        float dt = EpisodeSpec.DEFAULT_DT;
+        try (TraceWriter w = new TraceWriter(file, sim, dt, 64)) {
+            for (int i = 0; i < TICKS; i++) {
+                sim.step(dt);
+                w.record(sim);
+                frames.add(new TraceFrame().capture(sim));
+            }
+        }
+    }
+
+    @Test
+    void playsEveryFrameInOrderAndPausesAtTheEnd() throws Exception {
+        try (TraceScrubber s = new TraceScrubber(file)) {
+            assertEquals(-1, s.tick());
+            for (int i = 0; i < TICKS; i++) {
+                assertTrue(s.advance());
+                assertFrame(i, s.frame());
+                assertEquals(i == 0 ? 0 : i - 1, s.previous().tick());
+            }
+            assertTrue(s.atEnd());
+            assertFalse(s.advance());
+            assertFalse(s.isPlaying());
+            s.play();
+            assertFalse(s.isPlaying(), "play at the end stays paused");
+        }
+    }
+
+    @Test
+    void seeksAnywhereAndResumesFromThere() throws Exception {
+        try (TraceScrubber s = new TraceScrubber(file)) {
+            for (long t : new long[]{1000, 3, 63, 64, 65, 1499, 0, 700}) {
+                assertTrue(s.seek(t));
+                assertFrame((int) t, s.frame());
+                assertEquals(t, s.previous().tick(), "no interpolation across a jump");
+            }
+            s.seek(700);
+            for (int i = 701; i < 760; i++) {
+                assertTrue(s.advance());
+                assertFrame(i, s.frame());
+            }
+        }
+    }
+
+    @Test
+    void relativeAndFractionalSeeksClamp() throws Exception {
+        try (TraceScrubber s = new TraceScrubber(file)) {
+            s.seekFraction(0.5f);
+            assertEquals(Math.round(0.5 * (TICKS - 1)), s.tick());
+            s.stepBySeconds(-1f);
+            assertEquals(Math.round(0.5 * (TICKS - 1)) - 60, s.tick());
+            s.stepBy(-100_000);
+            assertEquals(0, s.tick());
+            assertEquals(0f, s.fraction(), 0f);
+            s.seekFraction(2f);
+            assertEquals(TICKS - 1, s.tick());
+            assertEquals(1f, s.fraction(), 0f);
+            s.stepBy(1);
+            assertEquals(TICKS - 1, s.tick());
+        }
+    }
+
+    @Test
+    void pausedScrubberDoesNotAdvance() throws Exception {
+        try (TraceScrubber s = new TraceScrubber(file)) {
+            s.seek(10);
+            s.pause();
+            assertFalse(s.advance());
+            assertEquals(10, s.tick());
+            s.toggle();
+            assertTrue(s.advance());
+            assertEquals(11, s.tick());
+        }
+    }
+
+    private static void assertFrame(int tick, TraceFrame f) {
+        TraceFrame e = frames.get(tick);
+        assertEquals(tick, f.tick());
+        assertEquals(e.x(), f.x(), 0f);
+        assertEquals(e.y(), f.y(), 0f);
+        assertEquals(e.heading(), f.heading(), 0f);
+        assertEquals(e.dF(), f.dF(), 0f);
+        assertEquals(e.decision(), f.decision());
+        assertEquals(e.command(), f.command());
+    }
+}
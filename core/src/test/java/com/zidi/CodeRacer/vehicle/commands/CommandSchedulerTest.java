@@ -0,0 +1,316 @@
+package com.zidi.CodeRacer.vehicle.commands;
+
+import com.zidi.CodeRacer.vehicle.commands.Impl.MoveForwardCommentImpl;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnLeft90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.TurnRight90Command;
+import com.zidi.CodeRacer.vehicle.commands.Impl.WaitCommand;
+import com.zidi.CodeRacer.vehicle.components.frame.Impl.WoodenFrame;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.vehicle.runtime.VehicleContext;
+import com.zidi.CodeRacer.vehicle.runtime.adapters.FrameVehicleContext;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CommandSchedulerTest {
+
+    private static final float DT = 1f / 60f;
+
+    @Test
+    void allMaskMovesTheFullNonRoundDistance() {
+        VehicleContext car = context();
+        CommandScheduler s = new CommandScheduler();
+        s.add(new MoveForwardCommentImpl(0.25f, 0.1f), CommandScheduler.ALL);
+        for (int i = 0; i < 10 && !s.isIdle(); i++) s.update(DT, car);
+        assertTrue(s.isIdle());
+        assertEquals(0.25f, car.getX() - 1f, 1e-6f);
+    }
+
+    @Test
+    void allMaskMatchesCommandRunner() {
+        List<Supplier<VehicleCommand>> plan = List.of(
+            () -> new MoveForwardCommentImpl(0.25f, 0.1f),
+            () -> new TurnLeft90Command(-1),
+            () -> new MoveForwardCommentImpl(0.37f, 0.1f),
+            () -> new WaitCommand(0.1f),
+            () -> new TurnRight90Command(-1),
+            () -> new MoveForwardCommentImpl(1.05f, 0.2f));
+
+        VehicleContext a = context(), b = context();
+        CommandRunner runner = new CommandRunner();
+        CommandScheduler sched = new CommandScheduler();
+        for (Supplier<VehicleCommand> p : plan) {
+            runner.addCommand(p.get());
+            sched.add(p.get(), CommandScheduler.ALL);
+        }
+        for (int i = 0; i < 600; i++) {
+            runner.update(DT, a);
+            sched.update(DT, b);
+            assertEquals(a.getX(), b.getX(), 0f, "x at tick " + i);
+            assertEquals(a.getY(), b.getY(), 0f, "y at tick " + i);
+            assertEquals(a.getHeading(), b.getHeading(), 0f, "heading at tick " + i);
+            assertEquals(runner.isIdle(), sched.isIdle(), "idle at tick " + i);
+        }
+        assertTrue(sched.isIdle());
+    }
+
+    @Test
+    void rejectsMasksThatWouldDropBuiltInControls() {
+        CommandScheduler s = new CommandScheduler();
+        assertThrows(IllegalArgumentException.class, () -> s.add(new TurnLeft90Command(-1), CommandScheduler.STEERING));
+        assertThrows(IllegalArgumentException.class, () -> s.add(new TurnLeft90Command(-1), CommandScheduler.LONGITUDINAL));
+        assertThrows(IllegalArgumentException.class, () -> s.add(new MoveForwardCommentImpl(), CommandScheduler.STEERING));
+        assertThrows(IllegalArgumentException.class, () -> s.add(new MoveForwardCommentImpl(), CommandScheduler.AUX));
+        assertDoesNotThrow(() -> s.add(new TurnLeft90Command(-1), CommandScheduler.DRIVE));
+        assertDoesNotThrow(() -> s.add(new MoveForwardCommentImpl(), CommandScheduler.LONGITUDINAL));
+        assertDoesNotThrow(() -> s.add(new WaitCommand(0.1f), CommandScheduler.AUX));
+    }
+
+    @Test
+    void higherPriorityPreemptsAndEndsTheWholeCommand() {
+        List<String> log = new ArrayList<>();
+        Recorder car = new Recorder(false);
+        CommandScheduler s = new CommandScheduler();
+        Probe turn = new Probe("turn", log, -1, 0.1f, 0.5f, 0f);
+        s.add(turn, CommandScheduler.DRIVE);
+        s.update(DT, car);
+        assertEquals(List.of("turn.start", "turn.exec"), log);
+        log.clear();
+
+        // 同级不抢占，排队
+        Probe same = new Probe("same", log, 1, 0f, 0f, 0f);
+        s.add(same, CommandScheduler.LONGITUDINAL, CommandScheduler.NORMAL);
+        s.update(DT, car);
+        assertEquals(List.of("turn.exec"), log);
+        log.clear();
+
+        // 纵向上的急刹抢占 DRIVE 上的转弯：转弯 onEnd，两条通道都让出来
+        Probe brake = new Probe("brake", log, -1, 0f, 0f, 1f);
+        s.add(brake, CommandScheduler.LONGITUDINAL, 5);
+        s.update(DT, car);
+        assertEquals(List.of("turn.end", "brake.start", "brake.exec"), log);
+        assertNull(s.getCurrent(CommandScheduler.STEERING));
+        assertSame(brake, s.getCurrent(CommandScheduler.LONGITUDINAL));
+        assertEquals(5, s.getCurrentPriority(CommandScheduler.LONGITUDINAL));
+        assertEquals(1, s.queuedCount());
+        assertTrue(s.isIdle(CommandScheduler.STEERING));
+        assertFalse(s.isIdle(CommandScheduler.LONGITUDINAL));
+    }
+
+    @Test
+    void multiChannelCommandWaitsAndReservesItsChannels() {
+        List<String> log = new ArrayList<>();
+        Recorder car = new Recorder(false);
+        CommandScheduler s = new CommandScheduler();
+        int both = CommandScheduler.LONGITUDINAL | CommandScheduler.AUX;
+        s.add(new Probe("long", log, 3, 0f, 0.2f, 0f), CommandScheduler.LONGITUDINAL);
+        s.update(DT, car);
+        s.add(new Probe("both", log, 2, 0f, 0.1f, 0f), both);
+        s.add(new Probe("aux", log, 1, 0f, 0f, 0f), CommandScheduler.AUX);
+
+        // AUX 空着，但 both 先到、在等 LONGITUDINAL，后到的同级 aux 不能先占 AUX
+        s.update(DT, car);
+        assertNull(s.getCurrent(CommandScheduler.AUX));
+        assertEquals(2, s.queuedCount());
+        s.update(DT, car);
+        assertEquals(List.of("long.start", "long.exec", "long.exec", "long.exec", "long.end"), log);
+        log.clear();
+
+        s.update(DT, car);
+        assertEquals(List.of("both.start", "both.exec"), log);
+        assertSame(s.getCurrent(CommandScheduler.LONGITUDINAL), s.getCurrent(CommandScheduler.AUX));
+        s.update(DT, car);
+        s.update(DT, car);
+        assertEquals(List.of("both.start", "both.exec", "both.exec", "both.end", "aux.start", "aux.exec", "aux.end"), log);
+        assertTrue(s.isIdle());
+    }
+
+    @Test
+    void steeringAndLongitudinalRunInParallel() {
+        for (boolean holds : new boolean[] { false, true }) {
+            List<String> log = new ArrayList<>();
+            Recorder car = new Recorder(holds);
+            CommandScheduler s = new CommandScheduler();
+            s.add(new Probe("steer", log, -1, 0.3f, 0.9f, 0.9f), CommandScheduler.STEERING);
+            s.add(new Probe("speed", log, -1, 0.7f, 0.5f, 0.1f), CommandScheduler.LONGITUDINAL);
+            s.update(DT, car);
+            assertEquals(List.of("steer.start", "speed.start", "steer.exec", "speed.exec"), log);
+            if (holds) {
+                // 设定型：合并成一次，谁也不把对方清零
+                assertEquals(1, car.applied.size());
+                assertArrayEquals(new float[] { 0.3f, 0.5f, 0.1f }, car.applied.get(0));
+            } else {
+                // 累加型：按原顺序逐次转发，只留各自通道的分量
+                assertEquals(2, car.applied.size());
+                assertArrayEquals(new float[] { 0.3f, 0f, 0f }, car.applied.get(0));
+                assertArrayEquals(new float[] { 0f, 0.5f, 0.1f }, car.applied.get(1));
+            }
+        }
+    }
+
+    @Test
+    void idleTickDoesNotTouchAStatefulCar() {
+        Recorder car = new Recorder(true);
+        CommandScheduler s = new CommandScheduler();
+        s.add(new Probe("aux", new ArrayList<>(), 2, 0.5f, 0.5f, 0.5f), CommandScheduler.AUX);
+        s.update(DT, car);
+        s.update(DT, car);
+        assertTrue(s.isIdle());
+        assertTrue(car.applied.isEmpty());
+    }
+
+    @Test
+    void interruptEndsRunningCommandsAndKeepsTheQueue() {
+        List<String> log = new ArrayList<>();
+        Recorder car = new Recorder(true);
+        CommandScheduler s = new CommandScheduler();
+        s.add(new Probe("turn", log, -1, 0.2f, 0.4f, 0f), CommandScheduler.DRIVE);
+        s.add(new Probe("next", log, -1, 0f, 0f, 0f), CommandScheduler.STEERING);
+        s.update(DT, car);
+        car.applied.clear();
+        log.clear();
+
+        s.interrupt(CommandScheduler.STEERING, car);
+        assertEquals(List.of("turn.end"), log);
+        assertTrue(s.isIdle(CommandScheduler.LONGITUDINAL));
+        assertNull(s.getCurrent(CommandScheduler.STEERING));
+        assertEquals(1, s.queuedCount());
+        // onEnd 的 apply 也合并成一次
+        assertEquals(1, car.applied.size());
+        assertArrayEquals(new float[] { 0f, 0f, 1f }, car.applied.get(0));
+
+        s.interrupt(CommandScheduler.ALL, car);     // 没有在跑的命令：什么都不做
+        assertEquals(List.of("turn.end"), log);
+        assertEquals(1, car.applied.size());
+
+        s.update(DT, car);
+        assertEquals(List.of("turn.end", "next.start", "next.exec"), log);
+    }
+
+    @Test
+    void updateRangeSkipsIdleSchedulers() {
+        List<String> log = new ArrayList<>();
+        CommandScheduler[] s = { new CommandScheduler(), new CommandScheduler(), new CommandScheduler() };
+        s[0].add(new Probe("a", log, 1, 0f, 0f, 0f), CommandScheduler.AUX);
+        s[2].add(new Probe("c", log, 1, 0f, 0f, 0f), CommandScheduler.AUX);
+        // 空闲的调度器连上下文都不碰，所以可以给 null
+        VehicleContext[] ctx = { new Recorder(false), null, new Recorder(false) };
+        CommandScheduler.updateRange(s, ctx, 0, 3, DT);
+        assertEquals(List.of("a.start", "a.exec", "a.end", "c.start", "c.exec", "c.end"), log);
+        CommandScheduler.updateRange(s, ctx, 0, 3, DT);
+        assertEquals(6, log.size());
+        assertTrue(s[0].isIdle() && s[1].isIdle() && s[2].isIdle());
+    }
+
+    @Test
+    void snapshotRoundTripContinuesIdentically() {
+        WoodenFrame fa = frame(), fb = frame();
+        VehicleContext a = new FrameVehicleContext(fa), b = new FrameVehicleContext(fb);
+        CommandScheduler sa = new CommandScheduler();
+        sa.add(new MoveForwardCommentImpl(2.5f, 0.1f), CommandScheduler.LONGITUDINAL, 1);
+        sa.add(new WaitCommand(0.4f), CommandScheduler.AUX);
+        sa.add(new TurnLeft90Command(-1), CommandScheduler.DRIVE, 2);
+        sa.add(new MoveForwardCommentImpl(0.6f, 0.1f), CommandScheduler.LONGITUDINAL);
+        sa.add(new TurnRight90Command(-1), CommandScheduler.DRIVE);
+        for (int i = 0; i < 7; i++) sa.update(DT, a);
+
+        ByteBuffer buf = ByteBuffer.allocate(1 << 12);
+        sa.writeState(buf);
+        buf.flip();
+        CommandScheduler sb = new CommandScheduler();
+        sb.add(new WaitCommand(9f), CommandScheduler.ALL);    // readState 要先清掉旧内容
+        sb.readState(buf);
+        assertFalse(buf.hasRemaining());
+        Pose p = fa.pose();
+        fb.pose().set(p.getX(), p.getY(), p.getHeadingRad(), p.getSpeed());
+
+        assertEquals(sa.queuedCount(), sb.queuedCount());
+        for (int ch : new int[] { CommandScheduler.STEERING, CommandScheduler.LONGITUDINAL, CommandScheduler.AUX }) {
+            assertEquals(sa.getCurrentPriority(ch), sb.getCurrentPriority(ch));
+            assertEquals(sa.getCurrent(ch) == null, sb.getCurrent(ch) == null);
+        }
+        for (int i = 0; i < 600; i++) {
+            sa.update(DT, a);
+            sb.update(DT, b);
+            assertEquals(a.getX(), b.getX(), 0f, "x at tick " + i);
+            assertEquals(a.getY(), b.getY(), 0f, "y at tick " + i);
+            assertEquals(a.getHeading(), b.getHeading(), 0f, "heading at tick " + i);
+            assertEquals(sa.isIdle(), sb.isIdle(), "idle at tick " + i);
+        }
+        assertTrue(sb.isIdle());
+    }
+
+    private static WoodenFrame frame() {
+        WoodenFrame frame = new WoodenFrame("t-frame", "Frame", "test", 5, 10);
+        frame.pose().set(1f, 2f, 0f, 0f);
+        return frame;
+    }
+
+    private static VehicleContext context() {
+        return new FrameVehicleContext(frame());
+    }
+
+    /** 记下每次 apply；holds = true 时装成 PhysicsCar 那样的设定型上下文 */
+    private static final class Recorder implements VehicleContext {
+        final boolean holds;
+        final List<float[]> applied = new ArrayList<>();
+
+        Recorder(boolean holds) { this.holds = holds; }
+
+        @Override public void apply(float steer, float throttle, float brake) {
+            applied.add(new float[] { steer, throttle, brake });
+        }
+        @Override public boolean holdsControls() { return holds; }
+        @Override public float getSpeed()   { return 0f; }
+        @Override public float getHeading() { return 0f; }
+        @Override public float getX()       { return 0f; }
+        @Override public float getY()       { return 0f; }
+        @Override public void setPosition(float x, float y) {}
+        @Override public void setHeading(float heading)     {}
+    }
+
+    /** 每帧 apply 固定的控制量，跑 ticks 帧后结束（-1 = 不结束）；onEnd 时松油踩刹车。生命周期记到 log */
+    private static final class Probe implements VehicleCommand {
+        private final String name;
+        private final List<String> log;
+        private final int ticks;
+        private final float steer, throttle, brake;
+        private int done;
+
+        Probe(String name, List<String> log, int ticks, float steer, float throttle, float brake) {
+            this.name = name;
+            this.log = log;
+            this.ticks = ticks;
+            this.steer = steer;
+            this.throttle = throttle;
+            this.brake = brake;
+        }
+
+        @Override public void onStart(VehicleContext ctx) { log.add(name + ".start"); }
+
+        @Override
+        public boolean execute(float dt, VehicleContext ctx) {
+            log.add(name + ".exec");
+            ctx.apply(steer, throttle, brake);
+            return ++done == ticks;
+        }
+
+        @Override
+        public void onEnd(VehicleContext ctx) {
+            log.add(name + ".end");
+            ctx.apply(0f, 0f, 1f);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.zidi.CodeRacer.vehicle.components.engine.Impl;
+
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+import com.zidi.CodeRacer.vehicle.components.wheel.Impl.WoodenWheel;
+import com.zidi.CodeRacer.vehicle.components.wheel.WheelSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DrivetrainIntegratorTest {
+
+    private static final float DT = 1f / 60f;
+
+    private static final EngineSpec ENGINE = new EngineSpec() {
+        @Override public float idleRpm()                     { return 900f; }
+        @Override public float redlineRpm()                  { return 7000f; }
+        @Override public float peakTorqueNm()                { return 180f; }
+        @Override public float peakTorqueRpm()               { return 4200f; }
+        @Override public float inertia()                     { return 0.15f; }
+        @Override public float fullThrottleFuelUnitsPerSec() { return 2f; }
+    };
+
+    private static final WheelSpec WHEEL = new WoodenWheel("t-wheel", "Wheel", "test", 5, 5).spec();
+
+    /** 用 setMaxStep 把步长压到 H_MIN 跑一帧，放开以后步长必须能长回来 */
+    @Test
+    void stepRecoversAfterForcedMinimumStep() {
+        SimpleEngineImpl engine = new SimpleEngineImpl("t-engine", "Engine", "test", 50, 10, ENGINE);
+        DrivetrainIntegrator d = new DrivetrainIntegrator(engine, WHEEL, new DrivetrainIntegrator.Params(900f, 0.5f, 8f, 1.2f));
+        engine.setThrottle(0.3f);
+        for (int t = 0; t < 120; t++) d.step(DT, 1f, 0f);
+
+        d.setMaxStep(0f);                       // 夹到 H_MIN
+        d.step(DT, 1f, 0f);
+        assertTrue(d.lastSubsteps() >= 150, "forced frame took " + d.lastSubsteps());
+
+        d.setMaxStep(Float.MAX_VALUE);
+        int last = 0;
+        for (int t = 0; t < 60; t++) {
+            d.step(DT, 1f, 0f);
+            last = d.lastSubsteps();
+        }
+        assertTrue(last <= 2, "step did not recover, last frame took " + last + " substeps");
+    }
+
+    /** 800 kg 全油门顶到红线、再 1500 Nm 刹停：停住以后仍是一帧一步左右，而不是每秒上万子步 */
+    @Test
+    void stoppedCarTakesAboutOneSubstepPerFrame() {
+        SimpleEngineImpl engine = new SimpleEngineImpl("t-engine", "Engine", "test", 50, 10, ENGINE);
+        DrivetrainIntegrator d = new DrivetrainIntegrator(engine, WHEEL, new DrivetrainIntegrator.Params(800f, 0.5f, 8f, 1.2f));
+        for (int t = 0; t < 600; t++) {
+            engine.setThrottle(1f);
+            d.step(DT, 1f, 0f);
+        }
+        int tail = 0;
+        for (int t = 0; t < 600; t++) {
+            engine.setThrottle(0f);
+            d.step(DT, 1f, 1500f);
+            if (t >= 300) tail += d.lastSubsteps();
+        }
+        assertEquals(0f, d.speed(), 1e-3f);
+        assertTrue(tail <= 2 * 300, "took " + tail + " substeps in 300 frames");
+    }
+
+    /** 自适应结果与 1e-4 s 定步参考解的车速误差（10 s 全油门 + 10 s 刹车） */
+    @Test
+    void adaptiveTracksFixedStepReference() {
+        SimpleEngineImpl ea = new SimpleEngineImpl("t-engine", "Engine", "test", 50, 10, ENGINE);
+        SimpleEngineImpl er = new SimpleEngineImpl("t-engine", "Engine", "test", 50, 10, ENGINE);
+        DrivetrainIntegrator.Params p = new DrivetrainIntegrator.Params(800f, 0.5f, 8f, 1.2f);
+        DrivetrainIntegrator a = new DrivetrainIntegrator(ea, WHEEL, p);
+        DrivetrainIntegrator ref = new DrivetrainIntegrator(er, WHEEL, p).setAdaptive(false).setMaxStep(1e-4f);
+
+        float worst = 0f;
+        for (int t = 0; t < 1200; t++) {
+            boolean braking = t >= 600;
+            ea.setThrottle(braking ? 0f : 1f);
+            er.setThrottle(braking ? 0f : 1f);
+            a.step(DT, 1f, braking ? 1500f : 0f);
+            ref.step(DT, 1f, braking ? 1500f : 0f);
+            worst = Math.max(worst, Math.abs(a.speed() - ref.speed()));
+        }
+        assertTrue(worst < 0.02f, "speed error " + worst);
+    }
+}
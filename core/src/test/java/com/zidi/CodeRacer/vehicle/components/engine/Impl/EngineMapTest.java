@@ -0,0 +1,155 @@
+package com.zidi.CodeRacer.vehicle.components.engine.Impl;
+
+import com.zidi.CodeRacer.vehicle.components.engine.EngineSpec;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EngineMapTest {
+
+    /** 按值相等的规格：两个实例参数相同就该共用一张表 */
+    private record Spec(float idleRpm, float redlineRpm, float peakTorqueNm, float peakTorqueRpm,
+                        float inertia, float fullThrottleFuelUnitsPerSec) implements EngineSpec {}
+
+    private static final Path SAMPLE_TORQUE = Path.of("assets/engines/sample_torque.csv");
+    private static final Path SAMPLE_BSFC = Path.of("assets/engines/sample_bsfc.csv");
+
+    private static float[][] parse(String csv) throws IOException {
+        return EngineMap.parseCsv(new StringReader(csv), "test.csv");
+    }
+
+    // ---------- 解析 ----------
+
+    @Test
+    void parsesHeaderCommentsSeparatorsAndSortsByRpm() throws IOException {
+        float[][] t = parse("# comment\nrpm,torque\n\n3000;150\n1000\t100\n 2000 , 130 \n");
+        assertArrayEquals(new float[] { 1000, 2000, 3000 }, t[0]);
+        assertArrayEquals(new float[] { 100, 130, 150 }, t[1]);
+    }
+
+    @Test
+    void rejectsMalformedTables() {
+        IllegalArgumentException e;
+        e = assertThrows(IllegalArgumentException.class, () -> parse("1000,100\n2000\n"));
+        assertTrue(e.getMessage().startsWith("test.csv:2: need 2 columns"), e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> parse("1000,100\nabc,5\n"));
+        assertTrue(e.getMessage().startsWith("test.csv:2: not a number"), e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> parse("1000,100\n2000,NaN\n"));
+        assertTrue(e.getMessage().startsWith("test.csv:2: not finite"), e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> parse("1000,100\nInfinity,5\n"));
+        assertTrue(e.getMessage().startsWith("test.csv:2: not finite"), e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> parse("rpm,nm\n1000,100\n"));
+        assertTrue(e.getMessage().contains("need at least 2 rows, got 1"), e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> parse("# only comments\n"));
+        assertTrue(e.getMessage().contains("got 0"), e.getMessage());
+        e = assertThrows(IllegalArgumentException.class, () -> parse("1000,100\n2000,120\n1000,90\n"));
+        assertTrue(e.getMessage().contains("duplicate rpm 1000"), e.getMessage());
+    }
+
+    @Test
+    void missingFileIsAnIoError() {
+        assertThrows(IOException.class, () -> EngineMap.readCsv(Path.of("assets/engines/does_not_exist.csv")));
+    }
+
+    // ---------- 插值精度 ----------
+
+    /** 查表与三段式解析曲线的最大差（相对峰值扭矩），按 0.25 rpm 扫一遍 */
+    private static float maxRelativeError(EngineSpec spec) {
+        EngineMap map = EngineMap.compile(spec, null, null);
+        float worst = 0f;
+        for (float rpm = 0f; rpm <= spec.redlineRpm(); rpm += 0.25f) {
+            float err = Math.abs(map.torque(rpm) - EngineMap.baseTorque(spec, rpm));
+            // 怠速处的台阶（0.5 → 0.6 峰值）被抹平在一格里，不算进插值误差
+            float step = spec.redlineRpm() / EngineMap.CELLS;
+            if (Math.abs(rpm - spec.idleRpm()) <= step) continue;
+            worst = Math.max(worst, err / spec.peakTorqueNm());
+        }
+        return worst;
+    }
+
+    /** 峰值转速处折线拐点在一格内线性插值的最大误差：|两侧斜率之差|·格宽/4 */
+    private static float kinkBound(EngineSpec s) {
+        float up = 0.4f * s.peakTorqueNm() / Math.max(1f, s.peakTorqueRpm() - s.idleRpm());
+        float down = -0.6f * s.peakTorqueNm() / Math.max(1f, s.redlineRpm() - s.peakTorqueRpm());
+        return Math.abs(up - down) * (s.redlineRpm() / EngineMap.CELLS) / 4f;
+    }
+
+    @Test
+    void lookupTracksTheAnalyticCurve() {
+        Spec typical = new Spec(900f, 7000f, 150f, 4200f, 0.15f, 2f);
+        assertTrue(maxRelativeError(typical) < 1e-3f, "typical spec error " + maxRelativeError(typical));
+        for (Spec s : new Spec[] { typical, new Spec(900f, 7000f, 150f, 920f, 0.15f, 2f), new Spec(600f, 9000f, 300f, 8800f, 0.2f, 4f) }) {
+            float err = maxRelativeError(s) * s.peakTorqueNm();
+            assertTrue(err <= kinkBound(s) * 1.01f + 1e-3f, s + ": error " + err + " > bound " + kinkBound(s));
+        }
+
+        EngineMap map = EngineMap.compile(typical, null, null);
+        assertEquals(150f, map.torque(4200f), 150f * 1e-3f);
+        assertEquals(0f, map.torque(7000.5f));
+        assertEquals(2f, map.fullThrottleFuelRate(3000f));
+    }
+
+    @Test
+    void tableLookupIsExactForPiecewiseLinearTables() throws IOException {
+        // 节点落在格点上的折线表：编译后查表应与折线本身一致
+        Spec spec = new Spec(800f, 5120f, 100f, 3000f, 0.1f, 1f);
+        float[][] t = parse("0,20\n1280,100\n2560,140\n5120,60\n");
+        EngineMap map = EngineMap.compile(spec, t, null);
+        for (float rpm = 0f; rpm <= 5120f; rpm += 7.3f) {
+            float want = rpm <= 1280f ? 20f + 80f * rpm / 1280f
+                : rpm <= 2560f ? 100f + 40f * (rpm - 1280f) / 1280f
+                : 140f - 80f * (rpm - 2560f) / 2560f;
+            assertEquals(want, map.torque(rpm), 1e-3f, "rpm " + rpm);
+        }
+    }
+
+    @Test
+    void sampleCsvsCompileAndNormaliseFuelToTheSpec() throws IOException {
+        Spec spec = new Spec(800f, 7000f, 152f, 4200f, 0.15f, 3f);
+        float[][] tq = EngineMap.readCsv(SAMPLE_TORQUE), bsfc = EngineMap.readCsv(SAMPLE_BSFC);
+        EngineMap map = EngineMap.compile(spec, tq, bsfc);
+        assertEquals(152f, map.torque(4200f), 0.5f);
+        assertEquals(118f, map.torque(1500f), 0.5f);
+        float peak = 0f;
+        for (float rpm = 0f; rpm <= 7000f; rpm += 10f) {
+            float f = map.fullThrottleFuelRate(rpm);
+            assertTrue(f >= 0f && f <= 3f + 1e-4f, "fuel " + f + " at " + rpm);
+            peak = Math.max(peak, f);
+        }
+        assertEquals(3f, peak, 0.01f);
+        assertTrue(map.fullThrottleFuelRate(1000f) < map.fullThrottleFuelRate(5000f));
+    }
+
+    // ---------- 共享缓存 ----------
+
+    @Test
+    void equalSpecsShareOneMap() {
+        Spec a = new Spec(901f, 6001f, 111f, 3001f, 0.2f, 1.5f);
+        Spec b = new Spec(901f, 6001f, 111f, 3001f, 0.2f, 1.5f);
+        Spec c = new Spec(901f, 6001f, 112f, 3001f, 0.2f, 1.5f);
+        assertSame(EngineMap.of(a), EngineMap.of(b));
+        assertNotSame(EngineMap.of(a), EngineMap.of(c));
+        assertSame(EngineMap.of(a), new SimpleEngineImpl("e1", "E", "", 1, 1, b).map());
+    }
+
+    @Test
+    void loadReplacesTheSharedMapForLaterEngines() throws IOException {
+        Spec spec = new Spec(802f, 7000f, 152f, 4200f, 0.15f, 3f);
+        SimpleEngineImpl before = new SimpleEngineImpl("e1", "E", "", 1, 1, spec);
+        EngineMap loaded = EngineMap.load(spec, SAMPLE_TORQUE, null);
+        assertNotSame(before.map(), loaded);
+        assertSame(loaded, EngineMap.of(spec));
+        assertSame(loaded, new SimpleEngineImpl("e2", "E", "", 1, 1, spec).map());
+        assertEquals(142f, loaded.torque(3000f), 0.5f);                              // 表里的值，不是解析曲线
+        assertEquals(EngineMap.baseTorque(spec, 3000f), before.map().torque(3000f), 0.5f);  // 已建好的车不受影响
+    }
+}
@@ -0,0 +1,97 @@
+package com.zidi.CodeRacer.vehicle.runtime.Impl;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import com.zidi.CodeRacer.vehicle.components.frame.Pose;
+import com.zidi.CodeRacer.world.nav.Path;
+import com.zidi.CodeRacer.world.nav.RacingLine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleUpdaterTest {
+
+    private static final float DT = 1f / 60f;
+
+    /** 半径 r、n 个点的圆，逆时针，目标速度 v */
+    private static RacingLine circle(float r, int n, float v) {
+        List<Vector2> pts = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            float a = MathUtils.PI2 * i / n;
+            pts.add(new Vector2(r * MathUtils.cos(a), r * MathUtils.sin(a)));
+        }
+        float[] speeds = new float[n];
+        Arrays.fill(speeds, v);
+        return new RacingLine(new Path(pts), speeds, MathUtils.PI2 * r / v);
+    }
+
+    /** 圆上第 i 点处、沿切线方向的位姿 */
+    private static Pose onCircle(RacingLine line, int i, float speed) {
+        Vector2 p = line.get(i);
+        return new Pose(p.x, p.y, MathUtils.atan2(p.y, p.x) + MathUtils.HALF_PI, speed);
+    }
+
+    @Test
+    void firstStepLocalizesGlobally() {
+        RacingLine line = circle(20f, 200, 5f);
+        VehicleUpdater u = new VehicleUpdater();
+        assertEquals(-1, u.lineIndex());
+        // 从 0 号点开始搜局部窗口会卡在窗口边上；要一开始就落在 100 号点附近
+        u.step(onCircle(line, 100, 5f), line, DT);
+        assertTrue(Math.abs(u.lineIndex() - 100) <= 1, "index " + u.lineIndex());
+    }
+
+    @Test
+    void relocalizesAfterJumpingAcrossTheLine() {
+        RacingLine line = circle(20f, 200, 5f);
+        VehicleUpdater u = new VehicleUpdater();
+        Pose pose = onCircle(line, 10, 5f);
+        for (int i = 0; i < 30; i++) u.step(pose, line, DT);
+        int before = u.lineIndex();
+        assertTrue(before >= 10 && before < 30, "index " + before);
+
+        pose.set(onCircle(line, 150, 5f));           // 被挪到圈的另一侧（窗口之外）
+        u.step(pose, line, DT);
+        assertTrue(Math.abs(u.lineIndex() - 150) <= 1, "index " + u.lineIndex());
+    }
+
+    @Test
+    void pathAndRacingLineKeepSeparateHints() {
+        RacingLine line = circle(20f, 200, 5f);
+        Path straight = new Path(new ArrayList<>(List.of(new Vector2(0, 0), new Vector2(100, 0))));
+        VehicleUpdater u = new VehicleUpdater();
+        // 在直线上跑一会儿（线段下标 0），再切到赛车线上的 60 号点：不能把 0 当成点下标去局部搜
+        Pose pose = new Pose(5f, 0f, 0f, 3f);
+        for (int i = 0; i < 10; i++) u.step(pose, straight, 3f, DT);
+        Pose onLine = onCircle(line, 60, 5f);
+        u.step(onLine, line, DT);
+        assertTrue(Math.abs(u.lineIndex() - 60) <= 1, "index " + u.lineIndex());
+        // 切回直线：从头全局定位，照样往前开
+        float x0 = pose.getX();
+        u.step(pose, straight, 3f, DT);
+        assertTrue(pose.getX() > x0);
+    }
+
+    @Test
+    void followsTheRacingLineAroundALap() {
+        RacingLine line = circle(20f, 400, 6f);
+        VehicleUpdater u = new VehicleUpdater();
+        Pose pose = onCircle(line, 0, 0f);
+        float maxOff = 0f;
+        int laps = 0, prev = 0;
+        for (int t = 0; t < (int) (2.5f * line.lapTime() / DT); t++) {
+            u.step(pose, line, DT);
+            maxOff = Math.max(maxOff, Math.abs(pose.getPos().len() - 20f));
+            if (u.lineIndex() < prev - line.size() / 2) laps++;
+            prev = u.lineIndex();
+        }
+        assertTrue(laps >= 1, "laps " + laps);
+        assertTrue(maxOff < 0.5f, "max offset " + maxOff);
+        assertEquals(6f, pose.getSpeed(), 0.2f);
+    }
+}
@@ -0,0 +1,142 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CurvePathTest {
+
+    /** 三次贝塞尔在 t 处的点 */
+    private static double[] bez(double[] c, double t) {
+        double u = 1 - t;
+        return new double[] {
+            u * u * u * c[0] + 3 * u * u * t * c[2] + 3 * u * t * t * c[4] + t * t * t * c[6],
+            u * u * u * c[1] + 3 * u * u * t * c[3] + 3 * u * t * t * c[5] + t * t * t * c[7] };
+    }
+
+    /** 密集折线近似的 [0, t] 弧长 */
+    private static double bezLength(double[] c, double t, int steps) {
+        double len = 0;
+        double[] a = bez(c, 0);
+        for (int i = 1; i <= steps; i++) {
+            double[] b = bez(c, t * i / steps);
+            len += Math.hypot(b[0] - a[0], b[1] - a[1]);
+            a = b;
+        }
+        return len;
+    }
+
+    private static final double[] S_CURVE = { 0, 0, 6, 0, -1, 5, 5, 5 };   // 弯得很厉害的一段
+
+    private static CurvePath cubic(double[] c) {
+        return new CurvePath().moveTo((float) c[0], (float) c[1])
+            .cubicTo((float) c[2], (float) c[3], (float) c[4], (float) c[5], (float) c[6], (float) c[7]);
+    }
+
+    @Test
+    void segmentLengthsAreExactForLinesAndArcs() {
+        CurvePath c = new CurvePath().moveTo(0, 0).lineTo(3, 4);
+        assertEquals(5f, c.length(), 1e-6f);
+        c.arc(3, 0, 4, MathUtils.HALF_PI, -MathUtils.PI);      // 从 (3,4) 顺时针半圈到 (3,-4)
+        assertEquals(2, c.segmentCount());                     // 笔已在弧起点，不补直线
+        assertEquals(5f + 4f * MathUtils.PI, c.length(), 1e-5f);
+        Vector2 p = c.pointAt(5f + 2f * MathUtils.PI, new Vector2());
+        assertEquals(7f, p.x, 1e-5f);
+        assertEquals(0f, p.y, 1e-5f);
+        Vector2 t = c.tangentAt(5f + 2f * MathUtils.PI, new Vector2());
+        assertEquals(0f, t.x, 1e-5f);
+        assertEquals(-1f, t.y, 1e-5f);
+
+        // 控制点均分的“直线”三次曲线：长度就是弦长
+        CurvePath straight = new CurvePath().moveTo(0, 0).cubicTo(1, 1, 2, 2, 3, 3);
+        assertEquals(3f * (float) Math.sqrt(2), straight.length(), 1e-5f);
+    }
+
+    @Test
+    void cubicLengthMatchesDenseIntegration() {
+        double want = bezLength(S_CURVE, 1.0, 200_000);
+        assertEquals(want, cubic(S_CURVE).length(), 1e-4 * want);
+    }
+
+    @Test
+    void arcLengthLookupStaysCloseToTheTrueArcLength() {
+        CurvePath c = cubic(S_CURVE);
+        float len = c.length();
+        Vector2 p = new Vector2();
+        double worst = 0;
+        for (int i = 0; i <= 200; i++) {
+            float s = len * i / 200f;
+            c.pointAt(s, p);
+            // 找 pointAt 落在曲线上的参数 t（密集搜），再算 [0, t] 的真实弧长
+            double bestT = 0, bd = Double.MAX_VALUE;
+            for (int k = 0; k <= 20_000; k++) {
+                double t = k / 20_000.0;
+                double[] q = bez(S_CURVE, t);
+                double d = Math.hypot(q[0] - p.x, q[1] - p.y);
+                if (d < bd) { bd = d; bestT = t; }
+            }
+            assertTrue(bd < 1e-3, "pointAt left the curve by " + bd);
+            worst = Math.max(worst, Math.abs(bezLength(S_CURVE, bestT, 4000) - s));
+        }
+        // 16 段查表 + 表内线性插值：弧长误差在长度的 1% 以内
+        assertTrue(worst < 0.01 * len, "worst arc-length error " + worst + " of " + len);
+    }
+
+    @Test
+    void appendingItselfRepeatsTheChain() {
+        // 一圈：直线 + 半圆 + 直线 + 半圆，首尾相接
+        CurvePath lap = new CurvePath().moveTo(0, 0).lineTo(10, 0)
+            .arc(10, 3, 3, -MathUtils.HALF_PI, MathUtils.PI)
+            .lineTo(0, 6)
+            .arc(0, 3, 3, MathUtils.HALF_PI, MathUtils.PI);
+        int segs = lap.segmentCount();
+        float len = lap.length();
+        CurvePath twice = new CurvePath().append(lap);
+        lap.append(lap);
+        assertEquals(2 * segs, lap.segmentCount());
+        assertEquals(2 * len, lap.length(), 1e-4f);
+        Vector2 a = new Vector2(), b = new Vector2(), c = new Vector2();
+        for (int i = 0; i <= 50; i++) {
+            float s = len * i / 50f;
+            lap.pointAt(s, a);
+            lap.pointAt(s + len, b);
+            twice.pointAt(s, c);
+            assertEquals(a.x, b.x, 1e-3f);
+            assertEquals(a.y, b.y, 1e-3f);
+            assertEquals(a.x, c.x, 1e-6f);
+            assertEquals(a.y, c.y, 1e-6f);
+        }
+        // 连着再接几次，数组要扩容也不出错
+        for (int k = 0; k < 4; k++) lap.append(lap);
+        assertEquals(32 * segs, lap.segmentCount());
+        assertEquals(32 * len, lap.length(), 32 * 1e-3f);
+    }
+
+    @Test
+    void appendingAnOpenChainToItselfBridgesTheGap() {
+        CurvePath c = new CurvePath().moveTo(0, 0).lineTo(4, 0);
+        c.append(c);                                           // 笔在 (4,0)，自己的起点在 (0,0)：补一段回去
+        assertEquals(3, c.segmentCount());
+        assertEquals(12f, c.length(), 1e-6f);
+        Vector2 end = c.pointAt(c.length(), new Vector2());
+        assertEquals(4f, end.x, 1e-6f);
+    }
+
+    @Test
+    void samplingWritesOnlyTheRequestedWindow() {
+        CurvePath c = new CurvePath().moveTo(0, 0).lineTo(10, 0);
+        float[] buf = new float[8];
+        assertEquals(4, c.sample(2f, 1f, buf, 4));
+        assertEquals(5f, buf[6], 1e-6f);
+        assertEquals(3, c.sample(8f, 1f, buf, 4));             // 到终点为止
+        Path p = c.toPath(0.3f);
+        assertEquals(10f, p.x(p.size() - 1), 1e-6f);
+        assertEquals(10f, p.length(), 1e-4f);
+        assertThrows(IllegalStateException.class, () -> new CurvePath().lineTo(1, 1));
+        assertThrows(IllegalStateException.class, () -> c.moveTo(1, 1));
+    }
+}
@@ -0,0 +1,166 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.utils.IntArray;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GridPathPlannerTest {
+
+    private static final int[] DX = { 1, -1, 0, 0, 1, 1, -1, -1 };
+    private static final int[] DY = { 0, 0, 1, -1, 1, -1, 1, -1 };
+    private static final double SQRT2 = Math.sqrt(2.0);
+
+    /** 从头搜索的参照：同样的 8 邻接、禁止斜穿墙角，Dijkstra 求 start→goal 的最短代价 */
+    private static double referenceCost(OccupancyGrid grid, int s, int t) {
+        if (grid.isBlocked(s) || grid.isBlocked(t)) return Double.POSITIVE_INFINITY;
+        int cols = grid.cols();
+        double[] d = new double[grid.cellCount()];
+        Arrays.fill(d, Double.POSITIVE_INFINITY);
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        d[s] = 0;
+        open.add(new double[] { 0, s });
+        while (!open.isEmpty()) {
+            double[] e = open.poll();
+            int u = (int) e[1];
+            if (e[0] > d[u]) continue;
+            if (u == t) return d[u];
+            int ux = u % cols, uy = u / cols;
+            for (int k = 0; k < 8; k++) {
+                int vx = ux + DX[k], vy = uy + DY[k];
+                if (!free(grid, vx, vy)) continue;
+                if (k >= 4 && (!free(grid, vx, uy) || !free(grid, ux, vy))) continue;
+                int v = vy * cols + vx;
+                double nd = d[u] + (k >= 4 ? SQRT2 : 1.0);
+                if (nd < d[v]) {
+                    d[v] = nd;
+                    open.add(new double[] { nd, v });
+                }
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    private static boolean free(OccupancyGrid grid, int x, int y) {
+        return grid.inBounds(x, y) && !grid.isBlocked(x, y);
+    }
+
+    /** 格子路径的代价；顺带检查每一步都是合法的一步（相邻、不穿障碍、不斜穿墙角） */
+    private static double pathCost(OccupancyGrid grid, int[] cells) {
+        if (cells == null) return Double.POSITIVE_INFINITY;
+        int cols = grid.cols();
+        double c = 0;
+        for (int i = 1; i < cells.length; i++) {
+            int ax = cells[i - 1] % cols, ay = cells[i - 1] / cols;
+            int bx = cells[i] % cols, by = cells[i] / cols;
+            int dx = Math.abs(bx - ax), dy = Math.abs(by - ay);
+            assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0, "非相邻的一步");
+            assertTrue(free(grid, bx, by), "路径穿过障碍");
+            if (dx + dy == 2) {
+                assertTrue(free(grid, bx, ay) && free(grid, ax, by), "斜穿墙角");
+                c += SQRT2;
+            } else {
+                c += 1.0;
+            }
+        }
+        return c;
+    }
+
+    @Test
+    void incrementalReplansMatchFromScratchSearch() {
+        int checks = 0;
+        for (long seed = 1; seed <= 200; seed++) {
+            Random r = new Random(seed);
+            int w = 12 + r.nextInt(20), h = 12 + r.nextInt(20);
+            OccupancyGrid grid = new OccupancyGrid(w, h, 1f, 0, 0);
+            for (int i = 0; i < w * h / 4; i++) grid.set(r.nextInt(w), r.nextInt(h), true);
+            GridPathPlanner planner = new GridPathPlanner(grid, 0, 0.25f);
+            int goal = grid.cell(r.nextInt(w), r.nextInt(h));
+            int start = grid.cell(r.nextInt(w), r.nextInt(h));
+
+            for (int it = 0; it < 60; it++) {
+                int op = r.nextInt(10);
+                if (op < 4) {
+                    // 栅格变更：增量修补要读变更日志
+                    for (int k = 1 + r.nextInt(4); k > 0; k--) grid.set(r.nextInt(w), r.nextInt(h), r.nextBoolean());
+                } else if (op < 6) {
+                    // 起点沿路径前移：km 累加
+                    int[] c = planner.planCells(start, goal);
+                    if (c != null && c.length > 2) start = c[1 + r.nextInt(Math.min(3, c.length - 2))];
+                } else if (op == 6) {
+                    // 插一次别的 goal：保留的搜索被整体重置
+                    planner.planCells(grid.cell(r.nextInt(w), r.nextInt(h)), grid.cell(r.nextInt(w), r.nextInt(h)));
+                    continue;
+                } else if (op == 7) {
+                    // goal 被占的调用：不搜索，但要吃掉变更日志
+                    int bg = grid.cell(r.nextInt(w), r.nextInt(h));
+                    grid.set(bg % w, bg / w, true);
+                    assertNull(planner.planCells(start, bg));
+                    continue;
+                }
+                double got = pathCost(grid, planner.planCells(start, goal));
+                double want = referenceCost(grid, start, goal);
+                if (Double.isInfinite(want)) assertTrue(Double.isInfinite(got), "seed " + seed + " it " + it);
+                else assertEquals(want, got, 1e-6, "seed " + seed + " it " + it);
+                checks++;
+            }
+        }
+        assertTrue(checks > 5000);
+    }
+
+    @Test
+    void intArrayOverloadMatchesArrayResult() {
+        OccupancyGrid grid = new OccupancyGrid(40, 30, 1f, 0, 0);
+        for (int y = 0; y < 25; y++) grid.set(20, y, true);
+        GridPathPlanner planner = new GridPathPlanner(grid, 0, 0.25f);
+        int s = grid.cell(2, 2), t = grid.cell(37, 3);
+        int[] cells = planner.planCells(s, t);
+        assertNotNull(cells);
+        IntArray out = new IntArray();
+        out.add(-1);                                  // 调用前的内容要被清掉
+        assertTrue(planner.planCells(s, t, out));
+        assertTrue(Arrays.equals(cells, out.toArray()));
+        assertEquals(referenceCost(grid, s, t), pathCost(grid, cells), 1e-6);
+
+        for (int x = 0; x < 40; x++) grid.set(x, 15, true);   // 封死
+        assertTrue(!planner.planCells(s, t, out) && out.size == 0);
+    }
+
+    @Test
+    void openGridPlansWithoutExpandingTheTiePlateau() {
+        // 八邻接空旷网格上 k1 相同的等价最短路成片出现，第二键要让搜索沿一条路直接到起点
+        OccupancyGrid grid = new OccupancyGrid(300, 300, 1f, 0, 0);
+        GridPathPlanner planner = new GridPathPlanner(grid, 0, 0.25f);
+        int s = grid.cell(1, 1);
+        for (int[] q : new int[][] { { 298, 298 }, { 298, 100 }, { 150, 298 } }) {
+            assertNotNull(planner.planCells(s, grid.cell(q[0], q[1])));
+            assertTrue(planner.lastExpanded() < 4 * 300, "expanded " + planner.lastExpanded());
+        }
+    }
+
+    @Test
+    void smoothedPathIsEvenlySpacedAndStaysOffTheWalls() {
+        OccupancyGrid grid = new OccupancyGrid(60, 40, 0.5f, 0, 0);
+        for (int y = 0; y < 30; y++) grid.set(20, y, true);
+        for (int y = 10; y < 40; y++) grid.set(40, y, true);
+        GridPathPlanner planner = new GridPathPlanner(grid, 4, 0.25f);
+        Path p = planner.plan(1.2f, 1.3f, 28.7f, 18.1f);
+        assertNotNull(p);
+        assertEquals(1.2f, p.x(0), 1e-5f);
+        assertEquals(1.3f, p.y(0), 1e-5f);
+        assertEquals(28.7f, p.x(p.size() - 1), 1e-4f);
+        assertEquals(18.1f, p.y(p.size() - 1), 1e-4f);
+        for (int i = 0; i < p.size(); i++) {
+            assertTrue(!grid.isBlockedAt(p.x(i), p.y(i)), "point " + i + " is in a wall");
+            if (i > 0) assertTrue(p.arcLength(i) - p.arcLength(i - 1) <= 0.25f + 1e-4f);
+        }
+        assertTrue(p == planner.plan(1.2f, 1.3f, 28.7f, 18.1f), "same endpoints should hit the cache");
+    }
+}
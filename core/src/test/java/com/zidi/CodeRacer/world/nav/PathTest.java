@@ -0,0 +1,155 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.Vector2;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathTest {
+
+    /** 随机游走折线；偶尔重复一个点（零长度段） */
+    private static Path randomPath(Random r, int n) {
+        float[] xy = new float[2 * n];
+        float x = 0, y = 0, h = 0;
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && r.nextInt(10) != 0) {
+                h += (r.nextFloat() - 0.5f) * 1.5f;
+                float step = 0.2f + r.nextFloat() * 3f;
+                x += step * (float) Math.cos(h);
+                y += step * (float) Math.sin(h);
+            }
+            xy[2 * i] = x;
+            xy[2 * i + 1] = y;
+        }
+        return new Path(xy);
+    }
+
+    private static float bruteNearest(Path p, float px, float py) {
+        Path.Projection pr = new Path.Projection();
+        float best = Float.MAX_VALUE;
+        for (int i = 0; i < p.segments(); i++) best = Math.min(best, p.project(i, px, py, pr));
+        return best;
+    }
+
+    @Test
+    void segmentAtMatchesLinearScan() {
+        Random r = new Random(11);
+        for (int k = 0; k < 50; k++) {
+            Path p = randomPath(r, 2 + r.nextInt(60));
+            float len = p.length();
+            assertEquals(0, p.segmentAt(-1f));
+            assertEquals(0, p.segmentAt(0f));
+            assertEquals(p.size() - 2, p.segmentAt(len));
+            assertEquals(p.size() - 2, p.segmentAt(len + 5f));
+            for (int q = 0; q < 200; q++) {
+                float s = r.nextFloat() * len;
+                int want = 0;
+                for (int i = 0; i < p.size() - 1; i++) if (p.arcLength(i) <= s) want = i;
+                int got = p.segmentAt(s);
+                assertTrue(p.arcLength(got) <= s && s <= p.arcLength(got + 1), "s " + s + " seg " + got);
+                assertEquals(want, got);
+            }
+        }
+    }
+
+    @Test
+    void pointAtLiesOnTheSegmentAtThatArcLength() {
+        Path p = new Path(new float[] { 0, 0, 3, 0, 3, 4 });
+        Vector2 out = new Vector2();
+        assertEquals(new Vector2(1.5f, 0), p.pointAt(1.5f, out));
+        assertEquals(new Vector2(3, 2), p.pointAt(5f, out));
+        assertEquals(new Vector2(0, 0), p.pointAt(-2f, out));
+        assertEquals(new Vector2(3, 4), p.pointAt(99f, out));
+        assertEquals(7f, p.length(), 1e-6f);
+    }
+
+    @Test
+    void nearestLocalMatchesBruteForceInsideTheWindow() {
+        Random r = new Random(12);
+        Path.Projection pr = new Path.Projection(), q = new Path.Projection();
+        for (int k = 0; k < 50; k++) {
+            Path p = randomPath(r, 10 + r.nextInt(80));
+            int last = p.segments() - 1;
+            for (int t = 0; t < 100; t++) {
+                int hint = r.nextInt(last + 1), window = r.nextInt(6);
+                float px = p.x(r.nextInt(p.size())) + (r.nextFloat() - 0.5f) * 4f;
+                float py = p.y(r.nextInt(p.size())) + (r.nextFloat() - 0.5f) * 4f;
+                boolean atEdge = p.nearestLocal(px, py, hint, window, pr);
+
+                int lo = Math.max(0, hint - window), hi = Math.min(last, hint + window);
+                float best = Float.MAX_VALUE;
+                int bestSeg = -1;
+                for (int i = lo; i <= hi; i++) {
+                    float d = p.project(i, px, py, q);
+                    if (d < best) { best = d; bestSeg = i; }
+                }
+                assertEquals(best, pr.dist2, 1e-5f);
+                assertEquals(bestSeg, pr.segment);
+                assertEquals((bestSeg == lo && lo > 0) || (bestSeg == hi && hi < last), atEdge);
+            }
+        }
+    }
+
+    @Test
+    void segmentGridNearestMatchesBruteForce() {
+        Random r = new Random(13);
+        Path.Projection pr = new Path.Projection();
+        for (int k = 0; k < 40; k++) {
+            Path p = randomPath(r, 1 + r.nextInt(300));
+            float minX = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, minY = Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (int i = 0; i < p.size(); i++) {
+                minX = Math.min(minX, p.x(i)); maxX = Math.max(maxX, p.x(i));
+                minY = Math.min(minY, p.y(i)); maxY = Math.max(maxY, p.y(i));
+            }
+            for (int t = 0; t < 300; t++) {
+                // 包围盒外扩一圈也查（网格外的点）
+                float px = minX - 10f + r.nextFloat() * (maxX - minX + 20f);
+                float py = minY - 10f + r.nextFloat() * (maxY - minY + 20f);
+                assertTrue(p.nearest(px, py, pr));
+                float want = bruteNearest(p, px, py);
+                assertEquals(want, pr.dist2, 1e-4f * Math.max(1f, want), "path " + k + " query " + t);
+                // 投影点确实在它报告的那一段上
+                Path.Projection chk = new Path.Projection();
+                p.project(pr.segment, px, py, chk);
+                assertEquals(chk.dist2, pr.dist2, 1e-5f * Math.max(1f, want));
+            }
+        }
+        assertFalse(new Path(new float[0]).nearest(0f, 0f, pr));
+    }
+
+    @Test
+    void samplerRelocalizesWhenTheLocalWindowLosesTrack() {
+        // U 形：两条腿隔 4 个单位，窗口只覆盖一条腿
+        float[] xy = new float[2 * 82];
+        for (int i = 0; i <= 40; i++) { xy[2 * i] = i; xy[2 * i + 1] = 0f; }
+        for (int i = 0; i <= 40; i++) { xy[2 * (41 + i)] = 40 - i; xy[2 * (41 + i) + 1] = 4f; }
+        Path p = new Path(xy);
+        Path.Projection pr = new Path.Projection();
+        int seg = PathSampler.project(p, 10.2f, 0.1f, -1, pr);
+        assertEquals(10, seg);
+        // 瞬移到另一条腿上同一个 x：局部窗口里最近的仍在第一条腿上但离得远，要全局重查
+        seg = PathSampler.project(p, 10.2f, 3.9f, seg, pr);
+        assertEquals(70, seg);                       // 点 70 (x=11) → 点 71 (x=10)
+        assertEquals(0.01f, pr.dist2, 1e-4f);
+    }
+
+    @Test
+    void nearestIndexReusesTheCallersProjection() {
+        Random r = new Random(14);
+        Path p = randomPath(r, 120);
+        Path.Projection pr = new Path.Projection();
+        int hint = 0;
+        for (int t = 0; t < 500; t++) {
+            Vector2 pos = new Vector2(p.x(r.nextInt(p.size())) + r.nextFloat(), p.y(r.nextInt(p.size())) + r.nextFloat());
+            int h = r.nextBoolean() ? -1 : hint;
+            int want = PathSampler.nearestIndex(p, pos, h);
+            hint = PathSampler.nearestIndex(p, pos, h, pr);
+            assertEquals(want, hint);
+            assertEquals(pr.nearestPoint(), hint);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.zidi.CodeRacer.world.nav;
+
+import com.badlogic.gdx.math.MathUtils;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpeedPlannerTest {
+
+    private static final float EPS = 1e-3f;
+    private static final SpeedPlanner.Limits LIMITS = new SpeedPlanner.Limits(0.8f, 0.5f, 9.81f, 15f, 3f, 5f);
+
+    /** 直道 30 → 半径 5 左转 90° → 直道 30 → 半径 3 右转 180° → 直道 10 */
+    private static Path track() {
+        return new CurvePath().moveTo(0, 0).lineTo(30, 0)
+            .arc(30, 5, 5, -MathUtils.HALF_PI, MathUtils.HALF_PI)
+            .lineTo(35, 35)
+            .arc(38, 35, 3, MathUtils.PI, -MathUtils.PI)
+            .lineTo(41, 25)
+            .toPath(0.25f);
+    }
+
+    /**
+     * 逐段检查：横向 v²κ 不超过附着；相邻两点之间的纵向加速度不超过 accel / brake，
+     * 且和横向需求合起来不出摩擦圆（加速看起点的横向，刹车看终点的横向，与规划的约束方向一致）
+     */
+    private static void assertWithinLimits(Path p, float[] kappa, float[] v, float grip, float vMax,
+                                           float accel, float brake, boolean closed) {
+        int n = v.length;
+        for (int i = 0; i < n; i++) {
+            assertTrue(v[i] >= 0f && v[i] <= vMax + EPS, "v[" + i + "] = " + v[i]);
+            float lat = v[i] * v[i] * kappa[i];
+            assertTrue(lat <= grip * (1f + EPS), "lateral " + lat + " > " + grip + " at " + i);
+        }
+        for (int i = 0; i < (closed ? n : n - 1); i++) {
+            int j = (i + 1) % n;
+            float ds = closed ? (float) Math.hypot(p.x(j) - p.x(i), p.y(j) - p.y(i)) : p.arcLength(j) - p.arcLength(i);
+            if (ds <= 0f) continue;
+            float along = (v[j] * v[j] - v[i] * v[i]) / (2f * ds);
+            if (along > 0f) {
+                float cap = Math.min(accel, NavMath.frictionLeft(grip, v[i], kappa[i]));
+                assertTrue(along <= cap + EPS * (1f + cap), "accel " + along + " > " + cap + " at " + i);
+            } else {
+                float cap = Math.min(brake, NavMath.frictionLeft(grip, v[j], kappa[j]));
+                assertTrue(-along <= cap + EPS * (1f + cap), "brake " + -along + " > " + cap + " at " + i);
+            }
+        }
+    }
+
+    @Test
+    void profileRespectsLateralAndLongitudinalLimits() {
+        Path p = track();
+        float[] kappa = SpeedPlanner.curvature(p, SpeedPlanner.CURVATURE_BASE);
+        for (float wet : new float[] { 0f, 0.5f, 1f }) {
+            SpeedPlanner sp = new SpeedPlanner(p, kappa, LIMITS);
+            sp.setWetness(wet);
+            assertEquals(p.size() - 1, sp.update(0, 0f, p.length() + 1f));
+            float[] v = new float[p.size()];
+            for (int i = 0; i < v.length; i++) v[i] = sp.speedAt(i);
+            float grip = MathUtils.lerp(LIMITS.muDry(), LIMITS.muWet(), wet) * LIMITS.gravity();
+            assertWithinLimits(p, kappa, v, grip, LIMITS.vMax(), LIMITS.accel(), LIMITS.brake(), false);
+            assertEquals(0f, v[0]);
+            assertEquals(0f, v[v.length - 1]);
+        }
+    }
+
+    @Test
+    void cornersAreTheBindingConstraint() {
+        Path p = track();
+        SpeedPlanner sp = new SpeedPlanner(p, LIMITS);
+        sp.update(0, 0f, p.length() + 1f);
+        // 半径 3 的弯中间：上限 sqrt(mu g r)
+        float apex = sp.speedAtArc(30f + 5f * MathUtils.HALF_PI + 30f + 3f * MathUtils.HALF_PI);
+        assertEquals((float) Math.sqrt(0.8f * 9.81f * 3f), apex, 0.1f);
+        // 第一条直道足够长，能加到比弯道上限更快
+        assertTrue(sp.speedAtArc(20f) > apex);
+        sp.setWetness(1f);
+        sp.update(0, 0f, p.length() + 1f);
+        assertTrue(sp.speedAtArc(30f + 5f * MathUtils.HALF_PI + 30f + 3f * MathUtils.HALF_PI) < apex);
+    }
+
+    @Test
+    void racingLineProfileRespectsTheSameLimits() {
+        // 闭合的“跑道形”：两条直道 + 两个半圆
+        Path loop = new CurvePath().moveTo(0, 0).lineTo(20, 0)
+            .arc(20, 6, 6, -MathUtils.HALF_PI, MathUtils.PI)
+            .lineTo(0, 12)
+            .arc(0, 6, 6, MathUtils.HALF_PI, MathUtils.PI)
+            .toPath(0.5f);
+        int n = loop.size() - 1;                       // 末点与起点重合，闭环里不重复
+        float[] x = new float[n], y = new float[n], v = new float[n], kappa = new float[n];
+        for (int i = 0; i < n; i++) { x[i] = loop.x(i); y[i] = loop.y(i); }
+        RacingLineOptimizer.Config cfg = new RacingLineOptimizer.Config(0.5f, 0.25f, 0.35f, 0.8f, 9.81f,
+            12f, 3f, 5f, 1, 1, 1, 1);
+        float lap = RacingLineOptimizer.speedProfile(x, y, cfg, v);
+        for (int i = 0; i < n; i++) {
+            int a = (i - 1 + n) % n, b = (i + 1) % n;
+            kappa[i] = Math.abs(NavMath.curvature(x[a], y[a], x[i], y[i], x[b], y[b]));
+        }
+        assertWithinLimits(loop, kappa, v, cfg.mu() * cfg.gravity(), cfg.vMax(), cfg.accel(), cfg.brake(), true);
+        assertTrue(lap > loop.length() / cfg.vMax());
+    }
+
+    @Test
+    void curvatureIsSignedAndMatchesTheRadius() {
+        // 半径 4 的圆上三点，逆时针 = 左转
+        float a0 = 0.3f, a1 = 0.5f, a2 = 0.7f;
+        float k = NavMath.curvature(4 * MathUtils.cos(a0), 4 * MathUtils.sin(a0), 4 * MathUtils.cos(a1),
+            4 * MathUtils.sin(a1), 4 * MathUtils.cos(a2), 4 * MathUtils.sin(a2));
+        assertEquals(0.25f, k, 1e-3f);
+        k = NavMath.curvature(4 * MathUtils.cos(a2), 4 * MathUtils.sin(a2), 4 * MathUtils.cos(a1),
+            4 * MathUtils.sin(a1), 4 * MathUtils.cos(a0), 4 * MathUtils.sin(a0));
+        assertEquals(-0.25f, k, 1e-3f);
+        assertEquals(0f, NavMath.curvature(0, 0, 1, 1, 2, 2));
+        assertEquals(0f, NavMath.curvature(1, 1, 1, 1, 1, 1));
+        assertEquals(5f, NavMath.cornerSpeed(2.5f, -0.1f, 10f), 1e-5f);
+        assertEquals(10f, NavMath.cornerSpeed(2.5f, 0f, 10f));
+        assertEquals(0f, NavMath.frictionLeft(8f, 4f, 0.5f), 1e-6f);
+    }
+}